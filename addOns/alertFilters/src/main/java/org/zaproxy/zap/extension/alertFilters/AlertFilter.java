@@ -23,6 +23,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.logging.log4j.LogManager;
@@ -55,6 +56,12 @@ public class AlertFilter extends Enableable {
     private boolean isEvidenceRegex;
     private Set<String> methods;
 
+    // The compiled regexes, created on first use and discarded if the fields change.
+    private Pattern urlPattern;
+    private Pattern parameterPattern;
+    private Pattern attackPattern;
+    private Pattern evidencePattern;
+
     private static final Logger LOGGER = LogManager.getLogger(AlertFilter.class);
 
     public AlertFilter() {
@@ -206,6 +213,7 @@ public class AlertFilter extends Enableable {
 
     public void setParameter(String parameter) {
         this.parameter = parameter;
+        this.parameterPattern = null;
     }
 
     public boolean isParameterRegex() {
@@ -214,6 +222,7 @@ public class AlertFilter extends Enableable {
 
     public void setParameterRegex(boolean isParameterRegex) {
         this.isParameterRegex = isParameterRegex;
+        this.parameterPattern = null;
     }
 
     public String getUrl() {
@@ -222,6 +231,7 @@ public class AlertFilter extends Enableable {
 
     public void setUrl(String url) {
         this.url = url;
+        this.urlPattern = null;
     }
 
     public boolean isUrlRegex() {
@@ -230,6 +240,7 @@ public class AlertFilter extends Enableable {
 
     public void setUrlRegex(boolean isUrlRegex) {
         this.isUrlRegex = isUrlRegex;
+        this.urlPattern = null;
     }
 
     public String getAttack() {
@@ -238,6 +249,7 @@ public class AlertFilter extends Enableable {
 
     public void setAttack(String attack) {
         this.attack = attack;
+        this.attackPattern = null;
     }
 
     public boolean isAttackRegex() {
@@ -246,6 +258,7 @@ public class AlertFilter extends Enableable {
 
     public void setAttackRegex(boolean isAttackRegex) {
         this.isAttackRegex = isAttackRegex;
+        this.attackPattern = null;
     }
 
     public String getEvidence() {
@@ -254,6 +267,7 @@ public class AlertFilter extends Enableable {
 
     public void setEvidence(String evidence) {
         this.evidence = evidence;
+        this.evidencePattern = null;
     }
 
     public boolean isEvidenceRegex() {
@@ -262,6 +276,7 @@ public class AlertFilter extends Enableable {
 
     public void setEvidenceRegex(boolean isEvidenceRegex) {
         this.isEvidenceRegex = isEvidenceRegex;
+        this.evidencePattern = null;
     }
 
     public Set<String> getMethods() {
@@ -400,18 +415,18 @@ public class AlertFilter extends Enableable {
                 return false;
             }
         }
-        if (!matchesStringOrRegex("URL", getUrl(), isUrlRegex(), alert.getUri())) {
+        if (!matchesStringOrRegex("URL", getUrl(), getUrlPattern(), alert.getUri())) {
             return false;
         }
         if (!matchesStringOrRegex(
-                "Parameter", getParameter(), isParameterRegex(), alert.getParam())) {
+                "Parameter", getParameter(), getParameterPattern(), alert.getParam())) {
             return false;
         }
-        if (!matchesStringOrRegex("Attack", getAttack(), isAttackRegex(), alert.getAttack())) {
+        if (!matchesStringOrRegex("Attack", getAttack(), getAttackPattern(), alert.getAttack())) {
             return false;
         }
         if (!matchesStringOrRegex(
-                "Evidence", getEvidence(), isEvidenceRegex(), alert.getEvidence())) {
+                "Evidence", getEvidence(), getEvidencePattern(), alert.getEvidence())) {
             return false;
         }
         if (!methods.isEmpty() && !methods.contains(alert.getMethod().toUpperCase(Locale.ROOT))) {
@@ -420,11 +435,46 @@ public class AlertFilter extends Enableable {
         return true;
     }
 
+    private Pattern getUrlPattern() {
+        if (urlPattern == null && isUrlRegex) {
+            urlPattern = compile(url);
+        }
+        return urlPattern;
+    }
+
+    private Pattern getParameterPattern() {
+        if (parameterPattern == null && isParameterRegex) {
+            parameterPattern = compile(parameter);
+        }
+        return parameterPattern;
+    }
+
+    private Pattern getAttackPattern() {
+        if (attackPattern == null && isAttackRegex) {
+            attackPattern = compile(attack);
+        }
+        return attackPattern;
+    }
+
+    private Pattern getEvidencePattern() {
+        if (evidencePattern == null && isEvidenceRegex) {
+            evidencePattern = compile(evidence);
+        }
+        return evidencePattern;
+    }
+
+    private static Pattern compile(String regex) {
+        if (regex == null || regex.isEmpty()) {
+            return null;
+        }
+        return Pattern.compile(regex);
+    }
+
     private static boolean matchesStringOrRegex(
-            String paramName, String paramValue, boolean isRegex, String targetValue) {
+            String paramName, String paramValue, Pattern pattern, String targetValue) {
         if (paramValue != null && paramValue.length() > 0) {
-            if (isRegex) {
-                if (!targetValue.matches(paramValue)) {
+            if (pattern != null) {
+                if (!pattern.matcher(targetValue).matches()) {
                     LOGGER.debug(
                             "Filter didn't match {} regex: {} : {}",
                             paramName,
@@ -0,0 +1,116 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.alertFilters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.parosproxy.paros.core.scanner.Alert;
+
+/**
+ * An index of {@link AlertFilter}s by rule ID, to find the filters that might apply to an alert
+ * without going through all of them.
+ *
+ * <p>The candidates are returned in the order the filters were iterated when the index was created.
+ */
+class AlertFilterIndex {
+
+    static final AlertFilterIndex EMPTY = new AlertFilterIndex(Collections.emptyList(), 0);
+
+    private final int version;
+    private final Map<String, List<AlertFilter>> filtersByRuleId;
+    private final Map<AlertFilter, Integer> positions;
+
+    /**
+     * Constructs an {@code AlertFilterIndex} with the given filters.
+     *
+     * @param filters the filters to index.
+     * @param version the version of the filters, to know if the index is up to date.
+     */
+    AlertFilterIndex(Collection<AlertFilter> filters, int version) {
+        this.version = version;
+        filtersByRuleId = new HashMap<>();
+        positions = new IdentityHashMap<>();
+        int position = 0;
+        for (AlertFilter filter : filters) {
+            filtersByRuleId.computeIfAbsent(filter.getRuleId(), k -> new ArrayList<>()).add(filter);
+            positions.putIfAbsent(filter, position++);
+        }
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Tells whether or not there are no filters indexed.
+     *
+     * @return {@code true} if there are no filters, {@code false} otherwise.
+     */
+    boolean isEmpty() {
+        return filtersByRuleId.isEmpty();
+    }
+
+    /**
+     * Gets the filters whose rule ID matches the plugin ID or the alert reference of the given
+     * alert.
+     *
+     * @param alert the alert.
+     * @return the filters, never {@code null}.
+     */
+    List<AlertFilter> getCandidates(Alert alert) {
+        List<AlertFilter> byPluginId =
+                filtersByRuleId.getOrDefault(
+                        String.valueOf(alert.getPluginId()), Collections.emptyList());
+        String alertRef = alert.getAlertRef();
+        if (alertRef == null || alertRef.equals(String.valueOf(alert.getPluginId()))) {
+            return byPluginId;
+        }
+        List<AlertFilter> byAlertRef =
+                filtersByRuleId.getOrDefault(alertRef, Collections.emptyList());
+        if (byAlertRef.isEmpty()) {
+            return byPluginId;
+        }
+        if (byPluginId.isEmpty()) {
+            return byAlertRef;
+        }
+        return merge(byPluginId, byAlertRef);
+    }
+
+    private List<AlertFilter> merge(List<AlertFilter> a, List<AlertFilter> b) {
+        List<AlertFilter> merged = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            if (positions.get(a.get(i)) < positions.get(b.get(j))) {
+                merged.add(a.get(i++));
+            } else {
+                merged.add(b.get(j++));
+            }
+        }
+        merged.addAll(a.subList(i, a.size()));
+        merged.addAll(b.subList(j, b.size()));
+        return merged;
+    }
+}
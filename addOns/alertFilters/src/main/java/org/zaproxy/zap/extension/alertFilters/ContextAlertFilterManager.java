@@ -33,8 +33,17 @@ public class ContextAlertFilterManager {
     /** The context id. */
     private int contextId;
 
-    /** The model. */
-    private List<AlertFilter> alertFilters;
+    /** The model, replaced (never changed in place) each time the alertFilters are changed. */
+    private volatile List<AlertFilter> alertFilters;
+
+    /** The index of the alertFilters, created on demand. */
+    private volatile AlertFilterIndex index = AlertFilterIndex.EMPTY;
+
+    /**
+     * The version of the alertFilters, changed each time they are changed, after the new
+     * alertFilters are published.
+     */
+    private volatile int version;
 
     public ContextAlertFilterManager(int contextId) {
         this.contextId = contextId;
@@ -75,8 +84,9 @@ public class ContextAlertFilterManager {
      * @param alertFilters the alertFilters
      * @return the list
      */
-    public void setAlertFilters(List<AlertFilter> alertFilters) {
+    public synchronized void setAlertFilters(List<AlertFilter> alertFilters) {
         this.alertFilters = new ArrayList<>(alertFilters);
+        this.version++;
     }
 
     /**
@@ -84,8 +94,11 @@ public class ContextAlertFilterManager {
      *
      * @param alertFilter the alertFilter being added
      */
-    public void addAlertFilter(AlertFilter alertFilter) {
-        alertFilters.add(alertFilter);
+    public synchronized void addAlertFilter(AlertFilter alertFilter) {
+        List<AlertFilter> filters = new ArrayList<>(alertFilters);
+        filters.add(alertFilter);
+        this.alertFilters = filters;
+        this.version++;
     }
 
     /**
@@ -93,12 +106,35 @@ public class ContextAlertFilterManager {
      *
      * @param alertFilter the alertFilter being removed
      */
-    public boolean removeAlertFilter(AlertFilter alertFilter) {
-        return alertFilters.remove(alertFilter);
+    public synchronized boolean removeAlertFilter(AlertFilter alertFilter) {
+        List<AlertFilter> filters = new ArrayList<>(alertFilters);
+        if (!filters.remove(alertFilter)) {
+            return false;
+        }
+        this.alertFilters = filters;
+        this.version++;
+        return true;
     }
 
     /** Removes all the alertFilters. */
-    public void removeAllAlertFilters() {
-        this.alertFilters.clear();
+    public synchronized void removeAllAlertFilters() {
+        this.alertFilters = new ArrayList<>();
+        this.version++;
+    }
+
+    /**
+     * Gets the index of the alertFilters.
+     *
+     * @return the index, never {@code null}.
+     */
+    AlertFilterIndex getIndex() {
+        AlertFilterIndex current = index;
+        // Read before the alertFilters, those are published before the version changes.
+        int currentVersion = version;
+        if (current.getVersion() != currentVersion) {
+            current = new AlertFilterIndex(alertFilters, currentVersion);
+            index = current;
+        }
+        return current;
     }
 }
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.commons.configuration.Configuration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -85,6 +86,9 @@ public class ExtensionAlertFilters extends ExtensionAdaptor
 
     private static final int TYPE_ALERT_FILTER = 500; // RecordContext
 
+    /** The number of alerts from which the alerts are matched in parallel. */
+    private static final int PARALLEL_MATCH_THRESHOLD = 1000;
+
     /** The alertFilter panels, mapped to each context. */
     private Map<Integer, ContextAlertFilterPanel> alertFilterPanelsMap = new HashMap<>();
 
@@ -427,8 +431,8 @@ public class ExtensionAlertFilters extends ExtensionAdaptor
     private void handleAlert(Alert alert) {
         String uri = alert.getUri();
         LOGGER.debug("Alert: {} URL: {}", this.lastAlert, uri);
-        // Loop through global rules and apply as necessary
-        for (AlertFilter filter : this.globalAlertFilterParam.getGlobalAlertFilters()) {
+        // Loop through the global rules that might apply and apply as necessary
+        for (AlertFilter filter : this.globalAlertFilterParam.getIndex().getCandidates(alert)) {
             if (filter.appliesToAlert(alert, true)) {
                 updateAlert(alert, filter);
                 return;
@@ -437,14 +441,15 @@ public class ExtensionAlertFilters extends ExtensionAdaptor
 
         // Loop through context rules and apply as necessary..
         for (ContextAlertFilterManager mgr : this.contextManagers.values()) {
+            List<AlertFilter> filters = mgr.getIndex().getCandidates(alert);
+            if (filters.isEmpty()) {
+                continue;
+            }
             Context context = Model.getSingleton().getSession().getContext(mgr.getContextId());
             if (context.isInContext(uri)) {
-                LOGGER.debug(
-                        "Is in context {} got {} filters",
-                        context.getId(),
-                        mgr.getAlertFilters().size());
+                LOGGER.debug("Is in context {} got {} filters", context.getId(), filters.size());
                 // Its in this context
-                for (AlertFilter filter : mgr.getAlertFilters()) {
+                for (AlertFilter filter : filters) {
                     if (filter.appliesToAlert(alert, true)) {
                         updateAlert(alert, filter);
                         return;
@@ -541,16 +546,34 @@ public class ExtensionAlertFilters extends ExtensionAdaptor
     }
 
     public int applyAlertFilter(AlertFilter af, boolean testOnly) {
-        int count = 0;
-        for (Alert alert : getExtAlert().getAllAlerts()) {
-            if (af.appliesToAlert(alert, false)) {
-                if (!testOnly) {
-                    updateAlert(alert, af);
-                }
-                count++;
+        List<Alert> alerts = getMatchingAlerts(af, getExtAlert().getAllAlerts());
+        if (!testOnly) {
+            for (Alert alert : alerts) {
+                updateAlert(alert, af);
             }
         }
-        return count;
+        return alerts.size();
+    }
+
+    /**
+     * Gets the alerts to which the given filter applies.
+     *
+     * <p>Large numbers of alerts are matched in parallel batches, the alerts are returned in the
+     * same order.
+     *
+     * @param af the alert filter.
+     * @param alerts the alerts to match.
+     * @return the matching alerts.
+     */
+    static List<Alert> getMatchingAlerts(AlertFilter af, List<Alert> alerts) {
+        if (alerts.size() < PARALLEL_MATCH_THRESHOLD) {
+            return alerts.stream()
+                    .filter(alert -> af.appliesToAlert(alert, false))
+                    .collect(Collectors.toList());
+        }
+        return alerts.parallelStream()
+                .filter(alert -> af.appliesToAlert(alert, false))
+                .collect(Collectors.toList());
     }
 
     public Set<AlertFilter> getGlobalAlertFilters() {
@@ -61,7 +61,15 @@ public class GlobalAlertFilterParam extends VersionedAbstractParam {
     private static final String CONFIRM_REMOVE_FILTER_KEY =
             GLOBAL_ALERT_FILTERS_BASE_KEY + ".confirmRemoveFilter";
 
-    private Set<AlertFilter> alertFilters = null;
+    private volatile Set<AlertFilter> alertFilters = null;
+
+    private volatile AlertFilterIndex index = AlertFilterIndex.EMPTY;
+
+    /**
+     * The version of the alertFilters, changed each time they are changed, after the new filters
+     * are published.
+     */
+    private volatile int version;
 
     private boolean confirmRemoveFilter = true;
 
@@ -71,8 +79,26 @@ public class GlobalAlertFilterParam extends VersionedAbstractParam {
         return alertFilters;
     }
 
+    /**
+     * Gets the index of the global alert filters.
+     *
+     * @return the index, never {@code null}.
+     */
+    AlertFilterIndex getIndex() {
+        AlertFilterIndex current = index;
+        int currentVersion = version;
+        if (current.getVersion() != currentVersion) {
+            current =
+                    alertFilters == null
+                            ? AlertFilterIndex.EMPTY
+                            : new AlertFilterIndex(alertFilters, currentVersion);
+            index = current;
+        }
+        return current;
+    }
+
     public void deleteGlobalAlertFilters() {
-        alertFilters.clear();
+        this.alertFilters = new HashSet<>();
         this.saveGlobalAlertFilters();
     }
 
@@ -115,6 +141,7 @@ public class GlobalAlertFilterParam extends VersionedAbstractParam {
             getConfig().setProperty(elementBaseKey + FILTER_ENABLED_KEY, filter.isEnabled());
             i++;
         }
+        version++;
     }
 
     public boolean addAlertFilter(AlertFilter alertFilter) {
@@ -122,7 +149,9 @@ public class GlobalAlertFilterParam extends VersionedAbstractParam {
             return false;
         }
 
-        if (this.alertFilters.add(alertFilter)) {
+        Set<AlertFilter> filters = new HashSet<>(alertFilters);
+        if (filters.add(alertFilter)) {
+            this.alertFilters = filters;
             this.saveGlobalAlertFilters();
             return true;
         }
@@ -133,7 +162,9 @@ public class GlobalAlertFilterParam extends VersionedAbstractParam {
         if (alertFilter == null) {
             return false;
         }
-        if (alertFilters.remove(alertFilter)) {
+        Set<AlertFilter> filters = new HashSet<>(alertFilters);
+        if (filters.remove(alertFilter)) {
+            this.alertFilters = filters;
             this.saveGlobalAlertFilters();
             return true;
         }
@@ -151,17 +182,17 @@ public class GlobalAlertFilterParam extends VersionedAbstractParam {
 
     @Override
     protected void parseImpl() {
+        Set<AlertFilter> filters = new HashSet<>();
         try {
             List<HierarchicalConfiguration> fields =
                     ((HierarchicalConfiguration) getConfig())
                             .configurationsAt(ALL_ALERT_FILTERS_KEY);
-            this.alertFilters = new HashSet<>();
             for (HierarchicalConfiguration sub : fields) {
                 Set<String> methods = new HashSet<>();
                 for (HierarchicalConfiguration method : sub.configurationsAt(FILTER_METHOD_KEY)) {
                     methods.add(method.getString(""));
                 }
-                alertFilters.add(
+                filters.add(
                         new AlertFilter(
                                 -1,
                                 sub.getString(FILTER_RULE_ID_KEY),
@@ -180,6 +211,8 @@ public class GlobalAlertFilterParam extends VersionedAbstractParam {
         } catch (ConversionException e) {
             LOGGER.error("Error while loading global alert filters: {}", e.getMessage(), e);
         }
+        this.alertFilters = filters;
+        this.version++;
 
         this.confirmRemoveFilter = getBoolean(CONFIRM_REMOVE_FILTER_KEY, true);
     }
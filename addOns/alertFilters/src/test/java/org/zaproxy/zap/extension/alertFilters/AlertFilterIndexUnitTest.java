@@ -0,0 +1,141 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.alertFilters;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.parosproxy.paros.core.scanner.Alert;
+
+/** Unit test for {@link AlertFilterIndex}. */
+class AlertFilterIndexUnitTest {
+
+    @Test
+    void shouldHaveNoCandidatesIfNoFilterForRule() {
+        // Given
+        AlertFilterIndex index = new AlertFilterIndex(List.of(filter("1"), filter("2-1")), 0);
+        // When
+        List<AlertFilter> candidates = index.getCandidates(alert(3, "3"));
+        // Then
+        assertThat(candidates, is(empty()));
+    }
+
+    @Test
+    void shouldGetCandidatesByPluginId() {
+        // Given
+        AlertFilter af1 = filter("1");
+        AlertFilter af2 = filter("2");
+        AlertFilter af3 = filter("1");
+        AlertFilterIndex index = new AlertFilterIndex(List.of(af1, af2, af3), 0);
+        // When
+        List<AlertFilter> candidates = index.getCandidates(alert(1, "1"));
+        // Then
+        assertThat(candidates, contains(af1, af3));
+    }
+
+    @Test
+    void shouldGetCandidatesByPluginIdAndAlertRefInOrder() {
+        // Given
+        AlertFilter af1 = filter("1-2");
+        AlertFilter af2 = filter("1");
+        AlertFilter af3 = filter("1-3");
+        AlertFilter af4 = filter("1-2");
+        AlertFilterIndex index = new AlertFilterIndex(List.of(af1, af2, af3, af4), 0);
+        // When
+        List<AlertFilter> candidates = index.getCandidates(alert(1, "1-2"));
+        // Then
+        assertThat(candidates, contains(af1, af2, af4));
+    }
+
+    @Test
+    void shouldGetCandidatesEvenIfFilterChanged() {
+        // Given
+        AlertFilter af1 = filter("1");
+        AlertFilter af2 = filter("1-2");
+        AlertFilterIndex index = new AlertFilterIndex(List.of(af1, af2), 0);
+        // When
+        af1.setEnabled(false);
+        af2.setParameter("param");
+        List<AlertFilter> candidates = index.getCandidates(alert(1, "1-2"));
+        // Then
+        assertThat(candidates, contains(af1, af2));
+    }
+
+    @Test
+    void shouldUpdateIndexWhenContextFiltersChange() {
+        // Given
+        ContextAlertFilterManager manager = new ContextAlertFilterManager(1);
+        AlertFilter af1 = filter("1");
+        manager.addAlertFilter(af1);
+        AlertFilterIndex before = manager.getIndex();
+        AlertFilter af2 = filter("1");
+        // When
+        manager.addAlertFilter(af2);
+        // Then
+        assertThat(before.getCandidates(alert(1, "1")), contains(af1));
+        assertThat(manager.getIndex().getCandidates(alert(1, "1")), contains(af1, af2));
+    }
+
+    @Test
+    void shouldUpdateIndexWhenContextFilterRemoved() {
+        // Given
+        ContextAlertFilterManager manager = new ContextAlertFilterManager(1);
+        AlertFilter af1 = filter("1");
+        AlertFilter af2 = filter("1");
+        manager.addAlertFilter(af1);
+        manager.addAlertFilter(af2);
+        manager.getIndex();
+        // When
+        boolean removed = manager.removeAlertFilter(af1);
+        // Then
+        assertThat(removed, is(true));
+        assertThat(manager.getIndex().getCandidates(alert(1, "1")), contains(af2));
+    }
+
+    @Test
+    void shouldKeepIndexIfContextFilterNotRemoved() {
+        // Given
+        ContextAlertFilterManager manager = new ContextAlertFilterManager(1);
+        AlertFilter af1 = filter("1");
+        manager.addAlertFilter(af1);
+        AlertFilterIndex index = manager.getIndex();
+        // When
+        boolean removed = manager.removeAlertFilter(filter("2"));
+        // Then
+        assertThat(removed, is(false));
+        assertThat(manager.getIndex(), is(sameInstance(index)));
+    }
+
+    private static AlertFilter filter(String ruleId) {
+        AlertFilter af = new AlertFilter();
+        af.setEnabled(true);
+        af.setRuleId(ruleId);
+        return af;
+    }
+
+    private static Alert alert(int pluginId, String alertRef) {
+        return Alert.builder().setPluginId(pluginId).setAlertRef(alertRef).build();
+    }
+}
@@ -391,4 +391,38 @@ class AlertFilterUnitTest {
     private static Set<String> set(String... strings) {
         return new HashSet<>(Arrays.asList(strings));
     }
+
+    @Test
+    void shouldApplyChangedRegex() {
+        // Given
+        AlertFilter af = new AlertFilter();
+        af.setEnabled(true);
+        af.setRuleId(String.valueOf(SCAN_RULE_ID));
+        af.setParameter("p.*");
+        af.setParameterRegex(true);
+        boolean appliesBefore = af.appliesToAlert(alert, true);
+        // When
+        af.setParameter("x.*");
+        boolean appliesAfter = af.appliesToAlert(alert, true);
+        // Then
+        assertThat(appliesBefore, is(equalTo(true)));
+        assertThat(appliesAfter, is(equalTo(false)));
+    }
+
+    @Test
+    void shouldNotApplyRegexIfNoLongerRegex() {
+        // Given
+        AlertFilter af = new AlertFilter();
+        af.setEnabled(true);
+        af.setRuleId(String.valueOf(SCAN_RULE_ID));
+        af.setEvidence("e.*");
+        af.setEvidenceRegex(true);
+        boolean appliesBefore = af.appliesToAlert(alert, true);
+        // When
+        af.setEvidenceRegex(false);
+        boolean appliesAfter = af.appliesToAlert(alert, true);
+        // Then
+        assertThat(appliesBefore, is(equalTo(true)));
+        assertThat(appliesAfter, is(equalTo(false)));
+    }
 }
@@ -47,6 +47,7 @@ import org.parosproxy.paros.network.HttpRequestHeader;
 import org.parosproxy.paros.network.HttpStatusCode;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
 import org.zaproxy.addon.commonlib.http.HttpFieldsNames;
+import org.zaproxy.addon.commonlib.http.Soft404Fingerprints;
 import org.zaproxy.zap.extension.custompages.CustomPage;
 import org.zaproxy.zap.model.Context;
 
@@ -132,7 +133,10 @@ public class HiddenFilesScanRule extends AbstractHostPlugin implements CommonAct
                                 && doesBinaryMatch(responseBody, file.getBinary());
                 if (matches && !file.isCustom()) {
                     raiseAlert(testMsg, Alert.CONFIDENCE_HIGH, getRisk(), file);
-                } else if (this.getAlertThreshold().equals(AlertThreshold.LOW) || file.isCustom()) {
+                } else if (file.isCustom()) {
+                    raiseAlert(testMsg, Alert.CONFIDENCE_LOW, getRisk(), file);
+                } else if (this.getAlertThreshold().equals(AlertThreshold.LOW)
+                        && !isLikelyNotFound(testMsg)) {
                     raiseAlert(testMsg, Alert.CONFIDENCE_LOW, getRisk(), file);
                 }
             } else if ((statusCode == HttpStatusCode.UNAUTHORIZED
@@ -159,6 +163,20 @@ public class HiddenFilesScanRule extends AbstractHostPlugin implements CommonAct
         return HttpStatusCode.isSuccess(msg.getResponseHeader().getStatusCode());
     }
 
+    private boolean isLikelyNotFound(HttpMessage msg) {
+        // the fingerprints are shared with other scan rules and messages of the scan
+        try {
+            return Soft404Fingerprints.forScan(getParent())
+                    .isLikelyNotFound(msg, probe -> sendAndReceive(probe, false));
+        } catch (IOException e) {
+            LOGGER.debug(
+                    "Failed to obtain the not found fingerprint for: {}",
+                    msg.getRequestHeader().getURI(),
+                    e);
+            return false;
+        }
+    }
+
     private static String generatePath(String baseUriPath, String hiddenFile) {
         String newPath = "";
         if (baseUriPath == null) {
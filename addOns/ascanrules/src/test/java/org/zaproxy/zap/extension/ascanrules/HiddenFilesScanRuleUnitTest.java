@@ -52,6 +52,7 @@ import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpRequestHeader;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
 import org.zaproxy.addon.commonlib.http.HttpFieldsNames;
+import org.zaproxy.addon.commonlib.http.Soft404Fingerprints;
 import org.zaproxy.zap.extension.ascanrules.HiddenFilesScanRule.HiddenFile;
 import org.zaproxy.zap.testutils.NanoServerHandler;
 import org.zaproxy.zap.testutils.StaticContentServerHandler;
@@ -76,6 +77,7 @@ class HiddenFilesScanRuleUnitTest extends ActiveScannerTest<HiddenFilesScanRule>
     @AfterEach
     void after() {
         HiddenFilesScanRule.setPayloadProvider(null);
+        Soft404Fingerprints.reset();
     }
 
     @Test
@@ -361,6 +363,35 @@ class HiddenFilesScanRuleUnitTest extends ActiveScannerTest<HiddenFilesScanRule>
         assertEquals(rule.getReference(), alert.getReference());
     }
 
+    @Test
+    void shouldNotAlertIfContentStringsDontAllMatchAndResponseIsLikeNotFoundAtLowThreshold()
+            throws HttpMalformedHeaderException {
+        // Given
+        String servePath = "/shouldNotAlert";
+
+        String testPath = "foo/test.php";
+        List<String> contents = Arrays.asList("Site", "StringNotFound");
+        List<String> links = Collections.emptyList();
+        HiddenFile hiddenFile =
+                new HiddenFile(
+                        testPath, contents, Collections.emptyList(), "", links, "test_php", false);
+
+        this.nano.addHandler(new OkResponse(servePath));
+        this.nano.setHandler404(new OkResponse(""));
+
+        HttpMessage msg = this.getHttpMessage(servePath);
+
+        rule.init(msg, this.parent);
+        rule.setAlertThreshold(AlertThreshold.LOW);
+        HiddenFilesScanRule.addTestPayload(hiddenFile);
+
+        // When
+        rule.scan();
+        // Then
+        assertThat(alertsRaised, hasSize(0));
+        assertThat(httpMessagesSent, hasSize(2));
+    }
+
     @ParameterizedTest
     @EnumSource(names = {"MEDIUM", "HIGH"})
     void shouldNotAlertIfContentStringsDontAllMatchWhenNotLowThreshold(AlertThreshold threshold)
@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.commons.httpclient.URI;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
@@ -36,8 +35,11 @@ import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpStatusCode;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.Soft404Fingerprints;
+import org.zaproxy.addon.commonlib.http.Soft404Fingerprints.Fingerprint;
 import org.zaproxy.addon.commonlib.vulnerabilities.Vulnerabilities;
 import org.zaproxy.addon.commonlib.vulnerabilities.Vulnerability;
+import org.zaproxy.zap.users.User;
 
 /**
  * a scan rule that looks for backup files disclosed on the web server
@@ -433,14 +435,10 @@ public class BackupFileDisclosureScanRule extends AbstractAppPlugin
     private void findBackupFile(HttpMessage originalMessage) throws Exception {
 
         try {
-            boolean gives404s = true;
-            boolean parentgives404s = true;
-            byte[] nonexistparentmsgdata = null;
-
             URI originalURI = originalMessage.getRequestHeader().getURI();
 
-            // request a file in the same directory to see how it handles "File not found". Using a
-            // 404? Something else?
+            // how does the server handle "File not found" for a file in the same directory? Using
+            // a 404? Something else?
             String temppath = originalURI.getPath();
             if (temppath == null) temppath = "";
             int slashposition = temppath.lastIndexOf("/");
@@ -449,91 +447,51 @@ public class BackupFileDisclosureScanRule extends AbstractAppPlugin
                 throw new MalformedURLException(
                         "The message has a path with a malformed path component");
             }
-            String filename = originalMessage.getRequestHeader().getURI().getName();
-
-            String randomfilename =
-                    RandomStringUtils.random(
-                            filename.length(), "abcdefghijklmnopqrstuvwxyz0123456789");
-            String randomfilepath = temppath.substring(0, slashposition) + "/" + randomfilename;
-
-            LOGGER.debug("Trying non-existent file: {}", randomfilepath);
-            HttpMessage nonexistfilemsg =
-                    new HttpMessage(
-                            new URI(
-                                    originalURI.getScheme(),
-                                    originalURI.getAuthority(),
-                                    randomfilepath,
-                                    null,
-                                    null));
-            nonexistfilemsg
-                    .getRequestHeader()
-                    .setVersion(getBaseMsg().getRequestHeader().getVersion());
-            setMessageCookies(nonexistfilemsg, originalMessage);
-            sendAndReceive(nonexistfilemsg, false);
-            byte[] nonexistfilemsgdata = nonexistfilemsg.getResponseBody().getBytes();
+            // the non-existent file has no extension, like most of the backup files tried
+            URI nonexistfileuri =
+                    new URI(
+                            originalURI.getScheme(),
+                            originalURI.getAuthority(),
+                            temppath.substring(0, slashposition) + "/file",
+                            null,
+                            null);
+            Soft404Fingerprints.ProbeSender probeSender =
+                    probe -> {
+                        probe.getRequestHeader()
+                                .setVersion(getBaseMsg().getRequestHeader().getVersion());
+                        setMessageCookies(probe, originalMessage);
+                        sendAndReceive(probe, false);
+                    };
+            // the fingerprints are shared with other scan rules and messages of the scan, of the
+            // same directory and user
+            Soft404Fingerprints soft404Fingerprints = Soft404Fingerprints.forScan(getParent());
+            User user = originalMessage.getRequestingUser();
+            Fingerprint nonexistfile =
+                    soft404Fingerprints.getFingerprint(nonexistfileuri, user, probeSender);
             // does the server give a 404 for a non-existent file?
-            if (nonexistfilemsg.getResponseHeader().getStatusCode() != HttpStatusCode.NOT_FOUND) {
-                gives404s = false;
-                LOGGER.debug(
-                        "The server does not return a 404 status for a non-existent path: {}",
-                        nonexistfilemsg.getRequestHeader().getURI());
-            } else {
-                gives404s = true;
-                LOGGER.debug(
-                        "The server gives a 404 status for a non-existent path: {}",
-                        nonexistfilemsg.getRequestHeader().getURI());
-            }
+            boolean gives404s = nonexistfile.isNotFoundStatus();
+            LOGGER.debug(
+                    "The server gives a {} status for a non-existent path in: {}",
+                    nonexistfile.getStatusCode(),
+                    nonexistfileuri);
 
-            // now request a different (and non-existent) parent directory,
+            // now check a different (and non-existent) parent directory,
             // to see whether a non-existent parent folder causes a 404
             String[] pathbreak = temppath.split("/");
-            HttpMessage nonexistparentmsg = null;
+            boolean parentgives404s = true;
+            Fingerprint nonexistparent = null;
             if (pathbreak.length
                     > 2) { // the file has a parent folder that is not the root folder (ie, there is
                 // a parent folder to mess with)
-                String[] temppathbreak = pathbreak;
-                String parentfoldername = pathbreak[pathbreak.length - 2];
-                // If the parent folder name is really short a collision is likely
-                // Default to a reasonable length, which may have the inverse effect but we'll
-                // chance it
-                String randomparentfoldername =
-                        RandomStringUtils.random(
-                                Math.max(parentfoldername.length(), 4),
-                                "abcdefghijklmnopqrstuvwxyz0123456789");
-
-                // replace the parent folder name with the random one, and build it back into a
-                // string
-                temppathbreak[pathbreak.length - 2] = randomparentfoldername;
-                String randomparentpath = String.join("/", temppathbreak);
-
-                LOGGER.debug("Trying non-existent parent path: {}", randomparentpath);
-                nonexistparentmsg =
-                        new HttpMessage(
-                                new URI(
-                                        originalURI.getScheme(),
-                                        originalURI.getAuthority(),
-                                        randomparentpath,
-                                        null,
-                                        null));
-                nonexistparentmsg
-                        .getRequestHeader()
-                        .setVersion(getBaseMsg().getRequestHeader().getVersion());
-                setMessageCookies(nonexistparentmsg, originalMessage);
-                sendAndReceive(nonexistparentmsg, false);
-                nonexistparentmsgdata = nonexistparentmsg.getResponseBody().getBytes();
+                nonexistparent =
+                        soft404Fingerprints.getMissingDirectoryFingerprint(
+                                nonexistfileuri, user, probeSender);
                 // does the server give a 404 for a non-existent parent folder?
-                if (nonexistparentmsg.getResponseHeader().getStatusCode()
-                        != HttpStatusCode.NOT_FOUND) {
-                    parentgives404s = false;
-                    LOGGER.debug(
-                            "The server does not return a 404 status for a non-existent parent path: {}",
-                            nonexistparentmsg.getRequestHeader().getURI());
-                } else {
-                    parentgives404s = true;
-                    LOGGER.debug(
-                            "The server gives a 404 status for a non-existent parent path: {}",
-                            nonexistparentmsg.getRequestHeader().getURI());
-                }
+                parentgives404s = nonexistparent.isNotFoundStatus();
+                LOGGER.debug(
+                        "The server gives a {} status for a non-existent parent path of: {}",
+                        nonexistparent.getStatusCode(),
+                        nonexistfileuri);
             }
 
             String actualfilename = originalURI.getName();
@@ -736,9 +694,8 @@ public class BackupFileDisclosureScanRule extends AbstractAppPlugin
                 if (!isEmptyResponse(disclosedData)
                         && ((gives404s && requestStatusCode != HttpStatusCode.NOT_FOUND)
                                 || ((!gives404s)
-                                        && nonexistfilemsg.getResponseHeader().getStatusCode()
-                                                != requestStatusCode
-                                        && (!Arrays.equals(disclosedData, nonexistfilemsgdata))))) {
+                                        && nonexistfile.getStatusCode() != requestStatusCode
+                                        && (!nonexistfile.hasSameBody(disclosedData))))) {
                     buildAlert(
                                     candidateBackupFileURI.toString(),
                                     originalMessage.getRequestHeader().getURI().toString())
@@ -773,10 +730,8 @@ public class BackupFileDisclosureScanRule extends AbstractAppPlugin
                 if (!isEmptyResponse(disclosedData)
                         && ((parentgives404s && requestStatusCode != HttpStatusCode.NOT_FOUND)
                                 || ((!parentgives404s)
-                                        && nonexistparentmsg.getResponseHeader().getStatusCode()
-                                                != requestStatusCode
-                                        && (!Arrays.equals(
-                                                disclosedData, nonexistparentmsgdata))))) {
+                                        && nonexistparent.getStatusCode() != requestStatusCode
+                                        && (!nonexistparent.hasSameBody(disclosedData))))) {
                     buildAlert(
                                     candidateBackupFileURI.toString(),
                                     originalMessage.getRequestHeader().getURI().toString())
@@ -19,56 +19,112 @@
  */
 package org.zaproxy.zap.extension.ascanrulesBeta;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
-import org.apache.commons.collections.map.LRUMap;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.commons.httpclient.URI;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.core.scanner.HostProcess;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.http.HttpFieldsNames;
+import org.zaproxy.zap.users.User;
+import org.zaproxy.zap.utils.Stats;
 
 /**
- * MessageCache caches HTTP messages.
+ * MessageCache caches HTTP messages, per scan ({@code HostProcess}) and user.
+ *
+ * <p>Safe to be used by several threads, the lookups do not lock and concurrent requests for the
+ * same URI wait for the message being retrieved, instead of sending it again. Once the maximum
+ * number of messages or bytes is reached the least recently used messages are removed.
  *
  * @author 70pointer@gmail.com
  */
 public class MessageCache {
 
-    private static MessageCache instance;
-    private HostProcess parent = null;
+    /** The default maximum number of messages cached per scan. */
+    public static final int DEFAULT_MAX_MESSAGES = 100;
+
+    /** The default maximum number of bytes of the messages cached per scan. */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    static final String HIT_STATS = "stats.ascan.messagecache.hit";
+    static final String MISS_STATS = "stats.ascan.messagecache.miss";
 
-    @SuppressWarnings("unchecked")
-    private Map<URI, HttpMessage> messagecache =
-            Collections.synchronizedMap(new LRUMap(100)); // a map of 100 objects, synchronized
+    private static final Map<HostProcess, MessageCache> INSTANCES =
+            Collections.synchronizedMap(new WeakHashMap<>());
 
     private static final Logger LOGGER = LogManager.getLogger(MessageCache.class);
 
-    private MessageCache(HostProcess hostprocess) {
+    // Not a strong reference, to not prevent the removal of the cache once the scan is finished.
+    private final WeakReference<HostProcess> parent;
+    private final int maxMessages;
+    private final long maxBytes;
+    private final Map<Key, Entry> messagecache;
+    private final AtomicLong bytes;
+    private final AtomicLong clock;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    MessageCache(HostProcess hostprocess, int maxMessages, long maxBytes) {
         LOGGER.debug("Initialising");
-        parent = hostprocess;
+        this.parent = new WeakReference<>(hostprocess);
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.messagecache = new ConcurrentHashMap<>();
+        this.bytes = new AtomicLong();
+        this.clock = new AtomicLong();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
     }
 
-    public static synchronized MessageCache getSingleton(HostProcess hostprocess) {
-        if (instance == null) createSingleton(hostprocess);
-        return instance;
+    /**
+     * Gets the cache of the given scan, with the default limits.
+     *
+     * @param hostprocess the scan.
+     * @return the cache, never {@code null}.
+     * @see #DEFAULT_MAX_MESSAGES
+     * @see #DEFAULT_MAX_BYTES
+     */
+    public static MessageCache getInstance(HostProcess hostprocess) {
+        return getInstance(hostprocess, DEFAULT_MAX_MESSAGES, DEFAULT_MAX_BYTES);
     }
 
-    private static synchronized void createSingleton(HostProcess hostprocess) {
-        if (instance == null) {
-            instance = new MessageCache(hostprocess);
-        }
+    /**
+     * Gets the cache of the given scan, created with the given limits if not already.
+     *
+     * @param hostprocess the scan.
+     * @param maxMessages the maximum number of messages cached.
+     * @param maxBytes the maximum number of bytes of the messages cached.
+     * @return the cache, never {@code null}.
+     */
+    public static MessageCache getInstance(
+            HostProcess hostprocess, int maxMessages, long maxBytes) {
+        return INSTANCES.computeIfAbsent(
+                hostprocess, k -> new MessageCache(k, maxMessages, maxBytes));
     }
 
     /**
-     * is a message cached for the given URI?
+     * is a message cached for the given URI, for the user of the given base message?
      *
-     * @param uri
-     * @return
+     * @param uri the URI of the message
+     * @param basemsg the base message
+     * @return {@code true} if the message is cached, {@code false} otherwise
      */
-    public synchronized boolean isMessageCached(URI uri) {
-        return messagecache.containsKey(uri);
+    public boolean isMessageCached(URI uri, HttpMessage basemsg) {
+        Entry entry = messagecache.get(new Key(getUser(basemsg), uri));
+        return entry != null && entry.message.isDone() && !entry.message.isCompletedExceptionally();
     }
 
     /**
@@ -80,31 +136,210 @@ public class MessageCache {
      * @return a HttpMessage for the requested URI, using basemsg as the base message
      * @throws Exception
      */
-    public synchronized HttpMessage getMessage(
-            URI uri, HttpMessage basemsg, boolean followRedirects) throws Exception {
-        if (!isMessageCached(uri)) {
-            LOGGER.debug("URI '{}' is not in the message cache. Retrieving it.", uri);
+    public HttpMessage getMessage(URI uri, HttpMessage basemsg, boolean followRedirects)
+            throws Exception {
+        User user = getUser(basemsg);
+        Key key = new Key(user, uri);
+        Entry entry = messagecache.get(key);
+        if (entry == null) {
+            Entry newEntry = new Entry(clock.incrementAndGet());
+            entry = messagecache.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                misses.increment();
+                Stats.incCounter(MISS_STATS);
+                LOGGER.debug("URI '{}' is not in the message cache. Retrieving it.", uri);
+                return load(key, newEntry, basemsg, followRedirects);
+            }
+        }
+
+        hits.increment();
+        Stats.incCounter(HIT_STATS);
+        LOGGER.debug("URI '{}' is cached in the message cache.", uri);
+        entry.lastAccess = clock.incrementAndGet();
+        try {
+            return entry.message.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the message.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private HttpMessage load(Key key, Entry entry, HttpMessage basemsg, boolean followRedirects)
+            throws Exception {
+        try {
+            HostProcess hostprocess = parent.get();
+            if (hostprocess == null) {
+                throw new IOException("The scan is no longer available.");
+            }
             // request the file, then add the file to the cache
             // use the cookies from an original request, in case authorisation is required
-            HttpMessage requestmsg = new HttpMessage(uri);
+            HttpMessage requestmsg = new HttpMessage(key.uri);
             requestmsg.getRequestHeader().setVersion(basemsg.getRequestHeader().getVersion());
             try {
                 requestmsg.setCookieParams(basemsg.getCookieParams());
             } catch (Exception e) {
                 LOGGER.debug("Could not set the cookies from the base request: ", e);
             }
+            requestmsg.setRequestingUser(key.user);
             requestmsg.getRequestHeader().setHeader(HttpFieldsNames.IF_MODIFIED_SINCE, null);
             requestmsg.getRequestHeader().setHeader(HttpFieldsNames.IF_NONE_MATCH, null);
             requestmsg.getRequestHeader().setContentLength(requestmsg.getRequestBody().length());
-            parent.getHttpSender().sendAndReceive(requestmsg, followRedirects);
-            parent.notifyNewMessage(requestmsg);
-            // put the message in the cache
-            messagecache.put(uri, requestmsg);
-            LOGGER.debug("Put URI '{}' in the message cache.", uri);
-        } else {
-            LOGGER.debug("URI '{}' is cached in the message cache.", uri);
+            hostprocess.getHttpSender().sendAndReceive(requestmsg, followRedirects);
+            hostprocess.notifyNewMessage(requestmsg);
+
+            entry.size = getSize(requestmsg);
+            entry.message.complete(requestmsg);
+            LOGGER.debug("Put URI '{}' in the message cache.", key.uri);
+            if (bytes.addAndGet(entry.size) > maxBytes || messagecache.size() > maxMessages) {
+                evict();
+            }
+            return requestmsg;
+        } catch (Exception e) {
+            // not cached, the next request should try again
+            messagecache.remove(key, entry);
+            entry.message.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static long getSize(HttpMessage msg) {
+        return msg.getRequestHeader().toString().length()
+                + msg.getResponseHeader().toString().length()
+                + msg.getResponseBody().length();
+    }
+
+    private synchronized void evict() {
+        if (bytes.get() <= maxBytes && messagecache.size() <= maxMessages) {
+            return;
+        }
+        // Snapshot the access times, they might change while sorting.
+        List<Eviction> candidates = new ArrayList<>(messagecache.size());
+        messagecache.forEach(
+                (k, v) -> {
+                    if (v.message.isDone()) {
+                        candidates.add(new Eviction(k, v, v.lastAccess));
+                    }
+                });
+        candidates.sort(Comparator.comparingLong(e -> e.lastAccess));
+        for (Eviction e : candidates) {
+            if (bytes.get() <= maxBytes && messagecache.size() <= maxMessages) {
+                break;
+            }
+            if (messagecache.remove(e.key, e.entry)) {
+                bytes.addAndGet(-e.entry.size);
+            }
+        }
+    }
+
+    private User getUser(HttpMessage basemsg) {
+        HostProcess hostprocess = parent.get();
+        if (hostprocess == null) {
+            return basemsg.getRequestingUser();
+        }
+        return hostprocess.getHttpSender().getUser(basemsg);
+    }
+
+    /**
+     * Gets the number of messages cached.
+     *
+     * @return the number of messages.
+     */
+    public int size() {
+        return messagecache.size();
+    }
+
+    long getBytes() {
+        return bytes.get();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the ratio of lookups that found the message in the cache.
+     *
+     * @return the ratio, between {@code 0} and {@code 1}, or {@code 0} if no lookups were done.
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private static class Key {
+
+        private final User user;
+        private final URI uri;
+        private final int hashCode;
+
+        Key(User user, URI uri) {
+            this.user = user;
+            this.uri = uri;
+            this.hashCode =
+                    Objects.hash(
+                            user != null ? user.getContextId() : null,
+                            user != null ? user.getId() : null,
+                            uri);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return isSameUser(user, other.user) && uri.equals(other.uri);
+        }
+
+        private static boolean isSameUser(User user, User other) {
+            if (user == null || other == null) {
+                return user == other;
+            }
+            return user.getContextId() == other.getContextId() && user.getId() == other.getId();
+        }
+    }
+
+    private static class Entry {
+
+        private final CompletableFuture<HttpMessage> message;
+        private volatile long lastAccess;
+        private volatile long size;
+
+        Entry(long lastAccess) {
+            this.message = new CompletableFuture<>();
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static class Eviction {
+
+        private final Key key;
+        private final Entry entry;
+        private final long lastAccess;
+
+        Eviction(Key key, Entry entry, long lastAccess) {
+            this.key = key;
+            this.entry = entry;
+            this.lastAccess = lastAccess;
         }
-        // and return the cached message.
-        return messagecache.get(uri);
     }
 }
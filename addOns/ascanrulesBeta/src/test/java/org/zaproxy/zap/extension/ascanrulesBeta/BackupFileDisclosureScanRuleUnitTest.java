@@ -30,6 +30,8 @@ import fi.iki.elonen.NanoHTTPD.IHTTPSession;
 import fi.iki.elonen.NanoHTTPD.Response;
 import java.util.List;
 import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -38,6 +40,7 @@ import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.Soft404Fingerprints;
 import org.zaproxy.zap.testutils.NanoServerHandler;
 import org.zaproxy.zap.utils.ZapXmlConfiguration;
 
@@ -58,6 +61,16 @@ class BackupFileDisclosureScanRuleUnitTest extends ActiveScannerTest<BackupFileD
                     + "</body></html>";
     private static final String URL = "/dir/index.html";
 
+    @BeforeEach
+    void resetFingerprints() {
+        Soft404Fingerprints.reset();
+    }
+
+    @AfterEach
+    void cleanUpFingerprints() {
+        Soft404Fingerprints.reset();
+    }
+
     @Override
     protected BackupFileDisclosureScanRule createScanner() {
         BackupFileDisclosureScanRule rule = new BackupFileDisclosureScanRule();
@@ -0,0 +1,268 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.ascanrulesBeta;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.httpclient.URI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.quality.Strictness;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.zap.users.User;
+
+/** Unit test for {@link MessageCache}. */
+@Timeout(30)
+class MessageCacheUnitTest {
+
+    private HostProcess hostProcess;
+    private HttpSender httpSender;
+    private AtomicInteger sent;
+    private HttpMessage baseMsg;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hostProcess = mock(HostProcess.class, withSettings().strictness(Strictness.LENIENT));
+        httpSender = mock(HttpSender.class, withSettings().strictness(Strictness.LENIENT));
+        given(hostProcess.getHttpSender()).willReturn(httpSender);
+        given(httpSender.getUser(any()))
+                .willAnswer(inv -> inv.<HttpMessage>getArgument(0).getRequestingUser());
+        sent = new AtomicInteger();
+        respond("body");
+        baseMsg = new HttpMessage(uri("/"));
+    }
+
+    @Test
+    void shouldSendMessageOnceForSameUri() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, Long.MAX_VALUE);
+        // When
+        HttpMessage first = cache.getMessage(uri("/a"), baseMsg, false);
+        HttpMessage second = cache.getMessage(uri("/a"), baseMsg, false);
+        // Then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(sent.get(), is(equalTo(1)));
+        assertThat(cache.isMessageCached(uri("/a"), baseMsg), is(equalTo(true)));
+        verify(hostProcess).notifyNewMessage(first);
+    }
+
+    @Test
+    void shouldSendOnceForConcurrentRequestsOfSameUri() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, Long.MAX_VALUE);
+        CountDownLatch sending = new CountDownLatch(1);
+        doAnswer(
+                        inv -> {
+                            sent.incrementAndGet();
+                            sending.await(5, TimeUnit.SECONDS);
+                            inv.<HttpMessage>getArgument(0).setResponseBody("body");
+                            return null;
+                        })
+                .when(httpSender)
+                .sendAndReceive(any(HttpMessage.class), anyBoolean());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<HttpMessage>> messages = new ArrayList<>();
+        try {
+            // When
+            for (int i = 0; i < 4; i++) {
+                messages.add(executor.submit(() -> cache.getMessage(uri("/a"), baseMsg, false)));
+            }
+            Thread.sleep(100);
+            sending.countDown();
+            // Then
+            for (Future<HttpMessage> message : messages) {
+                assertThat(message.get(), is(sameInstance(messages.get(0).get())));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(sent.get(), is(equalTo(1)));
+        assertThat(cache.getMissCount(), is(equalTo(1L)));
+        assertThat(cache.getHitCount(), is(equalTo(3L)));
+    }
+
+    @Test
+    void shouldNotBlockRequestsOfOtherUris() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, Long.MAX_VALUE);
+        CountDownLatch sending = new CountDownLatch(1);
+        doAnswer(
+                        inv -> {
+                            HttpMessage msg = inv.getArgument(0);
+                            if (msg.getRequestHeader().getURI().getPath().equals("/slow")) {
+                                sending.await(5, TimeUnit.SECONDS);
+                            }
+                            msg.setResponseBody("body");
+                            return null;
+                        })
+                .when(httpSender)
+                .sendAndReceive(any(HttpMessage.class), anyBoolean());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<HttpMessage> slow =
+                    executor.submit(() -> cache.getMessage(uri("/slow"), baseMsg, false));
+            // When
+            HttpMessage fast = cache.getMessage(uri("/fast"), baseMsg, false);
+            // Then
+            assertThat(fast.getResponseBody().toString(), is(equalTo("body")));
+            assertThat(slow.isDone(), is(equalTo(false)));
+            sending.countDown();
+            slow.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldNotCacheFailedRequests() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, Long.MAX_VALUE);
+        doThrow(new IOException())
+                .when(httpSender)
+                .sendAndReceive(any(HttpMessage.class), anyBoolean());
+        assertThrows(IOException.class, () -> cache.getMessage(uri("/a"), baseMsg, false));
+        respond("body");
+        // When
+        HttpMessage msg = cache.getMessage(uri("/a"), baseMsg, false);
+        // Then
+        assertThat(msg.getResponseBody().toString(), is(equalTo("body")));
+        assertThat(sent.get(), is(equalTo(1)));
+    }
+
+    @Test
+    void shouldSeparateMessagesPerUser() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, Long.MAX_VALUE);
+        HttpMessage otherUserMsg = new HttpMessage(uri("/"));
+        otherUserMsg.setRequestingUser(new User(1, "user"));
+        // When
+        HttpMessage first = cache.getMessage(uri("/a"), baseMsg, false);
+        HttpMessage second = cache.getMessage(uri("/a"), otherUserMsg, false);
+        // Then
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.getRequestingUser(), is(sameInstance(otherUserMsg.getRequestingUser())));
+        assertThat(sent.get(), is(equalTo(2)));
+    }
+
+    @Test
+    void shouldSeparateMessagesPerScan() throws Exception {
+        // Given
+        HostProcess otherHostProcess = mock(HostProcess.class);
+        given(otherHostProcess.getHttpSender()).willReturn(httpSender);
+        // When
+        MessageCache cache = MessageCache.getInstance(hostProcess);
+        MessageCache otherCache = MessageCache.getInstance(otherHostProcess);
+        // Then
+        assertThat(MessageCache.getInstance(hostProcess), is(sameInstance(cache)));
+        assertThat(otherCache, is(not(sameInstance(cache))));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedMessagesOverMaxMessages() throws Exception {
+        // Given
+        MessageCache cache = createCache(2, Long.MAX_VALUE);
+        cache.getMessage(uri("/a"), baseMsg, false);
+        cache.getMessage(uri("/b"), baseMsg, false);
+        cache.getMessage(uri("/a"), baseMsg, false);
+        // When
+        cache.getMessage(uri("/c"), baseMsg, false);
+        // Then
+        assertThat(cache.size(), is(equalTo(2)));
+        assertThat(cache.isMessageCached(uri("/a"), baseMsg), is(equalTo(true)));
+        assertThat(cache.isMessageCached(uri("/b"), baseMsg), is(equalTo(false)));
+        assertThat(cache.isMessageCached(uri("/c"), baseMsg), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldEvictMessagesOverMaxBytes() throws Exception {
+        // Given
+        respond("x".repeat(1000));
+        long maxBytes = 2500;
+        MessageCache cache = createCache(100, maxBytes);
+        // When
+        for (int i = 0; i < 5; i++) {
+            cache.getMessage(uri("/" + i), baseMsg, false);
+        }
+        // Then
+        assertThat(cache.getBytes(), is(lessThanOrEqualTo(maxBytes)));
+        assertThat(cache.isMessageCached(uri("/4"), baseMsg), is(equalTo(true)));
+        assertThat(cache.isMessageCached(uri("/0"), baseMsg), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldComputeHitRate() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, Long.MAX_VALUE);
+        // When
+        cache.getMessage(uri("/a"), baseMsg, false);
+        cache.getMessage(uri("/a"), baseMsg, false);
+        cache.getMessage(uri("/a"), baseMsg, false);
+        cache.getMessage(uri("/b"), baseMsg, false);
+        // Then
+        assertThat(cache.getHitRate(), is(equalTo(0.5)));
+        verify(httpSender, times(2)).sendAndReceive(any(HttpMessage.class), anyBoolean());
+    }
+
+    private MessageCache createCache(int maxMessages, long maxBytes) {
+        return new MessageCache(hostProcess, maxMessages, maxBytes);
+    }
+
+    private void respond(String body) throws IOException {
+        doAnswer(
+                        inv -> {
+                            sent.incrementAndGet();
+                            inv.<HttpMessage>getArgument(0).setResponseBody(body);
+                            return null;
+                        })
+                .when(httpSender)
+                .sendAndReceive(any(HttpMessage.class), anyBoolean());
+    }
+
+    private static URI uri(String path) throws IOException {
+        return new URI("https://example.com" + path, true);
+    }
+}
@@ -22,14 +22,15 @@ package org.zaproxy.addon.authhelper;
 import java.net.HttpCookie;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -92,6 +93,10 @@ public class AuthUtils {
 
     private static int MAX_NUM_RECORDS_TO_CHECK = 200;
 
+    private static final int MAX_NUM_TOKEN_SOURCES = 10_000;
+
+    private static final int MAX_NUM_KNOWN_TOKENS = 1_000;
+
     public static final int TIME_TO_SLEEP_IN_MSECS = 100;
 
     private static final Logger LOGGER = LogManager.getLogger(AuthUtils.class);
@@ -108,7 +113,15 @@ public class AuthUtils {
      * These are session tokens that have been seen in responses but not yet seen in use. When they
      * are seen in use then they are removed.
      */
-    private static Map<String, SessionToken> knownTokenMap = new HashMap<>();
+    private static SessionTokenRegistry knownTokens =
+            new SessionTokenRegistry(MAX_NUM_KNOWN_TOKENS);
+
+    /**
+     * The token values seen in the messages of the history, and the message they were last seen, to
+     * find the source of the session tokens.
+     */
+    private static SessionTokenIndex tokenSourceIndex =
+            new SessionTokenIndex(MAX_NUM_TOKEN_SOURCES);
 
     /**
      * The best verification request we have found for a context. There will only be a verification
@@ -116,7 +129,8 @@ public class AuthUtils {
      * session management to auto-detect, setting the checking strategy to "poll" but not specified
      * a URL.
      */
-    private static Map<Integer, VerificationRequestDetails> contextVerifMap = new HashMap<>();
+    private static Map<Integer, VerificationRequestDetails> contextVerifMap =
+            new ConcurrentHashMap<>();
 
     /**
      * The best session management request we have found for a context. There will only be a
@@ -124,7 +138,7 @@ public class AuthUtils {
      * by setting session management to auto-detect.
      */
     private static Map<Integer, SessionManagementRequestDetails> contextSessionMgmtMap =
-            new HashMap<>();
+            new ConcurrentHashMap<>();
 
     public static long getTimeToWaitMs() {
         return timeToWaitMs;
@@ -589,29 +603,52 @@ public class AuthUtils {
             firstId = Math.max(0, lastId - MAX_NUM_RECORDS_TO_CHECK);
         }
 
-        LOGGER.debug("Searching for session token from {} down to {} ", lastId, firstId);
+        SessionTokenIndex.TokenSource source = tokenSourceIndex.get(token);
+        if (source == null || source.getHistoryId() < firstId || source.getHistoryId() > lastId) {
+            return findNotIndexedSessionTokenSource(extHist, token, lastId, firstId);
+        }
+
+        // Newer messages not yet indexed might also have the token, those take precedence.
+        int sourceId = source.getHistoryId();
+        SessionManagementRequestDetails details =
+                findNotIndexedSessionTokenSource(extHist, token, lastId, sourceId + 1);
+        if (details != null) {
+            return details;
+        }
+
+        LOGGER.debug("Found session token source in index, href {}", sourceId);
+        HistoryReference hr = extHist.getHistoryReference(sourceId);
+        if (hr != null) {
+            try {
+                return createSessionTokenSourceDetails(hr.getHttpMessage(), source.getToken());
+            } catch (Exception e) {
+                LOGGER.debug(e.getMessage(), e);
+            }
+        }
+        return findNotIndexedSessionTokenSource(extHist, token, sourceId - 1, firstId);
+    }
+
+    private static SessionManagementRequestDetails findNotIndexedSessionTokenSource(
+            ExtensionHistory extHist, String token, int lastId, int firstId) {
+        LOGGER.debug(
+                "Searching for session token from {} down to {} in the messages not indexed",
+                lastId,
+                firstId);
 
         for (int i = lastId; i >= firstId; i--) {
+            if (tokenSourceIndex.isIndexed(i)) {
+                continue;
+            }
             HistoryReference hr = extHist.getHistoryReference(i);
             if (hr != null) {
                 try {
                     HttpMessage msg = hr.getHttpMessage();
+                    Collection<SessionToken> msgTokens = AuthUtils.getAllTokens(msg).values();
+                    tokenSourceIndex.add(i, msgTokens);
                     Optional<SessionToken> es =
-                            AuthUtils.getAllTokens(msg).values().stream()
-                                    .filter(v -> v.getValue().equals(token))
-                                    .findFirst();
+                            msgTokens.stream().filter(v -> v.getValue().equals(token)).findFirst();
                     if (es.isPresent()) {
-                        AuthUtils.incStatsCounter(
-                                msg.getRequestHeader().getURI(),
-                                AuthUtils.AUTH_SESSION_TOKEN_STATS_PREFIX + es.get().getKey());
-                        List<SessionToken> tokens = new ArrayList<>();
-                        tokens.add(
-                                new SessionToken(
-                                        es.get().getSource(),
-                                        es.get().getKey(),
-                                        es.get().getValue()));
-                        return new SessionManagementRequestDetails(
-                                msg, tokens, Alert.CONFIDENCE_HIGH);
+                        return createSessionTokenSourceDetails(msg, es.get());
                     }
                 } catch (Exception e) {
                     LOGGER.debug(e.getMessage(), e);
@@ -621,6 +658,28 @@ public class AuthUtils {
         return null;
     }
 
+    private static SessionManagementRequestDetails createSessionTokenSourceDetails(
+            HttpMessage msg, SessionToken token) {
+        AuthUtils.incStatsCounter(
+                msg.getRequestHeader().getURI(),
+                AuthUtils.AUTH_SESSION_TOKEN_STATS_PREFIX + token.getKey());
+        List<SessionToken> tokens = new ArrayList<>();
+        tokens.add(new SessionToken(token.getSource(), token.getKey(), token.getValue()));
+        return new SessionManagementRequestDetails(msg, tokens, Alert.CONFIDENCE_HIGH);
+    }
+
+    /**
+     * Records the token values of the given message, to later find the source of session tokens
+     * without reading the message again.
+     *
+     * @param msg the message with the tokens.
+     * @param historyId the history ID of the message.
+     * @see #findSessionTokenSource(String, int)
+     */
+    static void recordTokenSources(HttpMessage msg, int historyId) {
+        tokenSourceIndex.add(historyId, getAllTokens(msg).values());
+    }
+
     public static void extractJsonTokens(
             JSONObject jsonObject, String parent, Map<String, SessionToken> tokens) {
         for (Object key : jsonObject.keySet()) {
@@ -652,36 +711,24 @@ public class AuthUtils {
     }
 
     public static void recordSessionToken(SessionToken token) {
-        knownTokenMap.put(token.getValue(), token);
+        knownTokens.add(token);
     }
 
     public static SessionToken getSessionToken(String value) {
-        return knownTokenMap.get(value);
+        return knownTokens.get(value);
     }
 
     public static SessionToken containsSessionToken(String value) {
-        Optional<Entry<String, SessionToken>> entry =
-                knownTokenMap.entrySet().stream()
-                        .filter(m -> value.contains(m.getKey()))
-                        .findFirst();
-        if (entry.isPresent()) {
-            return entry.get().getValue();
-        }
-        return null;
+        return knownTokens.getContained(value);
     }
 
     public static void removeSessionToken(SessionToken token) {
-        Optional<Entry<String, SessionToken>> entry =
-                knownTokenMap.entrySet().stream()
-                        .filter(m -> m.getValue().equals(token))
-                        .findFirst();
-        if (entry.isPresent()) {
-            knownTokenMap.remove(token.getValue());
-        }
+        knownTokens.remove(token);
     }
 
     public static void clean() {
-        knownTokenMap.clear();
+        knownTokens.clear();
+        tokenSourceIndex.clear();
         contextVerifMap.clear();
         contextSessionMgmtMap.clear();
         if (executorService != null) {
@@ -723,7 +770,11 @@ public class AuthUtils {
 
     public static void setVerificationDetailsForContext(
             int contextId, VerificationRequestDetails details) {
-        contextVerifMap.put(contextId, details);
+        if (details == null) {
+            contextVerifMap.remove(contextId);
+        } else {
+            contextVerifMap.put(contextId, details);
+        }
     }
 
     public static SessionManagementRequestDetails getSessionManagementDetailsForContext(
@@ -733,7 +784,11 @@ public class AuthUtils {
 
     public static void setSessionManagementDetailsForContext(
             int contextId, SessionManagementRequestDetails details) {
-        contextSessionMgmtMap.put(contextId, details);
+        if (details == null) {
+            contextSessionMgmtMap.remove(contextId);
+        } else {
+            contextSessionMgmtMap.put(contextId, details);
+        }
     }
 
     private static synchronized ExecutorService getExecutorService() {
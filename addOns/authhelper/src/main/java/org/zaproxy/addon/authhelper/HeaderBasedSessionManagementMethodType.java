@@ -80,7 +80,9 @@ public class HeaderBasedSessionManagementMethodType extends SessionManagementMet
 
     public static class HeaderBasedSessionManagementMethod implements SessionManagementMethod {
 
-        private List<Pair<String, String>> headerConfigs = new ArrayList<>();
+        private static final Pattern TOKEN_PATTERN = Pattern.compile("\\{%(.+?)\\%}");
+
+        private volatile List<Pair<String, String>> headerConfigs = new ArrayList<>();
         private static Map<String, String> envVars = System.getenv();
         private int contextId;
 
@@ -99,8 +101,7 @@ public class HeaderBasedSessionManagementMethodType extends SessionManagementMet
         }
 
         protected static String replaceTokens(String text, Map<String, SessionToken> tokens) {
-            Pattern pattern = Pattern.compile("\\{%(.+?)\\%}");
-            Matcher matcher = pattern.matcher(text);
+            Matcher matcher = TOKEN_PATTERN.matcher(text);
             StringBuilder builder = new StringBuilder();
             while (matcher.find()) {
                 SessionToken token = tokens.get(matcher.group(1));
@@ -54,6 +54,7 @@ public class SessionDetectionScanRule extends PluginPassiveScanner {
 
     @Override
     public void scanHttpResponseReceive(HttpMessage msg, int id, Source source) {
+        AuthUtils.recordTokenSources(msg, id);
         Map<String, SessionToken> responseTokens = AuthUtils.getResponseSessionTokens(msg);
 
         if (!responseTokens.isEmpty()) {
@@ -0,0 +1,130 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.authhelper;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An index of the token values seen in the messages of the history, to find the message a session
+ * token came from without reading and parsing the messages again.
+ *
+ * <p>Only the most recent message of each value is kept, and the least recently used values are
+ * removed once the maximum number of values is reached.
+ */
+class SessionTokenIndex {
+
+    private final Map<String, TokenSource> sources;
+    private final BitSet indexedIds;
+
+    /**
+     * Constructs a {@code SessionTokenIndex} with the given maximum number of values.
+     *
+     * @param maxValues the maximum number of values to keep.
+     */
+    SessionTokenIndex(int maxValues) {
+        sources =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, TokenSource> eldest) {
+                        if (size() <= maxValues) {
+                            return false;
+                        }
+                        // The message has to be read again to find the value.
+                        indexedIds.clear(eldest.getValue().getHistoryId());
+                        return true;
+                    }
+                };
+        indexedIds = new BitSet();
+    }
+
+    /**
+     * Adds the tokens of the message with the given history ID.
+     *
+     * @param historyId the ID of the message.
+     * @param tokens the tokens of the message.
+     */
+    synchronized void add(int historyId, Collection<SessionToken> tokens) {
+        if (historyId < 0) {
+            return;
+        }
+        indexedIds.set(historyId);
+        for (SessionToken token : tokens) {
+            String value = token.getValue();
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            TokenSource source = sources.get(value);
+            if (source == null || source.getHistoryId() <= historyId) {
+                sources.put(value, new TokenSource(historyId, token));
+            }
+        }
+    }
+
+    /**
+     * Tells whether or not the message with the given history ID was indexed.
+     *
+     * @param historyId the ID of the message.
+     * @return {@code true} if the message was indexed, {@code false} otherwise.
+     */
+    synchronized boolean isIndexed(int historyId) {
+        return historyId >= 0 && indexedIds.get(historyId);
+    }
+
+    /**
+     * Gets the most recent message that has the given token value.
+     *
+     * @param value the token value.
+     * @return the source of the token, or {@code null} if not known.
+     */
+    synchronized TokenSource get(String value) {
+        return sources.get(value);
+    }
+
+    /** Removes all the values and indexed messages. */
+    synchronized void clear() {
+        sources.clear();
+        indexedIds.clear();
+    }
+
+    /** A message that has a token value. */
+    static class TokenSource {
+
+        private final int historyId;
+        private final SessionToken token;
+
+        TokenSource(int historyId, SessionToken token) {
+            this.historyId = historyId;
+            this.token = token;
+        }
+
+        int getHistoryId() {
+            return historyId;
+        }
+
+        SessionToken getToken() {
+            return token;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.authhelper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.zaproxy.zap.utils.Stats;
+
+/**
+ * The session tokens seen in responses but not yet seen in use, by value.
+ *
+ * <p>Safe to be used by several threads, the reads do not lock. Once the maximum number of tokens
+ * is reached the least recently used tokens are removed.
+ */
+class SessionTokenRegistry {
+
+    static final String HIT_STATS = "stats.auth.sessiontokenregistry.hit";
+    static final String MISS_STATS = "stats.auth.sessiontokenregistry.miss";
+    static final String SIZE_STATS = "stats.auth.sessiontokenregistry.size";
+
+    private final int maxTokens;
+    private final Map<String, Entry> tokens;
+    private final AtomicLong clock;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Constructs a {@code SessionTokenRegistry} with the given maximum number of tokens.
+     *
+     * @param maxTokens the maximum number of tokens to keep.
+     */
+    SessionTokenRegistry(int maxTokens) {
+        this.maxTokens = maxTokens;
+        this.tokens = new ConcurrentHashMap<>();
+        this.clock = new AtomicLong();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Adds the given token, replacing any other token with the same value.
+     *
+     * @param token the token to add.
+     */
+    void add(SessionToken token) {
+        tokens.put(token.getValue(), new Entry(token, clock.incrementAndGet()));
+        if (tokens.size() > maxTokens) {
+            evict();
+        }
+        Stats.setHighwaterMark(SIZE_STATS, tokens.size());
+    }
+
+    private synchronized void evict() {
+        int excess = tokens.size() - maxTokens;
+        if (excess <= 0) {
+            return;
+        }
+        // Remove a few more to not have to evict on every add.
+        int toRemove = excess + maxTokens / 10;
+        // Snapshot the access times, they might change while sorting.
+        List<Eviction> candidates = new ArrayList<>(tokens.size());
+        tokens.forEach((k, v) -> candidates.add(new Eviction(k, v, v.lastAccess)));
+        candidates.sort(Comparator.comparingLong(e -> e.lastAccess));
+        for (int i = 0; i < toRemove && i < candidates.size(); i++) {
+            Eviction e = candidates.get(i);
+            tokens.remove(e.value, e.entry);
+        }
+    }
+
+    /**
+     * Gets the token with the given value.
+     *
+     * @param value the value of the token.
+     * @return the token, or {@code null} if not known.
+     */
+    SessionToken get(String value) {
+        return hitOrMiss(tokens.get(value));
+    }
+
+    /**
+     * Gets a token whose value is contained in the given value.
+     *
+     * @param value the value that might contain a token.
+     * @return the token, or {@code null} if none.
+     */
+    SessionToken getContained(String value) {
+        Entry entry = tokens.get(value);
+        if (entry == null) {
+            entry =
+                    tokens.entrySet().stream()
+                            .filter(e -> value.contains(e.getKey()))
+                            .map(Map.Entry::getValue)
+                            .findFirst()
+                            .orElse(null);
+        }
+        return hitOrMiss(entry);
+    }
+
+    private SessionToken hitOrMiss(Entry entry) {
+        if (entry == null) {
+            misses.increment();
+            Stats.incCounter(MISS_STATS);
+            return null;
+        }
+        entry.lastAccess = clock.incrementAndGet();
+        hits.increment();
+        Stats.incCounter(HIT_STATS);
+        return entry.token;
+    }
+
+    /**
+     * Removes the given token, if it's the one known for its value.
+     *
+     * @param token the token to remove.
+     */
+    void remove(SessionToken token) {
+        tokens.computeIfPresent(token.getValue(), (k, v) -> v.token.equals(token) ? null : v);
+    }
+
+    /** Removes all the tokens and resets the hit and miss counts. */
+    void clear() {
+        tokens.clear();
+        hits.reset();
+        misses.reset();
+    }
+
+    int size() {
+        return tokens.size();
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the ratio of lookups that found a token.
+     *
+     * @return the ratio, between {@code 0} and {@code 1}, or {@code 0} if no lookups were done.
+     */
+    double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private static class Eviction {
+
+        private final String value;
+        private final Entry entry;
+        private final long lastAccess;
+
+        Eviction(String value, Entry entry, long lastAccess) {
+            this.value = value;
+            this.entry = entry;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static class Entry {
+
+        private final SessionToken token;
+        private volatile long lastAccess;
+
+        Entry(SessionToken token, long lastAccess) {
+            this.token = token;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -24,6 +24,13 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,6 +40,7 @@ import java.util.Set;
 import org.apache.commons.httpclient.URI;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.quality.Strictness;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Dimension;
 import org.openqa.selenium.OutputType;
@@ -40,6 +48,11 @@ import org.openqa.selenium.Point;
 import org.openqa.selenium.Rectangle;
 import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
+import org.parosproxy.paros.control.Control;
+import org.parosproxy.paros.extension.ExtensionLoader;
+import org.parosproxy.paros.extension.history.ExtensionHistory;
+import org.parosproxy.paros.model.HistoryReference;
+import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpRequestHeader;
@@ -266,6 +279,127 @@ class AuthUtilsUnitTest extends TestUtils {
         assertThat(tokens.size(), is(equalTo(0)));
     }
 
+    @Test
+    void shouldFindSessionTokenSourceFromIndex() throws Exception {
+        // Given
+        HttpMessage source = createJsonTokenMessage("12345678901234567890");
+        ExtensionHistory extHist = mockExtensionHistory(5);
+        HistoryReference sourceHref = mockHistoryReference(extHist, 3, source);
+        for (int i = 0; i <= 5; i++) {
+            if (i != 3) {
+                mockHistoryReference(
+                        extHist, i, new HttpMessage(new URI("https://example.com/" + i, true)));
+            }
+        }
+        AuthUtils.findSessionTokenSource("other value");
+        clearInvocations(extHist, sourceHref);
+        // When
+        SessionManagementRequestDetails details =
+                AuthUtils.findSessionTokenSource("12345678901234567890");
+        // Then
+        assertThat(details, is(notNullValue()));
+        assertThat(details.getMsg(), is(equalTo(source)));
+        assertThat(details.getTokens().get(0).getToken(), is(equalTo("json:token")));
+        verify(sourceHref).getHttpMessage();
+        verify(extHist, times(1)).getHistoryReference(anyInt());
+    }
+
+    @Test
+    void shouldFindSessionTokenSourceFromRecordedTokens() throws Exception {
+        // Given
+        HttpMessage source = createJsonTokenMessage("12345678901234567890");
+        ExtensionHistory extHist = mockExtensionHistory(5);
+        HistoryReference sourceHref = mockHistoryReference(extHist, 3, source);
+        for (int i = 0; i <= 5; i++) {
+            AuthUtils.recordTokenSources(
+                    i == 3 ? source : new HttpMessage(new URI("https://example.com/" + i, true)),
+                    i);
+        }
+        // When
+        SessionManagementRequestDetails details =
+                AuthUtils.findSessionTokenSource("12345678901234567890");
+        // Then
+        assertThat(details, is(notNullValue()));
+        assertThat(details.getMsg(), is(equalTo(source)));
+        verify(sourceHref).getHttpMessage();
+        verify(extHist, times(1)).getHistoryReference(anyInt());
+    }
+
+    @Test
+    void shouldPreferNewerSessionTokenSourceNotIndexed() throws Exception {
+        // Given
+        HttpMessage olderSource = createJsonTokenMessage("12345678901234567890");
+        HttpMessage newerSource = createJsonTokenMessage("12345678901234567890");
+        ExtensionHistory extHist = mockExtensionHistory(5);
+        mockHistoryReference(extHist, 4, newerSource);
+        AuthUtils.recordTokenSources(olderSource, 2);
+        // When
+        SessionManagementRequestDetails details =
+                AuthUtils.findSessionTokenSource("12345678901234567890");
+        // Then
+        assertThat(details, is(notNullValue()));
+        assertThat(details.getMsg(), is(equalTo(newerSource)));
+    }
+
+    @Test
+    void shouldFindSessionTokenSourceInMessagesNotIndexed() throws Exception {
+        // Given
+        HttpMessage source = createJsonTokenMessage("12345678901234567890");
+        ExtensionHistory extHist = mockExtensionHistory(3);
+        mockHistoryReference(extHist, 2, source);
+        // When
+        SessionManagementRequestDetails details =
+                AuthUtils.findSessionTokenSource("12345678901234567890");
+        // Then
+        assertThat(details, is(notNullValue()));
+        assertThat(details.getMsg(), is(equalTo(source)));
+        assertThat(details.getTokens().get(0).getToken(), is(equalTo("json:token")));
+    }
+
+    @Test
+    void shouldNotFindSessionTokenSourceOutsideRange() throws Exception {
+        // Given
+        HttpMessage source = createJsonTokenMessage("12345678901234567890");
+        ExtensionHistory extHist = mockExtensionHistory(5);
+        mockHistoryReference(extHist, 1, source);
+        AuthUtils.findSessionTokenSource("other value");
+        // When
+        SessionManagementRequestDetails details =
+                AuthUtils.findSessionTokenSource("12345678901234567890", 2);
+        // Then
+        assertThat(details, is(nullValue()));
+    }
+
+    private static HttpMessage createJsonTokenMessage(String token) throws Exception {
+        return new HttpMessage(
+                new HttpRequestHeader("POST /login HTTP/1.1\r\nHost: example.com\r\n\r\n"),
+                new HttpRequestBody(),
+                new HttpResponseHeader(
+                        "HTTP/1.1 200 OK\r\n"
+                                + HttpFieldsNames.CONTENT_TYPE
+                                + ": application/json\r\n"),
+                new HttpResponseBody("{\"token\":\"" + token + "\"}"));
+    }
+
+    private static ExtensionHistory mockExtensionHistory(int lastHistoryId) {
+        ExtensionLoader extensionLoader =
+                mock(ExtensionLoader.class, withSettings().strictness(Strictness.LENIENT));
+        Control.initSingletonForTesting(Model.getSingleton(), extensionLoader);
+        ExtensionHistory extHist =
+                mock(ExtensionHistory.class, withSettings().strictness(Strictness.LENIENT));
+        given(extensionLoader.getExtension(ExtensionHistory.class)).willReturn(extHist);
+        given(extHist.getLastHistoryId()).willReturn(lastHistoryId);
+        return extHist;
+    }
+
+    private static HistoryReference mockHistoryReference(
+            ExtensionHistory extHist, int historyId, HttpMessage msg) throws Exception {
+        HistoryReference href = mock(HistoryReference.class);
+        given(href.getHttpMessage()).willReturn(msg);
+        given(extHist.getHistoryReference(historyId)).willReturn(href);
+        return href;
+    }
+
     @Test
     void shouldExtractHeaderTokens() throws Exception {
         // Given
@@ -0,0 +1,99 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.authhelper;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link SessionTokenIndex}. */
+class SessionTokenIndexUnitTest {
+
+    @Test
+    void shouldGetSourceOfValue() {
+        // Given
+        SessionTokenIndex index = new SessionTokenIndex(10);
+        SessionToken token = new SessionToken(SessionToken.JSON_SOURCE, "token", "value1");
+        index.add(1, List.of(token));
+        // When
+        SessionTokenIndex.TokenSource source = index.get("value1");
+        // Then
+        assertThat(source.getHistoryId(), is(equalTo(1)));
+        assertThat(source.getToken(), is(equalTo(token)));
+        assertThat(index.isIndexed(1), is(equalTo(true)));
+        assertThat(index.isIndexed(2), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldKeepMostRecentSourceOfValue() {
+        // Given
+        SessionTokenIndex index = new SessionTokenIndex(10);
+        index.add(2, List.of(new SessionToken(SessionToken.JSON_SOURCE, "token", "value1")));
+        index.add(1, List.of(new SessionToken(SessionToken.COOKIE_SOURCE, "id", "value1")));
+        // When
+        SessionTokenIndex.TokenSource source = index.get("value1");
+        // Then
+        assertThat(source.getHistoryId(), is(equalTo(2)));
+        assertThat(source.getToken().getSource(), is(equalTo(SessionToken.JSON_SOURCE)));
+    }
+
+    @Test
+    void shouldRemoveLeastRecentlyUsedValuesWhenFull() {
+        // Given
+        SessionTokenIndex index = new SessionTokenIndex(2);
+        index.add(1, List.of(new SessionToken(SessionToken.JSON_SOURCE, "a", "value1")));
+        index.add(2, List.of(new SessionToken(SessionToken.JSON_SOURCE, "b", "value2")));
+        index.get("value1");
+        // When
+        index.add(3, List.of(new SessionToken(SessionToken.JSON_SOURCE, "c", "value3")));
+        // Then
+        assertThat(index.get("value1").getHistoryId(), is(equalTo(1)));
+        assertThat(index.get("value2"), is(nullValue()));
+        assertThat(index.get("value3").getHistoryId(), is(equalTo(3)));
+    }
+
+    @Test
+    void shouldNotConsiderIndexedMessagesWithRemovedValues() {
+        // Given
+        SessionTokenIndex index = new SessionTokenIndex(1);
+        index.add(1, List.of(new SessionToken(SessionToken.JSON_SOURCE, "a", "value1")));
+        // When
+        index.add(2, List.of(new SessionToken(SessionToken.JSON_SOURCE, "b", "value2")));
+        // Then
+        assertThat(index.isIndexed(1), is(equalTo(false)));
+        assertThat(index.isIndexed(2), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldClear() {
+        // Given
+        SessionTokenIndex index = new SessionTokenIndex(10);
+        index.add(1, List.of(new SessionToken(SessionToken.JSON_SOURCE, "token", "value1")));
+        // When
+        index.clear();
+        // Then
+        assertThat(index.get("value1"), is(nullValue()));
+        assertThat(index.isIndexed(1), is(equalTo(false)));
+    }
+}
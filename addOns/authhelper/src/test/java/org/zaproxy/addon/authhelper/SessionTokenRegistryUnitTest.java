@@ -0,0 +1,149 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.authhelper;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link SessionTokenRegistry}. */
+class SessionTokenRegistryUnitTest {
+
+    @Test
+    void shouldGetTokenByValue() {
+        // Given
+        SessionTokenRegistry registry = new SessionTokenRegistry(10);
+        SessionToken token = token("Header1", "1234567890");
+        registry.add(token);
+        // When
+        SessionToken found = registry.get("1234567890");
+        SessionToken notFound = registry.get("0987654321");
+        // Then
+        assertThat(found, is(equalTo(token)));
+        assertThat(notFound, is(nullValue()));
+        assertThat(registry.getHitCount(), is(equalTo(1L)));
+        assertThat(registry.getMissCount(), is(equalTo(1L)));
+        assertThat(registry.getHitRate(), is(equalTo(0.5)));
+    }
+
+    @Test
+    void shouldGetTokenContainedInValue() {
+        // Given
+        SessionTokenRegistry registry = new SessionTokenRegistry(10);
+        SessionToken token = token("Header1", "1234567890");
+        registry.add(token);
+        // When
+        SessionToken found = registry.getContained("Bearer 1234567890");
+        // Then
+        assertThat(found, is(equalTo(token)));
+    }
+
+    @Test
+    void shouldRemoveOnlySameToken() {
+        // Given
+        SessionTokenRegistry registry = new SessionTokenRegistry(10);
+        SessionToken token = token("Header1", "1234567890");
+        registry.add(token);
+        // When
+        registry.remove(token("Header2", "1234567890"));
+        SessionToken afterOther = registry.get("1234567890");
+        registry.remove(token);
+        SessionToken afterSame = registry.get("1234567890");
+        // Then
+        assertThat(afterOther, is(notNullValue()));
+        assertThat(afterSame, is(nullValue()));
+    }
+
+    @Test
+    void shouldRemoveLeastRecentlyUsedTokensWhenFull() {
+        // Given
+        SessionTokenRegistry registry = new SessionTokenRegistry(2);
+        registry.add(token("Header1", "value1"));
+        registry.add(token("Header2", "value2"));
+        registry.get("value1");
+        // When
+        registry.add(token("Header3", "value3"));
+        // Then
+        assertThat(registry.size(), is(equalTo(2)));
+        assertThat(registry.get("value1"), is(notNullValue()));
+        assertThat(registry.get("value2"), is(nullValue()));
+        assertThat(registry.get("value3"), is(notNullValue()));
+    }
+
+    @Test
+    void shouldStayBoundedWhenAddedConcurrently() throws Exception {
+        // Given
+        int maxTokens = 100;
+        SessionTokenRegistry registry = new SessionTokenRegistry(maxTokens);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> tasks = new ArrayList<>();
+        // When
+        try {
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                tasks.add(
+                        executor.submit(
+                                () -> {
+                                    for (int i = 0; i < 1000; i++) {
+                                        String value = "value-" + thread + "-" + i;
+                                        registry.add(token("Header", value));
+                                        registry.get(value);
+                                    }
+                                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // Then
+        assertThat(registry.size(), is(lessThanOrEqualTo(maxTokens)));
+        assertThat(registry.getHitCount() + registry.getMissCount(), is(equalTo(4000L)));
+    }
+
+    @Test
+    void shouldClear() {
+        // Given
+        SessionTokenRegistry registry = new SessionTokenRegistry(10);
+        registry.add(token("Header1", "1234567890"));
+        registry.get("1234567890");
+        // When
+        registry.clear();
+        // Then
+        assertThat(registry.size(), is(equalTo(0)));
+        assertThat(registry.getHitCount(), is(equalTo(0L)));
+        assertThat(registry.getHitRate(), is(equalTo(0.0)));
+    }
+
+    private static SessionToken token(String name, String value) {
+        return new SessionToken(SessionToken.HEADER_SOURCE, name, value);
+    }
+}
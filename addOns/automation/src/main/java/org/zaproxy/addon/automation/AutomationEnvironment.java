@@ -414,6 +414,20 @@ public class AutomationEnvironment {
         return this.getData().getParameters().getFailOnWarning();
     }
 
+    /**
+     * Gets the maximum number of jobs that can run at the same time.
+     *
+     * @return the maximum number of jobs, {@code 1} if the jobs should be run in sequence.
+     * @see AutomationJob#getDependsOn()
+     */
+    public int getMaxParallelJobs() {
+        Integer maxParallelJobs = this.getData().getParameters().getMaxParallelJobs();
+        if (maxParallelJobs == null || maxParallelJobs < 1) {
+            return 1;
+        }
+        return maxParallelJobs;
+    }
+
     public boolean isTimeToQuit() {
         return (isFailOnError() && progress.hasErrors())
                 || (isFailOnWarning() && progress.hasWarnings());
@@ -487,6 +501,7 @@ public class AutomationEnvironment {
         private boolean failOnError = true;
         private boolean failOnWarning;
         private boolean progressToStdout = true;
+        private Integer maxParallelJobs;
 
         public Parameters() {}
 
@@ -520,6 +535,14 @@ public class AutomationEnvironment {
         public void setProgressToStdout(boolean progressToStdout) {
             this.progressToStdout = progressToStdout;
         }
+
+        public Integer getMaxParallelJobs() {
+            return maxParallelJobs;
+        }
+
+        public void setMaxParallelJobs(Integer maxParallelJobs) {
+            this.maxParallelJobs = maxParallelJobs;
+        }
     }
 
     public static class Proxy extends AutomationData {
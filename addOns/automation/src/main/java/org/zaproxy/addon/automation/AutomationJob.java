@@ -27,6 +27,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DurationFormatUtils;
@@ -62,6 +67,10 @@ public abstract class AutomationJob implements Comparable<AutomationJob> {
     private AutomationPlan plan;
     private long timeStarted;
     private long timeFinished;
+    private List<String> dependsOn;
+    private volatile long timeWaiting;
+    private final AtomicReference<CompletableFuture<Void>> progressSignal =
+            new AtomicReference<>(new CompletableFuture<>());
 
     public enum Order {
         RUN_FIRST,
@@ -103,6 +112,22 @@ public abstract class AutomationJob implements Comparable<AutomationJob> {
         return jobData;
     }
 
+    /**
+     * Gets the names of the jobs that need to finish before this job is started, when running the
+     * jobs of the plan in parallel.
+     *
+     * @return the names of the jobs, or {@code null} if not declared, in which case the job depends
+     *     on all of the previous jobs.
+     * @see AutomationEnvironment#getMaxParallelJobs()
+     */
+    public List<String> getDependsOn() {
+        return dependsOn;
+    }
+
+    public void setDependsOn(List<String> dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+
     public Status getStatus() {
         return status;
     }
@@ -737,6 +762,7 @@ public abstract class AutomationJob implements Comparable<AutomationJob> {
     public void setTimeStarted() {
         this.timeStarted = System.currentTimeMillis();
         this.timeFinished = 0;
+        this.timeWaiting = 0;
     }
 
     public long getTimeFinished() {
@@ -765,11 +791,77 @@ public abstract class AutomationJob implements Comparable<AutomationJob> {
         return DurationFormatUtils.formatDuration(t, "HH:mm:ss");
     }
 
+    /**
+     * Gets the time the job spent waiting, for example, for a scan to finish, since it was last
+     * started.
+     *
+     * @return the time waiting, in milliseconds.
+     * @see #waitForProgress(long)
+     * @see #sleep(long)
+     */
+    public long getTimeWaiting() {
+        return timeWaiting;
+    }
+
+    /**
+     * Gets the time the job spent doing work, that is, the time taken less the time waiting.
+     *
+     * @return the time working, in milliseconds, or -1 if the job was not started.
+     */
+    public long getTimeWorking() {
+        long t = getTimeTaken();
+        if (t < 0) {
+            return -1;
+        }
+        return Math.max(0, t - timeWaiting);
+    }
+
+    /**
+     * Notifies the job that what it is waiting on has progressed, for example, that a scan has
+     * finished. Called by listeners of the components the job is waiting on, from any thread.
+     *
+     * <p>A notification received before the job waits is not lost, the next wait returns
+     * immediately.
+     *
+     * @see #waitForProgress(long)
+     */
+    protected void notifyProgress() {
+        progressSignal.get().complete(null);
+    }
+
+    /**
+     * Waits until the job is notified of progress or the given time elapses, whichever happens
+     * first. The maximum wait acts as a safety net, in case the notification is missed or not
+     * available, the job should check the state of what it is waiting on after this method returns.
+     *
+     * @param maxWaitMillis the maximum time to wait, in milliseconds.
+     * @see #notifyProgress()
+     */
+    protected void waitForProgress(long maxWaitMillis) {
+        CompletableFuture<Void> signal = progressSignal.get();
+        long start = System.currentTimeMillis();
+        try {
+            signal.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Check the state anyway
+        } catch (InterruptedException e) {
+            // Ignore
+        } finally {
+            timeWaiting += System.currentTimeMillis() - start;
+        }
+        if (signal.isDone()) {
+            progressSignal.compareAndSet(signal, new CompletableFuture<>());
+        }
+    }
+
     protected void sleep(long millis) {
+        long start = System.currentTimeMillis();
         try {
             Thread.sleep(millis);
         } catch (InterruptedException e) {
             // Ignore
+        } finally {
+            timeWaiting += System.currentTimeMillis() - start;
         }
     }
 }
@@ -33,10 +33,14 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
 import org.yaml.snakeyaml.Yaml;
+import org.zaproxy.zap.model.Context;
 
 public class AutomationPlan {
 
@@ -124,6 +128,7 @@ public class AutomationPlan {
                         jobs.add(job);
 
                         job.addTests(jobData.get("tests"), progress);
+                        setDependsOn(job, jobData.get("dependsOn"), progress);
                     } catch (AutomationJobException e) {
                         LOGGER.debug(e.getMessage(), e);
                         progress.error(
@@ -149,6 +154,77 @@ public class AutomationPlan {
         jobs.stream().forEach(j -> j.setPlan(this));
     }
 
+    private void setDependsOn(AutomationJob job, Object dependsOnObj, AutomationProgress progress) {
+        if (dependsOnObj == null) {
+            return;
+        }
+        if (!(dependsOnObj instanceof List<?>)) {
+            progress.error(Constant.messages.getString("automation.error.job.data", dependsOnObj));
+            return;
+        }
+        List<String> dependsOn = new ArrayList<>();
+        for (Object name : (List<?>) dependsOnObj) {
+            String jobName = String.valueOf(name);
+            boolean defined =
+                    jobs.stream().filter(j -> j != job).anyMatch(j -> j.getName().equals(jobName));
+            if (defined) {
+                dependsOn.add(jobName);
+            } else {
+                progress.warn(
+                        Constant.messages.getString(
+                                "automation.error.job.dependson", job.getName(), jobName));
+            }
+        }
+        job.setDependsOn(dependsOn);
+    }
+
+    /**
+     * Gets the jobs that need to finish before the given job is started, when running the jobs in
+     * parallel. Jobs only ever depend on jobs defined before them, so the dependencies do not have
+     * cycles.
+     *
+     * <p>If the job does not declare its dependencies it depends on all of the previous jobs, that
+     * is, it runs in sequence. Otherwise it depends on the jobs declared and also on the previous
+     * jobs whose output it might use, those with a lower order (for example, a report job depends
+     * on all the explore and attack jobs), and on the previous jobs that use the same context.
+     *
+     * @param job the job.
+     * @return the jobs the given job depends on.
+     * @see AutomationJob#getDependsOn()
+     */
+    List<AutomationJob> getJobDependencies(AutomationJob job) {
+        List<AutomationJob> previousJobs = jobs.subList(0, Math.max(0, jobs.indexOf(job)));
+        List<String> dependsOn = job.getDependsOn();
+        if (dependsOn == null) {
+            return new ArrayList<>(previousJobs);
+        }
+        String contextName = getContextName(job);
+        return previousJobs.stream()
+                .filter(
+                        j ->
+                                dependsOn.contains(j.getName())
+                                        || j.getOrder().compareTo(job.getOrder()) < 0
+                                        || Objects.equals(getContextName(j), contextName))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the name of the context the given job uses, the one in its parameters or the default
+     * context if none.
+     */
+    private String getContextName(AutomationJob job) {
+        Map<?, ?> jobData = job.getJobData();
+        Object params = jobData != null ? jobData.get("parameters") : null;
+        if (params instanceof Map<?, ?>) {
+            Object contextName = ((Map<?, ?>) params).get("context");
+            if (contextName != null) {
+                return env.replaceVars(contextName);
+            }
+        }
+        Context context = env.getDefaultContext();
+        return context != null ? context.getName() : null;
+    }
+
     public AutomationProgress getProgress() {
         return progress;
     }
@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.parosproxy.paros.CommandLine;
 
 public class AutomationProgress {
@@ -34,13 +35,31 @@ public class AutomationProgress {
     private List<String> allMessages = new ArrayList<>();
     private List<AutomationJob> runJobs = new ArrayList<>();
     private boolean outputToStdout = false;
-    private Map<String, JobResultData> jobResultDataMap = new HashMap<>();
+    private Map<String, JobResultData> jobResultDataMap = new ConcurrentHashMap<>();
     private Map<AutomationJob, JobResults> jobResults = new HashMap<>();
     private int errorMark;
     private int warningMark;
     private int infoMark;
+    private final AutomationProgress parent;
 
-    public AutomationProgress() {}
+    public AutomationProgress() {
+        this.parent = null;
+    }
+
+    /**
+     * Constructs an {@code AutomationProgress} for a job run in parallel with other jobs.
+     *
+     * <p>The messages are output and published as they happen but only added to the parent
+     * progress, with {@link #merge(AutomationProgress)}, once the job has finished, so that the
+     * parent keeps the messages of each job together and in plan order. The job result data of the
+     * parent is visible to the job.
+     *
+     * @param parent the progress of the plan.
+     */
+    AutomationProgress(AutomationProgress parent) {
+        this.parent = parent;
+        this.outputToStdout = parent.outputToStdout;
+    }
 
     public void error(String error) {
         this.errors.add(error);
@@ -80,6 +99,18 @@ public class AutomationProgress {
         infoImpl(info, false);
     }
 
+    /**
+     * Adds an info message of the plan, it is not part of the results of any job.
+     *
+     * @param info the info message.
+     */
+    void planInfo(String info) {
+        infoImpl(info, true);
+        // Move it before the messages not yet recorded for a job
+        this.infos.add(infoMark, this.infos.remove(infos.size() - 1));
+        infoMark++;
+    }
+
     public List<String> getErrors() {
         return errors;
     }
@@ -123,11 +154,36 @@ public class AutomationProgress {
     }
 
     public JobResultData getJobResultData(String key) {
-        return this.jobResultDataMap.get(key);
+        JobResultData data = this.jobResultDataMap.get(key);
+        if (data == null && parent != null) {
+            return parent.getJobResultData(key);
+        }
+        return data;
     }
 
     public Collection<JobResultData> getAllJobResultData() {
-        return this.jobResultDataMap.values();
+        if (parent == null) {
+            return this.jobResultDataMap.values();
+        }
+        Map<String, JobResultData> allData = new HashMap<>();
+        parent.getAllJobResultData().forEach(data -> allData.put(data.getKey(), data));
+        allData.putAll(this.jobResultDataMap);
+        return allData.values();
+    }
+
+    /**
+     * Adds the messages and job result data of the given progress, without outputting or publishing
+     * the messages again.
+     *
+     * @param jobProgress the progress of a job run in parallel.
+     * @see #AutomationProgress(AutomationProgress)
+     */
+    void merge(AutomationProgress jobProgress) {
+        this.errors.addAll(jobProgress.errors);
+        this.warnings.addAll(jobProgress.warnings);
+        this.infos.addAll(jobProgress.infos);
+        this.allMessages.addAll(jobProgress.allMessages);
+        this.jobResultDataMap.putAll(jobProgress.jobResultDataMap);
     }
 
     void addRunJob(AutomationJob job) {
@@ -29,13 +29,23 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.swing.Timer;
+import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.CommandLine;
@@ -311,6 +321,17 @@ public class ExtensionAutomation extends ExtensionAdaptor implements CommandLine
     private void setPlanFinished(AutomationPlan plan) {
         plan.getJobs().forEach(AutomationJob::planFinished);
         plan.setFinished(new Date());
+        AutomationProgress progress = plan.getProgress();
+        progress.getRunJobs()
+                .forEach(
+                        job ->
+                                progress.infoNoStdout(
+                                        Constant.messages.getString(
+                                                "automation.info.jobtimes",
+                                                job.getName(),
+                                                job.getFormattedTimeTaken(),
+                                                formatDuration(job.getTimeWaiting()),
+                                                formatDuration(job.getTimeWorking()))));
         AutomationEventPublisher.publishEvent(
                 AutomationEventPublisher.PLAN_FINISHED, plan, plan.getProgress().toMap());
         Stats.incCounter(ERROR_COUNT_STATS, plan.getProgress().getErrors().size());
@@ -318,6 +339,13 @@ public class ExtensionAutomation extends ExtensionAdaptor implements CommandLine
         runningPlans.remove(plan);
     }
 
+    private static String formatDuration(long millis) {
+        if (millis < 0) {
+            return "";
+        }
+        return DurationFormatUtils.formatDuration(millis, "HH:mm:ss.SSS");
+    }
+
     /**
      * Returns a list of currently running plans in the order they were started
      *
@@ -356,42 +384,171 @@ public class ExtensionAutomation extends ExtensionAdaptor implements CommandLine
             return progress;
         }
 
-        for (AutomationJob job : jobsToRun) {
-            job.applyParameters(progress);
-            progress.info(Constant.messages.getString("automation.info.jobstart", job.getType()));
-            job.setStatus(AutomationJob.Status.RUNNING);
-            AutomationEventPublisher.publishEvent(AutomationEventPublisher.JOB_STARTED, job, null);
-            job.setTimeStarted();
-            Timer timer = null;
-            if (View.isInitialised()) {
-                timer = new Timer(1000, e -> getAutomationPanel().updateJob(job));
-                timer.start();
-            }
-            job.runJob(env, progress);
-            job.setTimeFinished();
-            if (timer != null) {
-                timer.stop();
-            }
-            Stats.incCounter(TOTAL_JOBS_RUN_STATS);
-            Stats.incCounter(JOBS_RUN_STATS_PREFIX + job.getType() + JOBS_RUN_STATS_POSTFIX);
-            job.logTestsToProgress(progress);
-            job.setStatus(AutomationJob.Status.COMPLETED);
-            AutomationEventPublisher.publishEvent(
-                    AutomationEventPublisher.JOB_FINISHED,
-                    job,
-                    job.getPlan().getProgress().getJobResults(job).toMap());
-            progress.info(
-                    Constant.messages.getString(
-                            "automation.info.jobend", job.getType(), job.getFormattedTimeTaken()));
-            progress.addRunJob(job);
-            if (env.isTimeToQuit()) {
-                break;
+        if (env.getMaxParallelJobs() > 1) {
+            runJobsInParallel(plan, env, progress);
+        } else {
+            for (AutomationJob job : jobsToRun) {
+                runJob(job, env, progress);
+                jobFinished(job, progress);
+                if (env.isTimeToQuit()) {
+                    break;
+                }
             }
         }
         setPlanFinished(plan);
         return progress;
     }
 
+    private void runJob(AutomationJob job, AutomationEnvironment env, AutomationProgress progress) {
+        job.applyParameters(progress);
+        progress.info(Constant.messages.getString("automation.info.jobstart", job.getType()));
+        job.setStatus(AutomationJob.Status.RUNNING);
+        AutomationEventPublisher.publishEvent(AutomationEventPublisher.JOB_STARTED, job, null);
+        job.setTimeStarted();
+        Timer timer = null;
+        if (View.isInitialised()) {
+            timer = new Timer(1000, e -> getAutomationPanel().updateJob(job));
+            timer.start();
+        }
+        job.runJob(env, progress);
+        job.setTimeFinished();
+        if (timer != null) {
+            timer.stop();
+        }
+        Stats.incCounter(TOTAL_JOBS_RUN_STATS);
+        Stats.incCounter(JOBS_RUN_STATS_PREFIX + job.getType() + JOBS_RUN_STATS_POSTFIX);
+        job.logTestsToProgress(progress);
+        job.setStatus(AutomationJob.Status.COMPLETED);
+    }
+
+    private static void jobFinished(AutomationJob job, AutomationProgress progress) {
+        AutomationEventPublisher.publishEvent(
+                AutomationEventPublisher.JOB_FINISHED,
+                job,
+                job.getPlan().getProgress().getJobResults(job).toMap());
+        progress.info(
+                Constant.messages.getString(
+                        "automation.info.jobend", job.getType(), job.getFormattedTimeTaken()));
+        progress.addRunJob(job);
+    }
+
+    /**
+     * Runs the jobs of the plan in parallel, each job is started as soon as the jobs it depends on
+     * have finished. The messages of each job are added to the plan's progress in plan order.
+     */
+    private void runJobsInParallel(
+            AutomationPlan plan, AutomationEnvironment env, AutomationProgress progress) {
+        int maxParallelJobs = env.getMaxParallelJobs();
+        progress.planInfo(
+                Constant.messages.getString("automation.info.jobs.parallel", maxParallelJobs));
+
+        List<AutomationJob> jobsToRun = plan.getJobs();
+        Map<AutomationJob, List<AutomationJob>> dependencies = new HashMap<>();
+        jobsToRun.forEach(job -> dependencies.put(job, plan.getJobDependencies(job)));
+
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        maxParallelJobs,
+                        r -> new Thread(r, "ZAP-Automation-Job-" + threadNumber.getAndIncrement()));
+        CompletionService<AutomationJob> completionService =
+                new ExecutorCompletionService<>(executor);
+
+        List<AutomationJob> pendingJobs = new ArrayList<>(jobsToRun);
+        Set<AutomationJob> finishedJobs = new HashSet<>();
+        Map<AutomationJob, AutomationProgress> jobsProgress = new HashMap<>();
+        int nextJobToReport = 0;
+        int runningJobs = 0;
+        boolean timeToQuit = false;
+        try {
+            while (true) {
+                if (!timeToQuit) {
+                    for (Iterator<AutomationJob> it = pendingJobs.iterator(); it.hasNext(); ) {
+                        AutomationJob job = it.next();
+                        if (finishedJobs.containsAll(dependencies.get(job))) {
+                            it.remove();
+                            AutomationProgress jobProgress = new AutomationProgress(progress);
+                            jobsProgress.put(job, jobProgress);
+                            completionService.submit(
+                                    () -> {
+                                        runParallelJob(job, env, jobProgress);
+                                        return job;
+                                    });
+                            runningJobs++;
+                        }
+                    }
+                }
+                if (runningJobs == 0) {
+                    break;
+                }
+
+                AutomationJob job;
+                try {
+                    job = completionService.take().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.warn("Interrupted while waiting for the jobs to finish.");
+                    break;
+                } catch (ExecutionException e) {
+                    // Not expected, the jobs handle their own exceptions
+                    LOGGER.error(e.getMessage(), e);
+                    progress.error(
+                            Constant.messages.getString(
+                                    "automation.error.unexpected.internal", e.getMessage()));
+                    timeToQuit = true;
+                    runningJobs--;
+                    continue;
+                }
+                runningJobs--;
+                finishedJobs.add(job);
+
+                AutomationProgress jobProgress = jobsProgress.get(job);
+                if ((env.isFailOnError() && jobProgress.hasErrors())
+                        || (env.isFailOnWarning() && jobProgress.hasWarnings())) {
+                    timeToQuit = true;
+                }
+
+                // Report the finished jobs in the order they are defined in the plan
+                while (nextJobToReport < jobsToRun.size()
+                        && finishedJobs.contains(jobsToRun.get(nextJobToReport))) {
+                    reportParallelJob(jobsToRun.get(nextJobToReport++), progress, jobsProgress);
+                }
+                timeToQuit |= env.isTimeToQuit();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Report any jobs that finished after a previous job was not run
+        for (int i = nextJobToReport; i < jobsToRun.size(); i++) {
+            if (finishedJobs.contains(jobsToRun.get(i))) {
+                reportParallelJob(jobsToRun.get(i), progress, jobsProgress);
+            }
+        }
+    }
+
+    private void runParallelJob(
+            AutomationJob job, AutomationEnvironment env, AutomationProgress progress) {
+        try {
+            runJob(job, env, progress);
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            progress.error(
+                    Constant.messages.getString(
+                            "automation.error.job.internal", job.getType(), e.getMessage()));
+            job.setTimeFinished();
+            job.setStatus(AutomationJob.Status.COMPLETED);
+        }
+    }
+
+    private static void reportParallelJob(
+            AutomationJob job,
+            AutomationProgress progress,
+            Map<AutomationJob, AutomationProgress> jobsProgress) {
+        progress.merge(jobsProgress.get(job));
+        jobFinished(job, progress);
+    }
+
     public void runPlanAsync(AutomationPlan plan) {
         new Thread(() -> this.runPlan(plan, true), "ZAP-Automation").start();
     }
@@ -29,10 +29,14 @@ import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.lang3.StringUtils;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.control.Control;
+import org.parosproxy.paros.core.scanner.Alert;
+import org.parosproxy.paros.core.scanner.HostProcess;
 import org.parosproxy.paros.core.scanner.Plugin;
 import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.core.scanner.Plugin.AttackStrength;
 import org.parosproxy.paros.core.scanner.PluginFactory;
+import org.parosproxy.paros.core.scanner.ScannerListener;
+import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.automation.AutomationData;
 import org.zaproxy.addon.automation.AutomationEnvironment;
 import org.zaproxy.addon.automation.AutomationJob;
@@ -258,12 +262,16 @@ public class ActiveScanJob extends AutomationJob {
                             + TimeUnit.SECONDS.toMillis(5);
         }
 
-        // Wait for the active scan to finish
-        ActiveScan scan;
+        // Wait for the active scan to finish, woken up by the scan's listener
+        ActiveScan scan = this.getExtAScan().getScan(scanId);
+        ScannerListener listener = new ProgressScannerListener();
+        if (scan != null) {
+            scan.addScannerListener(listener);
+        }
         boolean forceStop = false;
 
         while (true) {
-            this.sleep(500);
+            this.waitForProgress(500);
             scan = this.getExtAScan().getScan(scanId);
             if (scan.isStopped()) {
                 break;
@@ -273,6 +281,7 @@ public class ActiveScanJob extends AutomationJob {
                 break;
             }
         }
+        scan.removeScannerListener(listener);
         if (forceStop) {
             this.getExtAScan().stopScan(scanId);
             progress.info(Constant.messages.getString("automation.info.jobstopped", getType()));
@@ -282,6 +291,39 @@ public class ActiveScanJob extends AutomationJob {
         getExtAScan().setPanelSwitch(true);
     }
 
+    private class ProgressScannerListener implements ScannerListener {
+
+        @Override
+        public void scannerComplete(int id) {
+            notifyProgress();
+        }
+
+        @Override
+        public void hostNewScan(int id, String hostAndPort, HostProcess hostThread) {
+            // Nothing to do.
+        }
+
+        @Override
+        public void hostProgress(int id, String hostAndPort, String msg, int percentage) {
+            // Nothing to do.
+        }
+
+        @Override
+        public void hostComplete(int id, String hostAndPort) {
+            notifyProgress();
+        }
+
+        @Override
+        public void alertFound(Alert alert) {
+            // Nothing to do.
+        }
+
+        @Override
+        public void notifyNewMessage(HttpMessage msg) {
+            // Nothing to do.
+        }
+    }
+
     @Override
     public List<JobResultData> getJobResultData() {
         ActiveScan lastScan = this.getExtAScan().getLastScan();
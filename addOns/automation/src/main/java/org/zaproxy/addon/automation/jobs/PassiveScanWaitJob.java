@@ -57,15 +57,15 @@ public class PassiveScanWaitJob extends AutomationJob {
             endTime = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(maxDuration);
         }
 
-        while (extPScan.getRecordsToScan() > 0) {
+        int records;
+        while ((records = extPScan.getRecordsToScan()) > 0) {
             if (System.currentTimeMillis() > endTime) {
                 break;
             }
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                // Ignore
-            }
+            // The passive scanner has no completion event or listener, only the records left to
+            // scan (which it also polls from the session), so check those, more often the fewer
+            // are left
+            this.sleep(Math.min(500, Math.max(50, records * 10L)));
         }
         progress.addJobResultData(this.getJobResultData());
     }
@@ -1156,6 +1156,76 @@ class AutomationJobUnitTest {
         assertThat(list.get(3), is(equalTo(lastJob)));
     }
 
+    @Test
+    void shouldNotWaitIfProgressAlreadyNotified() {
+        // Given
+        AutomationJobImpl job = new AutomationJobImpl();
+        job.setTimeStarted();
+        job.notifyProgress();
+        long start = System.currentTimeMillis();
+
+        // When
+        job.waitForProgress(10_000);
+
+        // Then
+        assertThat(System.currentTimeMillis() - start < 5_000, is(equalTo(true)));
+    }
+
+    @Test
+    void shouldWaitUntilProgressNotified() throws Exception {
+        // Given
+        AutomationJobImpl job = new AutomationJobImpl();
+        job.setTimeStarted();
+        Thread notifier =
+                new Thread(
+                        () -> {
+                            try {
+                                Thread.sleep(100);
+                            } catch (InterruptedException e) {
+                                // Ignore
+                            }
+                            job.notifyProgress();
+                        });
+        long start = System.currentTimeMillis();
+
+        // When
+        notifier.start();
+        job.waitForProgress(10_000);
+        notifier.join();
+
+        // Then
+        assertThat(System.currentTimeMillis() - start < 5_000, is(equalTo(true)));
+        assertThat(job.getTimeWaiting() > 0, is(equalTo(true)));
+    }
+
+    @Test
+    void shouldWaitAtMostTheMaxWaitIfNotNotified() {
+        // Given
+        AutomationJobImpl job = new AutomationJobImpl();
+        job.setTimeStarted();
+
+        // When
+        job.waitForProgress(50);
+        job.setTimeFinished();
+
+        // Then
+        assertThat(job.getTimeWaiting() >= 50, is(equalTo(true)));
+        assertThat(job.getTimeWorking(), is(equalTo(job.getTimeTaken() - job.getTimeWaiting())));
+    }
+
+    @Test
+    void shouldResetTimeWaitingWhenStarted() {
+        // Given
+        AutomationJobImpl job = new AutomationJobImpl();
+        job.waitForProgress(10);
+
+        // When
+        job.setTimeStarted();
+
+        // Then
+        assertThat(job.getTimeWaiting(), is(equalTo(0L)));
+    }
+
     // Methods are accessed via reflection
     private static class TestParamContainer {
         private TestParam testParam = new TestParam();
@@ -20,6 +20,9 @@
 package org.zaproxy.addon.automation;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -218,6 +221,31 @@ class AutomationProgressUnitTest extends TestUtils {
         assertThat(progress.getInfos(job3).size(), is(0));
     }
 
+    @Test
+    void shouldNotReturnPlanInfosAsJobInfos() {
+        // Given
+        AutomationJob job1 = mock(AutomationJob.class);
+        AutomationJob job2 = mock(AutomationJob.class);
+
+        // When
+        progress.info("job1info1");
+        progress.planInfo("planinfo1");
+        progress.info("job1info2");
+        progress.addRunJob(job1);
+        progress.planInfo("planinfo2");
+        progress.addRunJob(job2);
+
+        // Then
+        assertThat(progress.getInfos(job1), contains("job1info1", "job1info2"));
+        assertThat(progress.getInfos(job2), is(empty()));
+        assertThat(
+                progress.getInfos(),
+                containsInAnyOrder("job1info1", "planinfo1", "job1info2", "planinfo2"));
+        assertThat(
+                progress.getAllMessages(),
+                contains("job1info1", "planinfo1", "job1info2", "planinfo2"));
+    }
+
     @Test
     void shouldReturnEmptyResultsForUnrunJobs() {
         // Given
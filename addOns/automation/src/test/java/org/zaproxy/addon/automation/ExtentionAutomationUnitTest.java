@@ -20,8 +20,12 @@
 package org.zaproxy.addon.automation;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
@@ -32,10 +36,13 @@ import static org.mockito.Mockito.withSettings;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -53,6 +60,7 @@ import org.parosproxy.paros.db.TableContext;
 import org.parosproxy.paros.extension.CommandLineArgument;
 import org.parosproxy.paros.extension.ExtensionLoader;
 import org.parosproxy.paros.model.Model;
+import org.zaproxy.addon.automation.AutomationJob.Order;
 import org.zaproxy.addon.automation.jobs.ActiveScanJob;
 import org.zaproxy.addon.automation.jobs.DelayJob;
 import org.zaproxy.addon.automation.jobs.ParamsJob;
@@ -541,6 +549,137 @@ class ExtentionAutomationUnitTest extends TestUtils {
                 is(equalTo(3L)));
     }
 
+    @Test
+    void shouldRunJobsInSequenceIfDependenciesNotDeclared() {
+        // Given
+        ExtensionAutomation extAuto = new ExtensionAutomation();
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        extAuto.registerAutomationJob(new ParallelJobImpl("job1", Order.EXPLORE, events));
+        extAuto.registerAutomationJob(new ParallelJobImpl("job2", Order.EXPLORE, events));
+        extAuto.registerAutomationJob(new ParallelJobImpl("job3", Order.REPORT, events));
+        Path filePath = getResourcePath("resources/testplan-parallel-sequence.yaml");
+
+        // When
+        AutomationProgress progress =
+                extAuto.runAutomationFile(filePath.toAbsolutePath().toString());
+
+        // Then
+        assertThat(progress.hasWarnings(), is(equalTo(false)));
+        assertThat(progress.hasErrors(), is(equalTo(false)));
+        assertThat(
+                events,
+                contains(
+                        "start job1",
+                        "end job1",
+                        "start job2",
+                        "end job2",
+                        "start job3",
+                        "end job3"));
+    }
+
+    @Test
+    void shouldRunJobsWithDeclaredDependenciesInParallel() {
+        // Given
+        ExtensionAutomation extAuto = new ExtensionAutomation();
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        extAuto.registerAutomationJob(
+                new ParallelJobImpl("job1", Order.EXPLORE, events, bothStarted));
+        extAuto.registerAutomationJob(
+                new ParallelJobImpl("job2", Order.EXPLORE, events, bothStarted));
+        extAuto.registerAutomationJob(new ParallelJobImpl("job3", Order.REPORT, events));
+        Path filePath = getResourcePath("resources/testplan-parallel.yaml");
+
+        // When
+        AutomationProgress progress =
+                extAuto.runAutomationFile(filePath.toAbsolutePath().toString());
+        List<AutomationJob> runJobs = progress.getRunJobs();
+
+        // Then
+        assertThat(progress.hasWarnings(), is(equalTo(false)));
+        assertThat(progress.hasErrors(), is(equalTo(false)));
+        assertThat(runJobs.size(), is(equalTo(3)));
+        assertThat(runJobs.get(0).getName(), is(equalTo("job1")));
+        assertThat(((ParallelJobImpl) runJobs.get(0)).ranInParallel(), is(equalTo(true)));
+        assertThat(runJobs.get(1).getName(), is(equalTo("job2")));
+        assertThat(((ParallelJobImpl) runJobs.get(1)).ranInParallel(), is(equalTo(true)));
+        assertThat(runJobs.get(2).getName(), is(equalTo("job3")));
+        assertThat(events.indexOf("start job3"), is(greaterThan(events.indexOf("end job1"))));
+        assertThat(events.indexOf("start job3"), is(greaterThan(events.indexOf("end job2"))));
+    }
+
+    @Test
+    void shouldRunJobsAfterTheJobsTheyDependOn() {
+        // Given
+        ExtensionAutomation extAuto = new ExtensionAutomation();
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        extAuto.registerAutomationJob(new ParallelJobImpl("job1", Order.EXPLORE, events));
+        extAuto.registerAutomationJob(new ParallelJobImpl("job2", Order.EXPLORE, events));
+        extAuto.registerAutomationJob(new ParallelJobImpl("job3", Order.EXPLORE, events));
+        Path filePath = getResourcePath("resources/testplan-parallel-dependson.yaml");
+
+        // When
+        AutomationProgress progress =
+                extAuto.runAutomationFile(filePath.toAbsolutePath().toString());
+        List<AutomationJob> runJobs = progress.getRunJobs();
+
+        // Then
+        assertThat(progress.hasErrors(), is(equalTo(false)));
+        assertThat(progress.getWarnings().size(), is(equalTo(1)));
+        assertThat(progress.getWarnings().get(0), is(equalTo("!automation.error.job.dependson!")));
+        assertThat(runJobs.size(), is(equalTo(3)));
+        assertThat(runJobs.get(0).getName(), is(equalTo("job1")));
+        assertThat(runJobs.get(1).getName(), is(equalTo("job2")));
+        assertThat(runJobs.get(2).getName(), is(equalTo("job3")));
+        assertThat(events.indexOf("start job2"), is(greaterThan(events.indexOf("end job1"))));
+        assertThat(events.indexOf("start job3"), is(greaterThan(events.indexOf("end job2"))));
+    }
+
+    @Test
+    void shouldRunJobsThatUseTheSameContextInSequence() {
+        // Given
+        ExtensionAutomation extAuto = new ExtensionAutomation();
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        extAuto.registerAutomationJob(new ParallelJobImpl("job1", Order.EXPLORE, events));
+        extAuto.registerAutomationJob(new ParallelJobImpl("job2", Order.EXPLORE, events));
+        Path filePath = getResourcePath("resources/testplan-parallel-context.yaml");
+
+        // When
+        AutomationProgress progress =
+                extAuto.runAutomationFile(filePath.toAbsolutePath().toString());
+
+        // Then
+        assertThat(progress.hasWarnings(), is(equalTo(false)));
+        assertThat(progress.hasErrors(), is(equalTo(false)));
+        assertThat(events, contains("start job1", "end job1", "start job2", "end job2"));
+    }
+
+    @Test
+    void shouldReportParallelJobThatFails() {
+        // Given
+        ExtensionAutomation extAuto = new ExtensionAutomation();
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ParallelJobImpl job1 = new ParallelJobImpl("job1", Order.EXPLORE, events);
+        job1.setFailure(new RuntimeException("Job failed"));
+        extAuto.registerAutomationJob(job1);
+        extAuto.registerAutomationJob(new ParallelJobImpl("job2", Order.EXPLORE, events));
+        extAuto.registerAutomationJob(new ParallelJobImpl("job3", Order.REPORT, events));
+        Path filePath = getResourcePath("resources/testplan-parallel.yaml");
+
+        // When
+        AutomationProgress progress =
+                extAuto.runAutomationFile(filePath.toAbsolutePath().toString());
+        List<AutomationJob> runJobs = progress.getRunJobs();
+
+        // Then
+        assertThat(progress.getErrors(), contains("!automation.error.job.internal!"));
+        assertThat(runJobs.size(), is(equalTo(2)));
+        assertThat(runJobs.get(0).getName(), is(equalTo("job1")));
+        assertThat(runJobs.get(0).getStatus(), is(equalTo(AutomationJob.Status.COMPLETED)));
+        assertThat(runJobs.get(1).getName(), is(equalTo("job2")));
+        assertThat(events, not(hasItem("start job3")));
+    }
+
     @Test
     void shouldReturnCmdLineArgs() {
         // Given
@@ -893,6 +1032,10 @@ class ExtentionAutomationUnitTest extends TestUtils {
             this.paramMethodObject = paramMethodObject;
         }
 
+        void setOrder(Order order) {
+            this.order = order;
+        }
+
         @Override
         public void runJob(AutomationEnvironment env, AutomationProgress progress) {
             wasRun = true;
@@ -973,6 +1116,71 @@ class ExtentionAutomationUnitTest extends TestUtils {
         }
     }
 
+    private static class ParallelJobImpl extends AutomationJobImpl {
+
+        private final List<String> events;
+        private final CountDownLatch bothStarted;
+        private boolean ranInParallel;
+        private RuntimeException failure;
+
+        ParallelJobImpl(String type, Order order, List<String> events) {
+            this(type, order, events, null);
+        }
+
+        ParallelJobImpl(String type, Order order, List<String> events, CountDownLatch bothStarted) {
+            super(type);
+            setOrder(order);
+            this.events = events;
+            this.bothStarted = bothStarted;
+        }
+
+        void setFailure(RuntimeException failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void runJob(AutomationEnvironment env, AutomationProgress progress) {
+            super.runJob(env, progress);
+            events.add("start " + getType());
+            if (failure != null) {
+                events.add("end " + getType());
+                throw failure;
+            }
+            if (bothStarted != null) {
+                bothStarted.countDown();
+                try {
+                    // Generous timeout, only reached if the jobs are not run in parallel
+                    ranInParallel = bothStarted.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add("end " + getType());
+        }
+
+        boolean ranInParallel() {
+            return ranInParallel;
+        }
+
+        @Override
+        public boolean verifyCustomParameter(
+                String name, String value, AutomationProgress progress) {
+            return "context".equals(name);
+        }
+
+        @Override
+        public boolean applyCustomParameter(String name, String value) {
+            return "context".equals(name);
+        }
+
+        @Override
+        public AutomationJob newJob() {
+            ParallelJobImpl job = new ParallelJobImpl(getType(), getOrder(), events, bothStarted);
+            job.setFailure(failure);
+            return job;
+        }
+    }
+
     private static class AutomationJobLatchImpl extends AutomationJobImpl {
 
         private CountDownLatch latch;
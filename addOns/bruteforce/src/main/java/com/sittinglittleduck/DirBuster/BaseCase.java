@@ -21,6 +21,7 @@
 package com.sittinglittleduck.DirBuster;
 
 import java.net.URL;
+import java.util.regex.Pattern;
 
 /** Used to store information about a base case. */
 public class BaseCase {
@@ -53,6 +54,11 @@ public class BaseCase {
      */
     private String regex;
 
+    /*
+     * the regex, compiled once for all the responses checked
+     */
+    private final Pattern regexPattern;
+
     /** Creates a new instance of BaseCase */
     public BaseCase(
             URL baseCaseURL,
@@ -71,6 +77,7 @@ public class BaseCase {
         this.fileExt = fileExt;
         this.useRegexInstead = useRegexInstead;
         this.regex = regex;
+        this.regexPattern = useRegexInstead && regex != null ? Pattern.compile(regex) : null;
     }
 
     public String getBaseCase() {
@@ -117,6 +124,15 @@ public class BaseCase {
         return regex;
     }
 
+    /**
+     * Gets the compiled regex.
+     *
+     * @return the compiled regex, or {@code null} if not using the regex.
+     */
+    public Pattern getRegexPattern() {
+        return regexPattern;
+    }
+
     public int getReturnCode() {
         return returnCode;
     }
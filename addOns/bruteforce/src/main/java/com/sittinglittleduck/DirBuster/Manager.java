@@ -26,11 +26,13 @@ import com.sittinglittleduck.DirBuster.workGenerators.WorkerGeneratorURLFuzz;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.Timer;
 import java.util.Vector;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.prefs.Preferences;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -59,7 +61,8 @@ public class Manager implements ProcessChecker.ProcessUpdate {
     private String startPoint;
     private boolean doDirs, doFiles;
     private int totalDone = 0;
-    private Vector<Worker> workers = new Vector<>(100, 10);
+    // read far more often (to check if still working) than changed
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
     private Vector<HTMLparse> parseWorkers = new Vector<>(100, 10);
     private String[] charSet;
     private int maxLen, minLen;
@@ -356,11 +359,11 @@ public class Manager implements ProcessChecker.ProcessUpdate {
     private void createTheThreads() {
         // workers = new Worker[workerCount];
 
-        workers.removeAllElements();
+        workers.clear();
         parseWorkers.removeAllElements();
 
         for (int i = 0; i < workerCount; i++) {
-            workers.addElement(new Worker(i, this));
+            workers.add(new Worker(i, this));
             // workers[i] = new Worker(this, i);
             // tpes.execute(workers[i]);
         }
@@ -427,7 +430,7 @@ public class Manager implements ProcessChecker.ProcessUpdate {
 
             // add the worker and parseWorker threads
             for (int i = 0; i < workers.size(); i++) {
-                Thread workerThread = new Thread((workers.elementAt(i)));
+                Thread workerThread = new Thread((workers.get(i)));
                 workerThread.setName("DirBuster-Worker");
                 workerThread.start();
                 parseWorkers.elementAt(i).start();
@@ -467,112 +470,116 @@ public class Manager implements ProcessChecker.ProcessUpdate {
             String BaseCase,
             String RawResponce,
             BaseCase baseCaseObj) {
-        try {
+        boolean isStartPoint;
 
-            boolean isStartPoint;
+        if (Config.caseInsensativeMode) {
+            isStartPoint = url.getPath().equalsIgnoreCase(startPoint);
 
-            if (Config.caseInsensativeMode) {
-                isStartPoint = url.getPath().equalsIgnoreCase(startPoint);
+            /*
+             * loop through all the items in the queue
+             */
 
-                /*
-                 * loop through all the items in the queue
-                 */
+            /*
+             * convert to array
+             */
+            boolean foundDir = false;
+            DirToCheck[] dirArray = dirQueue.toArray(new DirToCheck[0]);
 
+            for (int a = 0; a < dirArray.length; a++) {
                 /*
-                 * convert to array
+                 * perform case in seneative check
                  */
-                boolean foundDir = false;
-                DirToCheck[] dirArray = (DirToCheck[]) dirQueue.toArray();
-
-                for (int a = 0; a < dirArray.length; a++) {
-                    /*
-                     * perform case in seneative check
-                     */
-                    if (url.getPath().equalsIgnoreCase(dirArray[a].getName())) {
-                        foundDir = true;
-                        break;
-                    }
+                if (url.getPath().equalsIgnoreCase(dirArray[a].getName())) {
+                    foundDir = true;
+                    break;
                 }
+            }
 
-                /*
-                 * if the dir is not already there.
-                 */
-                if (!foundDir) {
-
-                    // hack to prevent getting an instance of the main extToUse and its contents!
+            /*
+             * if the dir is not already there.
+             */
+            if (!foundDir) {
 
-                    Vector<ExtToCheck> tempExtToUse = new Vector<>(10, 10);
-                    // tempExtToUse = extToUse.clone();
+                // hack to prevent getting an instance of the main extToUse and its contents!
 
-                    for (int a = 0; a < extToUse.size(); a++) {
-                        ExtToCheck oldExtToCheck = extToUse.elementAt(a);
-                        ExtToCheck tempExtToCheck =
-                                new ExtToCheck(oldExtToCheck.getName(), oldExtToCheck.toCheck());
-                        tempExtToUse.addElement(tempExtToCheck);
-                    }
+                Vector<ExtToCheck> tempExtToUse = new Vector<>(10, 10);
+                // tempExtToUse = extToUse.clone();
 
-                    boolean addToDirQueue = true;
+                for (int a = 0; a < extToUse.size(); a++) {
+                    ExtToCheck oldExtToCheck = extToUse.elementAt(a);
+                    ExtToCheck tempExtToCheck =
+                            new ExtToCheck(oldExtToCheck.getName(), oldExtToCheck.toCheck());
+                    tempExtToUse.addElement(tempExtToCheck);
+                }
 
-                    if (onlyUnderStartPoint) {
-                        addToDirQueue =
-                                url.getPath()
-                                        .toLowerCase(Locale.ENGLISH)
-                                        .startsWith(startPoint.toLowerCase(Locale.ENGLISH));
-                    }
+                boolean addToDirQueue = true;
 
-                    if (addToDirQueue) {
-                        dirQueue.put(new DirToCheck(url.getPath(), tempExtToUse));
-                    }
-                    totalDirsFound++;
+                if (onlyUnderStartPoint) {
+                    addToDirQueue =
+                            url.getPath()
+                                    .toLowerCase(Locale.ENGLISH)
+                                    .startsWith(startPoint.toLowerCase(Locale.ENGLISH));
                 }
 
+                if (addToDirQueue) {
+                    queueDir(new DirToCheck(url.getPath(), tempExtToUse));
+                }
+                totalDirsFound++;
             }
-            /*
-             * normal case sensative search
-             */
-            else {
-                isStartPoint = url.getPath().equals(startPoint);
-                // check it is not already in the queue
-                if (!dirQueue.contains(new DirToCheck(url.getPath(), extToUse))
-                        && !isStartPoint
-                        && isRecursive()) {
-                    // Vector tempext = (Vector) extToUse.clone();
-
-                    // hack to prevent getting an instance of the main extToUse and its contents!
-
-                    Vector<ExtToCheck> tempExtToUse = new Vector<>(10, 10);
-                    // tempExtToUse = extToUse.clone();
-
-                    for (int a = 0; a < extToUse.size(); a++) {
-                        ExtToCheck oldExtToCheck = extToUse.elementAt(a);
-                        ExtToCheck tempExtToCheck =
-                                new ExtToCheck(oldExtToCheck.getName(), oldExtToCheck.toCheck());
-                        tempExtToUse.addElement(tempExtToCheck);
-                    }
 
-                    boolean addToDirQueue = true;
+        }
+        /*
+         * normal case sensative search
+         */
+        else {
+            isStartPoint = url.getPath().equals(startPoint);
+            // check it is not already in the queue
+            if (!dirQueue.contains(new DirToCheck(url.getPath(), extToUse))
+                    && !isStartPoint
+                    && isRecursive()) {
+                // Vector tempext = (Vector) extToUse.clone();
+
+                // hack to prevent getting an instance of the main extToUse and its contents!
+
+                Vector<ExtToCheck> tempExtToUse = new Vector<>(10, 10);
+                // tempExtToUse = extToUse.clone();
+
+                for (int a = 0; a < extToUse.size(); a++) {
+                    ExtToCheck oldExtToCheck = extToUse.elementAt(a);
+                    ExtToCheck tempExtToCheck =
+                            new ExtToCheck(oldExtToCheck.getName(), oldExtToCheck.toCheck());
+                    tempExtToUse.addElement(tempExtToCheck);
+                }
 
-                    if (onlyUnderStartPoint) {
-                        addToDirQueue = url.getPath().startsWith(startPoint);
-                    }
+                boolean addToDirQueue = true;
 
-                    if (addToDirQueue) {
-                        dirQueue.put(new DirToCheck(url.getPath(), tempExtToUse));
-                    }
-                    totalDirsFound++;
+                if (onlyUnderStartPoint) {
+                    addToDirQueue = url.getPath().startsWith(startPoint);
                 }
+
+                if (addToDirQueue) {
+                    queueDir(new DirToCheck(url.getPath(), tempExtToUse));
+                }
+                totalDirsFound++;
             }
+        }
 
-            LOGGER.debug("Dir found: {} - {}", url.getFile(), statusCode);
+        LOGGER.debug("Dir found: {} - {}", url.getFile(), statusCode);
 
-            // add to list of items that have already processed
-            addParsedLink(url.getPath());
+        // add to list of items that have already processed
+        addParsedLink(url.getPath());
 
-            headlessResult.addElement(
-                    new HeadlessResult(url.getFile(), statusCode, HeadlessResult.DIR));
-        } catch (InterruptedException e) {
-            LOGGER.debug(e);
-            return;
+        headlessResult.addElement(
+                new HeadlessResult(url.getFile(), statusCode, HeadlessResult.DIR));
+    }
+
+    /*
+     * does not wait for space in the queue, the caller holds the lock of the manager which is
+     * also required to process the queue
+     */
+    private void queueDir(DirToCheck dir) {
+        if (!dirQueue.offer(dir)) {
+            LOGGER.warn("Dir queue is full, not scanning: {}", dir.getName());
         }
     }
 
@@ -651,18 +658,18 @@ public class Manager implements ProcessChecker.ProcessUpdate {
     }
 
     public void pause() {
-        for (int a = 0; a < workers.size(); a++) {
-            synchronized (workers.elementAt(a)) {
-                workers.elementAt(a).pause();
+        for (Worker worker : workers) {
+            synchronized (worker) {
+                worker.pause();
             }
         }
     }
 
     public void unPause() {
-        for (int a = 0; a < workers.size(); a++) {
-            synchronized (workers.elementAt(a)) {
-                workers.elementAt(a).unPause();
-                workers.elementAt(a).notify();
+        for (Worker worker : workers) {
+            synchronized (worker) {
+                worker.unPause();
+                worker.notify();
             }
         }
     }
@@ -714,10 +721,8 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         }
 
         // stop all the workers;
-        for (int a = 0; a < workers.size(); a++) {
-            synchronized (workers.elementAt(a)) {
-                workers.elementAt(a).stopThread();
-            }
+        for (Worker worker : workers) {
+            worker.stopThread();
         }
 
         // stops all the parsers
@@ -754,7 +759,7 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         return workerCount;
     }
 
-    public Vector<Worker> getWorkers() {
+    public List<Worker> getWorkers() {
         return workers;
     }
 
@@ -773,9 +778,10 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         int currentNumber = workers.size();
         for (int i = 0; i < number; i++) {
             int threadid = currentNumber + i;
-            workers.addElement(new Worker(threadid, this));
+            Worker worker = new Worker(threadid, this);
+            workers.add(worker);
 
-            new Thread(workers.elementAt(threadid)).start();
+            new Thread(worker).start();
         }
         workerCount = currentNumber + number;
     }
@@ -791,8 +797,7 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         }
 
         for (int a = currentNumber - 1; a >= (currentNumber - number); a--) {
-            workers.elementAt(a).stopThread();
-            workers.remove(a);
+            workers.remove(a).stopThread();
         }
         workerCount = currentNumber - number;
     }
@@ -1047,8 +1052,8 @@ public class Manager implements ProcessChecker.ProcessUpdate {
     }
 
     public boolean areWorkersAlive() {
-        for (int a = 0; a < workers.size(); a++) {
-            if (workers.elementAt(a).isWorking()) {
+        for (Worker worker : workers) {
+            if (worker.isWorking()) {
                 // there is a worker still working so break
                 return true;
             }
@@ -19,6 +19,7 @@
  */
 package com.sittinglittleduck.DirBuster;
 
+import java.util.List;
 import java.util.TimerTask;
 import java.util.Vector;
 
@@ -43,11 +44,11 @@ public class ProcessEnd extends TimerTask {
                 && manager.parseQueue.isEmpty()) {
             // test to see if all the workers are done
             boolean allWorkersFinished = true;
-            Vector<Worker> workers = manager.getWorkers();
+            List<Worker> workers = manager.getWorkers();
             Vector<HTMLparse> parsers = manager.getParseWorkers();
 
             for (int a = 0; a < workers.size(); a++) {
-                if (workers.elementAt(a).isWorking()) {
+                if (workers.get(a).isWorking()) {
                     // there is a worker still working so break
                     allWorkersFinished = false;
                     break;
@@ -71,11 +72,11 @@ public class ProcessEnd extends TimerTask {
             if (manager.urlFuzz || manager.pureBrutefuzz) {
                 if (manager.isURLFuzzGenFinished()) {
                     boolean allWorkersFinished = true;
-                    Vector<Worker> workers = manager.getWorkers();
+                    List<Worker> workers = manager.getWorkers();
                     Vector<HTMLparse> parsers = manager.getParseWorkers();
 
                     for (int a = 0; a < workers.size(); a++) {
-                        if (workers.elementAt(a).isWorking()) {
+                        if (workers.get(a).isWorking()) {
                             // there is a worker still working so break
                             allWorkersFinished = false;
                             break;
@@ -0,0 +1,138 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sittinglittleduck.DirBuster;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The items of a list file, read once and shared by all the directories and scans using the file.
+ *
+ * <p>Comments (lines starting with {@code #}) and empty lines are skipped, the items are trimmed
+ * and the duplicated ones removed, keeping the order of the file. The file is read again only if
+ * changed, or if the list was released. The lists are softly referenced, so they are released when
+ * memory is needed and no scan is using them, and all of them when the add-on is unloaded.
+ */
+public final class Wordlist {
+
+    private static final Map<Path, SoftReference<Wordlist>> CACHE = new ConcurrentHashMap<>();
+
+    private final String[] items;
+    private final long lastModified;
+    private final long size;
+
+    private Wordlist(String[] items, long lastModified, long size) {
+        this.items = items;
+        this.lastModified = lastModified;
+        this.size = size;
+    }
+
+    /**
+     * Gets the items of the given file.
+     *
+     * @param file the path to the file.
+     * @return the items, never {@code null}.
+     * @throws IOException if an error occurred while reading the file.
+     */
+    public static Wordlist get(String file) throws IOException {
+        Path path = Paths.get(file).toAbsolutePath().normalize();
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        long size = Files.size(path);
+        Wordlist[] wordlist = new Wordlist[1];
+        try {
+            CACHE.compute(
+                    path,
+                    (k, v) -> {
+                        Wordlist cached = v != null ? v.get() : null;
+                        if (cached != null
+                                && cached.lastModified == lastModified
+                                && cached.size == size) {
+                            wordlist[0] = cached;
+                            return v;
+                        }
+                        try {
+                            wordlist[0] = read(k, lastModified, size);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return new SoftReference<>(wordlist[0]);
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return wordlist[0];
+    }
+
+    private static Wordlist read(Path path, long lastModified, long size) throws IOException {
+        Set<String> items = new LinkedHashSet<>();
+        try (BufferedReader reader =
+                new BufferedReader(
+                        new InputStreamReader(
+                                Files.newInputStream(path), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    continue;
+                }
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    items.add(line);
+                }
+            }
+        }
+        return new Wordlist(items.toArray(new String[0]), lastModified, size);
+    }
+
+    /** Releases all the lists read. */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /**
+     * Gets the number of items.
+     *
+     * @return the number of items.
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Gets the item at the given index.
+     *
+     * @param index the index of the item.
+     * @return the item.
+     * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+     */
+    public String get(int index) {
+        return items[index];
+    }
+}
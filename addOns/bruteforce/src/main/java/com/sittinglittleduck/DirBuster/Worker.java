@@ -39,12 +39,16 @@ public class Worker implements Runnable {
     private final Manager manager;
     private boolean pleaseWait = false;
     private int threadId;
-    private boolean working;
-    private boolean stop = false;
+    private volatile boolean working;
+    private volatile boolean stop = false;
 
     /* Logger object for the class */
     private static final Logger LOGGER = LogManager.getLogger(Worker.class);
 
+    // TODO move this option to the Adv options
+    private static final Pattern FILE_NOT_FOUND_PATTERN =
+            Pattern.compile(".*file not found.*", Pattern.CASE_INSENSITIVE);
+
     /**
      * Creates a new instance of Worker
      *
@@ -134,9 +138,7 @@ public class Worker implements Runnable {
                  * use the custom regex check instead
                  */
                 else if (work.getBaseCaseObj().isUseRegexInstead()) {
-                    Pattern regexFindFile = Pattern.compile(work.getBaseCaseObj().getRegex());
-
-                    Matcher m = regexFindFile.matcher(rawResponse);
+                    Matcher m = work.getBaseCaseObj().getRegexPattern().matcher(rawResponse);
 
                     if (m.find()) {
                         // do nothing as we have a 404
@@ -161,14 +163,15 @@ public class Worker implements Runnable {
                             int newCode = httpResponse.getStatusCode();
 
                             // in some cases the second get can return a different result, than the
-                            // first head request!
+                            // first head request, the GET confirms (or not) what was found
                             if (newCode != code) {
-                                manager.foundError(
-                                        url,
-                                        "Return code for first HEAD, is different to the second GET: "
-                                                + code
-                                                + " - "
-                                                + newCode);
+                                LOGGER.debug(
+                                        "Worker[{}]: HEAD returned {} but GET {} for: {}",
+                                        threadId,
+                                        code,
+                                        newCode,
+                                        url);
+                                code = newCode;
                             }
 
                             // build a string version of the headers
@@ -182,7 +185,10 @@ public class Worker implements Runnable {
                             }
                         }
 
-                        if (work.isDir()) {
+                        if (code == work.getBaseCaseObj().getFailCode()
+                                || !verifyIfCodeIsValid(code)) {
+                            LOGGER.debug("Worker[{}]: GET did not confirm: {}", threadId, url);
+                        } else if (work.isDir()) {
                             manager.foundDir(url, code, rawResponse, work.getBaseCaseObj());
                         } else {
                             manager.foundFile(url, code, rawResponse, work.getBaseCaseObj());
@@ -236,11 +242,8 @@ public class Worker implements Runnable {
     private void verifyResponseForValidRequests(int code, String response, String rawResponse) {
         LOGGER.debug("Worker[{}]: Base Case Check {}", threadId, url);
 
-        // TODO move this option to the Adv options
         // if the response does not match the base case
-        Pattern regexFindFile = Pattern.compile(".*file not found.*", Pattern.CASE_INSENSITIVE);
-
-        Matcher m = regexFindFile.matcher(response);
+        Matcher m = FILE_NOT_FOUND_PATTERN.matcher(response);
 
         // need to clean the base case of the item we are looking for
         String basecase =
@@ -296,12 +299,12 @@ public class Worker implements Runnable {
      *
      * @return boolean value about if the thread is working
      */
-    public synchronized boolean isWorking() {
+    public boolean isWorking() {
         return working;
     }
 
     /** Method to call to stop the thread */
-    public synchronized void stopThread() {
+    public void stopThread() {
         this.stop = true;
     }
 }
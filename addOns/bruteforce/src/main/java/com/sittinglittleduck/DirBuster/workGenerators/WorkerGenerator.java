@@ -29,11 +29,8 @@ import com.sittinglittleduck.DirBuster.HttpStatus;
 import com.sittinglittleduck.DirBuster.Manager;
 import com.sittinglittleduck.DirBuster.SimpleHttpClient.HttpMethod;
 import com.sittinglittleduck.DirBuster.WorkUnit;
-import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import com.sittinglittleduck.DirBuster.Wordlist;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Vector;
@@ -83,32 +80,25 @@ public class WorkerGenerator implements Runnable {
     @Override
     public void run() {
         String currentDir = "/";
-        String line;
         Vector<ExtToCheck> extToCheck = new Vector<>(10, 5);
         boolean recursive = true;
         int passTotal = 0;
 
-        // --------------------------------------------------
+        // read the list once, it's used for all the dirs and file extensions
+        String[] items = new String[0];
         try {
-
-            // find the total number of requests to be made, per pass
-            // based on the fact there is a single entry per line
-            BufferedReader d =
-                    new BufferedReader(new InputStreamReader(new FileInputStream(inputFile)));
-            passTotal = 0;
-            while ((line = d.readLine()) != null) {
-                if (!line.startsWith("#")) {
-                    passTotal++;
-                }
+            Wordlist wordlist = Wordlist.get(inputFile);
+            items = new String[wordlist.size()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = makeItemsafe(wordlist.get(i));
             }
-
-            manager.setTotalPass(passTotal);
-        } catch (FileNotFoundException ex) {
-            LOGGER.error("File '{}' not found!", inputFile, ex);
         } catch (IOException ex) {
-            LOGGER.error(ex);
+            LOGGER.error("Failed to read the file '{}':", inputFile, ex);
         }
-        // -------------------------------------------------
+
+        // the total number of requests to be made, per pass
+        passTotal = items.length;
+        manager.setTotalPass(passTotal);
 
         // checks if the server surports heads requests
         if (manager.getAuto()) {
@@ -187,99 +177,83 @@ public class WorkerGenerator implements Runnable {
                 }
 
                 // generate work links
-                try {
-                    // readin dir names
-                    BufferedReader d =
-                            new BufferedReader(
-                                    new InputStreamReader(new FileInputStream(inputFile)));
-
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("Generating dir list for {}", firstPart);
-                    }
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Generating dir list for {}", firstPart);
+                }
 
-                    URL currentURL;
+                URL currentURL;
 
-                    // add the first item while doing dir's
-                    if (counter == 0) {
-                        try {
-                            String method;
-                            if (manager.getAuto()
-                                    && !baseCaseObj.useContentAnalysisMode()
-                                    && !baseCaseObj.isUseRegexInstead()) {
-                                method = "HEAD";
-                            } else {
-                                method = "GET";
-                            }
-                            currentURL = new URL(firstPart + currentDir);
-                            // System.out.println("first part = " + firstPart);
-                            // System.out.println("current dir = " + currentDir);
-                            workQueue.put(
-                                    new WorkUnit(
-                                            currentURL, true, HttpMethod.GET, baseCaseObj, null));
-                            LOGGER.debug("1 adding dir to work list {} {}", method, currentDir);
-                        } catch (MalformedURLException ex) {
-                            LOGGER.debug("Bad URL", ex);
-                        } catch (InterruptedException ex) {
-                            LOGGER.debug(ex);
-                        }
-                    } // end of dealing with first item
-                    int dirsProcessed = 0;
-
-                    // add the rest of the dirs
-                    while ((line = d.readLine()) != null) {
-                        // code to skip the current work load
-                        if (skipCurrent) {
-                            // add the totalnumber per pass - the amount process this pass to the
-                            // work correction total
-                            manager.addToWorkCorrection(passTotal - dirsProcessed);
-                            break;
+                // add the first item while doing dir's
+                if (counter == 0) {
+                    try {
+                        String method;
+                        if (manager.getAuto()
+                                && !baseCaseObj.useContentAnalysisMode()
+                                && !baseCaseObj.isUseRegexInstead()) {
+                            method = "HEAD";
+                        } else {
+                            method = "GET";
                         }
+                        currentURL = new URL(firstPart + currentDir);
+                        // System.out.println("first part = " + firstPart);
+                        // System.out.println("current dir = " + currentDir);
+                        workQueue.put(
+                                new WorkUnit(
+                                        currentURL, true, HttpMethod.GET, baseCaseObj, null));
+                        LOGGER.debug("1 adding dir to work list {} {}", method, currentDir);
+                    } catch (MalformedURLException ex) {
+                        LOGGER.debug("Bad URL", ex);
+                    } catch (InterruptedException ex) {
+                        LOGGER.debug(ex);
+                    }
+                } // end of dealing with first item
+                int dirsProcessed = 0;
+
+                // add the rest of the dirs
+                for (String line : items) {
+                    // code to skip the current work load
+                    if (skipCurrent) {
+                        // add the totalnumber per pass - the amount process this pass to the
+                        // work correction total
+                        manager.addToWorkCorrection(passTotal - dirsProcessed);
+                        break;
+                    }
 
-                        // if the line is not empty or starts with a #
-                        if (!line.equalsIgnoreCase("") && !line.startsWith("#")) {
-                            line = line.trim();
-                            line = makeItemsafe(line);
-                            try {
-                                HttpMethod method;
-                                if (manager.getAuto()
-                                        && !baseCaseObj.useContentAnalysisMode()
-                                        && !baseCaseObj.isUseRegexInstead()) {
-                                    method = HttpMethod.HEAD;
-                                } else {
-                                    method = HttpMethod.GET;
-                                }
-
-                                currentURL = new URL(firstPart + currentDir + line + "/");
-                                // BaseCase baseCaseObj = new BaseCase(currentURL, failcode, true,
-                                // failurl, baseResponce);
-                                // if the base case is null then we need to switch to content
-                                // anylsis mode
+                    try {
+                        HttpMethod method;
+                        if (manager.getAuto()
+                                && !baseCaseObj.useContentAnalysisMode()
+                                && !baseCaseObj.isUseRegexInstead()) {
+                            method = HttpMethod.HEAD;
+                        } else {
+                            method = HttpMethod.GET;
+                        }
 
-                                // System.out.println("Gen about to add to queue");
-                                workQueue.put(
-                                        new WorkUnit(currentURL, true, method, baseCaseObj, line));
-                                // System.out.println("Gen finshed adding to queue");
-                                LOGGER.debug("2 adding dir to work list {} {}", method, currentURL);
-                            } catch (MalformedURLException e) {
-                                // TODO deal with bad line
-                                // e.printStackTrace();
-                                // do nothing if it's malformed, I dont care about them!
-                            } catch (InterruptedException e) {
-                                LOGGER.debug(e);
-                            }
+                        currentURL = new URL(firstPart + currentDir + line + "/");
+                        // BaseCase baseCaseObj = new BaseCase(currentURL, failcode, true,
+                        // failurl, baseResponce);
+                        // if the base case is null then we need to switch to content
+                        // anylsis mode
+
+                        // System.out.println("Gen about to add to queue");
+                        workQueue.put(
+                                new WorkUnit(currentURL, true, method, baseCaseObj, line));
+                        // System.out.println("Gen finshed adding to queue");
+                        LOGGER.debug("2 adding dir to work list {} {}", method, currentURL);
+                    } catch (MalformedURLException e) {
+                        // TODO deal with bad line
+                        // e.printStackTrace();
+                        // do nothing if it's malformed, I dont care about them!
+                    } catch (InterruptedException e) {
+                        LOGGER.debug(e);
+                    }
 
-                            // if there is a call to stop the work gen then stop!
-                            if (stopMe) {
-                                return;
-                            }
-                            dirsProcessed++;
-                        }
-                    } // end of while
-                } catch (FileNotFoundException e) {
-                    LOGGER.error("File '{}' not found!", inputFile, e);
-                } catch (IOException e) {
-                    LOGGER.error(e);
-                }
+                    // if there is a call to stop the work gen then stop!
+                    if (stopMe) {
+                        return;
+                    }
+                    dirsProcessed++;
+                } // end of for
             }
 
             // generate the list of files
@@ -316,72 +290,55 @@ public class WorkerGenerator implements Runnable {
                             return;
                         }
 
-                        try {
-                            BufferedReader d =
-                                    new BufferedReader(
-                                            new InputStreamReader(new FileInputStream(inputFile)));
-                            // if(failcode != 200)
-                            // {
-                            int filesProcessed = 0;
-
-                            while ((line = d.readLine()) != null) {
-                                // code to skip the current work load
-                                if (skipCurrent) {
-                                    manager.addToWorkCorrection(passTotal - filesProcessed);
-                                    break;
+                        int filesProcessed = 0;
+
+                        for (String line : items) {
+                            // code to skip the current work load
+                            if (skipCurrent) {
+                                manager.addToWorkCorrection(passTotal - filesProcessed);
+                                break;
+                            }
+                            try {
+                                HttpMethod method;
+                                if (manager.getAuto()
+                                        && !baseCaseObj.useContentAnalysisMode()
+                                        && !baseCaseObj.isUseRegexInstead()) {
+                                    method = HttpMethod.HEAD;
+                                } else {
+                                    method = HttpMethod.GET;
                                 }
-                                // dont process is the line empty for starts with a #
-                                if (!line.equalsIgnoreCase("") && !line.startsWith("#")) {
-                                    line = line.trim();
-                                    line = makeItemsafe(line);
-                                    try {
-                                        HttpMethod method;
-                                        if (manager.getAuto()
-                                                && !baseCaseObj.useContentAnalysisMode()
-                                                && !baseCaseObj.isUseRegexInstead()) {
-                                            method = HttpMethod.HEAD;
-                                        } else {
-                                            method = HttpMethod.GET;
-                                        }
-
-                                        URL currentURL =
-                                                new URL(
-                                                        firstPart
-                                                                + currentDir
-                                                                + line
-                                                                + fileExtention);
-                                        // BaseCase baseCaseObj = new BaseCase(currentURL, true,
-                                        // failurl, baseResponce);
-                                        workQueue.put(
-                                                new WorkUnit(
-                                                        currentURL,
-                                                        false,
-                                                        method,
-                                                        baseCaseObj,
-                                                        line));
-                                        LOGGER.debug(
-                                                "adding file to work list {} {}",
+
+                                URL currentURL =
+                                        new URL(
+                                                firstPart
+                                                        + currentDir
+                                                        + line
+                                                        + fileExtention);
+                                // BaseCase baseCaseObj = new BaseCase(currentURL, true,
+                                // failurl, baseResponce);
+                                workQueue.put(
+                                        new WorkUnit(
+                                                currentURL,
+                                                false,
                                                 method,
-                                                currentURL);
-                                    } catch (MalformedURLException e) {
-                                        // e.printStackTrace();
-                                        // again do nothing as I dont care
-                                    } catch (InterruptedException e) {
-                                        LOGGER.debug(e);
-                                    }
-
-                                    if (stopMe) {
-                                        return;
-                                    }
-                                    filesProcessed++;
-                                }
-                            } // end of while
-                            // }
-                        } catch (FileNotFoundException e) {
-                            LOGGER.error("File '{}' not found!", inputFile, e);
-                        } catch (IOException e) {
-                            LOGGER.error(e);
-                        }
+                                                baseCaseObj,
+                                                line));
+                                LOGGER.debug(
+                                        "adding file to work list {} {}",
+                                        method,
+                                        currentURL);
+                            } catch (MalformedURLException e) {
+                                // e.printStackTrace();
+                                // again do nothing as I dont care
+                            } catch (InterruptedException e) {
+                                LOGGER.debug(e);
+                            }
+
+                            if (stopMe) {
+                                return;
+                            }
+                            filesProcessed++;
+                        } // end of for
                     }
                 } // end of file ext loop
             } // end of if files
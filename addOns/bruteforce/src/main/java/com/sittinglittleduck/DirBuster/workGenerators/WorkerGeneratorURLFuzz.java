@@ -29,11 +29,8 @@ import com.sittinglittleduck.DirBuster.HttpStatus;
 import com.sittinglittleduck.DirBuster.Manager;
 import com.sittinglittleduck.DirBuster.SimpleHttpClient.HttpMethod;
 import com.sittinglittleduck.DirBuster.WorkUnit;
-import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import com.sittinglittleduck.DirBuster.Wordlist;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
@@ -96,28 +93,19 @@ public class WorkerGeneratorURLFuzz implements Runnable {
          * Read in all the items and create all the work we need to.
          */
 
-        BufferedReader d = null;
         try {
             manager.setURLFuzzGenFinished(false);
             String currentDir = "/";
-            String line;
             boolean recursive = true;
-            int passTotal = 0;
 
+            Wordlist wordlist;
             try {
-                d = new BufferedReader(new InputStreamReader(new FileInputStream(inputFile)));
-                passTotal = 0;
-                while ((line = d.readLine()) != null) {
-                    if (!line.startsWith("#")) {
-                        passTotal++;
-                    }
-                }
-                manager.setTotalPass(passTotal);
-            } catch (FileNotFoundException ex) {
-                LOGGER.error("File '{}' not found!", inputFile, ex);
+                wordlist = Wordlist.get(inputFile);
             } catch (IOException ex) {
-                LOGGER.error(ex);
+                LOGGER.error("Failed to read the file '{}':", inputFile, ex);
+                return;
             }
+            manager.setTotalPass(wordlist.size());
 
             if (manager.getAuto()) {
                 try {
@@ -141,8 +129,6 @@ public class WorkerGeneratorURLFuzz implements Runnable {
                 }
             }
 
-            d = new BufferedReader(new InputStreamReader(new FileInputStream(inputFile)));
-
             LOGGER.debug("Starting fuzz on {}{}{dir}{}", firstPart, urlFuzzStart, urlFuzzEnd);
 
             int filesProcessed = 0;
@@ -150,30 +136,29 @@ public class WorkerGeneratorURLFuzz implements Runnable {
             BaseCase baseCaseObj =
                     GenBaseCase.genURLFuzzBaseCase(manager, firstPart + urlFuzzStart, urlFuzzEnd);
 
-            while ((line = d.readLine()) != null) {
+            for (int i = 0; i < wordlist.size(); i++) {
                 if (stopMe) {
                     return;
                 }
 
-                if (!line.startsWith("#")) {
-                    HttpMethod method;
-                    if (manager.getAuto()
-                            && !baseCaseObj.useContentAnalysisMode()
-                            && !baseCaseObj.isUseRegexInstead()) {
-                        method = HttpMethod.HEAD;
-                    } else {
-                        method = HttpMethod.GET;
-                    }
+                String line = wordlist.get(i);
+                HttpMethod method;
+                if (manager.getAuto()
+                        && !baseCaseObj.useContentAnalysisMode()
+                        && !baseCaseObj.isUseRegexInstead()) {
+                    method = HttpMethod.HEAD;
+                } else {
+                    method = HttpMethod.GET;
+                }
 
-                    // url encode all the items
-                    line = URLEncoder.encode(line, "UTF-8");
+                // url encode all the items
+                line = URLEncoder.encode(line, "UTF-8");
 
-                    URL currentURL = new URL(firstPart + urlFuzzStart + line + urlFuzzEnd);
-                    // BaseCase baseCaseObj = new BaseCase(currentURL, failcode, true, failurl,
-                    // baseResponce);
-                    // if the base case is null then we need to switch to content anylsis mode
-                    workQueue.put(new WorkUnit(currentURL, true, method, baseCaseObj, line));
-                }
+                URL currentURL = new URL(firstPart + urlFuzzStart + line + urlFuzzEnd);
+                // BaseCase baseCaseObj = new BaseCase(currentURL, failcode, true, failurl,
+                // baseResponce);
+                // if the base case is null then we need to switch to content anylsis mode
+                workQueue.put(new WorkUnit(currentURL, true, method, baseCaseObj, line));
 
                 Thread.sleep(3);
             }
@@ -184,12 +169,7 @@ public class WorkerGeneratorURLFuzz implements Runnable {
         } catch (IOException ex) {
             LOGGER.warn("Failed to create the fuzzed URL:", ex);
         } finally {
-            try {
-                d.close();
-                manager.setURLFuzzGenFinished(true);
-            } catch (IOException ex) {
-                LOGGER.debug(ex.toString());
-            }
+            manager.setURLFuzzGenFinished(true);
         }
     }
 
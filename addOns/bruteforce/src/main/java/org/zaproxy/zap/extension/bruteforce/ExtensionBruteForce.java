@@ -20,6 +20,7 @@
 package org.zaproxy.zap.extension.bruteforce;
 
 import com.sittinglittleduck.DirBuster.BaseCase;
+import com.sittinglittleduck.DirBuster.Wordlist;
 import java.awt.EventQueue;
 import java.io.File;
 import java.io.FilenameFilter;
@@ -120,6 +121,7 @@ public class ExtensionBruteForce extends ExtensionAdaptor
         if (hasView()) {
             getBruteForcePanel().unload();
         }
+        Wordlist.clear();
 
         super.unload();
     }
@@ -0,0 +1,129 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sittinglittleduck.DirBuster;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit test for {@link Wordlist}. */
+class WordlistUnitTest {
+
+    @TempDir Path dir;
+
+    @AfterEach
+    void cleanUp() {
+        Wordlist.clear();
+    }
+
+    @Test
+    void shouldReadItemsSkippingCommentsEmptyLinesAndDuplicates() throws Exception {
+        // Given
+        Path file = createFile("# comment\nadmin\n\n  images \nadmin\n#admin\nimages\nlogin\n");
+        // When
+        Wordlist wordlist = Wordlist.get(file.toString());
+        // Then
+        assertThat(items(wordlist), contains("admin", "images", "login"));
+    }
+
+    @Test
+    void shouldShareListOfSameFile() throws Exception {
+        // Given
+        Path file = createFile("admin\n");
+        Wordlist wordlist = Wordlist.get(file.toString());
+        // When
+        Wordlist other = Wordlist.get(dir.resolve("x/../list.txt").toString());
+        // Then
+        assertThat(other, is(sameInstance(wordlist)));
+    }
+
+    @Test
+    void shouldReadFileAgainIfChanged() throws Exception {
+        // Given
+        Path file = createFile("admin\n");
+        Wordlist wordlist = Wordlist.get(file.toString());
+        Files.write(file, "admin\nlogin\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        // When
+        Wordlist other = Wordlist.get(file.toString());
+        // Then
+        assertThat(other, is(not(sameInstance(wordlist))));
+        assertThat(items(other), contains("admin", "login"));
+    }
+
+    @Test
+    void shouldReadFileAgainOnceCleared() throws Exception {
+        // Given
+        Path file = createFile("admin\n");
+        Wordlist wordlist = Wordlist.get(file.toString());
+        // When
+        Wordlist.clear();
+        // Then
+        assertThat(Wordlist.get(file.toString()), is(not(sameInstance(wordlist))));
+    }
+
+    @Test
+    void shouldThrowIfFileDoesNotExist() {
+        // Given
+        String file = dir.resolve("missing.txt").toString();
+        // When / Then
+        assertThrows(NoSuchFileException.class, () -> Wordlist.get(file));
+    }
+
+    @Test
+    void shouldHaveNoItemsIfFileEmpty() throws Exception {
+        // Given
+        Path file = createFile("");
+        // When
+        Wordlist wordlist = Wordlist.get(file.toString());
+        // Then
+        assertThat(wordlist.size(), is(equalTo(0)));
+    }
+
+    private Path createFile(String content) throws IOException {
+        Path file = dir.resolve("list.txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> items(Wordlist wordlist) {
+        List<String> items = new ArrayList<>(wordlist.size());
+        for (int i = 0; i < wordlist.size(); i++) {
+            items.add(wordlist.get(i));
+        }
+        return items;
+    }
+}
@@ -19,12 +19,13 @@
  */
 package org.zaproxy.addon.commonlib;
 
-import java.util.Arrays;
-
 /**
  * A {@code DiceMatcher} that implements the Dice algorithm to measure the similarity between two
  * strings
  *
+ * <p>The whitespace is normalised while reading the strings and the bigrams are counted with a hash
+ * multiset, which takes linear time and does not copy the strings.
+ *
  * @since 1.3.0
  */
 public final class DiceMatcher {
@@ -43,56 +44,260 @@ public final class DiceMatcher {
      * Author : Jelle Fresen
      * Changes : Fixed indexing to prevent out of array access
      *           Address various issues identified by static analysis
+     *           Count the bigrams with a hash multiset instead of sorting them
      * Released under CC-BY-SA.
      */
 
     public static int getMatchPercentage(String a, String b) {
+        return match(a, b, -1);
+    }
 
-        if (a == null || b == null) return 0;
+    /**
+     * Tells whether or not the match percentage of the two strings is at least the given
+     * percentage, as returned by {@link #getMatchPercentage(String, String)}.
+     *
+     * <p>Stops comparing the strings as soon as the result is known.
+     *
+     * @param a The first string to be compared
+     * @param b The second string to be compared
+     * @param percentage the minimum match percentage.
+     * @return {@code true} if the match percentage is at least the given percentage, {@code false}
+     *     otherwise.
+     * @since 1.25.0
+     */
+    public static boolean isMatchPercentageAtLeast(String a, String b, int percentage) {
+        if (percentage <= 0) {
+            return true;
+        }
+        return match(a, b, percentage) >= percentage;
+    }
 
-        String s = a.replaceAll("\\s+", " ");
-        String t = b.replaceAll("\\s+", " ");
+    /**
+     * Computes the match percentage, or if the given threshold is positive, any value below it as
+     * soon as it's not reachable or any value above it as soon as it's reached.
+     */
+    private static int match(String a, String b, int threshold) {
+        if (a == null || b == null) return 0;
 
         // Quick check to catch equal strings:
-        if (s.equals(t)) return 100;
+        if (NormalisedChars.equal(a, b)) return 100;
+
+        int n = NormalisedChars.length(a) - 1;
+        int m = NormalisedChars.length(b) - 1;
         // avoid exception for single character searches
-        if (s.length() < 2 || t.length() < 2) return 0;
+        if (n < 1 || m < 1) return 0;
 
-        final int[] sPairs = getBigrams(s);
-        final int[] tPairs = getBigrams(t);
+        // Each bigram matches at most once, on both strings.
+        int maxMatches = 2 * Math.min(n, m);
+        if (threshold > 0 && percentage(maxMatches, n, m) < threshold) {
+            return percentage(maxMatches, n, m);
+        }
 
-        // Sort the bigram arrays:
-        Arrays.sort(sPairs);
-        Arrays.sort(tPairs);
+        // Count the bigrams of the shortest:
+        int shortestCount = Math.min(n, m);
+        int longestCount = Math.max(n, m);
+        Bigrams it = new Bigrams(n <= m ? a : b);
+        BigramMultiset bigrams = new BigramMultiset(shortestCount);
+        for (int i = 0; i < shortestCount; i++) {
+            bigrams.add(it.next());
+        }
 
         // Count the matches:
         int matches = 0;
-        int i = 0;
-        int j = 0;
-        int n = s.length() - 1;
-        int m = t.length() - 1;
-        while (i < n && j < m) {
-            if (sPairs[i] == tPairs[j]) {
+        it = new Bigrams(n <= m ? b : a);
+        for (int i = 1; i <= longestCount; i++) {
+            if (bigrams.remove(it.next())) {
                 matches += 2;
-                i++;
-                j++;
-            } else if (sPairs[i] < tPairs[j]) i++;
-            else j++;
+            }
+            if (threshold > 0) {
+                if (percentage(matches, n, m) >= threshold) {
+                    return percentage(matches, n, m);
+                }
+                int possible = Math.min(longestCount - i, shortestCount - matches / 2);
+                if (percentage(matches + 2 * possible, n, m) < threshold) {
+                    return percentage(matches + 2 * possible, n, m);
+                }
+            }
         }
+        return percentage(matches, n, m);
+    }
+
+    private static int percentage(int matches, int n, int m) {
         return (int) Math.floor((double) matches * 100 / (n + m));
     }
 
-    private static int[] getBigrams(String str) {
-        final int n = str.length() - 1;
-        final int[] pairs = new int[n];
-        for (int i = 0; i < n; i++)
-            if (i == 0) pairs[i] = str.charAt(i) << 16;
-            else if (i == n - 1) pairs[i - 1] |= str.charAt(i);
-            else {
-                int p = pairs[i - 1] | str.charAt(i);
-                pairs[i - 1] = p;
-                pairs[i] = p << 16;
+    /** Iterates the characters of a string, replacing the runs of whitespace with a space. */
+    private static final class NormalisedChars {
+
+        private final String str;
+        private int index;
+
+        NormalisedChars(String str) {
+            this.str = str;
+        }
+
+        /** Returns the next character, or {@code -1} if none. */
+        int next() {
+            if (index >= str.length()) {
+                return -1;
+            }
+            char c = str.charAt(index++);
+            if (!isWhitespace(c)) {
+                return c;
+            }
+            while (index < str.length() && isWhitespace(str.charAt(index))) {
+                index++;
             }
-        return pairs;
+            return ' ';
+        }
+
+        /** The whitespace characters of the regular expression {@code \\s}. */
+        private static boolean isWhitespace(char c) {
+            return c == ' ' || (c >= '\t' && c <= '\r');
+        }
+
+        static int length(String str) {
+            NormalisedChars chars = new NormalisedChars(str);
+            int length = 0;
+            while (chars.next() != -1) {
+                length++;
+            }
+            return length;
+        }
+
+        static boolean equal(String a, String b) {
+            NormalisedChars charsA = new NormalisedChars(a);
+            NormalisedChars charsB = new NormalisedChars(b);
+            int c;
+            do {
+                c = charsA.next();
+                if (c != charsB.next()) {
+                    return false;
+                }
+            } while (c != -1);
+            return true;
+        }
+    }
+
+    /**
+     * Iterates the bigrams of a string, with normalised whitespace, as created by the original
+     * implementation: the bigrams of all the characters but the last one followed by a zero or, for
+     * strings with two characters, just the first character in the high bits. The number of bigrams
+     * is the length of the string minus one.
+     */
+    private static final class Bigrams {
+
+        private final NormalisedChars chars;
+        private final boolean halfBigram;
+        private int previous;
+        private int current;
+        private int lookahead;
+
+        Bigrams(String str) {
+            chars = new NormalisedChars(str);
+            previous = chars.next();
+            current = chars.next();
+            lookahead = chars.next();
+            halfBigram = lookahead == -1;
+        }
+
+        int next() {
+            if (halfBigram) {
+                return previous << 16;
+            }
+            if (lookahead == -1) {
+                return 0;
+            }
+            int bigram = previous << 16 | current;
+            previous = current;
+            current = lookahead;
+            lookahead = chars.next();
+            return bigram;
+        }
+    }
+
+    /** A multiset of bigrams, using open addressing, grown as needed. */
+    private static final class BigramMultiset {
+
+        private static final int MAX_INITIAL_CAPACITY = 1 << 12;
+
+        private int[] keys;
+        private int[] counts;
+        private boolean[] used;
+        private int mask;
+        private int size;
+
+        BigramMultiset(int expectedSize) {
+            allocate(
+                    Math.min(
+                            MAX_INITIAL_CAPACITY,
+                            Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1));
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            counts = new int[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+        }
+
+        void add(int key) {
+            int index = indexOf(key);
+            if (!used[index]) {
+                if ((size + 1) * 2 > keys.length) {
+                    grow();
+                    index = indexOf(key);
+                }
+                keys[index] = key;
+                used[index] = true;
+                size++;
+            }
+            counts[index]++;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            boolean[] oldUsed = used;
+            allocate(keys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int index = indexOf(oldKeys[i]);
+                    keys[index] = oldKeys[i];
+                    counts[index] = oldCounts[i];
+                    used[index] = true;
+                }
+            }
+        }
+
+        /** Removes one occurrence of the given key, returning {@code true} if it was present. */
+        boolean remove(int key) {
+            int index = indexOf(key);
+            if (counts[index] > 0) {
+                counts[index]--;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Gets the index of the given key, or of the first free slot. The slots are never freed, a
+         * removed key keeps its slot with a count of zero.
+         */
+        private int indexOf(int key) {
+            int index = mix(key) & mask;
+            while (used[index]) {
+                if (keys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
     }
 }
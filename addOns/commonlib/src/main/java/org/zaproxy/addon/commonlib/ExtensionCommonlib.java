@@ -28,6 +28,7 @@ import org.parosproxy.paros.extension.ExtensionAdaptor;
 import org.parosproxy.paros.extension.ExtensionHook;
 import org.parosproxy.paros.extension.SessionChangedListener;
 import org.parosproxy.paros.model.Session;
+import org.zaproxy.addon.commonlib.http.Soft404Fingerprints;
 import org.zaproxy.addon.commonlib.internal.vulns.LegacyVulnerabilities;
 import org.zaproxy.addon.commonlib.ui.ProgressPanel;
 import org.zaproxy.zap.model.DefaultValueGenerator;
@@ -97,6 +98,7 @@ public class ExtensionCommonlib extends ExtensionAdaptor {
     @Override
     public void unload() {
         LegacyVulnerabilities.unload();
+        Soft404Fingerprints.reset();
     }
 
     @Override
@@ -142,6 +144,7 @@ public class ExtensionCommonlib extends ExtensionAdaptor {
                 getProgressPanel().clearAndDispose();
             }
             SourceSinkUtils.reset();
+            Soft404Fingerprints.reset();
         }
 
         @Override
@@ -23,6 +23,7 @@ import static org.apache.commons.text.StringEscapeUtils.escapeHtml4;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -30,7 +31,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 import net.htmlparser.jericho.Element;
 import net.htmlparser.jericho.Source;
 import net.sf.json.JSONArray;
@@ -46,6 +49,10 @@ import org.parosproxy.paros.network.HttpMessage;
 /**
  * Object that represent one response and has utilities to compare it with others
  *
+ * <p>The features of the response used by the heuristics (for example, the number of lines and
+ * words, the relevant keywords, and the headers) are computed once, when constructed, the structure
+ * of the body is computed once when first needed.
+ *
  * @author DiogoMRSilva (2018). Credits: the heuristics used to compare 2 responses are the same as
  *     those from Backslash Powered Scanner by James Kettle, but the implementation and its usage is
  *     independent. https://github.com/PortSwigger/backslash-powered-scanner
@@ -80,13 +87,24 @@ public class ComparableResponse {
     private static final Pattern CRLF_SPLIT_PATTERN = Pattern.compile("\r\n|\r|\n");
     private static final Pattern WORD_SPLIT_PATTERN = Pattern.compile("\\s+");
     private static final Pattern CONTENT_TYPE_SPLIT_PATTERN = Pattern.compile(";");
-
-    private int statusCode;
-    private String body;
-    private Map<String, String> headers;
-    private String valueSent;
-    private Map<String, Integer> allPaths;
-    private int numPaths;
+    private static final int COMPARE_MANY_PARALLEL_THRESHOLD = 32;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int statusCode;
+    private final String body;
+    private final Map<String, String> headers;
+    private final String valueSent;
+
+    private final String contentType;
+    private final int lineCount;
+    private final int wordCount;
+    private final int[] keywordCounts;
+    private final long[] headerFingerprints;
+    private final long[] nonDynamicHeaderFingerprints;
+    private final String valueSentHtmlEscaped;
+    private final int valueSentReflections;
+    private volatile PathMultiset paths;
 
     // Use variables instead of constants to be able to tune it depending on the differences on
     // normal request replay.
@@ -100,11 +118,7 @@ public class ComparableResponse {
 
     public ComparableResponse(
             int statusCode, String body, Map<String, String> headers, String valueSent) {
-        this.statusCode = statusCode;
-        this.body = body;
-        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-        this.headers.putAll(headers);
-        this.valueSent = valueSent;
+        this(statusCode, body, createHeaders(headers), valueSent);
     }
 
     /**
@@ -116,15 +130,60 @@ public class ComparableResponse {
      * @param valueSent the payload sent (if any) applicable to the response being analyzed.
      */
     public ComparableResponse(HttpMessage httpMessage, String valueSent) {
-        this.statusCode = httpMessage.getResponseHeader().getStatusCode();
-        this.body = httpMessage.getResponseBody().toString();
-        this.valueSent = valueSent == null ? "" : valueSent;
-        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-        List<HttpHeaderField> headersObjects = httpMessage.getResponseHeader().getHeaders();
+        this(
+                httpMessage.getResponseHeader().getStatusCode(),
+                httpMessage.getResponseBody().toString(),
+                createHeaders(httpMessage.getResponseHeader().getHeaders()),
+                valueSent == null ? "" : valueSent);
+    }
 
-        for (HttpHeaderField header : headersObjects) {
-            this.headers.put(header.getName(), header.getValue());
+    private ComparableResponse(
+            int statusCode, String body, TreeMap<String, String> headers, String valueSent) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.valueSent = valueSent;
+
+        this.contentType = extractContentType(headers);
+        this.lineCount = countSplits(CRLF_SPLIT_PATTERN, body);
+        this.wordCount = countSplits(WORD_SPLIT_PATTERN, body);
+        this.keywordCounts = countKeywords(body);
+
+        List<Long> all = new ArrayList<>(headers.size());
+        List<Long> nonDynamic = new ArrayList<>(headers.size());
+        for (Entry<String, String> header : headers.entrySet()) {
+            long fingerprint = fingerprint(header.getKey(), header.getValue());
+            all.add(fingerprint);
+            if (!DYNAMIC_HEADERS.contains(header.getKey())) {
+                nonDynamic.add(fingerprint);
+            }
         }
+        this.headerFingerprints = toSortedArray(all);
+        this.nonDynamicHeaderFingerprints = toSortedArray(nonDynamic);
+
+        if (valueSent != null) {
+            this.valueSentHtmlEscaped = escapeHtml4(valueSent);
+            this.valueSentReflections =
+                    StringUtils.countMatches(body, valueSent)
+                            + StringUtils.countMatches(body, valueSentHtmlEscaped);
+        } else {
+            this.valueSentHtmlEscaped = null;
+            this.valueSentReflections = 0;
+        }
+    }
+
+    private static TreeMap<String, String> createHeaders(Map<String, String> headers) {
+        TreeMap<String, String> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        map.putAll(headers);
+        return map;
+    }
+
+    private static TreeMap<String, String> createHeaders(List<HttpHeaderField> headers) {
+        TreeMap<String, String> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (HttpHeaderField header : headers) {
+            map.put(header.getName(), header.getValue());
+        }
+        return map;
     }
 
     /**
@@ -142,7 +201,7 @@ public class ComparableResponse {
     }
 
     /**
-     * @return the headers
+     * @return the headers, unmodifiable.
      */
     public Map<String, String> getHeaders() {
         return headers;
@@ -229,6 +288,31 @@ public class ComparableResponse {
         return response1.compareWith(response2);
     }
 
+    /**
+     * Compares the given baseline with each of the given responses, as done by {@link
+     * #compareWith(ComparableResponse)}.
+     *
+     * <p>The features of the baseline, computed once, are reused in each comparison. Large number
+     * of responses are compared in parallel.
+     *
+     * @param baseline the response to compare with the others.
+     * @param responses the responses to compare with the baseline.
+     * @return the results of the comparisons, in the same order as the responses.
+     * @since 1.25.0
+     */
+    public static float[] compareMany(
+            ComparableResponse baseline, List<ComparableResponse> responses) {
+        float[] results = new float[responses.size()];
+        IntStream indexes = IntStream.range(0, results.length);
+        if (results.length >= COMPARE_MANY_PARALLEL_THRESHOLD) {
+            // Compute the paths before the parallel comparisons, otherwise all would wait for it.
+            baseline.getPaths();
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> results[i] = baseline.compareWith(responses.get(i)));
+        return results;
+    }
+
     /**
      * Return a heuristic evaluation between the status code of the 2 responses. 0 means very
      * different and 1 very similar.
@@ -252,15 +336,14 @@ public class ComparableResponse {
             ComparableResponse response1, ComparableResponse response2) {
         float nRelevantKeywordsR1 = 0;
         float nRelevantKeywordsR2 = 0;
-        for (String keyword : RELEVANT_KEYWORDS) {
+        for (int i = 0; i < RELEVANT_KEYWORDS.size(); i++) {
+            String keyword = RELEVANT_KEYWORDS.get(i);
             if (keyword.equalsIgnoreCase(response1.getValueSent())
                     || keyword.equalsIgnoreCase(response2.getValueSent())) {
                 continue;
             }
-            nRelevantKeywordsR1 +=
-                    StringUtils.countMatches(response1.body.toLowerCase(), keyword.toLowerCase());
-            nRelevantKeywordsR2 +=
-                    StringUtils.countMatches(response2.body.toLowerCase(), keyword.toLowerCase());
+            nRelevantKeywordsR1 += response1.keywordCounts[i];
+            nRelevantKeywordsR2 += response2.keywordCounts[i];
         }
 
         if (nRelevantKeywordsR1 > nRelevantKeywordsR2) {
@@ -284,13 +367,13 @@ public class ComparableResponse {
             ComparableResponse response1, ComparableResponse response2) {
         String req1Value = response1.getValueSent();
         String req2Value = response2.getValueSent();
+        String req1ValueEscaped = response1.valueSentHtmlEscaped;
+        String req2ValueEscaped = response2.valueSentHtmlEscaped;
         String bodyResp1 = response1.body;
         String bodyResp2 = response2.body;
 
-        int nReflectionsPayload1in1 = StringUtils.countMatches(bodyResp1, req1Value);
-        nReflectionsPayload1in1 += StringUtils.countMatches(bodyResp1, escapeHtml4(req1Value));
-        int nReflectionsPayload2in2 = StringUtils.countMatches(bodyResp2, req2Value);
-        nReflectionsPayload2in2 += StringUtils.countMatches(bodyResp2, escapeHtml4(req2Value));
+        int nReflectionsPayload1in1 = response1.valueSentReflections;
+        int nReflectionsPayload2in2 = response2.valueSentReflections;
 
         // In case one payload is a substring of the other it will appear but it is not fixed
         // so we need to remove the payload from the body to know the ones that are independent
@@ -298,15 +381,15 @@ public class ComparableResponse {
             bodyResp2 = bodyResp2.replace(req2Value, "");
         }
         int nReflectionsPayload1in2 = StringUtils.countMatches(bodyResp2, req1Value);
-        if (!escapeHtml4(req1Value).equals(req1Value)) {
-            nReflectionsPayload1in2 += StringUtils.countMatches(bodyResp2, escapeHtml4(req1Value));
+        if (!req1ValueEscaped.equals(req1Value)) {
+            nReflectionsPayload1in2 += StringUtils.countMatches(bodyResp2, req1ValueEscaped);
         }
         if (req1Value.contains(req2Value)) {
             bodyResp1 = bodyResp1.replace(req1Value, "");
         }
         int nReflectionsPayload2in1 = StringUtils.countMatches(bodyResp1, req2Value);
-        if (!escapeHtml4(req2Value).equals(req2Value)) {
-            nReflectionsPayload2in1 += StringUtils.countMatches(bodyResp1, escapeHtml4(req2Value));
+        if (!req2ValueEscaped.equals(req2Value)) {
+            nReflectionsPayload2in1 += StringUtils.countMatches(bodyResp1, req2ValueEscaped);
         }
         float nNonPersistentReflectionsPayload1 =
                 (float) 1 + Math.abs(nReflectionsPayload1in1 - nReflectionsPayload1in2);
@@ -331,8 +414,8 @@ public class ComparableResponse {
      */
     public static float wordCountHeuristic(
             ComparableResponse response1, ComparableResponse response2) {
-        float nWords1 = WORD_SPLIT_PATTERN.split(response1.body).length;
-        float nWords2 = WORD_SPLIT_PATTERN.split(response2.body).length;
+        float nWords1 = response1.wordCount;
+        float nWords2 = response2.wordCount;
 
         if (nWords1 > nWords2) {
             return nWords2 / nWords1;
@@ -352,8 +435,8 @@ public class ComparableResponse {
      */
     public static float lineCountHeuristic(
             ComparableResponse response1, ComparableResponse response2) {
-        float nLinesR1 = CRLF_SPLIT_PATTERN.split(response1.body).length;
-        float nLinesR2 = CRLF_SPLIT_PATTERN.split(response2.body).length;
+        float nLinesR1 = response1.lineCount;
+        float nLinesR2 = response2.lineCount;
 
         if (nLinesR1 > nLinesR2) {
             return nLinesR2 / nLinesR1;
@@ -379,27 +462,17 @@ public class ComparableResponse {
         if (response1.headers.isEmpty() || response2.headers.isEmpty()) {
             return 0; // One empty, very different
         }
-        float equalHeadersContent = 0;
-        int r1HeaderCount = response1.headers.keySet().size();
-        int r2HeaderCount = response2.headers.keySet().size();
-        float numberHeaders = r1HeaderCount > r2HeaderCount ? r1HeaderCount : r2HeaderCount;
-        Map<String, String> larger = response1.headers;
-        Map<String, String> smaller = response2.headers;
+        int r1HeaderCount = response1.headers.size();
+        int r2HeaderCount = response2.headers.size();
+        ComparableResponse larger = response1;
+        ComparableResponse smaller = response2;
         if (r2HeaderCount > r1HeaderCount) {
-            larger = response2.headers;
-            smaller = response1.headers;
-        }
-
-        for (Entry<String, String> entry : larger.entrySet()) {
-            if (DYNAMIC_HEADERS.contains(entry.getKey())) {
-                numberHeaders = numberHeaders - 1;
-                continue;
-            }
-            if (smaller.containsKey(entry.getKey())
-                    && (smaller.get(entry.getKey()).equals(larger.get(entry.getKey())))) {
-                equalHeadersContent += 1;
-            }
+            larger = response2;
+            smaller = response1;
         }
+        float numberHeaders = larger.nonDynamicHeaderFingerprints.length;
+        float equalHeadersContent =
+                countCommon(larger.nonDynamicHeaderFingerprints, smaller.headerFingerprints);
         // Similar to (equalHeaders / numberHeaders * equalHeadersContent / equalHeaders)* 0.25 +
         // 0.75;
         return equalHeadersContent / numberHeaders;
@@ -414,8 +487,8 @@ public class ComparableResponse {
      */
     public static float bodyTreesStructureHeuristic(
             ComparableResponse response1, ComparableResponse response2) {
-        String r1ContentType = getContentType(response1);
-        String r2ContentType = getContentType(response2);
+        String r1ContentType = response1.contentType;
+        String r2ContentType = response2.contentType;
 
         if (r1ContentType != null && r2ContentType != null) {
             // We just want the type
@@ -426,26 +499,20 @@ public class ComparableResponse {
             }
             if (r1ContentType.contains(CONTENT_TYPE_HTML)
                     || r1ContentType.contains(CONTENT_TYPE_JSON)) {
-                Map<String, Integer> response1paths = response1.getAllPaths();
-                Map<String, Integer> response2paths = response2.getAllPaths();
+                PathMultiset response1paths = response1.getPaths();
+                PathMultiset response2paths = response2.getPaths();
 
-                if (response1.numPaths == 0 && response2.numPaths == 0) {
+                if (response1paths.total == 0 && response2paths.total == 0) {
                     return 1;
                 }
-                if (response1.numPaths == 0 || response2.numPaths == 0) {
+                if (response1paths.total == 0 || response2paths.total == 0) {
                     return 0;
                 }
 
-                int numberOfCommonPaths = 0;
-                for (Map.Entry<String, Integer> entry : response1paths.entrySet()) {
-                    String path = entry.getKey();
-                    if (entry.getValue().equals(response2paths.get(path))) {
-                        numberOfCommonPaths += entry.getValue();
-                    }
-                }
+                int numberOfCommonPaths = response1paths.countCommon(response2paths);
 
-                float fractionOfMatch1 = (float) numberOfCommonPaths / response1.numPaths;
-                float fractionOfMatch2 = (float) numberOfCommonPaths / response2.numPaths;
+                float fractionOfMatch1 = (float) numberOfCommonPaths / response1paths.total;
+                float fractionOfMatch2 = (float) numberOfCommonPaths / response2paths.total;
 
                 return (fractionOfMatch1 + fractionOfMatch2) / 2;
             }
@@ -461,51 +528,57 @@ public class ComparableResponse {
         return 0;
     }
 
+    private PathMultiset getPaths() {
+        PathMultiset result = paths;
+        if (result == null) {
+            synchronized (this) {
+                result = paths;
+                if (result == null) {
+                    result = PathMultiset.of(getAllPaths());
+                    paths = result;
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * @return all The Possible Paths.
      */
     private Map<String, Integer> getAllPaths() {
-        synchronized (this) {
-            if (allPaths == null) {
-                allPaths = new HashMap<>();
-                numPaths = 0;
-                String contentType = getContentType(this);
-                if (contentType == null) {
-                    return allPaths;
-                }
-                if (contentType.contains(CONTENT_TYPE_HTML)) {
-                    Source parsedBody = new Source(body);
-                    for (Element child : parsedBody.getChildElements()) {
-                        for (String childPath : getHtmlElementPaths(child)) {
-                            allPaths.merge(childPath, 1, Integer::sum);
-                            numPaths++;
-                        }
-                    }
+        Map<String, Integer> allPaths = new HashMap<>();
+        if (contentType == null) {
+            return allPaths;
+        }
+        if (contentType.contains(CONTENT_TYPE_HTML)) {
+            Source parsedBody = new Source(body);
+            for (Element child : parsedBody.getChildElements()) {
+                for (String childPath : getHtmlElementPaths(child)) {
+                    allPaths.merge(childPath, 1, Integer::sum);
                 }
-                if (contentType.contains(CONTENT_TYPE_JSON)) {
-                    try {
-                        Object jsonBody = JSONObject.fromObject(body);
-                        countJsonPaths(allPaths, jsonBody);
-                    } catch (JSONException je) {
-                        LOGGER.debug(je, je);
-                        try {
-                            Object json = JSONArray.fromObject(body);
-                            countJsonPaths(allPaths, json);
-                        } catch (JSONException je2) {
-                            LOGGER.debug(je2, je2);
-                            countJsonPaths(allPaths, body);
-                        }
-                    }
+            }
+        }
+        if (contentType.contains(CONTENT_TYPE_JSON)) {
+            try {
+                Object jsonBody = JSONObject.fromObject(body);
+                countJsonPaths(allPaths, jsonBody);
+            } catch (JSONException je) {
+                LOGGER.debug(je, je);
+                try {
+                    Object json = JSONArray.fromObject(body);
+                    countJsonPaths(allPaths, json);
+                } catch (JSONException je2) {
+                    LOGGER.debug(je2, je2);
+                    countJsonPaths(allPaths, body);
                 }
             }
         }
         return allPaths;
     }
 
-    private void countJsonPaths(Map<String, Integer> allPaths, Object element) {
+    private static void countJsonPaths(Map<String, Integer> allPaths, Object element) {
         for (String childPath : getJsonElementPaths(element)) {
             allPaths.merge(childPath, 1, Integer::sum);
-            numPaths++;
         }
     }
 
@@ -567,10 +640,147 @@ public class ComparableResponse {
         return listOfPaths;
     }
 
-    private static String getContentType(ComparableResponse compResp) {
-        String ctHeader = compResp.getHeaders().get(HttpHeader.CONTENT_TYPE);
+    private static String extractContentType(Map<String, String> headers) {
+        String ctHeader = headers.get(HttpHeader.CONTENT_TYPE);
         return ctHeader != null
                 ? CONTENT_TYPE_SPLIT_PATTERN.split(ctHeader.toLowerCase(Locale.ROOT))[0]
                 : null;
     }
+
+    /**
+     * Counts the strings that would be returned by {@link Pattern#split(CharSequence)}, without
+     * creating them.
+     */
+    static int countSplits(Pattern pattern, String input) {
+        Matcher matcher = pattern.matcher(input);
+        int count = 0;
+        int trailingEmpty = 0;
+        int start = 0;
+        boolean matched = false;
+        while (matcher.find()) {
+            if (matcher.end() == 0) {
+                continue;
+            }
+            matched = true;
+            trailingEmpty = matcher.start() == start ? trailingEmpty + 1 : 0;
+            count++;
+            start = matcher.end();
+        }
+        if (!matched) {
+            return 1;
+        }
+        trailingEmpty = start == input.length() ? trailingEmpty + 1 : 0;
+        count++;
+        return count - trailingEmpty;
+    }
+
+    private static int[] countKeywords(String body) {
+        String lowerCaseBody = body.toLowerCase();
+        int[] counts = new int[RELEVANT_KEYWORDS.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = StringUtils.countMatches(lowerCaseBody, RELEVANT_KEYWORDS.get(i));
+        }
+        return counts;
+    }
+
+    private static long fingerprint(String name, String value) {
+        return hash(hash(FNV_OFFSET_BASIS, name.toLowerCase(Locale.ROOT)) ^ ':', value);
+    }
+
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long[] toSortedArray(List<Long> values) {
+        long[] array = new long[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        Arrays.sort(array);
+        return array;
+    }
+
+    /** Counts the values of the first sorted array that are also in the second sorted array. */
+    private static int countCommon(long[] values1, long[] values2) {
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < values1.length && j < values2.length) {
+            int comparison = Long.compare(values1[i], values2[j]);
+            if (comparison == 0) {
+                common++;
+                i++;
+                j++;
+            } else if (comparison < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return common;
+    }
+
+    /** The paths of the body, hashed and sorted, with the number of times each occurs. */
+    private static class PathMultiset {
+
+        private static final PathMultiset EMPTY = new PathMultiset(new long[0], new int[0], 0);
+
+        private final long[] hashes;
+        private final int[] counts;
+        private final int total;
+
+        private PathMultiset(long[] hashes, int[] counts, int total) {
+            this.hashes = hashes;
+            this.counts = counts;
+            this.total = total;
+        }
+
+        static PathMultiset of(Map<String, Integer> paths) {
+            if (paths.isEmpty()) {
+                return EMPTY;
+            }
+            long[][] entries = new long[paths.size()][];
+            int i = 0;
+            int total = 0;
+            for (Entry<String, Integer> entry : paths.entrySet()) {
+                entries[i++] =
+                        new long[] {hash(FNV_OFFSET_BASIS, entry.getKey()), entry.getValue()};
+                total += entry.getValue();
+            }
+            Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+            long[] hashes = new long[entries.length];
+            int[] counts = new int[entries.length];
+            for (i = 0; i < entries.length; i++) {
+                hashes[i] = entries[i][0];
+                counts[i] = (int) entries[i][1];
+            }
+            return new PathMultiset(hashes, counts, total);
+        }
+
+        /** Sums the occurrences of the paths that occur the same number of times in both. */
+        int countCommon(PathMultiset other) {
+            int common = 0;
+            int i = 0;
+            int j = 0;
+            while (i < hashes.length && j < other.hashes.length) {
+                int comparison = Long.compare(hashes[i], other.hashes[j]);
+                if (comparison == 0) {
+                    if (counts[i] == other.counts[j]) {
+                        common += counts[i];
+                    }
+                    i++;
+                    j++;
+                } else if (comparison < 0) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return common;
+        }
+    }
 }
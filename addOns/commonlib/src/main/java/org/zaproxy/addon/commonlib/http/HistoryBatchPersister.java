@@ -0,0 +1,128 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.parosproxy.paros.control.Control;
+import org.parosproxy.paros.db.DatabaseException;
+import org.parosproxy.paros.extension.history.ExtensionHistory;
+import org.parosproxy.paros.model.HistoryReference;
+import org.parosproxy.paros.model.Model;
+import org.parosproxy.paros.network.HttpMalformedHeaderException;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.utils.ThreadUtils;
+
+/**
+ * Persists messages to the session and adds them to the History tab and Sites tree in batches, one
+ * EDT call per batch instead of one per message.
+ *
+ * <p>The messages are persisted right away, the messages pending are added once the batch is full
+ * or when {@link #flush() flushed}. The persister is thread-safe.
+ *
+ * @since 1.25.0
+ * @see RequestDispatcher
+ */
+public class HistoryBatchPersister {
+
+    /** The default number of messages added to the History tab and Sites tree at a time. */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    private final int batchSize;
+    private final List<PendingMessage> pendingMessages;
+
+    /** Constructs a {@code HistoryBatchPersister} with the default batch size. */
+    public HistoryBatchPersister() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a {@code HistoryBatchPersister} with the given batch size.
+     *
+     * @param batchSize the number of messages added to the History tab and Sites tree at a time.
+     */
+    public HistoryBatchPersister(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        this.pendingMessages = new ArrayList<>(this.batchSize);
+    }
+
+    /**
+     * Persists the given message and queues it to be added to the History tab and Sites tree.
+     *
+     * @param message the message to persist.
+     * @param historyType the type of the history reference.
+     * @return the history reference of the message.
+     * @throws HttpMalformedHeaderException if the message is malformed.
+     * @throws DatabaseException if an error occurred while persisting the message.
+     */
+    public HistoryReference persist(HttpMessage message, int historyType)
+            throws HttpMalformedHeaderException, DatabaseException {
+        HistoryReference historyRef =
+                new HistoryReference(Model.getSingleton().getSession(), historyType, message);
+
+        boolean flush;
+        synchronized (pendingMessages) {
+            pendingMessages.add(new PendingMessage(historyRef, message));
+            flush = pendingMessages.size() >= batchSize;
+        }
+        if (flush) {
+            flush();
+        }
+        return historyRef;
+    }
+
+    /** Adds the messages pending to the History tab and Sites tree. */
+    public void flush() {
+        List<PendingMessage> batch;
+        synchronized (pendingMessages) {
+            if (pendingMessages.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pendingMessages);
+            pendingMessages.clear();
+        }
+
+        ExtensionHistory extHistory =
+                Control.getSingleton().getExtensionLoader().getExtension(ExtensionHistory.class);
+        ThreadUtils.invokeAndWaitHandled(
+                () -> {
+                    for (PendingMessage pending : batch) {
+                        if (extHistory != null) {
+                            extHistory.addHistory(pending.historyRef);
+                        }
+                        Model.getSingleton()
+                                .getSession()
+                                .getSiteTree()
+                                .addPath(pending.historyRef, pending.message);
+                    }
+                });
+    }
+
+    private static class PendingMessage {
+
+        private final HistoryReference historyRef;
+        private final HttpMessage message;
+
+        PendingMessage(HistoryReference historyRef, HttpMessage message) {
+            this.historyRef = historyRef;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib.http;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.httpclient.URI;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.addon.commonlib.Constants;
+import org.zaproxy.zap.network.HttpRedirectionValidator;
+import org.zaproxy.zap.network.HttpRequestConfig;
+
+/**
+ * Sends HTTP messages concurrently, limiting the number of requests in flight in total and to each
+ * host.
+ *
+ * <p>While the messages are sent concurrently, the {@link HttpRedirectionValidator} of the request
+ * config is notified of the messages received one at a time and in the order the messages were
+ * dispatched, as if sent sequentially, so the listeners notified by it do not need to be
+ * thread-safe. The futures of the messages are also completed in that order. The messages received
+ * while the previous messages are still being sent are notified later, with a copy of the message.
+ *
+ * <p>The messages to a host that reached its limit wait in a queue of that host, without taking a
+ * thread, so the threads keep sending the messages to the other hosts.
+ *
+ * <p>The number of messages dispatched and not yet completed is also limited, the dispatch waits
+ * once the limit is reached. That bounds the messages queued and the copies kept while a slow
+ * message delays the notification of the following ones.
+ *
+ * @since 1.25.0
+ */
+public class RequestDispatcher implements AutoCloseable {
+
+    /** The default maximum number of requests in flight to each host. */
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 8;
+
+    /**
+     * The default maximum number of requests dispatched and not yet completed, per request in
+     * flight.
+     */
+    public static final int DEFAULT_PENDING_REQUESTS_PER_REQUEST = 4;
+
+    private static final Logger LOGGER = LogManager.getLogger(RequestDispatcher.class);
+
+    private static final AtomicInteger DISPATCHER_COUNT = new AtomicInteger();
+
+    private final HttpSender sender;
+    private final HttpRequestConfig requestConfig;
+    private final HttpRedirectionValidator redirectionValidator;
+    private final int maxRequestsPerHost;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, HostQueue> hosts;
+    private final Semaphore pendingPermits;
+
+    /** The number of messages sending or waiting in the queues of the hosts. */
+    private int activeTasks;
+
+    private boolean closed;
+
+    private final Object completionLock = new Object();
+    private final Map<Long, SendTask> finishedTasks = new HashMap<>();
+    private long nextSequence;
+    private long nextCompletion;
+
+    private int pendingRequests;
+
+    /**
+     * Constructs a {@code RequestDispatcher} with the default limits.
+     *
+     * <p>The maximum number of requests in flight is the default thread count.
+     *
+     * @param sender the sender of the messages.
+     * @param requestConfig the config of the requests.
+     * @see Constants#getDefaultThreadCount()
+     * @see #DEFAULT_MAX_REQUESTS_PER_HOST
+     */
+    public RequestDispatcher(HttpSender sender, HttpRequestConfig requestConfig) {
+        this(
+                sender,
+                requestConfig,
+                Constants.getDefaultThreadCount(),
+                DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    /**
+     * Constructs a {@code RequestDispatcher} with the given limits.
+     *
+     * <p>The maximum number of requests dispatched and not yet completed is {@value
+     * #DEFAULT_PENDING_REQUESTS_PER_REQUEST} times the maximum number of requests in flight.
+     *
+     * @param sender the sender of the messages.
+     * @param requestConfig the config of the requests.
+     * @param maxRequests the maximum number of requests in flight.
+     * @param maxRequestsPerHost the maximum number of requests in flight to each host.
+     */
+    public RequestDispatcher(
+            HttpSender sender,
+            HttpRequestConfig requestConfig,
+            int maxRequests,
+            int maxRequestsPerHost) {
+        this(
+                sender,
+                requestConfig,
+                maxRequests,
+                maxRequestsPerHost,
+                Math.max(1, maxRequests) * DEFAULT_PENDING_REQUESTS_PER_REQUEST);
+    }
+
+    /**
+     * Constructs a {@code RequestDispatcher} with the given limits.
+     *
+     * @param sender the sender of the messages.
+     * @param requestConfig the config of the requests.
+     * @param maxRequests the maximum number of requests in flight.
+     * @param maxRequestsPerHost the maximum number of requests in flight to each host.
+     * @param maxPendingRequests the maximum number of requests dispatched and not yet completed, at
+     *     least the maximum number of requests in flight.
+     */
+    public RequestDispatcher(
+            HttpSender sender,
+            HttpRequestConfig requestConfig,
+            int maxRequests,
+            int maxRequestsPerHost,
+            int maxPendingRequests) {
+        this.sender = sender;
+        this.requestConfig = requestConfig;
+        this.redirectionValidator = requestConfig.getRedirectionValidator();
+        this.maxRequestsPerHost = Math.max(1, maxRequestsPerHost);
+        this.hosts = new HashMap<>();
+
+        int threads = Math.max(1, maxRequests);
+        int maxPending = Math.max(threads, maxPendingRequests);
+        this.pendingPermits = new Semaphore(maxPending);
+        executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        30,
+                        TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(maxPending),
+                        createThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        String prefix = "ZAP-RequestDispatcher-" + DISPATCHER_COUNT.incrementAndGet() + "-";
+        AtomicInteger threadCount = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Dispatches the given message, to be sent once the limits allow.
+     *
+     * <p>Waits if the maximum number of requests dispatched and not yet completed was reached, as
+     * such it should not be called from the callbacks of the futures.
+     *
+     * @param message the message to send.
+     * @return the future of the message, completed once the message is sent, or exceptionally with
+     *     the exception thrown while sending or if interrupted while waiting to dispatch it.
+     */
+    public CompletableFuture<HttpMessage> send(HttpMessage message) {
+        try {
+            pendingPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(
+                    new IOException("Interrupted while waiting to dispatch.", e));
+        }
+        SendTask task;
+        synchronized (completionLock) {
+            task = new SendTask(nextSequence++, message);
+        }
+        synchronized (this) {
+            pendingRequests++;
+        }
+
+        boolean rejected = false;
+        boolean start = false;
+        synchronized (hosts) {
+            if (closed) {
+                rejected = true;
+            } else {
+                activeTasks++;
+                start = hosts.computeIfAbsent(task.host, k -> new HostQueue()).add(task);
+            }
+        }
+        if (rejected) {
+            task.error = new IOException("The dispatcher was closed.");
+            finished(task);
+        } else if (start) {
+            execute(task);
+        }
+        return task.future;
+    }
+
+    /**
+     * Executes the given task, which already counts to the requests in flight of its host.
+     *
+     * @param task the task to execute, might be {@code null}.
+     */
+    private void execute(SendTask task) {
+        while (task != null) {
+            try {
+                executor.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                task.error = new IOException("The dispatcher was closed.", e);
+                SendTask next = hostDone(task);
+                finished(task);
+                task = next;
+            }
+        }
+    }
+
+    /**
+     * Called once the given task no longer sends its message, to start the next message waiting
+     * for the same host.
+     *
+     * @param task the task done.
+     * @return the next task of the host, to execute, or {@code null} if none.
+     */
+    private SendTask hostDone(SendTask task) {
+        synchronized (hosts) {
+            activeTasks--;
+            if (closed && activeTasks == 0) {
+                executor.shutdown();
+            }
+            HostQueue host = hosts.get(task.host);
+            SendTask next = host.next();
+            if (host.isIdle()) {
+                hosts.remove(task.host);
+            }
+            return next;
+        }
+    }
+
+    private static String getHost(HttpMessage message) {
+        URI uri = message.getRequestHeader().getURI();
+        return uri.getEscapedAuthority();
+    }
+
+    /**
+     * Called once the given task is finished, to notify and complete it and the following finished
+     * tasks, in the order they were dispatched.
+     *
+     * @param task the finished task.
+     */
+    private void finished(SendTask task) {
+        synchronized (completionLock) {
+            finishedTasks.put(task.sequence, task);
+            SendTask next;
+            while ((next = finishedTasks.remove(nextCompletion)) != null) {
+                nextCompletion++;
+                pendingPermits.release();
+                next.complete();
+                completed();
+            }
+        }
+    }
+
+    private synchronized void completed() {
+        pendingRequests--;
+        if (pendingRequests == 0) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits for all the messages dispatched to be sent and notified.
+     *
+     * <p>If interrupted it returns right away, with the interrupt status set.
+     */
+    public synchronized void awaitCompletion() {
+        try {
+            while (pendingRequests > 0) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cancels the messages dispatched that were not yet started to be sent, their futures are
+     * cancelled.
+     */
+    public void cancelPending() {
+        List<SendTask> tasks = new ArrayList<>();
+        synchronized (hosts) {
+            for (HostQueue host : hosts.values()) {
+                activeTasks -= host.waiting.size();
+                tasks.addAll(host.waiting);
+                host.waiting.clear();
+            }
+        }
+
+        List<Runnable> queuedTasks = new ArrayList<>();
+        executor.getQueue().drainTo(queuedTasks);
+        for (Runnable task : queuedTasks) {
+            SendTask sendTask = (SendTask) task;
+            tasks.add(sendTask);
+            // Starts the messages dispatched after the host queues were cleared, if any.
+            execute(hostDone(sendTask));
+        }
+
+        for (SendTask task : tasks) {
+            task.cancelled = true;
+            finished(task);
+        }
+    }
+
+    /**
+     * Gets the number of messages dispatched not yet sent and notified.
+     *
+     * @return the number of messages.
+     */
+    public synchronized int getPendingRequests() {
+        return pendingRequests;
+    }
+
+    /**
+     * Closes the dispatcher, no more messages can be sent. The messages already dispatched are
+     * still sent.
+     */
+    @Override
+    public void close() {
+        synchronized (hosts) {
+            closed = true;
+            if (activeTasks == 0) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /** The messages in flight to a host and the ones waiting for the host. */
+    private class HostQueue {
+
+        private final Deque<SendTask> waiting = new ArrayDeque<>();
+        private int running;
+
+        /**
+         * Adds the given task, to run now if the host has not reached its limit or later
+         * otherwise.
+         *
+         * @param task the task to add.
+         * @return {@code true} if the task should run now, {@code false} otherwise.
+         */
+        boolean add(SendTask task) {
+            if (running < maxRequestsPerHost) {
+                running++;
+                return true;
+            }
+            waiting.add(task);
+            return false;
+        }
+
+        /**
+         * Called once a task is done, to get the next one to run in its place.
+         *
+         * @return the next task to run, or {@code null} if none.
+         */
+        SendTask next() {
+            SendTask next = waiting.poll();
+            if (next == null) {
+                running--;
+            }
+            return next;
+        }
+
+        boolean isIdle() {
+            return running == 0 && waiting.isEmpty();
+        }
+    }
+
+    private class SendTask implements Runnable, HttpRedirectionValidator {
+
+        private final long sequence;
+        private final HttpMessage message;
+        private final String host;
+        private final CompletableFuture<HttpMessage> future;
+        private final List<HttpMessage> received;
+        private Exception error;
+        private boolean cancelled;
+
+        SendTask(long sequence, HttpMessage message) {
+            this.sequence = sequence;
+            this.message = message;
+            this.host = getHost(message);
+            this.future = new CompletableFuture<>();
+            this.received = new ArrayList<>(1);
+        }
+
+        @Override
+        public void run() {
+            try {
+                sender.sendAndReceive(message, createRequestConfig());
+            } catch (Exception e) {
+                error = e;
+            } finally {
+                SendTask next = hostDone(this);
+                finished(this);
+                execute(next);
+            }
+        }
+
+        private HttpRequestConfig createRequestConfig() {
+            if (redirectionValidator == null) {
+                return requestConfig;
+            }
+            return HttpRequestConfig.builder(requestConfig).setRedirectionValidator(this).build();
+        }
+
+        @Override
+        public boolean isValid(URI redirection) {
+            synchronized (completionLock) {
+                return redirectionValidator.isValid(redirection);
+            }
+        }
+
+        @Override
+        public void notifyMessageReceived(HttpMessage message) {
+            synchronized (completionLock) {
+                if (sequence == nextCompletion) {
+                    // All the previous messages were notified, no need to wait.
+                    notifyReceived();
+                    notify(message);
+                    return;
+                }
+            }
+            // Notified later, in order. Copied as the sender might still change it.
+            received.add(message.cloneAll());
+        }
+
+        private void notifyReceived() {
+            for (HttpMessage msg : received) {
+                notify(msg);
+            }
+            received.clear();
+        }
+
+        private void notify(HttpMessage msg) {
+            try {
+                redirectionValidator.notifyMessageReceived(msg);
+            } catch (Exception e) {
+                LOGGER.warn("Failed to notify the message received: {}", e.getMessage(), e);
+            }
+        }
+
+        /** Notifies the messages received and completes the future, called in order. */
+        private void complete() {
+            if (cancelled) {
+                future.cancel(false);
+                return;
+            }
+            notifyReceived();
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib.http;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.commons.httpclient.URI;
+import org.apache.commons.httpclient.URIException;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.zap.users.User;
+
+/**
+ * The fingerprints of the responses to files that do not exist, shared by all the scan rules of a
+ * scan.
+ *
+ * <p>The fingerprints are obtained by requesting a file with a random name, once per host,
+ * directory, class of file extension, and user, instead of each scan rule requesting its own for
+ * each message scanned. The fingerprints are kept while the scan is referenced, until the session
+ * changes, or the maximum number of fingerprints is reached, in which case the least recently used
+ * are removed. The responses that are errors or that indicate throttling are not kept.
+ *
+ * <p>Safe to be used by several threads, concurrent requests for the same fingerprint wait for the
+ * one being obtained.
+ *
+ * @since 1.25.0
+ */
+public final class Soft404Fingerprints {
+
+    static final int MAX_FINGERPRINTS = 10_000;
+
+    private static final String RANDOM_CHARS = "abcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int RANDOM_NAME_LENGTH = 12;
+
+    private static final String NO_EXTENSION = "";
+    private static final String DIRECTORY = "/";
+    private static final String STATIC_EXTENSION = "static";
+    private static final Set<String> DYNAMIC_EXTENSIONS =
+            Set.of(
+                    "action", "asp", "aspx", "asmx", "axd", "cfm", "cgi", "do", "jsp", "jspx",
+                    "php", "php3", "php4", "php5", "phtml", "pl", "py", "rb", "shtml");
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private static final Map<HostProcess, Soft404Fingerprints> SCANS = new WeakHashMap<>();
+
+    private final Map<Key, CompletableFuture<Fingerprint>> fingerprints =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Key, CompletableFuture<Fingerprint>> eldest) {
+                    return size() > MAX_FINGERPRINTS;
+                }
+            };
+
+    Soft404Fingerprints() {}
+
+    /**
+     * Gets the fingerprints of the given scan.
+     *
+     * <p>The fingerprints are removed once the scan is no longer referenced.
+     *
+     * @param hostProcess the scan, for example, the parent of the scan rule.
+     * @return the fingerprints, never {@code null}.
+     */
+    public static Soft404Fingerprints forScan(HostProcess hostProcess) {
+        synchronized (SCANS) {
+            return SCANS.computeIfAbsent(hostProcess, k -> new Soft404Fingerprints());
+        }
+    }
+
+    /**
+     * The sender of the requests to obtain the fingerprints, for example, the {@code
+     * sendAndReceive} of the scan rule.
+     */
+    @FunctionalInterface
+    public interface ProbeSender {
+
+        /**
+         * Sends the given message, without following redirections.
+         *
+         * @param msg the message to send.
+         * @throws IOException if an error occurred while sending.
+         */
+        void send(HttpMessage msg) throws IOException;
+    }
+
+    /**
+     * Tells whether or not the response of the given message is likely the response of a file that
+     * does not exist, either a 404 or a response like the one of a random file of the same host,
+     * directory, and class of extension, requested by the same user.
+     *
+     * @param msg the message sent.
+     * @param sender the sender of the request to obtain the fingerprint, if not yet known.
+     * @return {@code true} if the response is likely a not found response, {@code false} otherwise.
+     * @throws IOException if an error occurred while obtaining the fingerprint.
+     */
+    public boolean isLikelyNotFound(HttpMessage msg, ProbeSender sender) throws IOException {
+        if (msg.getResponseHeader().getStatusCode() == HttpStatusCode.NOT_FOUND) {
+            return true;
+        }
+        return getFingerprint(msg.getRequestHeader().getURI(), msg.getRequestingUser(), sender)
+                .matches(msg);
+    }
+
+    /**
+     * Gets the fingerprint of a file that does not exist, in the same directory and with the same
+     * class of extension as the given URI.
+     *
+     * @param uri the URI of the file.
+     * @param user the user sending the requests, might be {@code null}.
+     * @param sender the sender of the request to obtain the fingerprint, if not yet known.
+     * @return the fingerprint, never {@code null}.
+     * @throws IOException if an error occurred while obtaining the fingerprint.
+     */
+    public Fingerprint getFingerprint(URI uri, User user, ProbeSender sender) throws IOException {
+        return getFingerprint(uri, user, false, sender);
+    }
+
+    /**
+     * Gets the fingerprint of a file, with the same class of extension as the given URI, in a
+     * directory that does not exist, sibling of the directory of the given URI.
+     *
+     * @param uri the URI of the file.
+     * @param user the user sending the requests, might be {@code null}.
+     * @param sender the sender of the request to obtain the fingerprint, if not yet known.
+     * @return the fingerprint, never {@code null}.
+     * @throws IOException if an error occurred while obtaining the fingerprint.
+     */
+    public Fingerprint getMissingDirectoryFingerprint(URI uri, User user, ProbeSender sender)
+            throws IOException {
+        return getFingerprint(uri, user, true, sender);
+    }
+
+    private Fingerprint getFingerprint(
+            URI uri, User user, boolean missingDirectory, ProbeSender sender) throws IOException {
+        String path = uri.getEscapedPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+        int slash = path.lastIndexOf('/');
+        String directory = path.substring(0, slash + 1);
+        String name = path.substring(slash + 1);
+        if (missingDirectory) {
+            int parentSlash = directory.lastIndexOf('/', directory.length() - 2);
+            directory = parentSlash < 0 ? "/" : directory.substring(0, parentSlash + 1);
+        }
+        String extension = getExtension(name);
+        Key key =
+                new Key(
+                        uri.getScheme() + "://" + uri.getEscapedAuthority(),
+                        directory,
+                        getExtensionClass(name, extension),
+                        missingDirectory,
+                        user == null ? "" : user.getContextId() + ":" + user.getId());
+
+        CompletableFuture<Fingerprint> future;
+        boolean probe = false;
+        synchronized (fingerprints) {
+            future = fingerprints.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                fingerprints.put(key, future);
+                probe = true;
+            }
+        }
+
+        if (probe) {
+            try {
+                Fingerprint fingerprint = probe(key, extension, sender);
+                if (!fingerprint.isCacheable()) {
+                    remove(key, future);
+                }
+                future.complete(fingerprint);
+            } catch (IOException | RuntimeException e) {
+                remove(key, future);
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the fingerprint.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private void remove(Key key, CompletableFuture<Fingerprint> future) {
+        synchronized (fingerprints) {
+            fingerprints.remove(key, future);
+        }
+    }
+
+    private static Fingerprint probe(Key key, String extension, ProbeSender sender)
+            throws IOException {
+        StringBuilder path = new StringBuilder(key.directory);
+        if (key.missingDirectory) {
+            path.append(randomName()).append('/');
+        }
+        if (!DIRECTORY.equals(key.extensionClass)) {
+            path.append(randomName());
+            if (!extension.isEmpty()) {
+                path.append('.').append(extension);
+            }
+        }
+
+        HttpMessage msg = new HttpMessage(new URI(key.host + path, true));
+        sender.send(msg);
+        return new Fingerprint(msg);
+    }
+
+    private static String randomName() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] name = new char[RANDOM_NAME_LENGTH];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = RANDOM_CHARS.charAt(random.nextInt(RANDOM_CHARS.length()));
+        }
+        return new String(name);
+    }
+
+    private static String getExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        if (dot <= 0) {
+            return "";
+        }
+        return name.substring(dot + 1);
+    }
+
+    static String getExtensionClass(String name, String extension) {
+        if (name.isEmpty()) {
+            return DIRECTORY;
+        }
+        if (extension.isEmpty()) {
+            return NO_EXTENSION;
+        }
+        String lowerCase = extension.toLowerCase(Locale.ROOT);
+        if (DYNAMIC_EXTENSIONS.contains(lowerCase)) {
+            return lowerCase;
+        }
+        return STATIC_EXTENSION;
+    }
+
+    /** Removes the fingerprints of all the scans. */
+    public static void reset() {
+        synchronized (SCANS) {
+            SCANS.clear();
+        }
+    }
+
+    int size() {
+        synchronized (fingerprints) {
+            return fingerprints.size();
+        }
+    }
+
+    /**
+     * The fingerprint of a response, its status code and the hashes of its body.
+     *
+     * <p>Besides the exact hash of the body, the fingerprint also has the hash of the body
+     * normalised, without the path and name of the file requested, which are often reflected, and
+     * without the digits, which often change between responses (for example, dates and times).
+     */
+    public static final class Fingerprint {
+
+        private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+        private static final long FNV_PRIME = 0x100000001b3L;
+
+        private final int statusCode;
+        private final int bodyLength;
+        private final long bodyHash;
+        private final long normalisedBodyHash;
+
+        Fingerprint(HttpMessage msg) {
+            byte[] body = msg.getResponseBody().getBytes();
+            this.statusCode = msg.getResponseHeader().getStatusCode();
+            this.bodyLength = body.length;
+            this.bodyHash = hash(body);
+            this.normalisedBodyHash = normalisedHash(msg);
+        }
+
+        /**
+         * Gets the status code of the response.
+         *
+         * @return the status code.
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * Tells whether or not the status code of the response is 404.
+         *
+         * @return {@code true} if the status code is 404, {@code false} otherwise.
+         */
+        public boolean isNotFoundStatus() {
+            return statusCode == HttpStatusCode.NOT_FOUND;
+        }
+
+        private boolean isCacheable() {
+            return statusCode != TOO_MANY_REQUESTS && statusCode < 500;
+        }
+
+        /**
+         * Tells whether or not the response had the given body.
+         *
+         * @param body the body to check.
+         * @return {@code true} if the body is the same, {@code false} otherwise.
+         */
+        public boolean hasSameBody(byte[] body) {
+            return body.length == bodyLength && hash(body) == bodyHash;
+        }
+
+        /**
+         * Tells whether or not the response of the given message matches this fingerprint, that is,
+         * it has the same status code and the same body, once normalised.
+         *
+         * @param msg the message to check.
+         * @return {@code true} if the response matches, {@code false} otherwise.
+         */
+        public boolean matches(HttpMessage msg) {
+            if (msg.getResponseHeader().getStatusCode() != statusCode) {
+                return false;
+            }
+            return hasSameBody(msg.getResponseBody().getBytes())
+                    || normalisedHash(msg) == normalisedBodyHash;
+        }
+
+        private static long hash(byte[] data) {
+            long hash = FNV_OFFSET_BASIS;
+            for (byte b : data) {
+                hash ^= b & 0xff;
+                hash *= FNV_PRIME;
+            }
+            return hash;
+        }
+
+        private static long normalisedHash(HttpMessage msg) {
+            String body = msg.getResponseBody().toString();
+            try {
+                URI uri = msg.getRequestHeader().getURI();
+                body = remove(body, uri.getEscapedPath());
+                body = remove(body, uri.getPath());
+                body = remove(body, uri.getName());
+            } catch (URIException e) {
+                // Use the body as is.
+            }
+
+            long hash = FNV_OFFSET_BASIS;
+            for (int i = 0; i < body.length(); i++) {
+                char c = body.charAt(i);
+                if (Character.isDigit(c)) {
+                    continue;
+                }
+                hash ^= c;
+                hash *= FNV_PRIME;
+            }
+            return hash;
+        }
+
+        private static String remove(String body, String value) {
+            if (value == null || value.isEmpty() || "/".equals(value)) {
+                return body;
+            }
+            return body.replace(value, "");
+        }
+    }
+
+    private static final class Key {
+
+        private final String host;
+        private final String directory;
+        private final String extensionClass;
+        private final boolean missingDirectory;
+        private final String user;
+        private final int hashCode;
+
+        Key(
+                String host,
+                String directory,
+                String extensionClass,
+                boolean missingDirectory,
+                String user) {
+            this.host = host;
+            this.directory = directory;
+            this.extensionClass = extensionClass;
+            this.missingDirectory = missingDirectory;
+            this.user = user;
+            this.hashCode = Objects.hash(host, directory, extensionClass, missingDirectory, user);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return missingDirectory == other.missingDirectory
+                    && host.equals(other.host)
+                    && directory.equals(other.directory)
+                    && extensionClass.equals(other.extensionClass)
+                    && user.equals(other.user);
+        }
+    }
+}
@@ -23,11 +23,14 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 
+import java.util.Arrays;
+import java.util.Random;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class DiceMatcherUnitTest {
 
@@ -154,4 +157,132 @@ class DiceMatcherUnitTest {
         // Then
         assertThat(sim, is(equalTo(0)));
     }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 4, 5, 50, 300, 5000})
+    void shouldGiveSamePercentageAsSortedBigramsImplementation(int maxLength) {
+        // Given
+        Random random = new Random(maxLength);
+        for (int i = 0; i < 500; i++) {
+            String a = randomString(random, maxLength);
+            String b = random.nextInt(4) == 0 ? mutate(random, a) : randomString(random, maxLength);
+
+            // When
+            int sim = DiceMatcher.getMatchPercentage(a, b);
+
+            // Then
+            assertThat(a + " | " + b, sim, is(equalTo(referenceMatchPercentage(a, b))));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 5, 50, 300, 5000})
+    void shouldTellIfPercentageIsAtLeastAsSortedBigramsImplementation(int maxLength) {
+        // Given
+        Random random = new Random(maxLength);
+        for (int i = 0; i < 500; i++) {
+            String a = randomString(random, maxLength);
+            String b = random.nextInt(2) == 0 ? mutate(random, a) : randomString(random, maxLength);
+            int threshold = random.nextInt(102);
+
+            // When
+            boolean atLeast = DiceMatcher.isMatchPercentageAtLeast(a, b, threshold);
+
+            // Then
+            assertThat(
+                    a + " | " + b + " | " + threshold,
+                    atLeast,
+                    is(equalTo(referenceMatchPercentage(a, b) >= threshold)));
+        }
+    }
+
+    @Test
+    void shouldTellIfPercentageIsAtLeastForKnownStrings() {
+        // Given / When / Then
+        assertThat(
+                DiceMatcher.isMatchPercentageAtLeast(ORIGINAL_STRING, SIMILAR_STRING, 70),
+                is(equalTo(true)));
+        assertThat(
+                DiceMatcher.isMatchPercentageAtLeast(ORIGINAL_STRING, SIMILAR_STRING, 71),
+                is(equalTo(false)));
+        assertThat(
+                DiceMatcher.isMatchPercentageAtLeast(ORIGINAL_STRING, DIFFERENT_STRING, 25),
+                is(equalTo(true)));
+        assertThat(
+                DiceMatcher.isMatchPercentageAtLeast(ORIGINAL_STRING, DIFFERENT_STRING, 26),
+                is(equalTo(false)));
+    }
+
+    private static final char[] ALPHABET = {
+        'a', 'b', 'c', 'd', ' ', ' ', '\t', '\n', '\r', '\u000B', '\f', '\0', '\u00A0', '\uFFFF'
+    };
+
+    private static String randomString(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String mutate(Random random, String str) {
+        StringBuilder sb = new StringBuilder(str);
+        int changes = random.nextInt(Math.max(1, str.length() / 4) + 1);
+        for (int i = 0; i < changes && sb.length() > 0; i++) {
+            int index = random.nextInt(sb.length());
+            if (random.nextBoolean()) {
+                sb.setCharAt(index, ALPHABET[random.nextInt(ALPHABET.length)]);
+            } else {
+                sb.deleteCharAt(index);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** The previous implementation, which sorts the bigrams. */
+    private static int referenceMatchPercentage(String a, String b) {
+        if (a == null || b == null) return 0;
+
+        String s = a.replaceAll("\\s+", " ");
+        String t = b.replaceAll("\\s+", " ");
+
+        if (s.equals(t)) return 100;
+        if (s.length() < 2 || t.length() < 2) return 0;
+
+        final int[] sPairs = referenceBigrams(s);
+        final int[] tPairs = referenceBigrams(t);
+
+        Arrays.sort(sPairs);
+        Arrays.sort(tPairs);
+
+        int matches = 0;
+        int i = 0;
+        int j = 0;
+        int n = s.length() - 1;
+        int m = t.length() - 1;
+        while (i < n && j < m) {
+            if (sPairs[i] == tPairs[j]) {
+                matches += 2;
+                i++;
+                j++;
+            } else if (sPairs[i] < tPairs[j]) i++;
+            else j++;
+        }
+        return (int) Math.floor((double) matches * 100 / (n + m));
+    }
+
+    private static int[] referenceBigrams(String str) {
+        final int n = str.length() - 1;
+        final int[] pairs = new int[n];
+        for (int i = 0; i < n; i++)
+            if (i == 0) pairs[i] = str.charAt(i) << 16;
+            else if (i == n - 1) pairs[i - 1] |= str.charAt(i);
+            else {
+                int p = pairs[i - 1] | str.charAt(i);
+                pairs[i - 1] = p;
+                pairs[i] = p << 16;
+            }
+        return pairs;
+    }
 }
@@ -20,7 +20,11 @@
 package org.zaproxy.addon.commonlib.http;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import org.apache.commons.httpclient.URI;
 import org.apache.commons.httpclient.URIException;
@@ -673,4 +677,68 @@ class ComparableResponseUnitTest extends TestUtils {
         // Then
         assertEquals(0.0f, result);
     }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "",
+                " ",
+                "a",
+                " a",
+                "a ",
+                "a  b\tc",
+                "\n",
+                "\n\n",
+                "a\r\nb\rc\nd",
+                "a\n\nb\n\n",
+                "\r\n\r\na"
+            })
+    void shouldCountLinesAndWordsAsSplit(String body) {
+        // Given
+        Pattern lines = Pattern.compile("\r\n|\r|\n");
+        Pattern words = Pattern.compile("\\s+");
+        // When
+        int lineCount = ComparableResponse.countSplits(lines, body);
+        int wordCount = ComparableResponse.countSplits(words, body);
+        // Then
+        assertEquals(lines.split(body).length, lineCount);
+        assertEquals(words.split(body).length, wordCount);
+    }
+
+    @Test
+    void shouldCompareManyResponsesInOrder() {
+        // Given
+        ComparableResponse baseline = new ComparableResponse(createLongResponseMessage(), "");
+        List<ComparableResponse> responses = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            HttpMessage msg = i % 2 == 0 ? createLongResponseMessage() : createBasicMessage();
+            responses.add(new ComparableResponse(msg, ""));
+        }
+        // When
+        float[] results = ComparableResponse.compareMany(baseline, responses);
+        // Then
+        assertEquals(responses.size(), results.length);
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(baseline.compareWith(responses.get(i)), results[i]);
+        }
+        assertEquals(1, results[0]);
+        assertTrue(results[1] < 1);
+    }
+
+    @Test
+    void shouldCompareManyWithStructuredBodies() {
+        // Given
+        HttpMessage htmlMsg = createBasicMessage(HTML_HELLO_WORLD);
+        htmlMsg.getResponseHeader().setHeader(HttpHeader.CONTENT_TYPE, "text/html");
+        HttpMessage jsonMsg = createBasicMessage(JSON_SIMPLE_ARRAY);
+        jsonMsg.getResponseHeader().setHeader(HttpHeader.CONTENT_TYPE, "application/json");
+        ComparableResponse baseline = new ComparableResponse(htmlMsg, "");
+        List<ComparableResponse> responses =
+                List.of(new ComparableResponse(htmlMsg, ""), new ComparableResponse(jsonMsg, ""));
+        // When
+        float[] results = ComparableResponse.compareMany(baseline, responses);
+        // Then
+        assertEquals(1, results[0]);
+        assertEquals(baseline.compareWith(responses.get(1)), results[1]);
+    }
 }
@@ -0,0 +1,412 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib.http;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.httpclient.URI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.quality.Strictness;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.zap.network.HttpRedirectionValidator;
+import org.zaproxy.zap.network.HttpRequestConfig;
+
+/** Unit test for {@link RequestDispatcher}. */
+@Timeout(30)
+class RequestDispatcherUnitTest {
+
+    private HttpSender sender;
+    private ConcurrencyTracker sends;
+    private RequestDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sender = mock(HttpSender.class, withSettings().strictness(Strictness.LENIENT));
+        sends = new ConcurrencyTracker();
+        doAnswer(
+                        invocation -> {
+                            sends.run(() -> sleep(20));
+                            HttpRequestConfig config = invocation.getArgument(1);
+                            HttpRedirectionValidator validator = config.getRedirectionValidator();
+                            if (validator != null) {
+                                validator.notifyMessageReceived(invocation.getArgument(0));
+                            }
+                            return null;
+                        })
+                .when(sender)
+                .sendAndReceive(any(HttpMessage.class), any(HttpRequestConfig.class));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    void shouldSendAllMessages() throws Exception {
+        // Given
+        dispatcher = new RequestDispatcher(sender, HttpRequestConfig.builder().build(), 4, 4);
+        List<CompletableFuture<HttpMessage>> futures = new ArrayList<>();
+        List<HttpMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            messages.add(message("https://example.com/" + i));
+        }
+        // When
+        messages.forEach(msg -> futures.add(dispatcher.send(msg)));
+        dispatcher.awaitCompletion();
+        // Then
+        assertThat(sends.getCount(), is(equalTo(10)));
+        assertThat(dispatcher.getPendingRequests(), is(equalTo(0)));
+        for (int i = 0; i < messages.size(); i++) {
+            assertThat(futures.get(i).isDone(), is(equalTo(true)));
+            assertThat(futures.get(i).get(), is(sameInstance(messages.get(i))));
+        }
+    }
+
+    @Test
+    void shouldLimitRequestsPerHost() throws Exception {
+        // Given
+        dispatcher = new RequestDispatcher(sender, HttpRequestConfig.builder().build(), 8, 2);
+        // When
+        for (int i = 0; i < 20; i++) {
+            dispatcher.send(message("https://example.com/" + i));
+        }
+        dispatcher.awaitCompletion();
+        // Then
+        assertThat(sends.getCount(), is(equalTo(20)));
+        assertThat(sends.getMaxConcurrent(), is(lessThanOrEqualTo(2)));
+    }
+
+    @Test
+    void shouldLimitTotalRequests() throws Exception {
+        // Given
+        dispatcher = new RequestDispatcher(sender, HttpRequestConfig.builder().build(), 3, 8);
+        // When
+        for (int i = 0; i < 20; i++) {
+            dispatcher.send(message("https://example" + i + ".com/"));
+        }
+        dispatcher.awaitCompletion();
+        // Then
+        assertThat(sends.getCount(), is(equalTo(20)));
+        assertThat(sends.getMaxConcurrent(), is(lessThanOrEqualTo(3)));
+    }
+
+    @Test
+    void shouldSendToOtherHostsWhileHostAtLimit() throws Exception {
+        // Given
+        CountDownLatch releaseSlowHost = new CountDownLatch(1);
+        CountDownLatch fastHostSends = new CountDownLatch(4);
+        doAnswer(
+                        invocation -> {
+                            HttpMessage msg = invocation.getArgument(0);
+                            if ("slow.example.com".equals(msg.getRequestHeader().getHostName())) {
+                                releaseSlowHost.await();
+                            } else {
+                                fastHostSends.countDown();
+                            }
+                            return null;
+                        })
+                .when(sender)
+                .sendAndReceive(any(HttpMessage.class), any(HttpRequestConfig.class));
+        dispatcher = new RequestDispatcher(sender, HttpRequestConfig.builder().build(), 4, 2);
+        for (int i = 0; i < 6; i++) {
+            dispatcher.send(message("https://slow.example.com/" + i));
+        }
+        // When
+        for (int i = 0; i < 4; i++) {
+            dispatcher.send(message("https://fast.example.com/" + i));
+        }
+        boolean fastHostSent = fastHostSends.await(10, TimeUnit.SECONDS);
+        releaseSlowHost.countDown();
+        dispatcher.awaitCompletion();
+        // Then
+        assertThat(fastHostSent, is(equalTo(true)));
+        assertThat(dispatcher.getPendingRequests(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldNotifyValidatorOneMessageAtATime() throws Exception {
+        // Given
+        ConcurrencyTracker notifications = new ConcurrencyTracker();
+        HttpRedirectionValidator validator =
+                new HttpRedirectionValidator() {
+
+                    @Override
+                    public void notifyMessageReceived(HttpMessage message) {
+                        notifications.run(() -> sleep(5));
+                    }
+
+                    @Override
+                    public boolean isValid(URI redirection) {
+                        return true;
+                    }
+                };
+        dispatcher =
+                new RequestDispatcher(
+                        sender,
+                        HttpRequestConfig.builder().setRedirectionValidator(validator).build(),
+                        8,
+                        8);
+        // When
+        for (int i = 0; i < 20; i++) {
+            dispatcher.send(message("https://example.com/" + i));
+        }
+        dispatcher.awaitCompletion();
+        // Then
+        assertThat(notifications.getCount(), is(equalTo(20)));
+        assertThat(notifications.getMaxConcurrent(), is(equalTo(1)));
+    }
+
+    @Test
+    void shouldNotifyValidatorInDispatchOrder() throws Exception {
+        // Given
+        doAnswer(
+                        invocation -> {
+                            HttpMessage msg = invocation.getArgument(0);
+                            // The first messages take longer to send.
+                            int index =
+                                    Integer.parseInt(
+                                            msg.getRequestHeader().getURI().getPath().substring(1));
+                            sleep(50 - index * 5L);
+                            HttpRequestConfig config = invocation.getArgument(1);
+                            config.getRedirectionValidator().notifyMessageReceived(msg);
+                            return null;
+                        })
+                .when(sender)
+                .sendAndReceive(any(HttpMessage.class), any(HttpRequestConfig.class));
+        List<String> notified = new ArrayList<>();
+        List<String> completed = new ArrayList<>();
+        HttpRedirectionValidator validator =
+                new HttpRedirectionValidator() {
+
+                    @Override
+                    public void notifyMessageReceived(HttpMessage message) {
+                        notified.add(message.getRequestHeader().getURI().toString());
+                    }
+
+                    @Override
+                    public boolean isValid(URI redirection) {
+                        return true;
+                    }
+                };
+        dispatcher =
+                new RequestDispatcher(
+                        sender,
+                        HttpRequestConfig.builder().setRedirectionValidator(validator).build(),
+                        8,
+                        8);
+        List<String> expected = new ArrayList<>();
+        // When
+        for (int i = 0; i < 10; i++) {
+            String uri = "https://example.com/" + i;
+            expected.add(uri);
+            dispatcher
+                    .send(message(uri))
+                    .thenAccept(msg -> completed.add(msg.getRequestHeader().getURI().toString()));
+        }
+        dispatcher.awaitCompletion();
+        // Then
+        assertThat(notified, is(equalTo(expected)));
+        assertThat(completed, is(equalTo(expected)));
+    }
+
+    @Test
+    void shouldLimitPendingRequests() throws Exception {
+        // Given
+        CountDownLatch firstSent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(
+                        invocation -> {
+                            HttpMessage msg = invocation.getArgument(0);
+                            if ("/0".equals(msg.getRequestHeader().getURI().getPath())) {
+                                firstSent.countDown();
+                                release.await();
+                            }
+                            return null;
+                        })
+                .when(sender)
+                .sendAndReceive(any(HttpMessage.class), any(HttpRequestConfig.class));
+        dispatcher = new RequestDispatcher(sender, HttpRequestConfig.builder().build(), 2, 2, 3);
+        for (int i = 0; i < 3; i++) {
+            dispatcher.send(message("https://example.com/" + i));
+        }
+        firstSent.await();
+        // When
+        CompletableFuture<CompletableFuture<HttpMessage>> blockedSend =
+                CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                return dispatcher.send(message("https://example.com/3"));
+                            } catch (Exception e) {
+                                throw new RuntimeException(e);
+                            }
+                        });
+        boolean sentWhileFirstPending = isDone(blockedSend, 200);
+        release.countDown();
+        blockedSend.get().get();
+        dispatcher.awaitCompletion();
+        // Then
+        assertThat(sentWhileFirstPending, is(equalTo(false)));
+        assertThat(dispatcher.getPendingRequests(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldCompleteExceptionallyIfSendFails() throws Exception {
+        // Given
+        IOException exception = new IOException();
+        doAnswer(
+                        invocation -> {
+                            throw exception;
+                        })
+                .when(sender)
+                .sendAndReceive(any(HttpMessage.class), any(HttpRequestConfig.class));
+        dispatcher = new RequestDispatcher(sender, HttpRequestConfig.builder().build(), 2, 2);
+        // When
+        CompletableFuture<HttpMessage> future = dispatcher.send(message("https://example.com/"));
+        dispatcher.awaitCompletion();
+        // Then
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertThat(e.getCause(), is(sameInstance(exception)));
+        assertThat(dispatcher.getPendingRequests(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldCancelPendingMessages() throws Exception {
+        // Given
+        dispatcher = new RequestDispatcher(sender, HttpRequestConfig.builder().build(), 1, 1, 10);
+        List<CompletableFuture<HttpMessage>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(dispatcher.send(message("https://example.com/" + i)));
+        }
+        // When
+        dispatcher.cancelPending();
+        dispatcher.awaitCompletion();
+        // Then
+        assertThat(sends.getCount(), is(lessThanOrEqualTo(1)));
+        assertThat(futures.get(9).isCancelled(), is(equalTo(true)));
+        assertThat(dispatcher.getPendingRequests(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldSendMessagesWaitingForHostAfterClosed() throws Exception {
+        // Given
+        dispatcher = new RequestDispatcher(sender, HttpRequestConfig.builder().build(), 2, 1);
+        List<CompletableFuture<HttpMessage>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(dispatcher.send(message("https://example.com/" + i)));
+        }
+        // When
+        dispatcher.close();
+        dispatcher.awaitCompletion();
+        // Then
+        assertThat(sends.getCount(), is(equalTo(4)));
+        for (CompletableFuture<HttpMessage> future : futures) {
+            assertThat(future.isCompletedExceptionally(), is(equalTo(false)));
+        }
+    }
+
+    @Test
+    void shouldNotSendAfterClosed() throws Exception {
+        // Given
+        dispatcher = new RequestDispatcher(sender, HttpRequestConfig.builder().build(), 2, 2);
+        dispatcher.close();
+        // When
+        CompletableFuture<HttpMessage> future = dispatcher.send(message("https://example.com/"));
+        // Then
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertThat(e.getCause(), is(instanceOf(IOException.class)));
+        assertThat(sends.getCount(), is(equalTo(0)));
+        assertThat(dispatcher.getPendingRequests(), is(equalTo(0)));
+    }
+
+    private static HttpMessage message(String uri) throws Exception {
+        return new HttpMessage(new URI(uri, true));
+    }
+
+    private static boolean isDone(CompletableFuture<?> future, long millis) {
+        try {
+            future.get(millis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class ConcurrencyTracker {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger current = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        void run(Runnable runnable) {
+            int value = current.incrementAndGet();
+            maxConcurrent.accumulateAndGet(value, Math::max);
+            try {
+                runnable.run();
+            } finally {
+                current.decrementAndGet();
+                count.incrementAndGet();
+            }
+        }
+
+        int getCount() {
+            return count.get();
+        }
+
+        int getMaxConcurrent() {
+            return maxConcurrent.get();
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib.http;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.httpclient.URI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.addon.commonlib.http.Soft404Fingerprints.Fingerprint;
+import org.zaproxy.addon.commonlib.http.Soft404Fingerprints.ProbeSender;
+import org.zaproxy.zap.users.User;
+
+/** Unit test for {@link Soft404Fingerprints}. */
+@Timeout(30)
+class Soft404FingerprintsUnitTest {
+
+    private Soft404Fingerprints soft404;
+    private List<String> probes;
+
+    @BeforeEach
+    void setUp() {
+        Soft404Fingerprints.reset();
+        soft404 = new Soft404Fingerprints();
+        probes = new ArrayList<>();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        Soft404Fingerprints.reset();
+    }
+
+    @Test
+    void shouldProbeRandomFileInSameDirectoryWithSameExtension() throws Exception {
+        // Given
+        ProbeSender sender = respond(404, "Not Found");
+
+        // When
+        Fingerprint fingerprint =
+                soft404.getFingerprint(uri("https://example.com/dir/file.php"), null, sender);
+
+        // Then
+        assertThat(probes, hasSize(1));
+        assertThat(probes.get(0), matchesPattern("https://example\\.com/dir/[a-z0-9]{12}\\.php"));
+        assertThat(fingerprint.getStatusCode(), is(equalTo(404)));
+        assertThat(fingerprint.isNotFoundStatus(), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldProbeRandomFileInMissingSiblingDirectory() throws Exception {
+        // Given
+        ProbeSender sender = respond(404, "Not Found");
+
+        // When
+        soft404.getMissingDirectoryFingerprint(uri("https://example.com/a/b/file"), null, sender);
+
+        // Then
+        assertThat(probes, hasSize(1));
+        assertThat(
+                probes.get(0), matchesPattern("https://example\\.com/a/[a-z0-9]{12}/[a-z0-9]{12}"));
+    }
+
+    @Test
+    void shouldReuseFingerprintForSameHostDirectoryAndExtensionClass() throws Exception {
+        // Given
+        ProbeSender sender = respond(200, "Soft 404");
+        Fingerprint first =
+                soft404.getFingerprint(uri("https://example.com/dir/a.bak"), null, sender);
+
+        // When
+        Fingerprint second =
+                soft404.getFingerprint(uri("https://example.com/dir/b.old"), null, sender);
+
+        // Then
+        assertThat(probes, hasSize(1));
+        assertThat(second, is(sameInstance(first)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "https://example.com/other/a.bak",
+        "https://example.org/dir/a.bak",
+        "http://example.com/dir/a.bak",
+        "https://example.com/dir/a.php",
+        "https://example.com/dir/a",
+        "https://example.com/dir/"
+    })
+    void shouldNotReuseFingerprintForDifferentHostDirectoryOrExtensionClass(String other)
+            throws Exception {
+        // Given
+        ProbeSender sender = respond(200, "Soft 404");
+        soft404.getFingerprint(uri("https://example.com/dir/a.bak"), null, sender);
+
+        // When
+        soft404.getFingerprint(uri(other), null, sender);
+
+        // Then
+        assertThat(probes, hasSize(2));
+    }
+
+    @Test
+    void shouldProbeOnceForConcurrentRequests() throws Exception {
+        // Given
+        CountDownLatch probing = new CountDownLatch(1);
+        ProbeSender sender =
+                msg -> {
+                    probes.add(msg.getRequestHeader().getURI().toString());
+                    try {
+                        probing.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    msg.setResponseHeader("HTTP/1.1 404 Not Found");
+                };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Fingerprint>> fingerprints = new ArrayList<>();
+        // When
+        try {
+            for (int i = 0; i < 4; i++) {
+                fingerprints.add(
+                        executor.submit(
+                                () ->
+                                        soft404.getFingerprint(
+                                                uri("https://example.com/dir/file.txt"),
+                                                null,
+                                                sender)));
+            }
+            Thread.sleep(100);
+            probing.countDown();
+            for (Future<Fingerprint> fingerprint : fingerprints) {
+                assertThat(fingerprint.get(), is(sameInstance(fingerprints.get(0).get())));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // Then
+        assertThat(probes, hasSize(1));
+    }
+
+    @Test
+    void shouldProbeAgainIfProbeFailed() throws Exception {
+        // Given
+        ProbeSender failing =
+                msg -> {
+                    throw new IOException("Failed");
+                };
+        assertThrows(
+                IOException.class,
+                () ->
+                        soft404.getFingerprint(
+                                uri("https://example.com/dir/file.txt"), null, failing));
+
+        // When
+        soft404.getFingerprint(uri("https://example.com/dir/file.txt"), null, respond(404, ""));
+
+        // Then
+        assertThat(probes, hasSize(1));
+    }
+
+    @Test
+    void shouldBeLikelyNotFoundIf404() throws Exception {
+        // Given
+        HttpMessage msg = message("https://example.com/dir/file.txt", 404, "Gone");
+
+        // When
+        boolean notFound = soft404.isLikelyNotFound(msg, respond(200, "Soft 404"));
+
+        // Then
+        assertThat(notFound, is(equalTo(true)));
+        assertThat(probes, hasSize(0));
+    }
+
+    @Test
+    void shouldBeLikelyNotFoundIfSameAsSoft404WithReflectedNameAndDigits() throws Exception {
+        // Given
+        ProbeSender sender =
+                msg -> {
+                    String path = msg.getRequestHeader().getURI().getPath();
+                    probes.add(path);
+                    respond(msg, 200, "<p>The page " + path + " was not found at 10:11:12</p>");
+                };
+        HttpMessage msg =
+                message(
+                        "https://example.com/dir/file.txt",
+                        200,
+                        "<p>The page /dir/file.txt was not found at 10:11:13</p>");
+
+        // When
+        boolean notFound = soft404.isLikelyNotFound(msg, sender);
+
+        // Then
+        assertThat(notFound, is(equalTo(true)));
+    }
+
+    @Test
+    void shouldNotBeLikelyNotFoundIfDifferentFromSoft404() throws Exception {
+        // Given
+        HttpMessage msg = message("https://example.com/dir/file.txt", 200, "Contents of file");
+
+        // When
+        boolean notFound = soft404.isLikelyNotFound(msg, respond(200, "Soft 404"));
+
+        // Then
+        assertThat(notFound, is(equalTo(false)));
+    }
+
+    @Test
+    void shouldNotBeLikelyNotFoundIfDifferentStatusCode() throws Exception {
+        // Given
+        HttpMessage msg = message("https://example.com/dir/file.txt", 200, "Not Found");
+
+        // When
+        boolean notFound = soft404.isLikelyNotFound(msg, respond(302, "Not Found"));
+
+        // Then
+        assertThat(notFound, is(equalTo(false)));
+    }
+
+    @Test
+    void shouldCheckIfSameBody() throws Exception {
+        // Given
+        Fingerprint fingerprint =
+                soft404.getFingerprint(
+                        uri("https://example.com/dir/file.txt"), null, respond(200, "Soft 404"));
+
+        // When / Then
+        assertThat(fingerprint.hasSameBody("Soft 404".getBytes()), is(equalTo(true)));
+        assertThat(fingerprint.hasSameBody("Soft 405".getBytes()), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldLimitNumberOfFingerprints() throws Exception {
+        // Given
+        ProbeSender sender = respond(404, "");
+
+        // When
+        for (int i = 0; i <= Soft404Fingerprints.MAX_FINGERPRINTS; i++) {
+            soft404.getFingerprint(uri("https://example.com/" + i + "/file"), null, sender);
+        }
+
+        // Then
+        assertThat(soft404.size(), is(equalTo(Soft404Fingerprints.MAX_FINGERPRINTS)));
+    }
+
+    @Test
+    void shouldNotReuseFingerprintForDifferentUser() throws Exception {
+        // Given
+        ProbeSender sender = respond(200, "Soft 404");
+        User user = mock(User.class);
+        given(user.getContextId()).willReturn(1);
+        given(user.getId()).willReturn(2);
+        soft404.getFingerprint(uri("https://example.com/dir/a.bak"), null, sender);
+
+        // When
+        soft404.getFingerprint(uri("https://example.com/dir/a.bak"), user, sender);
+        soft404.getFingerprint(uri("https://example.com/dir/a.bak"), user, sender);
+
+        // Then
+        assertThat(probes, hasSize(2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {429, 500, 503})
+    void shouldNotKeepFingerprintOfErrorOrThrottlingResponse(int status) throws Exception {
+        // Given
+        ProbeSender sender = respond(status, "Try again later");
+        Fingerprint first =
+                soft404.getFingerprint(uri("https://example.com/dir/file.txt"), null, sender);
+
+        // When
+        soft404.getFingerprint(uri("https://example.com/dir/file.txt"), null, sender);
+
+        // Then
+        assertThat(first.getStatusCode(), is(equalTo(status)));
+        assertThat(probes, hasSize(2));
+        assertThat(soft404.size(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldKeepFingerprintsPerScan() {
+        // Given
+        HostProcess scan = mock(HostProcess.class);
+        HostProcess otherScan = mock(HostProcess.class);
+
+        // When
+        Soft404Fingerprints fingerprints = Soft404Fingerprints.forScan(scan);
+
+        // Then
+        assertThat(Soft404Fingerprints.forScan(scan), is(sameInstance(fingerprints)));
+        assertThat(Soft404Fingerprints.forScan(otherScan), is(not(sameInstance(fingerprints))));
+    }
+
+    @Test
+    void shouldRemoveFingerprintsOfAllScansOnReset() {
+        // Given
+        HostProcess scan = mock(HostProcess.class);
+        Soft404Fingerprints fingerprints = Soft404Fingerprints.forScan(scan);
+
+        // When
+        Soft404Fingerprints.reset();
+
+        // Then
+        assertThat(Soft404Fingerprints.forScan(scan), is(not(sameInstance(fingerprints))));
+    }
+
+    private ProbeSender respond(int status, String body) {
+        return msg -> {
+            probes.add(msg.getRequestHeader().getURI().toString());
+            respond(msg, status, body);
+        };
+    }
+
+    private static void respond(HttpMessage msg, int status, String body) throws IOException {
+        msg.setResponseHeader("HTTP/1.1 " + status + " Reason");
+        msg.setResponseBody(body);
+    }
+
+    private static HttpMessage message(String uri, int status, String body) throws IOException {
+        HttpMessage msg = new HttpMessage(uri(uri));
+        respond(msg, status, body);
+        return msg;
+    }
+
+    private static URI uri(String uri) throws IOException {
+        return new URI(uri, true);
+    }
+}
@@ -22,6 +22,26 @@ zapAddOn {
 dependencies {
     zapAddOn("commonlib")
     implementation("com.googlecode.java-diff-utils:diffutils:1.3.0")
+
+    testImplementation(project(":testutils"))
+}
+
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+tasks.register<Test>("benchmark") {
+    description = "Runs the benchmarks of the diff engine, which print their timings."
+    group = LifecycleBasePlugin.VERIFICATION_GROUP
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging.showStandardStreams = true
+    outputs.upToDateWhen { false }
 }
 
 spotless {
@@ -30,7 +50,7 @@ spotless {
             fileTree(projectDir) {
                 include("src/**/*.java")
                 // Ignore 3rd-party code.
-                exclude("src/**/diff_match_patch.java", "src/**/ZapDiffRowGenerator.java")
+                exclude("src/**/diff_match_patch.java")
             },
         )
     }
@@ -30,6 +30,7 @@ import java.awt.event.AdjustmentEvent;
 import java.awt.event.AdjustmentListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowEvent;
+import java.util.List;
 import javax.swing.AbstractAction;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
@@ -198,14 +199,6 @@ public class DiffDialog extends AbstractDialog implements AdjustmentListener {
         return txtDisplayRight;
     }
 
-    protected void highlightLeftText(int start, int end) {
-        this.highlightText(this.getTxtDisplayLeft(), start, end);
-    }
-
-    protected void highlightRightText(int start, int end) {
-        this.highlightText(this.getTxtDisplayRight(), start, end);
-    }
-
     private void highlightText(JTextArea area, int start, int end) {
         Highlighter hilite = area.getHighlighter();
         HighlightPainter painter = new DefaultHighlighter.DefaultHighlightPainter(Color.YELLOW);
@@ -216,39 +209,27 @@ public class DiffDialog extends AbstractDialog implements AdjustmentListener {
         }
     }
 
-    protected int appendLeftText(String text, boolean highlight) {
-        return this.appendText(this.getTxtDisplayLeft(), text, highlight);
-    }
-
-    protected int appendRightText(String text, boolean highlight) {
-        return this.appendText(this.getTxtDisplayRight(), text, highlight);
+    /**
+     * Appends the given chunk of the diff, to the left and right panels.
+     *
+     * @param diffText the chunk of the diff.
+     */
+    void appendDiff(DiffEngine.DiffText diffText) {
+        appendDiff(getTxtDisplayLeft(), diffText.getLeft(), diffText.getLeftHighlights());
+        appendDiff(getTxtDisplayRight(), diffText.getRight(), diffText.getRightHighlights());
     }
 
-    private int appendText(JTextArea area, String text, boolean highlight) {
-
-        int start = area.getDocument().getLength();
-
-        if (text == null || text.length() == 0) {
-            return start;
-        }
-
-        int end = start + text.length();
-
+    private void appendDiff(JTextArea area, String text, List<int[]> highlights) {
         try {
-
-            area.getDocument().insertString(start, text, null);
-
-            if (highlight) {
-                Highlighter hilite = area.getHighlighter();
-                HighlightPainter painter =
-                        new DefaultHighlighter.DefaultHighlightPainter(Color.YELLOW);
-                hilite.addHighlight(start, end - 1, painter);
-            }
-
+            // Add the highlights after all the text, otherwise inserting text at the end of a
+            // highlight would extend it.
+            area.getDocument().insertString(area.getDocument().getLength(), text, null);
         } catch (BadLocationException e) {
             LOGGER.error(e.getMessage(), e);
         }
-        return end;
+        for (int[] hl : highlights) {
+            highlightText(area, hl[0], hl[1]);
+        }
     }
 
     /**
@@ -0,0 +1,386 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.zaproxy.zap.extension.diff.HistogramDiff.Edit;
+import org.zaproxy.zap.extension.diff.diff_match_patch.Diff;
+
+/**
+ * Computes the side by side diff of two texts, as shown by the {@link DiffDialog}.
+ *
+ * <p>The lines are compared with a {@link HistogramDiff histogram diff} and the changed lines with
+ * {@link diff_match_patch}, or, if too long or the time bound was reached, with a histogram diff of
+ * their tokens (words and single other characters). The regions not compared when the time bound is
+ * reached are shown as changed as a whole.
+ *
+ * <p>The diff is output in {@link DiffText chunks}, which allows to show the first lines while the
+ * rest is still being computed.
+ */
+class DiffEngine {
+
+    /** The length above which the changed lines are compared by tokens. */
+    static final int LONG_LINE_LENGTH = 10_000;
+
+    private static final int CHUNK_LENGTH = 64 * 1024;
+
+    private final long timeoutNanos;
+    private long deadline;
+    private DiffText chunk;
+    private Consumer<DiffText> output;
+
+    /**
+     * Constructs a {@code DiffEngine} with the given time bound.
+     *
+     * @param timeoutMillis the time, in milliseconds, after which the remaining differences are no
+     *     longer computed in detail, or {@code 0} for no time bound.
+     */
+    DiffEngine(long timeoutMillis) {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Diffs the given lines.
+     *
+     * @param original the original lines.
+     * @param revised the revised lines.
+     * @param output the consumer of the chunks of the diff, in order.
+     */
+    void diff(List<String> original, List<String> revised, Consumer<DiffText> output) {
+        this.output = output;
+        this.deadline = timeoutNanos == 0 ? 0 : nonZero(System.nanoTime() + timeoutNanos);
+        this.chunk = new DiffText(0, 0);
+
+        Map<String, Integer> ids = new HashMap<>();
+        int[] a = toIds(original, ids);
+        int[] b = toIds(revised, ids);
+        List<Edit> edits = HistogramDiff.diff(a, b, ids.size(), deadline);
+
+        Lines lines = new Lines();
+        int posA = 0;
+        for (Edit edit : edits) {
+            for (int i = posA; i < edit.beginA; i++) {
+                lines.equal(original.get(i));
+            }
+            if (edit.beginA == edit.endA) {
+                for (int j = edit.beginB; j < edit.endB; j++) {
+                    lines.insert(revised.get(j));
+                }
+            } else if (edit.beginB == edit.endB) {
+                for (int i = edit.beginA; i < edit.endA; i++) {
+                    lines.delete(original.get(i));
+                }
+            } else {
+                int sizeA = edit.endA - edit.beginA;
+                int sizeB = edit.endB - edit.beginB;
+                for (int j = 0; j < Math.max(sizeA, sizeB); j++) {
+                    lines.change(
+                            j < sizeA ? original.get(edit.beginA + j) : "",
+                            j < sizeB ? revised.get(edit.beginB + j) : "");
+                }
+            }
+            posA = edit.endA;
+        }
+        for (int i = posA; i < original.size(); i++) {
+            lines.equal(original.get(i));
+        }
+        flush();
+    }
+
+    private boolean isExpired() {
+        return deadline != 0 && System.nanoTime() - deadline > 0;
+    }
+
+    private static long nonZero(long value) {
+        return value == 0 ? 1 : value;
+    }
+
+    private static int[] toIds(List<String> elements, Map<String, Integer> ids) {
+        int[] sequence = new int[elements.size()];
+        for (int i = 0; i < sequence.length; i++) {
+            Integer id = ids.get(elements.get(i));
+            if (id == null) {
+                id = ids.size();
+                ids.put(elements.get(i), id);
+            }
+            sequence[i] = id;
+        }
+        return sequence;
+    }
+
+    private void flush() {
+        if (chunk.left.length() != 0 || chunk.right.length() != 0) {
+            output.accept(chunk);
+        }
+        chunk = new DiffText(chunk.getLeftEnd(), chunk.getRightEnd());
+    }
+
+    /**
+     * Diffs the changed lines, as a sequence of equal, deleted, and inserted segments.
+     *
+     * @param oldLine the old line.
+     * @param newLine the new line.
+     * @return the segments.
+     */
+    List<Diff> diffLine(String oldLine, String newLine) {
+        if (oldLine.length() + newLine.length() <= LONG_LINE_LENGTH && !isExpired()) {
+            return new diff_match_patch().diff_main(oldLine, newLine);
+        }
+        return diffTokens(oldLine, newLine);
+    }
+
+    private List<Diff> diffTokens(String oldLine, String newLine) {
+        Map<String, Integer> ids = new HashMap<>();
+        Tokens tokensA = Tokens.of(oldLine, ids);
+        Tokens tokensB = Tokens.of(newLine, ids);
+        List<Edit> edits = HistogramDiff.diff(tokensA.ids, tokensB.ids, ids.size(), deadline);
+
+        List<Diff> diffs = new LinkedList<>();
+        int posA = 0;
+        for (Edit edit : edits) {
+            addDiff(diffs, diff_match_patch.Operation.EQUAL, tokensA.text(posA, edit.beginA));
+            addDiff(diffs, diff_match_patch.Operation.DELETE, tokensA.text(edit.beginA, edit.endA));
+            addDiff(diffs, diff_match_patch.Operation.INSERT, tokensB.text(edit.beginB, edit.endB));
+            posA = edit.endA;
+        }
+        addDiff(diffs, diff_match_patch.Operation.EQUAL, tokensA.text(posA, tokensA.size()));
+        return diffs;
+    }
+
+    private static void addDiff(List<Diff> diffs, diff_match_patch.Operation op, String text) {
+        if (!text.isEmpty()) {
+            diffs.add(new Diff(op, text));
+        }
+    }
+
+    /** Renders the lines, with their numbers, as shown by the dialog. */
+    private class Lines {
+
+        private int leftLine;
+        private int rightLine;
+
+        void equal(String line) {
+            chunk.appendLeft(leftLine + " : ", false);
+            chunk.appendRight(rightLine + " : ", false);
+            chunk.appendLeft(line, false);
+            chunk.appendRight(line, false);
+            leftLine++;
+            rightLine++;
+            endRow();
+        }
+
+        void delete(String line) {
+            chunk.appendLeft(leftLine + " : ", true);
+            chunk.appendLeft(line, true);
+            leftLine++;
+            endRow();
+        }
+
+        void insert(String line) {
+            chunk.appendRight(rightLine + " : ", true);
+            chunk.appendRight(line, true);
+            rightLine++;
+            endRow();
+        }
+
+        void change(String oldLine, String newLine) {
+            if (oldLine.length() > 0) {
+                chunk.appendLeft(leftLine + " : ", true);
+            }
+            if (newLine.length() > 0) {
+                chunk.appendRight(rightLine + " : ", true);
+            }
+
+            for (Diff diff : diffLine(oldLine, newLine)) {
+                int end;
+                switch (diff.operation) {
+                    case EQUAL:
+                        chunk.appendLeft(diff.text, false);
+                        chunk.appendRight(diff.text, false);
+                        break;
+                    case DELETE:
+                        end = chunk.appendLeft(diff.text, false);
+                        chunk.leftHighlights.add(new int[] {end - diff.text.length(), end});
+                        break;
+                    case INSERT:
+                        end = chunk.appendRight(diff.text, false);
+                        chunk.rightHighlights.add(new int[] {end - diff.text.length(), end});
+                        break;
+                }
+            }
+
+            // These spaces prevent the next lines from moving any highlights at the end of the
+            // line
+            chunk.appendLeft(" ", false);
+            chunk.appendRight(" ", false);
+
+            if (oldLine.length() > 0) {
+                leftLine++;
+            }
+            if (newLine.length() > 0) {
+                rightLine++;
+            }
+            endRow();
+        }
+
+        private void endRow() {
+            chunk.appendLeft("\n", false);
+            chunk.appendRight("\n", false);
+            if (chunk.left.length() + chunk.right.length() >= CHUNK_LENGTH) {
+                flush();
+            }
+        }
+    }
+
+    /** The tokens of a line: runs of letters, digits, and underscores, or single other chars. */
+    private static class Tokens {
+
+        private final String text;
+        private final int[] ids;
+        private final int[] starts;
+
+        private Tokens(String text, int[] ids, int[] starts) {
+            this.text = text;
+            this.ids = ids;
+            this.starts = starts;
+        }
+
+        static Tokens of(String text, Map<String, Integer> ids) {
+            int[] tokenIds = new int[16];
+            int[] starts = new int[17];
+            int count = 0;
+            int i = 0;
+            while (i < text.length()) {
+                int start = i;
+                if (isWordChar(text.charAt(i))) {
+                    while (i < text.length() && isWordChar(text.charAt(i))) {
+                        i++;
+                    }
+                } else {
+                    i++;
+                }
+                if (count == tokenIds.length) {
+                    tokenIds = Arrays.copyOf(tokenIds, count * 2);
+                    starts = Arrays.copyOf(starts, count * 2 + 1);
+                }
+                String token = text.substring(start, i);
+                Integer id = ids.get(token);
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(token, id);
+                }
+                tokenIds[count] = id;
+                starts[count] = start;
+                count++;
+            }
+            starts[count] = text.length();
+            return new Tokens(
+                    text, Arrays.copyOf(tokenIds, count), Arrays.copyOf(starts, count + 1));
+        }
+
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_';
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        String text(int beginToken, int endToken) {
+            return text.substring(starts[beginToken], starts[endToken]);
+        }
+    }
+
+    /**
+     * A chunk of the diff, the text to append to each side and the ranges to highlight, with
+     * offsets from the start of the whole diff.
+     */
+    static class DiffText {
+
+        private final StringBuilder left = new StringBuilder();
+        private final StringBuilder right = new StringBuilder();
+        private final int leftStart;
+        private final int rightStart;
+        private final List<int[]> leftHighlights = new ArrayList<>();
+        private final List<int[]> rightHighlights = new ArrayList<>();
+
+        DiffText(int leftStart, int rightStart) {
+            this.leftStart = leftStart;
+            this.rightStart = rightStart;
+        }
+
+        String getLeft() {
+            return left.toString();
+        }
+
+        String getRight() {
+            return right.toString();
+        }
+
+        List<int[]> getLeftHighlights() {
+            return leftHighlights;
+        }
+
+        List<int[]> getRightHighlights() {
+            return rightHighlights;
+        }
+
+        int getLeftEnd() {
+            return leftStart + left.length();
+        }
+
+        int getRightEnd() {
+            return rightStart + right.length();
+        }
+
+        int appendLeft(String text, boolean highlight) {
+            return append(left, leftStart, leftHighlights, text, highlight);
+        }
+
+        int appendRight(String text, boolean highlight) {
+            return append(right, rightStart, rightHighlights, text, highlight);
+        }
+
+        private static int append(
+                StringBuilder sb,
+                int offset,
+                List<int[]> highlights,
+                String text,
+                boolean highlight) {
+            int start = offset + sb.length();
+            if (text == null || text.length() == 0) {
+                return start;
+            }
+            sb.append(text);
+            int end = start + text.length();
+            if (highlight) {
+                highlights.add(new int[] {start, end - 1});
+            }
+            return end;
+        }
+    }
+}
@@ -19,23 +19,33 @@
  */
 package org.zaproxy.zap.extension.diff;
 
-import difflib.DiffRow;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import javax.swing.SwingWorker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.extension.ExtensionAdaptor;
 import org.parosproxy.paros.extension.ExtensionHook;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.MenuWeights;
-import org.zaproxy.zap.extension.diff.ZapDiffRowGenerator.Builder;
-import org.zaproxy.zap.extension.diff.diff_match_patch.Diff;
 
 public class ExtensionDiff extends ExtensionAdaptor {
 
+    private static final Logger LOGGER = LogManager.getLogger(ExtensionDiff.class);
+
+    /** The time after which the remaining differences are shown as changed as a whole. */
+    private static final long DIFF_TIMEOUT_MS = 10_000;
+
     private PopupMenuDiff popupMenuDiffRequests = null;
     private PopupMenuDiff popupMenuDiffResponses = null;
     private DiffDialog diffDialog = null;
+    private DiffWorker diffWorker;
 
     /** */
     public ExtensionDiff() {
@@ -51,6 +61,7 @@ public class ExtensionDiff extends ExtensionAdaptor {
     @Override
     public void unload() {
         if (hasView()) {
+            cancelDiff();
             if (diffDialog != null) {
                 diffDialog.dispose();
                 diffDialog = null;
@@ -98,20 +109,34 @@ public class ExtensionDiff extends ExtensionAdaptor {
     private DiffDialog getDiffDialog() {
         if (diffDialog == null) {
             diffDialog = new DiffDialog(getView().getMainFrame(), false);
+            // Stop diffing once the dialog is closed, the result would not be shown.
+            diffDialog.addComponentListener(
+                    new ComponentAdapter() {
+                        @Override
+                        public void componentHidden(ComponentEvent e) {
+                            cancelDiff();
+                        }
+                    });
+            diffDialog.addWindowListener(
+                    new WindowAdapter() {
+                        @Override
+                        public void windowClosed(WindowEvent e) {
+                            cancelDiff();
+                        }
+                    });
         }
         return diffDialog;
     }
 
+    private void cancelDiff() {
+        if (diffWorker != null) {
+            diffWorker.cancel(false);
+            diffWorker = null;
+        }
+    }
+
     public void showDiffDialog(HttpMessage msg1, HttpMessage msg2, boolean request)
             throws Exception {
-        /*
-         * This _is_ fairly nasty ;)
-         * This method uses 2 different classes/projects to work out the diffs.
-         * It uses diffutils to get the differing lines, and then diff_match_patch to identify the
-         * diffs in the pairs of lines.
-         * Be delighted if anyone can implement a cleaner option ;)
-         */
-
         if (msg1 == null || msg2 == null) {
             return;
         }
@@ -119,6 +144,7 @@ public class ExtensionDiff extends ExtensionAdaptor {
         if (diffDialog.isVisible()) {
             return;
         }
+        cancelDiff();
         diffDialog.clearPanels();
 
         List<String> msgList1 = new ArrayList<>();
@@ -136,100 +162,57 @@ public class ExtensionDiff extends ExtensionAdaptor {
             stringToList(msg2.getResponseBody().toString(), msgList2);
         }
 
-        Builder builder = new ZapDiffRowGenerator.Builder();
-        ZapDiffRowGenerator drg = builder.build();
-
-        List<DiffRow> res = drg.generateDiffRows(msgList1, msgList2);
-        int leftLine = 0;
-        int rightLine = 0;
-        for (DiffRow dr : res) {
-            diff_match_patch dmp = new diff_match_patch();
-
-            switch (dr.getTag()) {
-                case CHANGE:
-                    if (dr.getOldLine().length() > 0) {
-                        diffDialog.appendLeftText(leftLine + " : ", true);
-                    }
-                    if (dr.getNewLine().length() > 0) {
-                        diffDialog.appendRightText(rightLine + " : ", true);
-                    }
-
-                    /*
-                     * Apply the highlighters after adding all the text.
-                     * Bit nasty, but otherwise when you insert test if moves the end of the highlighter
-                     * so everything is highlighted.
-                     */
-
-                    List<int[]> leftHighlighters = new ArrayList<>();
-                    List<int[]> rightHighlighters = new ArrayList<>();
-
-                    LinkedList<Diff> diffs = dmp.diff_main(dr.getOldLine(), dr.getNewLine());
-                    for (Diff diff : diffs) {
-                        int end = 0;
-                        switch (diff.operation) {
-                            case EQUAL:
-                                diffDialog.appendLeftText(diff.text, false);
-                                diffDialog.appendRightText(diff.text, false);
-                                break;
-                            case DELETE:
-                                end = diffDialog.appendLeftText(diff.text, false);
-                                leftHighlighters.add(new int[] {end - diff.text.length(), end});
-                                break;
-                            case INSERT:
-                                end = diffDialog.appendRightText(diff.text, false);
-                                rightHighlighters.add(new int[] {end - diff.text.length(), end});
-                                break;
-                        }
-                    }
-
-                    // These spaces prevent the next lines from moving any highlights at the end of
-                    // the line
-                    diffDialog.appendLeftText(" ", false);
-                    diffDialog.appendRightText(" ", false);
-
-                    for (int[] hl : leftHighlighters) {
-                        diffDialog.highlightLeftText(hl[0], hl[1]);
-                    }
-                    for (int[] hl : rightHighlighters) {
-                        diffDialog.highlightRightText(hl[0], hl[1]);
-                    }
-
-                    if (dr.getOldLine().length() > 0) {
-                        leftLine++;
-                    }
-                    if (dr.getNewLine().length() > 0) {
-                        rightLine++;
-                    }
-                    break;
-                case EQUAL:
-                    diffDialog.appendLeftText(leftLine + " : ", false);
-                    diffDialog.appendRightText(rightLine + " : ", false);
-
-                    diffDialog.appendLeftText(dr.getOldLine(), (dr.getTag() != DiffRow.Tag.EQUAL));
-                    diffDialog.appendRightText(dr.getNewLine(), (dr.getTag() != DiffRow.Tag.EQUAL));
-                    leftLine++;
-                    rightLine++;
-                    break;
-                case DELETE:
-                    diffDialog.appendLeftText(leftLine + " : ", (dr.getTag() != DiffRow.Tag.EQUAL));
-                    diffDialog.appendLeftText(dr.getOldLine(), (dr.getTag() != DiffRow.Tag.EQUAL));
-                    leftLine++;
-                    break;
-                case INSERT:
-                    diffDialog.appendRightText(
-                            rightLine + " : ", (dr.getTag() != DiffRow.Tag.EQUAL));
-                    diffDialog.appendRightText(dr.getNewLine(), (dr.getTag() != DiffRow.Tag.EQUAL));
-                    rightLine++;
-                    break;
-            }
-            diffDialog.appendLeftText("\n", false);
-            diffDialog.appendRightText("\n", false);
-        }
         diffDialog.setLeftHeader(msg1.getRequestHeader().getURI().toString());
         diffDialog.setRightHeader(msg2.getRequestHeader().getURI().toString());
 
+        // The diff is computed in the background, the chunks shown as they are ready.
+        diffWorker = new DiffWorker(diffDialog, msgList1, msgList2);
+        diffWorker.execute();
+
         diffDialog.setVisible(true);
 
         // TODO scroll to first diff - initial attempts to do this have failed..
     }
+
+    private static class DiffWorker extends SwingWorker<Void, DiffEngine.DiffText> {
+
+        private final DiffDialog diffDialog;
+        private final List<String> original;
+        private final List<String> revised;
+
+        DiffWorker(DiffDialog diffDialog, List<String> original, List<String> revised) {
+            this.diffDialog = diffDialog;
+            this.original = original;
+            this.revised = revised;
+        }
+
+        @Override
+        protected Void doInBackground() {
+            try {
+                new DiffEngine(DIFF_TIMEOUT_MS)
+                        .diff(
+                                original,
+                                revised,
+                                chunk -> {
+                                    if (isCancelled()) {
+                                        throw new CancellationException();
+                                    }
+                                    publish(chunk);
+                                });
+            } catch (CancellationException e) {
+                // Nothing to do.
+            } catch (Exception e) {
+                LOGGER.error("Failed to diff the messages:", e);
+            }
+            return null;
+        }
+
+        @Override
+        protected void process(List<DiffEngine.DiffText> chunks) {
+            if (isCancelled()) {
+                return;
+            }
+            chunks.forEach(diffDialog::appendDiff);
+        }
+    }
 }
@@ -0,0 +1,236 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.diff;
+
+import difflib.Delta;
+import difflib.DiffUtils;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A histogram diff of sequences of elements, represented by their IDs.
+ *
+ * <p>The regions are split at the longest common run of the elements that occur the least, which
+ * are found with a histogram of the elements of the original region. Regions whose elements occur
+ * too often fall back to a Myers diff, if small enough, otherwise are replaced as a whole, as are
+ * the regions still to diff when the deadline is reached.
+ */
+class HistogramDiff {
+
+    /** The maximum occurrences of an element to be considered for splitting a region. */
+    private static final int MAX_CHAIN_LENGTH = 64;
+
+    /** The maximum size (product of the lengths) of a region to diff with Myers. */
+    private static final long MAX_FALLBACK_SIZE = 10_000_000L;
+
+    private final int[] a;
+    private final int[] b;
+    private final long deadline;
+
+    private final int[] count;
+    private final int[] lastA;
+    private final int[] previousA;
+
+    private final List<Edit> edits = new ArrayList<>();
+
+    private HistogramDiff(int[] a, int[] b, int idCount, long deadline) {
+        this.a = a;
+        this.b = b;
+        this.deadline = deadline;
+        this.count = new int[idCount];
+        this.lastA = new int[idCount];
+        this.previousA = new int[a.length];
+    }
+
+    /**
+     * Diffs the given sequences.
+     *
+     * @param a the original sequence, IDs from zero (inclusive) to {@code idCount} (exclusive).
+     * @param b the revised sequence, IDs from zero (inclusive) to {@code idCount} (exclusive).
+     * @param idCount the number of distinct IDs.
+     * @param deadline the {@link System#nanoTime()} after which the regions not yet diffed are
+     *     replaced as a whole, or {@code 0} for no deadline.
+     * @return the edits, ordered and not overlapping.
+     */
+    static List<Edit> diff(int[] a, int[] b, int idCount, long deadline) {
+        HistogramDiff diff = new HistogramDiff(a, b, idCount, deadline);
+        diff.diff();
+        return diff.edits;
+    }
+
+    private void diff() {
+        // Depth first, the left region before the right, so that the edits are ordered.
+        Deque<Edit> regions = new ArrayDeque<>();
+        regions.push(new Edit(0, a.length, 0, b.length));
+        while (!regions.isEmpty()) {
+            Edit region = regions.pop();
+            diffRegion(region, regions);
+        }
+    }
+
+    private void diffRegion(Edit region, Deque<Edit> regions) {
+        int beginA = region.beginA;
+        int endA = region.endA;
+        int beginB = region.beginB;
+        int endB = region.endB;
+        while (beginA < endA && beginB < endB && a[beginA] == b[beginB]) {
+            beginA++;
+            beginB++;
+        }
+        while (beginA < endA && beginB < endB && a[endA - 1] == b[endB - 1]) {
+            endA--;
+            endB--;
+        }
+        if (beginA == endA || beginB == endB) {
+            addEdit(beginA, endA, beginB, endB);
+            return;
+        }
+        if (deadline != 0 && System.nanoTime() - deadline > 0) {
+            addEdit(beginA, endA, beginB, endB);
+            return;
+        }
+
+        Edit lcs = findLongestCommonRun(beginA, endA, beginB, endB);
+        if (lcs == null) {
+            fallback(beginA, endA, beginB, endB);
+            return;
+        }
+        regions.push(new Edit(lcs.endA, endA, lcs.endB, endB));
+        regions.push(new Edit(beginA, lcs.beginA, beginB, lcs.beginB));
+    }
+
+    /**
+     * Finds the longest common run whose elements occur the least in the original region.
+     *
+     * @return the run, or {@code null} if there's no common element occurring few times.
+     */
+    private Edit findLongestCommonRun(int beginA, int endA, int beginB, int endB) {
+        for (int i = beginA; i < endA; i++) {
+            int id = a[i];
+            previousA[i] = count[id] == 0 ? -1 : lastA[id];
+            lastA[id] = i;
+            count[id]++;
+        }
+
+        Edit best = null;
+        int bestCount = Integer.MAX_VALUE;
+        int bestLength = 0;
+        int i = beginB;
+        while (i < endB) {
+            int id = b[i];
+            int occurrences = count[id];
+            if (occurrences == 0 || occurrences > Math.min(bestCount, MAX_CHAIN_LENGTH)) {
+                i++;
+                continue;
+            }
+            int nextB = i + 1;
+            for (int j = lastA[id]; j >= beginA; j = previousA[j]) {
+                int runBeginA = j;
+                int runBeginB = i;
+                while (runBeginA > beginA
+                        && runBeginB > beginB
+                        && a[runBeginA - 1] == b[runBeginB - 1]) {
+                    runBeginA--;
+                    runBeginB--;
+                }
+                int runEndA = j + 1;
+                int runEndB = i + 1;
+                while (runEndA < endA && runEndB < endB && a[runEndA] == b[runEndB]) {
+                    runEndA++;
+                    runEndB++;
+                }
+                int runCount = occurrences;
+                for (int k = runBeginA; k < runEndA && runCount > 1; k++) {
+                    runCount = Math.min(runCount, count[a[k]]);
+                }
+                int length = runEndA - runBeginA;
+                if (runCount < bestCount || (runCount == bestCount && length > bestLength)) {
+                    best = new Edit(runBeginA, runEndA, runBeginB, runEndB);
+                    bestCount = runCount;
+                    bestLength = length;
+                }
+                nextB = Math.max(nextB, runEndB);
+            }
+            i = nextB;
+        }
+
+        for (int k = beginA; k < endA; k++) {
+            count[a[k]] = 0;
+        }
+        return best;
+    }
+
+    private void fallback(int beginA, int endA, int beginB, int endB) {
+        if ((long) (endA - beginA) * (endB - beginB) > MAX_FALLBACK_SIZE) {
+            addEdit(beginA, endA, beginB, endB);
+            return;
+        }
+        List<Integer> original = new ArrayList<>(endA - beginA);
+        for (int i = beginA; i < endA; i++) {
+            original.add(a[i]);
+        }
+        List<Integer> revised = new ArrayList<>(endB - beginB);
+        for (int i = beginB; i < endB; i++) {
+            revised.add(b[i]);
+        }
+        for (Delta<Integer> delta : DiffUtils.diff(original, revised).getDeltas()) {
+            int deltaA = beginA + delta.getOriginal().getPosition();
+            int deltaB = beginB + delta.getRevised().getPosition();
+            addEdit(
+                    deltaA,
+                    deltaA + delta.getOriginal().size(),
+                    deltaB,
+                    deltaB + delta.getRevised().size());
+        }
+    }
+
+    private void addEdit(int beginA, int endA, int beginB, int endB) {
+        if (beginA == endA && beginB == endB) {
+            return;
+        }
+        edits.add(new Edit(beginA, endA, beginB, endB));
+    }
+
+    /**
+     * A region of the original sequence replaced by a region of the revised sequence, the begin
+     * indexes are inclusive and the end indexes exclusive.
+     */
+    static class Edit {
+
+        final int beginA;
+        final int endA;
+        final int beginB;
+        final int endB;
+
+        Edit(int beginA, int endA, int beginB, int endB) {
+            this.beginA = beginA;
+            this.endA = endA;
+            this.beginB = beginB;
+            this.endB = endB;
+        }
+
+        @Override
+        public String toString() {
+            return "Edit[" + beginA + "-" + endA + ", " + beginB + "-" + endB + "]";
+        }
+    }
+}
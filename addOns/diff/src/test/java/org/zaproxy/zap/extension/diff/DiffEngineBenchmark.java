@@ -0,0 +1,92 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Benchmark of the {@link DiffEngine} with large responses.
+ *
+ * <p>Not run with the unit tests, run with the {@code benchmark} task. The timings are printed, not
+ * asserted, they depend on the machine.
+ */
+@Tag("benchmark")
+class DiffEngineBenchmark {
+
+    private static final int RUNS = 3;
+
+    @Test
+    void minifiedBody() {
+        Random random = new Random(2);
+        String body = minified(random, 5 * 1024 * 1024);
+        StringBuilder changed = new StringBuilder(body);
+        for (int i = 0; i < 1000; i++) {
+            int pos = random.nextInt(changed.length());
+            changed.insert(pos, "x" + i);
+        }
+        List<String> original = Arrays.asList("HTTP/1.1 200 OK", body);
+        List<String> revised = Arrays.asList("HTTP/1.1 200 OK", changed.toString());
+
+        run("5 MiB minified body, 1000 insertions", original, revised);
+    }
+
+    @Test
+    void manyLines() {
+        List<String> original = new ArrayList<>();
+        List<String> revised = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            original.add("line " + i);
+            revised.add(i % 100 == 0 ? "changed " + i : "line " + i);
+        }
+
+        run("20000 lines, 200 changed", original, revised);
+    }
+
+    private static void run(String name, List<String> original, List<String> revised) {
+        // The same time bound as the diff dialog, and none.
+        for (long timeout : new long[] {10_000, 0}) {
+            for (int i = 0; i < RUNS; i++) {
+                int[] chunks = new int[1];
+                long start = System.nanoTime();
+                new DiffEngine(timeout).diff(original, revised, text -> chunks[0]++);
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                System.out.printf(
+                        "%s, time bound %d ms, run %d: %d ms, %d chunks%n",
+                        name, timeout, i + 1, elapsed, chunks[0]);
+            }
+        }
+    }
+
+    private static String minified(Random random, int length) {
+        String[] words = {"var ", "function", "(", ")", "{", "}", ";", "return ", "a", "b", "="};
+        StringBuilder sb = new StringBuilder(length + 20);
+        while (sb.length() < length) {
+            sb.append(words[random.nextInt(words.length)]);
+            sb.append(Integer.toString(random.nextInt(1000), 36));
+        }
+        return sb.toString();
+    }
+}
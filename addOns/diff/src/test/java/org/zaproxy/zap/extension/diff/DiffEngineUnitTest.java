@@ -0,0 +1,163 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.diff;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.zaproxy.zap.extension.diff.diff_match_patch.Diff;
+import org.zaproxy.zap.extension.diff.diff_match_patch.Operation;
+
+/** Unit test for {@link DiffEngine}. */
+class DiffEngineUnitTest {
+
+    @Test
+    void shouldShowEqualLines() {
+        // Given
+        List<String> lines = Arrays.asList("a", "b");
+        // When
+        Output output = diff(lines, lines);
+        // Then
+        assertThat(output.left.toString(), is(equalTo("0 : a\n1 : b\n")));
+        assertThat(output.right.toString(), is(equalTo("0 : a\n1 : b\n")));
+        assertThat(output.leftHighlights, is(empty()));
+        assertThat(output.rightHighlights, is(empty()));
+    }
+
+    @Test
+    void shouldShowDeletedAndInsertedLines() {
+        // Given
+        List<String> original = Arrays.asList("a", "b", "c");
+        List<String> revised = Arrays.asList("a", "c", "d");
+        // When
+        Output output = diff(original, revised);
+        // Then
+        assertThat(output.left.toString(), is(equalTo("0 : a\n1 : b\n2 : c\n\n")));
+        assertThat(output.right.toString(), is(equalTo("0 : a\n\n1 : c\n2 : d\n")));
+        assertThat(output.leftHighlights, contains("6-9", "10-10"));
+        assertThat(output.rightHighlights, contains("13-16", "17-17"));
+    }
+
+    @Test
+    void shouldShowChangedLines() {
+        // Given
+        List<String> original = Arrays.asList("a", "value=123;");
+        List<String> revised = Arrays.asList("a", "value=456;");
+        // When
+        Output output = diff(original, revised);
+        // Then
+        assertThat(output.left.toString(), is(equalTo("0 : a\n1 : value=123; \n")));
+        assertThat(output.right.toString(), is(equalTo("0 : a\n1 : value=456; \n")));
+        assertThat(output.leftHighlights, contains("6-9", "16-19"));
+        assertThat(output.rightHighlights, contains("6-9", "16-19"));
+    }
+
+    @Test
+    void shouldDiffLongLinesByTokens() {
+        // Given
+        String text = minified(new Random(1), DiffEngine.LONG_LINE_LENGTH);
+        String line = text + ";var x=1;" + text;
+        String changed = text + ";let x=1;" + text;
+        // When
+        Output output = diff(Arrays.asList(line), Arrays.asList(changed));
+        // Then
+        assertThat(output.left.toString(), is(equalTo("0 : " + line + " \n")));
+        assertThat(output.right.toString(), is(equalTo("0 : " + changed + " \n")));
+        int start = 4 + text.length() + 1;
+        assertThat(output.leftHighlights.get(1), is(equalTo(start + "-" + (start + 3))));
+        assertThat(output.rightHighlights.get(1), is(equalTo(start + "-" + (start + 3))));
+    }
+
+    @Test
+    void shouldOutputInChunks() {
+        // Given
+        List<String> original = new ArrayList<>();
+        List<String> revised = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            original.add("line " + i);
+            revised.add(i % 100 == 0 ? "changed " + i : "line " + i);
+        }
+        // When
+        Output output = diff(original, revised);
+        // Then
+        assertThat(output.chunks, is(greaterThan(1)));
+        assertThat(output.left.toString().split("\n").length, is(equalTo(20_000)));
+        assertThat(output.leftHighlights.size(), is(equalTo(400)));
+    }
+
+    @Test
+    void shouldDiffChangedLinesByTokensOnceTimeBoundReached() throws Exception {
+        // Given
+        DiffEngine engine = new DiffEngine(1);
+        engine.diff(Arrays.asList("a"), Arrays.asList("a"), chunk -> {});
+        Thread.sleep(10);
+        // When
+        List<Diff> diffs = engine.diffLine("value=123; a=1", "value=456; a=2");
+        // Then
+        assertThat(
+                diffs,
+                contains(
+                        new Diff(Operation.EQUAL, "value="),
+                        new Diff(Operation.DELETE, "123; a=1"),
+                        new Diff(Operation.INSERT, "456; a=2")));
+    }
+
+    private static String minified(Random random, int length) {
+        String[] words = {"var ", "function", "(", ")", "{", "}", ";", "return ", "a", "b", "="};
+        StringBuilder sb = new StringBuilder(length + 20);
+        while (sb.length() < length) {
+            sb.append(words[random.nextInt(words.length)]);
+            sb.append(Integer.toString(random.nextInt(1000), 36));
+        }
+        return sb.toString();
+    }
+
+    private static Output diff(List<String> original, List<String> revised) {
+        Output output = new Output();
+        new DiffEngine(20_000).diff(original, revised, output::add);
+        return output;
+    }
+
+    private static class Output {
+
+        private final StringBuilder left = new StringBuilder();
+        private final StringBuilder right = new StringBuilder();
+        private final List<String> leftHighlights = new ArrayList<>();
+        private final List<String> rightHighlights = new ArrayList<>();
+        private int chunks;
+
+        void add(DiffEngine.DiffText text) {
+            chunks++;
+            left.append(text.getLeft());
+            right.append(text.getRight());
+            text.getLeftHighlights().forEach(hl -> leftHighlights.add(hl[0] + "-" + hl[1]));
+            text.getRightHighlights().forEach(hl -> rightHighlights.add(hl[0] + "-" + hl[1]));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.diff;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.zaproxy.zap.extension.diff.HistogramDiff.Edit;
+
+/** Unit test for {@link HistogramDiff}. */
+class HistogramDiffUnitTest {
+
+    @Test
+    void shouldHaveNoEditsForEqualSequences() {
+        // Given
+        int[] a = {1, 2, 3};
+        int[] b = {1, 2, 3};
+        // When
+        List<Edit> edits = HistogramDiff.diff(a, b, 4, 0);
+        // Then
+        assertThat(edits, is(empty()));
+    }
+
+    @Test
+    void shouldFindInsertionDeletionAndChange() {
+        // Given
+        int[] a = {0, 1, 2, 3, 4, 5};
+        int[] b = {0, 6, 1, 2, 4, 7};
+        // When
+        List<Edit> edits = HistogramDiff.diff(a, b, 8, 0);
+        // Then
+        assertThat(edits, hasSize(3));
+        assertEdit(edits.get(0), 1, 1, 1, 2);
+        assertEdit(edits.get(1), 3, 4, 4, 4);
+        assertEdit(edits.get(2), 5, 6, 5, 6);
+    }
+
+    @Test
+    void shouldReplaceAllIfNothingInCommon() {
+        // Given
+        int[] a = {0, 1};
+        int[] b = {2, 3, 4};
+        // When
+        List<Edit> edits = HistogramDiff.diff(a, b, 5, 0);
+        // Then
+        assertThat(edits, hasSize(1));
+        assertEdit(edits.get(0), 0, 2, 0, 3);
+    }
+
+    @Test
+    void shouldDiffElementsOccurringOften() {
+        // Given
+        int[] a = new int[200];
+        int[] b = new int[201];
+        b[100] = 1;
+        // When
+        List<Edit> edits = HistogramDiff.diff(a, b, 2, 0);
+        // Then
+        assertThat(edits, hasSize(1));
+        assertThat(edits.get(0).endA - edits.get(0).beginA, is(equalTo(0)));
+        assertThat(edits.get(0).endB - edits.get(0).beginB, is(equalTo(1)));
+    }
+
+    @Test
+    void shouldProduceValidEditsForRandomSequences() {
+        Random random = new Random(1);
+        for (int n = 0; n < 500; n++) {
+            // Given
+            int[] a = randomSequence(random);
+            int[] b = randomSequence(random);
+            // When
+            List<Edit> edits = HistogramDiff.diff(a, b, 10, 0);
+            // Then
+            assertValid(a, b, edits);
+        }
+    }
+
+    @Test
+    void shouldProduceValidEditsWhenDeadlineReached() {
+        // Given
+        Random random = new Random(2);
+        int[] a = randomSequence(random);
+        int[] b = randomSequence(random);
+        // When
+        List<Edit> edits = HistogramDiff.diff(a, b, 10, System.nanoTime() - 1);
+        // Then
+        assertValid(a, b, edits);
+    }
+
+    private static int[] randomSequence(Random random) {
+        int[] sequence = new int[random.nextInt(100)];
+        for (int i = 0; i < sequence.length; i++) {
+            sequence[i] = random.nextInt(10);
+        }
+        return sequence;
+    }
+
+    private static void assertEdit(Edit edit, int beginA, int endA, int beginB, int endB) {
+        assertThat(edit.beginA, is(equalTo(beginA)));
+        assertThat(edit.endA, is(equalTo(endA)));
+        assertThat(edit.beginB, is(equalTo(beginB)));
+        assertThat(edit.endB, is(equalTo(endB)));
+    }
+
+    private static void assertValid(int[] a, int[] b, List<Edit> edits) {
+        int posA = 0;
+        int posB = 0;
+        for (Edit edit : edits) {
+            assertThat(edit.beginA - posA, is(equalTo(edit.beginB - posB)));
+            assertThat(edit.beginA, is(greaterThanOrEqualTo(posA)));
+            for (int i = 0; i < edit.beginA - posA; i++) {
+                assertThat(a[posA + i], is(equalTo(b[posB + i])));
+            }
+            posA = edit.endA;
+            posB = edit.endB;
+        }
+        assertThat(a.length - posA, is(equalTo(b.length - posB)));
+        for (int i = 0; i < a.length - posA; i++) {
+            assertThat(a[posA + i], is(equalTo(b[posB + i])));
+        }
+    }
+}
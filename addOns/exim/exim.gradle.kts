@@ -31,7 +31,7 @@ zapAddOn {
         dependencies {
             addOns {
                 register("commonlib") {
-                    version.set(">= 1.23.0 & < 2.0.0")
+                    version.set(">= 1.25.0 & < 2.0.0")
                 }
             }
         }
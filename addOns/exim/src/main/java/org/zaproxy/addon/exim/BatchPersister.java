@@ -0,0 +1,144 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Hands the items produced by one or more threads to a single thread, which persists them in
+ * batches.
+ *
+ * <p>The number of pending items is bounded, the producers wait while the persister is behind. If
+ * the persister fails the producers are not left waiting, the failure is thrown to them and by
+ * {@link #close()}, which also waits for the pending items to be persisted.
+ *
+ * @param <T> the type of the items.
+ */
+public class BatchPersister<T> implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(BatchPersister.class);
+
+    private static final long WAIT_MS = 100;
+
+    private final BlockingQueue<T> items;
+    private final int batchSize;
+    private final Consumer<List<T>> persister;
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    /**
+     * Constructs a {@code BatchPersister} and starts its thread.
+     *
+     * @param threadName the name of the thread persisting the items.
+     * @param batchSize the maximum number of items persisted at once.
+     * @param maxPendingItems the maximum number of items waiting to be persisted.
+     * @param persister the consumer of the batches, called by the thread of this persister.
+     */
+    public BatchPersister(
+            String threadName, int batchSize, int maxPendingItems, Consumer<List<T>> persister) {
+        this.items = new ArrayBlockingQueue<>(maxPendingItems);
+        this.batchSize = batchSize;
+        this.persister = persister;
+        this.thread = new Thread(this::persistItems, threadName);
+        this.thread.start();
+    }
+
+    private void persistItems() {
+        try {
+            for (; ; ) {
+                T item = items.poll(WAIT_MS, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    if (closed && items.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                List<T> batch = new ArrayList<>(batchSize);
+                batch.add(item);
+                items.drainTo(batch, batchSize - 1);
+                persister.accept(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            LOGGER.error("Failed to persist the imported items:", e);
+            failure = e;
+        }
+    }
+
+    /**
+     * Adds the given item, waiting if there are too many items pending.
+     *
+     * @param item the item to persist.
+     * @throws IOException if the persister failed or is no longer running, or if interrupted while
+     *     waiting.
+     */
+    public void add(T item) throws IOException {
+        try {
+            while (!items.offer(item, WAIT_MS, TimeUnit.MILLISECONDS)) {
+                checkRunning();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to persist the item.", e);
+        }
+    }
+
+    private void checkRunning() throws IOException {
+        checkFailure();
+        if (!thread.isAlive()) {
+            throw new IOException("The persister is no longer running.");
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Failed to persist the imported items.", failure);
+        }
+    }
+
+    /**
+     * Waits for the pending items to be persisted and stops the thread.
+     *
+     * @throws IOException if the persister failed, or if interrupted while waiting.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            thread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the items to be persisted.", e);
+        }
+        checkFailure();
+    }
+}
@@ -22,11 +22,15 @@ package org.zaproxy.addon.exim;
 import edu.umass.cs.benchlab.har.HarEntries;
 import edu.umass.cs.benchlab.har.HarLog;
 import java.awt.EventQueue;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 import net.sf.json.JSONObject;
 import org.apache.commons.httpclient.URI;
 import org.apache.logging.log4j.LogManager;
@@ -39,10 +43,12 @@ import org.parosproxy.paros.db.TableHistory;
 import org.parosproxy.paros.extension.history.ExtensionHistory;
 import org.parosproxy.paros.model.HistoryReference;
 import org.parosproxy.paros.model.Model;
+import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpSender;
 import org.zaproxy.addon.exim.har.HarImporter;
+import org.zaproxy.addon.exim.har.HarWriter;
 import org.zaproxy.addon.exim.log.LogsImporter;
 import org.zaproxy.addon.exim.urls.UrlsImporter;
 import org.zaproxy.zap.extension.api.API;
@@ -81,6 +87,8 @@ public class ImportExportApi extends ApiImplementor {
     private static final String OTHER_EXPORT_HAR_BY_ID = "exportHarById";
     private static final String OTHER_SEND_HAR_REQUEST = "sendHarRequest";
 
+    private static final String GZIP_ENCODING = "gzip";
+
     private static ExtensionHistory extHistory;
 
     public ImportExportApi() {
@@ -143,33 +151,35 @@ public class ImportExportApi extends ApiImplementor {
             throws ApiException {
         if (OTHER_EXPORT_HAR_BY_ID.equals(name) || OTHER_EXPORT_HAR.equals(name)) {
             byte[] responseBody;
+            boolean gzip = acceptsGzip(msg);
             try {
-                final HarEntries entries = new HarEntries();
-                if (OTHER_EXPORT_HAR_BY_ID.equals(name)) {
-                    TableHistory tableHistory = Model.getSingleton().getDb().getTableHistory();
-                    for (Integer id : getIds(params)) {
-                        RecordHistory recordHistory = getRecordHistory(tableHistory, id);
-                        addHarEntry(entries, recordHistory);
+                // Write the entries as they are read, the records are not kept in memory
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                try (HarWriter writer = new HarWriter(gzip ? new GZIPOutputStream(body) : body)) {
+                    if (OTHER_EXPORT_HAR_BY_ID.equals(name)) {
+                        TableHistory tableHistory = Model.getSingleton().getDb().getTableHistory();
+                        for (Integer id : getIds(params)) {
+                            RecordHistory recordHistory = getRecordHistory(tableHistory, id);
+                            writeHarEntry(writer, recordHistory);
+                        }
+                    } else {
+                        processHttpMessages(
+                                this.getParam(params, PARAM_BASE_URL, (String) null),
+                                this.getParam(params, PARAM_START, -1),
+                                this.getParam(params, PARAM_COUNT, -1),
+                                rh -> writeHarEntry(writer, rh));
                     }
-                } else {
-                    processHttpMessages(
-                            this.getParam(params, PARAM_BASE_URL, (String) null),
-                            this.getParam(params, PARAM_START, -1),
-                            this.getParam(params, PARAM_COUNT, -1),
-                            rh -> addHarEntry(entries, rh));
                 }
-
-                HarLog harLog = HarUtils.createZapHarLog();
-                harLog.setEntries(entries);
-
-                responseBody = HarUtils.harLogToByteArray(harLog);
+                responseBody = body.toByteArray();
             } catch (ApiException e) {
+                gzip = false;
                 responseBody =
                         e.toString(API.Format.JSON, incErrorDetails())
                                 .getBytes(StandardCharsets.UTF_8);
             } catch (Exception e) {
                 LOGGER.error(e.getMessage(), e);
 
+                gzip = false;
                 ApiException apiException =
                         new ApiException(ApiException.Type.INTERNAL_ERROR, e.getMessage());
                 responseBody =
@@ -182,6 +192,9 @@ public class ImportExportApi extends ApiImplementor {
                 msg.setResponseHeader(
                         API.getDefaultResponseHeader(
                                 "application/json; charset=UTF-8", responseBody.length));
+                if (gzip) {
+                    msg.getResponseHeader().setHeader(HttpHeader.CONTENT_ENCODING, GZIP_ENCODING);
+                }
             } catch (HttpMalformedHeaderException e) {
                 LOGGER.error("Failed to create response header: {}", e.getMessage(), e);
             }
@@ -301,18 +314,27 @@ public class ImportExportApi extends ApiImplementor {
     }
 
     /**
-     * Adds the given history record to the given {@code entries}.
+     * Writes the given history record with the given {@code writer}.
      *
-     * @param entries where to add the new {@code HarEntry}.
-     * @param recordHistory the history record to add, after converting to {@code HarEntry}.
-     * @see HarUtils#createHarEntry(int, int, HttpMessage)
+     * @param writer the writer of the HAR log.
+     * @param recordHistory the history record to write.
+     * @throws UncheckedIOException if an error occurred while writing the entry.
      */
-    private static void addHarEntry(HarEntries entries, RecordHistory recordHistory) {
-        entries.addEntry(
-                HarUtils.createHarEntry(
-                        recordHistory.getHistoryId(),
-                        recordHistory.getHistoryType(),
-                        recordHistory.getHttpMessage()));
+    private static void writeHarEntry(HarWriter writer, RecordHistory recordHistory) {
+        try {
+            writer.write(
+                    recordHistory.getHistoryId(),
+                    recordHistory.getHistoryType(),
+                    recordHistory.getHttpMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean acceptsGzip(HttpMessage msg) {
+        String acceptEncoding = msg.getRequestHeader().getHeader(HttpHeader.ACCEPT_ENCODING);
+        return acceptEncoding != null
+                && acceptEncoding.toLowerCase(Locale.ROOT).contains(GZIP_ENCODING);
     }
 
     private boolean incErrorDetails() {
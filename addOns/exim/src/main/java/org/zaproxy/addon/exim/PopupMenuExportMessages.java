@@ -23,16 +23,22 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 import javax.swing.JFileChooser;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
+import org.parosproxy.paros.db.DatabaseException;
 import org.parosproxy.paros.extension.history.ExtensionHistory;
 import org.parosproxy.paros.model.HistoryReference;
+import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.addon.exim.har.HarWriter;
 import org.zaproxy.zap.utils.Stats;
 import org.zaproxy.zap.view.widgets.WritableFileChooser;
 
@@ -41,6 +47,8 @@ public class PopupMenuExportMessages extends JMenuItem {
 
     private static final long serialVersionUID = 1L;
     private static final String NEWLINE = "\n";
+    private static final String HAR_EXTENSION = ".har";
+    private static final String HAR_GZIP_EXTENSION = ".har.gz";
 
     private static final Logger LOGGER = LogManager.getLogger(PopupMenuExportMessages.class);
     private static final String STATS_EXPORT_MESSAGES =
@@ -75,6 +83,11 @@ public class PopupMenuExportMessages extends JMenuItem {
                         return;
                     }
 
+                    if (!responsesOnly && isHarFile(file)) {
+                        exportHar(hrefs, file);
+                        return;
+                    }
+
                     boolean append = true;
                     if (file.exists()) {
                         int rc =
@@ -111,6 +124,51 @@ public class PopupMenuExportMessages extends JMenuItem {
                 });
     }
 
+    private static boolean isHarFile(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        return name.endsWith(HAR_EXTENSION) || name.endsWith(HAR_GZIP_EXTENSION);
+    }
+
+    /**
+     * Exports the messages as a HAR log, compressed with gzip if the file has the {@code .har.gz}
+     * extension. The messages are written one at a time, as they are read.
+     */
+    private void exportHar(List<HistoryReference> hrefs, File file) {
+        if (file.exists()
+                && extension
+                                .getView()
+                                .showConfirmDialog(
+                                        Constant.messages.getString("file.overwrite.warning"))
+                        != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(file));
+                HarWriter writer =
+                        new HarWriter(
+                                file.getName().toLowerCase(Locale.ROOT).endsWith(HAR_GZIP_EXTENSION)
+                                        ? new GZIPOutputStream(os)
+                                        : os)) {
+            for (HistoryReference href : hrefs) {
+                try {
+                    writer.write(href.getHistoryId(), href.getHistoryType(), href.getHttpMessage());
+                    Stats.incCounter(STATS_EXPORT_MESSAGES);
+                } catch (HttpMalformedHeaderException | DatabaseException e) {
+                    LOGGER.warn(e.getMessage(), e);
+                    Stats.incCounter(STATS_EXPORT_MESSAGES_ERROR);
+                }
+            }
+        } catch (IOException e) {
+            extension
+                    .getView()
+                    .showWarningDialog(
+                            Constant.messages.getString("file.save.error")
+                                    + file.getAbsolutePath()
+                                    + ".");
+            LOGGER.warn(e.getMessage(), e);
+        }
+    }
+
     private void exportHistory(HttpMessage msg, BufferedOutputStream bos, boolean responsesOnly) {
 
         try {
@@ -22,10 +22,14 @@ package org.zaproxy.addon.exim.automation;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.CommandLine;
 import org.parosproxy.paros.Constant;
 import org.zaproxy.addon.automation.AutomationData;
@@ -45,6 +49,11 @@ public class ImportJob extends AutomationJob {
 
     private static final String PARAM_TYPE = "type";
     private static final String PARAM_FILE_NAME = "fileName";
+    private static final String PARAM_THREAD_COUNT = "threadCount";
+    private static final String PARAM_RESUME = "resume";
+    private static final String PROGRESS_FILE_EXTENSION = ".progress";
+
+    private static final Logger LOGGER = LogManager.getLogger(ImportJob.class);
 
     private Parameters parameters = new Parameters();
     private Data data;
@@ -77,6 +86,8 @@ public class ImportJob extends AutomationJob {
         Map<String, String> map = super.getCustomConfigParameters();
         map.put(PARAM_TYPE, "");
         map.put(PARAM_FILE_NAME, "");
+        map.put(PARAM_THREAD_COUNT, "");
+        map.put(PARAM_RESUME, "");
         return map;
     }
 
@@ -109,14 +120,7 @@ public class ImportJob extends AutomationJob {
                                         TypeOption.MODSEC2));
                     }
                 } else if (type.equalsIgnoreCase(TypeOption.URL.name())) {
-                    UrlsImporter urlsImporter = new UrlsImporter(file);
-                    if (!urlsImporter.isSuccess()) {
-                        progress.error(
-                                Constant.messages.getString(
-                                        "exim.automation.import.error",
-                                        file.getAbsolutePath(),
-                                        TypeOption.URL));
-                    }
+                    importUrls(file, progress);
                 } else if (type.equalsIgnoreCase(TypeOption.ZAP_MESSAGES.name())) {
                     LogsImporter zapImporter = new LogsImporter(file, LogsImporter.LogType.ZAP);
                     if (!zapImporter.isSuccess()) {
@@ -139,6 +143,73 @@ public class ImportJob extends AutomationJob {
         }
     }
 
+    private void importUrls(File file, AutomationProgress progress) {
+        Integer threadCount = this.getParameters().getThreadCount();
+        boolean resume = JobUtils.unBox(this.getParameters().getResume());
+        Path progressFile = getProgressFile(file);
+
+        int skipUrls = resume ? readProgress(progressFile, progress) : 0;
+        if (skipUrls > 0) {
+            progress.info(
+                    Constant.messages.getString(
+                            "exim.automation.import.info.resume", this.getName(), skipUrls));
+        }
+
+        UrlsImporter urlsImporter =
+                new UrlsImporter(
+                        file,
+                        null,
+                        threadCount != null ? threadCount : UrlsImporter.DEFAULT_THREAD_COUNT,
+                        skipUrls,
+                        resume ? count -> writeProgress(progressFile, count) : null);
+        if (!urlsImporter.isSuccess()) {
+            progress.error(
+                    Constant.messages.getString(
+                            "exim.automation.import.error",
+                            file.getAbsolutePath(),
+                            TypeOption.URL));
+            return;
+        }
+
+        if (resume) {
+            try {
+                Files.deleteIfExists(progressFile);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete the progress file {}", progressFile, e);
+            }
+        }
+    }
+
+    static Path getProgressFile(File file) {
+        return file.toPath().resolveSibling(file.getName() + PROGRESS_FILE_EXTENSION);
+    }
+
+    private int readProgress(Path progressFile, AutomationProgress progress) {
+        if (!Files.exists(progressFile)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(
+                    new String(Files.readAllBytes(progressFile), StandardCharsets.US_ASCII).trim());
+        } catch (IOException | NumberFormatException e) {
+            progress.warn(
+                    Constant.messages.getString(
+                            "exim.automation.import.warn.progressfile",
+                            this.getName(),
+                            progressFile,
+                            e.getMessage()));
+            return 0;
+        }
+    }
+
+    private static void writeProgress(Path progressFile, int count) {
+        try {
+            Files.write(progressFile, Integer.toString(count).getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write the progress file {}", progressFile, e);
+        }
+    }
+
     @Override
     public String getTemplateDataMin() {
         return getResourceAsString(this.getType() + "-min.yaml");
@@ -225,6 +296,8 @@ public class ImportJob extends AutomationJob {
     public static class Parameters extends AutomationData {
         private String type;
         private String fileName;
+        private Integer threadCount;
+        private Boolean resume;
 
         public String getType() {
             return type;
@@ -241,6 +314,22 @@ public class ImportJob extends AutomationJob {
         public void setFileName(String fileName) {
             this.fileName = fileName;
         }
+
+        public Integer getThreadCount() {
+            return threadCount;
+        }
+
+        public void setThreadCount(Integer threadCount) {
+            this.threadCount = threadCount;
+        }
+
+        public Boolean getResume() {
+            return resume;
+        }
+
+        public void setResume(Boolean resume) {
+            this.resume = resume;
+        }
     }
 
     public enum TypeOption {
@@ -25,6 +25,8 @@ import java.util.Locale;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JFileChooser;
 import org.parosproxy.paros.view.View;
+import org.zaproxy.addon.automation.jobs.JobUtils;
+import org.zaproxy.addon.exim.urls.UrlsImporter;
 import org.zaproxy.zap.utils.DisplayUtils;
 import org.zaproxy.zap.view.StandardFieldsDialog;
 
@@ -37,13 +39,15 @@ public class ImportJobDialog extends StandardFieldsDialog {
     private static final String NAME_PARAM = "exim.automation.import.dialog.name";
     private static final String TYPE_PARAM = "exim.automation.import.dialog.type";
     private static final String FILE_NAME_PARAM = "exim.automation.import.dialog.filename";
+    private static final String THREAD_COUNT_PARAM = "exim.automation.import.dialog.threadcount";
+    private static final String RESUME_PARAM = "exim.automation.import.dialog.resume";
 
     private ImportJob job;
 
     private DefaultComboBoxModel<ImportJob.TypeOption> typeOptionModel;
 
     public ImportJobDialog(ImportJob job) {
-        super(View.getSingleton().getMainFrame(), TITLE, DisplayUtils.getScaledDimension(500, 200));
+        super(View.getSingleton().getMainFrame(), TITLE, DisplayUtils.getScaledDimension(500, 250));
         this.job = job;
 
         this.addTextField(NAME_PARAM, this.job.getData().getName());
@@ -67,6 +71,13 @@ public class ImportJobDialog extends StandardFieldsDialog {
             f = new File(fileName);
         }
         this.addFileSelectField(FILE_NAME_PARAM, f, JFileChooser.FILES_AND_DIRECTORIES, null);
+        Integer threadCount = this.job.getParameters().getThreadCount();
+        this.addNumberField(
+                THREAD_COUNT_PARAM,
+                1,
+                Integer.MAX_VALUE,
+                threadCount != null ? threadCount : UrlsImporter.DEFAULT_THREAD_COUNT);
+        this.addCheckBoxField(RESUME_PARAM, JobUtils.unBox(this.job.getParameters().getResume()));
         this.addPadding();
     }
 
@@ -76,6 +87,8 @@ public class ImportJobDialog extends StandardFieldsDialog {
         ImportJob.TypeOption typeOption = (ImportJob.TypeOption) typeOptionModel.getSelectedItem();
         this.job.getParameters().setType(typeOption.name().toLowerCase(Locale.ROOT));
         this.job.getParameters().setFileName(this.getStringValue(FILE_NAME_PARAM));
+        this.job.getParameters().setThreadCount(this.getIntValue(THREAD_COUNT_PARAM));
+        this.job.getParameters().setResume(this.getBoolValue(RESUME_PARAM));
         this.job.resetAndSetChanged();
     }
 
@@ -25,27 +25,25 @@ import edu.umass.cs.benchlab.har.HarEntry;
 import edu.umass.cs.benchlab.har.HarHeader;
 import edu.umass.cs.benchlab.har.HarLog;
 import edu.umass.cs.benchlab.har.HarResponse;
-import edu.umass.cs.benchlab.har.tools.HarFileReader;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
-import org.parosproxy.paros.control.Control;
-import org.parosproxy.paros.extension.history.ExtensionHistory;
 import org.parosproxy.paros.model.HistoryReference;
-import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpResponseHeader;
+import org.zaproxy.addon.commonlib.http.HistoryBatchPersister;
 import org.zaproxy.addon.commonlib.ui.ProgressPaneListener;
+import org.zaproxy.addon.exim.BatchPersister;
 import org.zaproxy.addon.exim.ExtensionExim;
 import org.zaproxy.zap.network.HttpResponseBody;
 import org.zaproxy.zap.utils.HarUtils;
 import org.zaproxy.zap.utils.Stats;
-import org.zaproxy.zap.utils.ThreadUtils;
 
 public class HarImporter {
 
@@ -54,9 +52,12 @@ public class HarImporter {
     private static final String STATS_HAR_FILE_ERROR = "import.har.file.errors";
     private static final String STATS_HAR_FILE_MSG = "import.har.file.message";
     private static final String STATS_HAR_FILE_MSG_ERROR = "import.har.file.message.errors";
+    private static final String PERSISTER_THREAD_NAME = "ZAP-Import-Har-Persister";
+    private static final String BASE64_ENCODING = "base64";
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_PENDING_ENTRIES = BATCH_SIZE * 4;
     private ProgressPaneListener progressListener;
     private boolean success;
-    private static ExtensionHistory extHistory;
 
     public HarImporter(File file) {
         this(file, null);
@@ -77,8 +78,7 @@ public class HarImporter {
         return result;
     }
 
-    private static HttpMessage getHttpMessage(HarEntry harEntry)
-            throws HttpMalformedHeaderException {
+    static HttpMessage getHttpMessage(HarEntry harEntry) throws HttpMalformedHeaderException {
         HttpMessage result = HarUtils.createHttpMessage(harEntry.getRequest());
         setHttpResponse(harEntry.getResponse(), result);
         return result;
@@ -113,8 +113,13 @@ public class HarImporter {
         HarContent harContent = harResponse.getContent();
         message.setResponseHeader(new HttpResponseHeader(strBuilderResHeader.toString()));
         message.setResponseFromTargetHost(true);
-        if (harContent != null) {
-            message.setResponseBody(new HttpResponseBody(harContent.getText()));
+        if (harContent != null && harContent.getText() != null) {
+            if (BASE64_ENCODING.equalsIgnoreCase(harContent.getEncoding())) {
+                message.setResponseBody(
+                        new HttpResponseBody(Base64.getMimeDecoder().decode(harContent.getText())));
+            } else {
+                message.setResponseBody(new HttpResponseBody(harContent.getText()));
+            }
         }
     }
 
@@ -133,60 +138,96 @@ public class HarImporter {
         }
     }
 
+    /**
+     * Reads the entries of the file, one at a time, and hands them to a persister thread, which
+     * converts and persists them in batches while the next entries are read. The number of pending
+     * entries is bounded, to not read the whole file into memory if the persistence is slower.
+     */
     private void processMessages(File file) throws IOException {
-        List<HttpMessage> messages =
-                HarImporter.getHttpMessages(new HarFileReader().readHarFile(file));
-        int count = 1;
-        for (HttpMessage msg : messages) {
-            persistMessage(msg);
-            updateProgress(count, msg.getRequestHeader().getURI().toString());
-            count++;
+        HistoryBatchPersister historyPersister = new HistoryBatchPersister(BATCH_SIZE);
+        try (BatchPersister<HarEntry> persister =
+                        new BatchPersister<>(
+                                PERSISTER_THREAD_NAME,
+                                BATCH_SIZE,
+                                MAX_PENDING_ENTRIES,
+                                batch -> persistBatch(historyPersister, batch));
+                HarStreamReader reader = new HarStreamReader(file)) {
+            int count = 0;
+            HarEntry entry;
+            while ((entry = reader.readEntry()) != null) {
+                persister.add(entry);
+                if (++count % BATCH_SIZE == 0) {
+                    updateProgress(reader.getBytesRead());
+                }
+            }
+            updateProgress(reader.getBytesRead());
         }
     }
 
-    private static void persistMessage(HttpMessage message) {
-        HistoryReference historyRef;
+    private void persistBatch(HistoryBatchPersister historyPersister, List<HarEntry> batch) {
+        HttpMessage lastMessage = null;
+        for (HarEntry entry : batch) {
+            HttpMessage message = persistEntry(historyPersister, entry);
+            if (message != null) {
+                lastMessage = message;
+            }
+        }
+        historyPersister.flush();
+
+        if (lastMessage != null) {
+            updateCurrentTask(lastMessage.getRequestHeader().getURI().toString());
+        }
+    }
 
+    private static HttpMessage persistEntry(
+            HistoryBatchPersister historyPersister, HarEntry entry) {
+        HttpMessage message;
         try {
-            historyRef =
-                    new HistoryReference(
-                            Model.getSingleton().getSession(),
-                            HistoryReference.TYPE_ZAP_USER,
-                            message);
+            message = getHttpMessage(entry);
+        } catch (HttpMalformedHeaderException | IllegalArgumentException e) {
+            // Malformed header or invalid base64 body.
+            LOGGER.warn(e.getMessage());
+            Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_HAR_FILE_MSG_ERROR);
+            return null;
+        }
+        try {
+            historyPersister.persist(message, HistoryReference.TYPE_ZAP_USER);
             Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_HAR_FILE_MSG);
+            return message;
         } catch (Exception e) {
             LOGGER.warn(e.getMessage());
             Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_HAR_FILE_MSG_ERROR);
-            return;
+            return null;
         }
+    }
 
-        if (getExtensionHistory() != null) {
-            ThreadUtils.invokeAndWaitHandled(() -> addMessage(historyRef, message));
-        }
+    public boolean isSuccess() {
+        return success;
     }
 
-    private static ExtensionHistory getExtensionHistory() {
-        if (extHistory == null) {
-            extHistory =
-                    Control.getSingleton()
-                            .getExtensionLoader()
-                            .getExtension(ExtensionHistory.class);
-        }
-        return extHistory;
+    /**
+     * Gets the number of tasks, to report the progress, of importing the given file. The progress
+     * is reported by kibibytes read.
+     *
+     * @param file the file being imported.
+     * @return the number of tasks.
+     */
+    public static int getTotalTasks(File file) {
+        return toTasks(file.length());
     }
 
-    private static void addMessage(HistoryReference historyRef, HttpMessage message) {
-        getExtensionHistory().addHistory(historyRef);
-        Model.getSingleton().getSession().getSiteTree().addPath(historyRef, message);
+    private static int toTasks(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes / 1024));
     }
 
-    public boolean isSuccess() {
-        return success;
+    private void updateProgress(long bytesRead) {
+        if (progressListener != null) {
+            progressListener.setTasksDone(toTasks(bytesRead));
+        }
     }
 
-    private void updateProgress(int count, String line) {
+    private void updateCurrentTask(String line) {
         if (progressListener != null) {
-            progressListener.setTasksDone(count);
             progressListener.setCurrentTask(
                     Constant.messages.getString("exim.progress.currentimport", line));
         }
@@ -0,0 +1,166 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.har;
+
+import edu.umass.cs.benchlab.har.HarEntry;
+import edu.umass.cs.benchlab.har.HarWarning;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.input.CountingInputStream;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+
+/**
+ * A reader of HAR files that reads the entries one at a time, instead of the whole log at once.
+ *
+ * <p>The files can be gzip compressed, which is detected from their content.
+ */
+public class HarStreamReader implements Closeable {
+
+    private static final int GZIP_MAGIC_LENGTH = 2;
+
+    private final CountingInputStream countingStream;
+    private final JsonParser parser;
+    private final List<HarWarning> warnings;
+    private boolean inEntries;
+    private boolean finished;
+
+    /**
+     * Constructs a {@code HarStreamReader} for the given file.
+     *
+     * @param file the HAR file, might be gzip compressed.
+     * @throws IOException if an error occurred while opening the file.
+     */
+    public HarStreamReader(File file) throws IOException {
+        countingStream = new CountingInputStream(Files.newInputStream(file.toPath()));
+        try {
+            parser = new JsonFactory().createJsonParser(decompressIfNeeded(countingStream));
+        } catch (IOException e) {
+            countingStream.close();
+            throw e;
+        }
+        warnings = new ArrayList<>();
+    }
+
+    private static InputStream decompressIfNeeded(InputStream in) throws IOException {
+        BufferedInputStream bis = new BufferedInputStream(in);
+        bis.mark(GZIP_MAGIC_LENGTH);
+        int magic = bis.read() | (bis.read() << 8);
+        bis.reset();
+        if (magic == GZIPInputStream.GZIP_MAGIC) {
+            return new GZIPInputStream(bis);
+        }
+        return bis;
+    }
+
+    /**
+     * Reads the next entry of the log.
+     *
+     * @return the entry, or {@code null} if there are no more entries.
+     * @throws IOException if an error occurred while reading or parsing the file.
+     */
+    public HarEntry readEntry() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!inEntries && !moveToEntries()) {
+            finished = true;
+            return null;
+        }
+
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            finished = true;
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(
+                    "Expected an entry object but got " + token, parser.getCurrentLocation());
+        }
+        return new HarEntry(parser, warnings);
+    }
+
+    private boolean moveToEntries() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException("Expected a HAR object", parser.getCurrentLocation());
+        }
+        if (!moveToField("log", JsonToken.START_OBJECT) || !moveToField("entries", null)) {
+            return false;
+        }
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException("Expected the entries array", parser.getCurrentLocation());
+        }
+        inEntries = true;
+        return true;
+    }
+
+    private boolean moveToField(String name, JsonToken expectedValue) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (name.equals(parser.getCurrentName())) {
+                if (expectedValue != null && parser.nextToken() != expectedValue) {
+                    throw new JsonParseException(
+                            "Unexpected value for " + name, parser.getCurrentLocation());
+                }
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of bytes read from the file, if compressed the number of compressed bytes.
+     *
+     * <p>Useful to report the progress of the reading, in relation to the size of the file.
+     *
+     * @return the number of bytes read.
+     */
+    public long getBytesRead() {
+        return countingStream.getByteCount();
+    }
+
+    /**
+     * Gets the warnings found while parsing the entries read so far.
+     *
+     * @return the warnings, never {@code null}.
+     */
+    public List<HarWarning> getWarnings() {
+        return warnings;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            parser.close();
+        } finally {
+            countingStream.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.har;
+
+import edu.umass.cs.benchlab.har.HarEntry;
+import edu.umass.cs.benchlab.har.HarLog;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.utils.HarUtils;
+
+/**
+ * A writer of HAR logs that writes the entries one at a time, instead of building the whole log in
+ * memory.
+ *
+ * <p>The log is finished, and the output stream closed, when the writer is closed.
+ */
+public class HarWriter implements Closeable {
+
+    private final JsonGenerator generator;
+
+    /**
+     * Constructs a {@code HarWriter} that writes to the given output stream.
+     *
+     * @param out the output stream to write to.
+     * @throws IOException if an error occurred while writing the start of the log.
+     */
+    public HarWriter(OutputStream out) throws IOException {
+        generator = new JsonFactory().createJsonGenerator(out, JsonEncoding.UTF8);
+        generator.useDefaultPrettyPrinter();
+
+        HarLog harLog = HarUtils.createZapHarLog();
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("log");
+        generator.writeStringField("version", harLog.getVersion());
+        harLog.getCreator().writeHar(generator);
+        generator.writeArrayFieldStart("entries");
+    }
+
+    /**
+     * Writes the given entry.
+     *
+     * @param entry the entry to write.
+     * @throws IOException if an error occurred while writing the entry.
+     */
+    public void write(HarEntry entry) throws IOException {
+        entry.writeHar(generator);
+    }
+
+    /**
+     * Writes the given message, with its history ID and type.
+     *
+     * @param historyId the ID of the message.
+     * @param historyType the type of the message.
+     * @param message the message to write.
+     * @throws IOException if an error occurred while writing the message.
+     * @see HarUtils#createHarEntry(int, int, HttpMessage)
+     */
+    public void write(int historyId, int historyType, HttpMessage message) throws IOException {
+        write(HarUtils.createHarEntry(historyId, historyType, message));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndObject();
+        } finally {
+            generator.close();
+        }
+    }
+}
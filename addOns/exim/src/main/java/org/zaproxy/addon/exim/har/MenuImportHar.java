@@ -19,12 +19,8 @@
  */
 package org.zaproxy.addon.exim.har;
 
-import edu.umass.cs.benchlab.har.tools.HarFileReader;
 import java.io.File;
-import java.io.IOException;
 import javax.swing.JFileChooser;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.view.View;
@@ -37,7 +33,6 @@ import org.zaproxy.zap.view.ZapMenuItem;
 public class MenuImportHar extends ZapMenuItem {
 
     private static final long serialVersionUID = -9207224834749823025L;
-    private static final Logger LOGGER = LogManager.getLogger(MenuImportHar.class);
     private static final String THREAD_PREFIX = "ZAP-Import-Har-";
 
     private int threadId = 1;
@@ -61,26 +56,10 @@ public class MenuImportHar extends ZapMenuItem {
                                     public void run() {
                                         this.setName(THREAD_PREFIX + threadId++);
                                         File file = chooser.getSelectedFile();
-                                        int tasks = 0;
-                                        boolean indeterminate;
-                                        try {
-                                            tasks =
-                                                    new HarFileReader()
-                                                            .readHarFile(file)
-                                                            .getEntries()
-                                                            .getEntries()
-                                                            .size();
-                                            indeterminate = false;
-                                        } catch (IOException e) {
-                                            indeterminate = true;
-                                            LOGGER.warn(
-                                                    "Couldn't count entries in: {}",
-                                                    file.getAbsoluteFile());
-                                        }
                                         ProgressPane currentImportPane =
-                                                new ProgressPane(
-                                                        file.getAbsolutePath(), indeterminate);
-                                        currentImportPane.setTotalTasks(tasks);
+                                                new ProgressPane(file.getAbsolutePath(), false);
+                                        currentImportPane.setTotalTasks(
+                                                HarImporter.getTotalTasks(file));
                                         ExtensionExim.getProgressPanel()
                                                 .addProgressPane(currentImportPane);
                                         HarImporter harImporter =
@@ -0,0 +1,544 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.pcap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.parosproxy.paros.network.HttpHeader;
+import org.parosproxy.paros.network.HttpMalformedHeaderException;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpRequestHeader;
+import org.parosproxy.paros.network.HttpResponseHeader;
+import org.parosproxy.paros.network.HttpStatusCode;
+
+/**
+ * Parses the HTTP/1.x messages of the two reassembled streams of a TCP connection, pairing the
+ * (possibly pipelined) requests with their responses.
+ *
+ * <p>The data buffered for each stream is bounded, messages bigger than the limit are discarded.
+ * After a gap or unparseable data the stream is skipped until data that looks like the start of a
+ * message.
+ */
+class HttpStreamParser {
+
+    private static final Logger LOGGER = LogManager.getLogger(HttpStreamParser.class);
+
+    static final int MAX_HEADER_SIZE = 64 * 1024;
+    static final int MAX_MESSAGE_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_PENDING_REQUESTS = 100;
+
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+    private static final String HTTP_VERSION_PREFIX = "HTTP/1.";
+    private static final String CHUNKED = "chunked";
+
+    private final String serverAuthority;
+    private final Consumer<HttpMessage> consumer;
+    private final Stream requests;
+    private final Stream responses;
+    private final Deque<PendingRequest> pendingRequests;
+
+    /**
+     * Constructs a {@code HttpStreamParser}.
+     *
+     * @param serverAuthority the authority of the server, used if the requests do not have the
+     *     {@code Host} header.
+     * @param consumer the consumer of the parsed messages.
+     */
+    HttpStreamParser(String serverAuthority, Consumer<HttpMessage> consumer) {
+        this.serverAuthority = serverAuthority;
+        this.consumer = consumer;
+        this.requests = new Stream(true);
+        this.responses = new Stream(false);
+        this.pendingRequests = new ArrayDeque<>();
+    }
+
+    /**
+     * Adds data of one of the streams.
+     *
+     * @param fromClient {@code true} if the data was sent by the client, {@code false} otherwise.
+     * @param data the data.
+     * @param timestamp the time when the data was captured.
+     */
+    void data(boolean fromClient, ByteBuffer data, long timestamp) {
+        Stream stream = fromClient ? requests : responses;
+        if (!stream.append(data)) {
+            return;
+        }
+        if (fromClient) {
+            parseRequests(timestamp);
+        } else {
+            parseResponses(timestamp, false);
+        }
+    }
+
+    /**
+     * Notifies that data of the given stream was lost, the partial message is discarded.
+     *
+     * @param fromClient {@code true} if the stream of the client, {@code false} otherwise.
+     */
+    void gap(boolean fromClient) {
+        (fromClient ? requests : responses).desync();
+    }
+
+    /**
+     * Notifies that the given stream ended.
+     *
+     * @param fromClient {@code true} if the stream of the client, {@code false} otherwise.
+     * @param timestamp the time when the stream ended.
+     */
+    void end(boolean fromClient, long timestamp) {
+        if (!fromClient) {
+            parseResponses(timestamp, true);
+        }
+    }
+
+    /** Notifies that the connection was closed, the requests without response are consumed. */
+    void close() {
+        while (!pendingRequests.isEmpty()) {
+            consumer.accept(pendingRequests.poll().message);
+        }
+        requests.clear();
+        responses.clear();
+    }
+
+    private void parseRequests(long timestamp) {
+        Stream stream = requests;
+        while (stream.available() > 0) {
+            if (stream.header == null) {
+                if (!parseHeader(stream)) {
+                    return;
+                }
+                if (stream.header == null) {
+                    continue;
+                }
+            }
+            HttpRequestHeader header = (HttpRequestHeader) stream.header;
+            byte[] body = readBody(stream, header, false, false);
+            if (body == null) {
+                return;
+            }
+
+            HttpMessage message = new HttpMessage();
+            message.setRequestHeader(header);
+            message.setRequestBody(body);
+            message.setTimeSentMillis(timestamp);
+            pendingRequests.add(new PendingRequest(message, timestamp));
+            if (pendingRequests.size() > MAX_PENDING_REQUESTS) {
+                consumer.accept(pendingRequests.poll().message);
+            }
+            stream.header = null;
+        }
+    }
+
+    private void parseResponses(long timestamp, boolean ended) {
+        Stream stream = responses;
+        while (stream.available() > 0) {
+            if (stream.header == null) {
+                if (!parseHeader(stream)) {
+                    break;
+                }
+                if (stream.header == null) {
+                    continue;
+                }
+            }
+            HttpResponseHeader header = (HttpResponseHeader) stream.header;
+            int statusCode = header.getStatusCode();
+            if (HttpStatusCode.isInformational(statusCode)) {
+                // Interim response, e.g. 100 Continue, not paired with the request.
+                stream.header = null;
+                continue;
+            }
+
+            PendingRequest request = pendingRequests.peek();
+            boolean noBody =
+                    statusCode == HttpStatusCode.NO_CONTENT
+                            || statusCode == HttpStatusCode.NOT_MODIFIED
+                            || (request != null
+                                    && HttpRequestHeader.HEAD.equalsIgnoreCase(
+                                            request.message.getRequestHeader().getMethod()));
+            byte[] body = readBody(stream, header, noBody, ended);
+            if (body == null) {
+                break;
+            }
+            stream.header = null;
+
+            if (request == null) {
+                LOGGER.debug("Discarding response without request: {}", header.getPrimeHeader());
+                continue;
+            }
+            pendingRequests.poll();
+            HttpMessage message = request.message;
+            message.setResponseHeader(header);
+            message.setResponseBody(body);
+            message.setResponseFromTargetHost(true);
+            message.setTimeElapsedMillis(
+                    (int) Math.min(Integer.MAX_VALUE, Math.max(0, timestamp - request.timestamp)));
+            consumer.accept(message);
+        }
+
+        if (ended) {
+            stream.clear();
+        }
+    }
+
+    /**
+     * Parses the header at the start of the stream.
+     *
+     * @return {@code true} if the header was parsed or the data discarded, {@code false} if more
+     *     data is needed.
+     */
+    private boolean parseHeader(Stream stream) {
+        int end = stream.indexOfHeaderEnd();
+        if (end == -1) {
+            if (stream.available() > MAX_HEADER_SIZE) {
+                stream.desync();
+                return true;
+            }
+            return false;
+        }
+
+        String headerText = stream.string(end + HEADER_END.length);
+        stream.consume(end + HEADER_END.length);
+        try {
+            if (stream.fromClient) {
+                if (!hasHostHeader(headerText)) {
+                    headerText =
+                            headerText.substring(0, headerText.length() - 2)
+                                    + "Host"
+                                    + ": "
+                                    + serverAuthority
+                                    + "\r\n\r\n";
+                }
+                stream.header = new HttpRequestHeader(headerText);
+            } else {
+                stream.header = new HttpResponseHeader(headerText);
+            }
+        } catch (HttpMalformedHeaderException e) {
+            LOGGER.debug("Failed to parse the header: {}", e.getMessage());
+            stream.desync();
+        }
+        return true;
+    }
+
+    private static boolean hasHostHeader(String headerText) {
+        return headerText.toLowerCase(Locale.ROOT).contains("\r\nhost:");
+    }
+
+    /**
+     * Reads the body of the message whose header was parsed.
+     *
+     * @return the body, or {@code null} if more data is needed.
+     */
+    private static byte[] readBody(
+            Stream stream, HttpHeader header, boolean noBody, boolean ended) {
+        if (noBody) {
+            return new byte[0];
+        }
+
+        String transferEncoding = header.getHeader(HttpHeader.TRANSFER_ENCODING);
+        if (transferEncoding != null
+                && transferEncoding.toLowerCase(Locale.ROOT).contains(CHUNKED)) {
+            byte[] body = stream.readChunked();
+            if (body != null) {
+                header.setHeader(HttpHeader.TRANSFER_ENCODING, null);
+                header.setContentLength(body.length);
+            }
+            return body;
+        }
+
+        int contentLength = header.getContentLength();
+        if (contentLength >= 0) {
+            if (contentLength > MAX_MESSAGE_SIZE) {
+                stream.desync();
+                return null;
+            }
+            if (stream.available() < contentLength) {
+                return null;
+            }
+            return stream.read(contentLength);
+        }
+
+        if (header instanceof HttpRequestHeader) {
+            return new byte[0];
+        }
+        // Response delimited by the end of the connection.
+        if (!ended) {
+            return null;
+        }
+        return stream.read(stream.available());
+    }
+
+    private static class PendingRequest {
+
+        private final HttpMessage message;
+        private final long timestamp;
+
+        PendingRequest(HttpMessage message, long timestamp) {
+            this.message = message;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /** The buffered data of one direction of the connection. */
+    private static class Stream {
+
+        private final boolean fromClient;
+        private byte[] buffer;
+        private int start;
+        private int end;
+        private int headerScanStart;
+        private int chunkScanOffset;
+        private boolean skipping;
+        private HttpHeader header;
+
+        Stream(boolean fromClient) {
+            this.fromClient = fromClient;
+            this.buffer = new byte[0];
+        }
+
+        int available() {
+            return end - start;
+        }
+
+        boolean append(ByteBuffer data) {
+            int length = data.remaining();
+            if (length == 0) {
+                return false;
+            }
+            if (skipping) {
+                if (!looksLikeMessageStart(data)) {
+                    return false;
+                }
+                skipping = false;
+            }
+            if (available() + length > MAX_MESSAGE_SIZE + MAX_HEADER_SIZE) {
+                LOGGER.debug("Discarding message bigger than {} bytes.", MAX_MESSAGE_SIZE);
+                desync();
+                return false;
+            }
+            ensureCapacity(length);
+            data.duplicate().get(buffer, end, length);
+            end += length;
+            return true;
+        }
+
+        private boolean looksLikeMessageStart(ByteBuffer data) {
+            int length = Math.min(data.remaining(), 16);
+            byte[] prefix = new byte[length];
+            data.duplicate().get(prefix);
+            String text = new String(prefix, StandardCharsets.ISO_8859_1);
+            if (!fromClient) {
+                return text.startsWith(HTTP_VERSION_PREFIX);
+            }
+            int space = text.indexOf(' ');
+            if (space <= 0) {
+                return false;
+            }
+            for (int i = 0; i < space; i++) {
+                char c = text.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void ensureCapacity(int length) {
+            if (end + length <= buffer.length) {
+                return;
+            }
+            int available = available();
+            if (available + length <= buffer.length && start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, available);
+            } else {
+                byte[] newBuffer = new byte[Math.max(available + length, buffer.length * 2)];
+                System.arraycopy(buffer, start, newBuffer, 0, available);
+                buffer = newBuffer;
+            }
+            headerScanStart -= start;
+            end = available;
+            start = 0;
+        }
+
+        int indexOfHeaderEnd() {
+            int from = Math.max(start, headerScanStart);
+            for (int i = from; i <= end - HEADER_END.length; i++) {
+                if (buffer[i] == '\r'
+                        && buffer[i + 1] == '\n'
+                        && buffer[i + 2] == '\r'
+                        && buffer[i + 3] == '\n') {
+                    return i - start;
+                }
+            }
+            headerScanStart = Math.max(start, end - HEADER_END.length + 1);
+            return -1;
+        }
+
+        String string(int length) {
+            return new String(buffer, start, length, StandardCharsets.ISO_8859_1);
+        }
+
+        byte[] read(int length) {
+            byte[] data = new byte[length];
+            System.arraycopy(buffer, start, data, 0, length);
+            consume(length);
+            return data;
+        }
+
+        void consume(int length) {
+            start += length;
+            headerScanStart = start;
+            chunkScanOffset = 0;
+            if (start == end) {
+                start = 0;
+                end = 0;
+                headerScanStart = 0;
+                if (buffer.length > MAX_HEADER_SIZE) {
+                    buffer = new byte[0];
+                }
+            }
+        }
+
+        /**
+         * Reads the chunked body at the start of the stream, if complete.
+         *
+         * <p>The scan for the end of the body resumes from the last complete chunk, to not scan the
+         * whole body every time more data is available.
+         *
+         * @return the decoded body, or {@code null} if more data is needed.
+         */
+        byte[] readChunked() {
+            int offset = chunkScanOffset;
+            while (true) {
+                int lineEnd = indexOfLineEnd(offset);
+                if (lineEnd == -1) {
+                    return null;
+                }
+                int size = parseChunkSize(offset, lineEnd);
+                if (size < 0) {
+                    desync();
+                    return null;
+                }
+                if (size == 0) {
+                    int trailerEnd = indexOfTrailerEnd(lineEnd + 2);
+                    if (trailerEnd == -1) {
+                        return null;
+                    }
+                    byte[] body = decodeChunks(offset);
+                    consume(trailerEnd);
+                    return body;
+                }
+                int next = lineEnd + 2 + size + 2;
+                if (next > MAX_MESSAGE_SIZE + MAX_HEADER_SIZE) {
+                    desync();
+                    return null;
+                }
+                if (next > available()) {
+                    return null;
+                }
+                offset = next;
+                chunkScanOffset = offset;
+            }
+        }
+
+        private byte[] decodeChunks(int lastChunkOffset) {
+            int length = 0;
+            int offset = 0;
+            while (offset < lastChunkOffset) {
+                int lineEnd = indexOfLineEnd(offset);
+                int size = parseChunkSize(offset, lineEnd);
+                length += size;
+                offset = lineEnd + 2 + size + 2;
+            }
+            byte[] body = new byte[length];
+            int position = 0;
+            offset = 0;
+            while (offset < lastChunkOffset) {
+                int lineEnd = indexOfLineEnd(offset);
+                int size = parseChunkSize(offset, lineEnd);
+                System.arraycopy(buffer, start + lineEnd + 2, body, position, size);
+                position += size;
+                offset = lineEnd + 2 + size + 2;
+            }
+            return body;
+        }
+
+        private int indexOfLineEnd(int offset) {
+            for (int i = start + offset; i < end - 1; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    return i - start;
+                }
+            }
+            return -1;
+        }
+
+        private int indexOfTrailerEnd(int offset) {
+            int lineStart = offset;
+            while (true) {
+                int lineEnd = indexOfLineEnd(lineStart);
+                if (lineEnd == -1) {
+                    return -1;
+                }
+                if (lineEnd == lineStart) {
+                    return lineEnd + 2;
+                }
+                lineStart = lineEnd + 2;
+            }
+        }
+
+        private int parseChunkSize(int offset, int lineEnd) {
+            int size = 0;
+            boolean digits = false;
+            for (int i = start + offset; i < start + lineEnd; i++) {
+                int digit = Character.digit(buffer[i], 16);
+                if (digit == -1) {
+                    // Chunk extensions or whitespace.
+                    break;
+                }
+                if (size > (MAX_MESSAGE_SIZE >> 4)) {
+                    return -1;
+                }
+                size = size * 16 + digit;
+                digits = true;
+            }
+            return digits ? size : -1;
+        }
+
+        void desync() {
+            clear();
+            skipping = true;
+        }
+
+        void clear() {
+            buffer = new byte[0];
+            start = 0;
+            end = 0;
+            headerScanStart = 0;
+            chunkScanOffset = 0;
+            header = null;
+        }
+    }
+}
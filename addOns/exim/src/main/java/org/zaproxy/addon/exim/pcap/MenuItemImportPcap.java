@@ -34,6 +34,9 @@ import org.zaproxy.zap.view.ZapMenuItem;
 
 public class MenuItemImportPcap extends ZapMenuItem {
     private static final long serialVersionUID = 9111279126644588074L;
+    private static final String THREAD_PREFIX = "ZAP-Import-Pcap-";
+
+    private int threadId = 1;
 
     public MenuItemImportPcap() {
         super("exim.import.pcap.topmenu.import");
@@ -61,11 +64,24 @@ public class MenuItemImportPcap extends ZapMenuItem {
                     int openChoice = fc.showOpenDialog(main);
                     if (openChoice == JFileChooser.APPROVE_OPTION) {
                         File newFile = fc.getSelectedFile();
-                        ProgressPane currentImportPane =
-                                new ProgressPane(newFile.getAbsolutePath(), true);
-                        ExtensionExim.getProgressPanel().addProgressPane(currentImportPane);
-                        new PcapImporter(newFile, new ProgressPaneListener(currentImportPane));
+                        Thread t =
+                                new Thread(() -> importFile(newFile), THREAD_PREFIX + threadId++);
+                        t.start();
                     }
                 });
     }
+
+    private static void importFile(File file) {
+        ProgressPane currentImportPane = new ProgressPane(file.getAbsolutePath(), false);
+        currentImportPane.setTotalTasks(PcapImporter.getTotalTasks(file));
+        ExtensionExim.getProgressPanel().addProgressPane(currentImportPane);
+        PcapImporter pcapImporter =
+                new PcapImporter(file, new ProgressPaneListener(currentImportPane));
+        if (!pcapImporter.isSuccess()) {
+            View.getSingleton()
+                    .showWarningDialog(
+                            Constant.messages.getString(
+                                    "exim.import.pcap.file.import.error", file.getAbsolutePath()));
+        }
+    }
 }
@@ -20,12 +20,46 @@
 package org.zaproxy.addon.exim.pcap;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.parosproxy.paros.Constant;
+import org.parosproxy.paros.model.HistoryReference;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.addon.commonlib.http.HistoryBatchPersister;
 import org.zaproxy.addon.commonlib.ui.ProgressPaneListener;
+import org.zaproxy.addon.exim.BatchPersister;
+import org.zaproxy.addon.exim.ExtensionExim;
+import org.zaproxy.zap.utils.Stats;
 
+/**
+ * Imports the plain text HTTP/1.x messages of PCAP and PCAPNG files.
+ *
+ * <p>The packets are read one at a time and the TCP streams reassembled, the parsed messages are
+ * handed in batches to a persister thread, the memory used does not depend on the size of the file.
+ */
 public class PcapImporter {
 
+    private static final Logger LOGGER = LogManager.getLogger(PcapImporter.class);
+    private static final String STATS_PCAP_FILE = "import.pcap.file";
+    private static final String STATS_PCAP_FILE_ERROR = "import.pcap.file.errors";
+    private static final String STATS_PCAP_FILE_PACKET = "import.pcap.file.packet";
+    private static final String STATS_PCAP_FILE_MSG = "import.pcap.file.message";
+    private static final String STATS_PCAP_FILE_MSG_ERROR = "import.pcap.file.message.errors";
+    private static final String PERSISTER_THREAD_NAME = "ZAP-Import-Pcap-Persister";
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_PENDING_MESSAGES = BATCH_SIZE * 4;
+    private static final int PROGRESS_PACKETS_INTERVAL = 10_000;
+
     private ProgressPaneListener progressListener;
     private boolean success;
+    private long packetCount;
+    private long messageCount;
 
     public PcapImporter(File file) {
         this(file, null);
@@ -38,14 +72,156 @@ public class PcapImporter {
     }
 
     private boolean importPcapFile(File file) {
-        // no import logic implemented yet
-        return false;
+        long start = System.nanoTime();
+        try {
+            processPackets(file);
+            Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_PCAP_FILE);
+        } catch (IOException e) {
+            LOGGER.warn(
+                    Constant.messages.getString(
+                            ExtensionExim.EXIM_OUTPUT_ERROR, file.getAbsolutePath()));
+            LOGGER.warn(e);
+            Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_PCAP_FILE_ERROR);
+            return false;
+        }
+
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        String rates =
+                Constant.messages.getString(
+                        "exim.import.pcap.rates",
+                        packetCount,
+                        packetCount * 1000 / elapsedMillis,
+                        messageCount,
+                        messageCount * 1000 / elapsedMillis);
+        LOGGER.info("{} {}", file.getAbsolutePath(), rates);
+        if (progressListener != null) {
+            progressListener.setCurrentTask(rates);
+        }
+        return true;
+    }
+
+    private void processPackets(File file) throws IOException {
+        HistoryBatchPersister historyPersister = new HistoryBatchPersister(BATCH_SIZE);
+        try (BatchPersister<HttpMessage> persister =
+                        new BatchPersister<>(
+                                PERSISTER_THREAD_NAME,
+                                BATCH_SIZE,
+                                MAX_PENDING_MESSAGES,
+                                batch -> persistBatch(historyPersister, batch));
+                PcapReader reader = new PcapReader(file)) {
+            packetCount =
+                    readMessages(
+                            reader,
+                            message -> {
+                                messageCount++;
+                                try {
+                                    persister.add(message);
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            },
+                            this::updateProgress);
+            Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_PCAP_FILE_PACKET, packetCount);
+            updateProgress(reader.getPosition());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads all the packets of the given reader and hands the HTTP messages to the given consumer.
+     *
+     * @param reader the reader of the capture file.
+     * @param consumer the consumer of the messages.
+     * @param progress the consumer of the number of bytes read, notified periodically.
+     * @return the number of packets read.
+     * @throws IOException if an error occurred while reading the file.
+     */
+    static long readMessages(
+            PcapReader reader, Consumer<HttpMessage> consumer, LongConsumer progress)
+            throws IOException {
+        TcpReassembler reassembler = new TcpReassembler(consumer);
+        long packets = 0;
+        PcapReader.Packet packet;
+        while ((packet = reader.next()) != null) {
+            packets++;
+            TcpSegment segment = TcpSegment.decode(packet.getLinkType(), packet.getData());
+            if (segment != null) {
+                reassembler.add(segment, packet.getTimestamp());
+            }
+            if (packets % PROGRESS_PACKETS_INTERVAL == 0) {
+                progress.accept(reader.getPosition());
+            }
+        }
+        reassembler.close();
+        return packets;
+    }
+
+    private void persistBatch(HistoryBatchPersister historyPersister, List<HttpMessage> batch) {
+        HttpMessage lastMessage = null;
+        for (HttpMessage message : batch) {
+            try {
+                historyPersister.persist(message, HistoryReference.TYPE_ZAP_USER);
+                lastMessage = message;
+                Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_PCAP_FILE_MSG);
+            } catch (Exception e) {
+                LOGGER.warn(e.getMessage());
+                Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_PCAP_FILE_MSG_ERROR);
+            }
+        }
+        historyPersister.flush();
+
+        if (lastMessage != null && progressListener != null) {
+            progressListener.setCurrentTask(
+                    Constant.messages.getString(
+                            "exim.progress.currentimport",
+                            lastMessage.getRequestHeader().getURI()));
+        }
     }
 
     public boolean isSuccess() {
         return success;
     }
 
+    /**
+     * Gets the number of packets read.
+     *
+     * @return the number of packets.
+     */
+    public long getPacketCount() {
+        return packetCount;
+    }
+
+    /**
+     * Gets the number of HTTP messages read.
+     *
+     * @return the number of messages.
+     */
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * Gets the number of tasks, to report the progress, of importing the given file. The progress
+     * is reported by kibibytes read.
+     *
+     * @param file the file being imported.
+     * @return the number of tasks.
+     */
+    public static int getTotalTasks(File file) {
+        return toTasks(file.length());
+    }
+
+    private static int toTasks(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes / 1024));
+    }
+
+    private void updateProgress(long bytesRead) {
+        if (progressListener != null) {
+            progressListener.setTasksDone(toTasks(bytesRead));
+        }
+    }
+
     private void completed() {
         if (progressListener != null) {
             progressListener.completed();
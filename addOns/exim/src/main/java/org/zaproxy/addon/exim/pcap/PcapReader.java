@@ -0,0 +1,366 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.pcap;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A reader of PCAP and PCAPNG files, reads the packets one at a time.
+ *
+ * <p>The file is memory mapped in windows of fixed size, which are moved as the file is read, so
+ * the memory used does not depend on the size of the file.
+ */
+class PcapReader implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(PcapReader.class);
+
+    private static final int PCAP_MAGIC_MICROS = 0xA1B2C3D4;
+    private static final int PCAP_MAGIC_NANOS = 0xA1B23C4D;
+    private static final int PCAP_HEADER_LENGTH = 24;
+    private static final int PCAP_RECORD_HEADER_LENGTH = 16;
+
+    private static final int PCAPNG_SECTION_HEADER_BLOCK = 0x0A0D0D0A;
+    private static final int PCAPNG_INTERFACE_DESCRIPTION_BLOCK = 0x00000001;
+    private static final int PCAPNG_OBSOLETE_PACKET_BLOCK = 0x00000002;
+    private static final int PCAPNG_SIMPLE_PACKET_BLOCK = 0x00000003;
+    private static final int PCAPNG_ENHANCED_PACKET_BLOCK = 0x00000006;
+    private static final int PCAPNG_BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+    private static final int PCAPNG_MIN_BLOCK_LENGTH = 12;
+    private static final int PCAPNG_OPTION_END = 0;
+    private static final int PCAPNG_OPTION_TSRESOL = 9;
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_PACKET_LENGTH = 16 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private final boolean pcapng;
+    private final Packet packet;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private ByteOrder order;
+
+    private int pcapLinkType;
+    private long pcapUnitsPerSecond;
+    private final List<Interface> interfaces;
+
+    /**
+     * Constructs a {@code PcapReader} for the given file.
+     *
+     * @param file the PCAP or PCAPNG file.
+     * @throws IOException if an error occurred while opening the file or if it's not a PCAP nor
+     *     PCAPNG file.
+     */
+    PcapReader(File file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    PcapReader(File file, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.windowSize = windowSize;
+        this.packet = new Packet();
+        this.interfaces = new ArrayList<>();
+        try {
+            this.size = channel.size();
+            this.order = ByteOrder.LITTLE_ENDIAN;
+            int magic = read(0, 4).getInt();
+            if (magic == PCAPNG_SECTION_HEADER_BLOCK) {
+                pcapng = true;
+            } else {
+                pcapng = false;
+                readPcapHeader(magic);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readPcapHeader(int magic) throws IOException {
+        if (magic == PCAP_MAGIC_MICROS || magic == PCAP_MAGIC_NANOS) {
+            order = ByteOrder.LITTLE_ENDIAN;
+        } else if (Integer.reverseBytes(magic) == PCAP_MAGIC_MICROS
+                || Integer.reverseBytes(magic) == PCAP_MAGIC_NANOS) {
+            order = ByteOrder.BIG_ENDIAN;
+            magic = Integer.reverseBytes(magic);
+        } else {
+            throw new IOException("Not a PCAP nor PCAPNG file.");
+        }
+        pcapUnitsPerSecond = magic == PCAP_MAGIC_NANOS ? NANOS_PER_SECOND : MICROS_PER_SECOND;
+
+        ByteBuffer header = read(0, PCAP_HEADER_LENGTH);
+        pcapLinkType = header.getInt(20) & 0xFFFF;
+        position = PCAP_HEADER_LENGTH;
+    }
+
+    /**
+     * Reads the next packet.
+     *
+     * <p>The returned packet, and its data, is valid only until the next call to this method.
+     *
+     * @return the packet, or {@code null} if there are no more packets.
+     * @throws IOException if an error occurred while reading the file or if the file is not valid.
+     */
+    Packet next() throws IOException {
+        try {
+            return pcapng ? nextPcapngPacket() : nextPcapPacket();
+        } catch (EOFException e) {
+            LOGGER.debug("Truncated capture file, stopped at {} of {} bytes.", position, size);
+            position = size;
+            return null;
+        }
+    }
+
+    private Packet nextPcapPacket() throws IOException {
+        if (position >= size) {
+            return null;
+        }
+        ByteBuffer header = read(position, PCAP_RECORD_HEADER_LENGTH);
+        long seconds = header.getInt(0) & 0xFFFFFFFFL;
+        long fraction = header.getInt(4) & 0xFFFFFFFFL;
+        int capturedLength = validatePacketLength(header.getInt(8));
+
+        packet.linkType = pcapLinkType;
+        packet.timestamp = seconds * 1000 + fraction * 1000 / pcapUnitsPerSecond;
+        packet.data = read(position + PCAP_RECORD_HEADER_LENGTH, capturedLength);
+        position += PCAP_RECORD_HEADER_LENGTH + capturedLength;
+        return packet;
+    }
+
+    private Packet nextPcapngPacket() throws IOException {
+        while (position < size) {
+            long blockStart = position;
+            int type = read(blockStart, 4).getInt();
+            if (type == PCAPNG_SECTION_HEADER_BLOCK) {
+                readSectionHeaderBlock(blockStart);
+            }
+            int length = read(blockStart + 4, 4).getInt();
+            if (length < PCAPNG_MIN_BLOCK_LENGTH || length % 4 != 0) {
+                throw new IOException("Invalid PCAPNG block length at " + blockStart);
+            }
+            ByteBuffer body = read(blockStart + 8, length - PCAPNG_MIN_BLOCK_LENGTH);
+            position = blockStart + length;
+
+            switch (type) {
+                case PCAPNG_INTERFACE_DESCRIPTION_BLOCK:
+                    interfaces.add(readInterface(body));
+                    break;
+                case PCAPNG_ENHANCED_PACKET_BLOCK:
+                    return readEnhancedPacket(body);
+                case PCAPNG_SIMPLE_PACKET_BLOCK:
+                    return readSimplePacket(body);
+                case PCAPNG_OBSOLETE_PACKET_BLOCK:
+                    return readObsoletePacket(body);
+                default:
+                    // Not relevant for the import.
+            }
+        }
+        return null;
+    }
+
+    private void readSectionHeaderBlock(long blockStart) throws IOException {
+        order = ByteOrder.LITTLE_ENDIAN;
+        int byteOrderMagic = read(blockStart + 8, 4).getInt();
+        if (byteOrderMagic == Integer.reverseBytes(PCAPNG_BYTE_ORDER_MAGIC)) {
+            order = ByteOrder.BIG_ENDIAN;
+        } else if (byteOrderMagic != PCAPNG_BYTE_ORDER_MAGIC) {
+            throw new IOException("Invalid PCAPNG byte-order magic at " + blockStart);
+        }
+        interfaces.clear();
+    }
+
+    private static Interface readInterface(ByteBuffer body) {
+        int linkType = body.getShort(0) & 0xFFFF;
+        long unitsPerSecond = MICROS_PER_SECOND;
+        int offset = 8;
+        while (offset + 4 <= body.limit()) {
+            int code = body.getShort(offset) & 0xFFFF;
+            int length = body.getShort(offset + 2) & 0xFFFF;
+            if (code == PCAPNG_OPTION_END || offset + 4 + length > body.limit()) {
+                break;
+            }
+            if (code == PCAPNG_OPTION_TSRESOL && length >= 1) {
+                int value = body.get(offset + 4) & 0xFF;
+                int exponent = value & 0x7F;
+                if ((value & 0x80) == 0) {
+                    unitsPerSecond = exponent <= 18 ? (long) Math.pow(10, exponent) : 1;
+                } else {
+                    unitsPerSecond = exponent <= 62 ? 1L << exponent : 1;
+                }
+            }
+            offset += 4 + ((length + 3) & ~3);
+        }
+        return new Interface(linkType, Math.max(1, unitsPerSecond));
+    }
+
+    private Packet readEnhancedPacket(ByteBuffer body) throws IOException {
+        Interface iface = getInterface(body.getInt(0));
+        long timestamp = ((body.getInt(4) & 0xFFFFFFFFL) << 32) | (body.getInt(8) & 0xFFFFFFFFL);
+        int capturedLength = validatePacketLength(body.getInt(12));
+        return setPacket(iface, timestamp, body, 20, capturedLength);
+    }
+
+    private Packet readSimplePacket(ByteBuffer body) throws IOException {
+        Interface iface = getInterface(0);
+        int originalLength = body.getInt(0);
+        int capturedLength = Math.min(body.limit() - 4, validatePacketLength(originalLength));
+        return setPacket(iface, 0, body, 4, capturedLength);
+    }
+
+    private Packet readObsoletePacket(ByteBuffer body) throws IOException {
+        Interface iface = getInterface(body.getShort(0) & 0xFFFF);
+        long timestamp = ((body.getInt(4) & 0xFFFFFFFFL) << 32) | (body.getInt(8) & 0xFFFFFFFFL);
+        int capturedLength = validatePacketLength(body.getInt(12));
+        return setPacket(iface, timestamp, body, 20, capturedLength);
+    }
+
+    private Packet setPacket(
+            Interface iface, long timestamp, ByteBuffer body, int offset, int capturedLength)
+            throws IOException {
+        if (offset + capturedLength > body.limit()) {
+            throw new IOException("Invalid PCAPNG packet length at " + position);
+        }
+        packet.linkType = iface.linkType;
+        packet.timestamp =
+                timestamp / iface.unitsPerSecond * 1000
+                        + (timestamp % iface.unitsPerSecond) * 1000 / iface.unitsPerSecond;
+        ByteBuffer data = body.duplicate();
+        data.position(offset);
+        data.limit(offset + capturedLength);
+        packet.data = data.slice();
+        return packet;
+    }
+
+    private Interface getInterface(int id) throws IOException {
+        if (id < 0 || id >= interfaces.size()) {
+            throw new IOException("PCAPNG packet with unknown interface " + id);
+        }
+        return interfaces.get(id);
+    }
+
+    private static int validatePacketLength(int length) throws IOException {
+        if (length < 0 || length > MAX_PACKET_LENGTH) {
+            throw new IOException("Invalid packet length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Gets a buffer with the given bytes of the file, mapping a new window if the bytes are not in
+     * the current one.
+     */
+    private ByteBuffer read(long start, int length) throws IOException {
+        if (start + length > size) {
+            throw new EOFException();
+        }
+        if (window == null
+                || start < windowStart
+                || start + length > windowStart + window.capacity()) {
+            long mapSize = Math.min(Math.max(windowSize, length), size - start);
+            window = channel.map(MapMode.READ_ONLY, start, mapSize);
+            windowStart = start;
+        }
+        ByteBuffer buffer = window.duplicate();
+        int offset = (int) (start - windowStart);
+        buffer.position(offset);
+        buffer.limit(offset + length);
+        return buffer.slice().order(order);
+    }
+
+    /**
+     * Gets the number of bytes read from the file.
+     *
+     * @return the number of bytes read.
+     */
+    long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /** A packet read from the file. */
+    static class Packet {
+
+        private int linkType;
+        private long timestamp;
+        private ByteBuffer data;
+
+        /**
+         * Gets the link-layer type of the packet, for example, {@code 1} for Ethernet.
+         *
+         * @return the link-layer type.
+         */
+        int getLinkType() {
+            return linkType;
+        }
+
+        /**
+         * Gets the time when the packet was captured, in milliseconds since epoch.
+         *
+         * @return the timestamp.
+         */
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Gets the captured data of the packet, starting with the link-layer header.
+         *
+         * @return the data.
+         */
+        ByteBuffer getData() {
+            return data;
+        }
+    }
+
+    private static class Interface {
+
+        private final int linkType;
+        private final long unitsPerSecond;
+
+        Interface(int linkType, long unitsPerSecond) {
+            this.linkType = linkType;
+            this.unitsPerSecond = unitsPerSecond;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.pcap;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.parosproxy.paros.network.HttpMessage;
+
+/**
+ * Reassembles the TCP streams of the captured segments and hands the in-order data to a {@link
+ * HttpStreamParser} per connection.
+ *
+ * <p>The number of connections tracked and the out-of-order data buffered per connection are
+ * bounded, the least recently used connection is closed when the limit of connections is reached
+ * and the missing data is skipped when the limit of out-of-order data is reached.
+ */
+class TcpReassembler {
+
+    static final int MAX_CONNECTIONS = 2048;
+    static final int MAX_OUT_OF_ORDER_BYTES = 256 * 1024;
+
+    private final Consumer<HttpMessage> consumer;
+    private final Map<ConnectionKey, Connection> connections;
+
+    /**
+     * Constructs a {@code TcpReassembler}.
+     *
+     * @param consumer the consumer of the HTTP messages parsed from the streams.
+     */
+    TcpReassembler(Consumer<HttpMessage> consumer) {
+        this.consumer = consumer;
+        this.connections =
+                new LinkedHashMap<ConnectionKey, Connection>(16, 0.75f, true) {
+
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(
+                            Map.Entry<ConnectionKey, Connection> eldest) {
+                        if (size() > MAX_CONNECTIONS) {
+                            eldest.getValue().close();
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+    }
+
+    /**
+     * Adds the given segment.
+     *
+     * @param segment the segment.
+     * @param timestamp the time when the segment was captured.
+     */
+    void add(TcpSegment segment, long timestamp) {
+        ConnectionKey key = new ConnectionKey(segment);
+        Connection connection = connections.get(key);
+        if (connection == null) {
+            if (segment.hasFlag(TcpSegment.FLAG_RST)) {
+                return;
+            }
+            connection = new Connection(segment, consumer);
+            connections.put(key, connection);
+        }
+
+        connection.add(segment, timestamp);
+        if (connection.isClosed()) {
+            connections.remove(key);
+        }
+    }
+
+    /** Closes all connections, handing the remaining data to the parsers. */
+    void close() {
+        List<Connection> remaining = new ArrayList<>(connections.values());
+        connections.clear();
+        remaining.forEach(Connection::close);
+    }
+
+    private static class ConnectionKey {
+
+        private final byte[] addressA;
+        private final int portA;
+        private final byte[] addressB;
+        private final int portB;
+        private final int hashCode;
+
+        ConnectionKey(TcpSegment segment) {
+            byte[] source = segment.getSourceAddress();
+            byte[] destination = segment.getDestinationAddress();
+            int comparison = Arrays.compare(source, destination);
+            if (comparison < 0
+                    || (comparison == 0
+                            && segment.getSourcePort() <= segment.getDestinationPort())) {
+                addressA = source;
+                portA = segment.getSourcePort();
+                addressB = destination;
+                portB = segment.getDestinationPort();
+            } else {
+                addressA = destination;
+                portA = segment.getDestinationPort();
+                addressB = source;
+                portB = segment.getSourcePort();
+            }
+            hashCode =
+                    31 * (31 * (31 * Arrays.hashCode(addressA) + portA) + Arrays.hashCode(addressB))
+                            + portB;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ConnectionKey)) {
+                return false;
+            }
+            ConnectionKey other = (ConnectionKey) obj;
+            return portA == other.portA
+                    && portB == other.portB
+                    && Arrays.equals(addressA, other.addressA)
+                    && Arrays.equals(addressB, other.addressB);
+        }
+    }
+
+    private static class Connection {
+
+        private final byte[] clientAddress;
+        private final int clientPort;
+        private final HttpStreamParser parser;
+        private final Direction toServer;
+        private final Direction toClient;
+        private boolean closed;
+
+        Connection(TcpSegment first, Consumer<HttpMessage> consumer) {
+            // The client is who starts the connection or, if not captured, who uses the higher
+            // (likely ephemeral) port.
+            boolean firstFromClient =
+                    first.hasFlag(TcpSegment.FLAG_SYN)
+                            ? !first.hasFlag(TcpSegment.FLAG_ACK)
+                            : first.getSourcePort() >= first.getDestinationPort();
+            byte[] serverAddress;
+            int serverPort;
+            if (firstFromClient) {
+                clientAddress = first.getSourceAddress();
+                clientPort = first.getSourcePort();
+                serverAddress = first.getDestinationAddress();
+                serverPort = first.getDestinationPort();
+            } else {
+                clientAddress = first.getDestinationAddress();
+                clientPort = first.getDestinationPort();
+                serverAddress = first.getSourceAddress();
+                serverPort = first.getSourcePort();
+            }
+            this.parser = new HttpStreamParser(authority(serverAddress, serverPort), consumer);
+            this.toServer = new Direction(true);
+            this.toClient = new Direction(false);
+        }
+
+        private static String authority(byte[] address, int port) {
+            String host;
+            try {
+                host = InetAddress.getByAddress(address).getHostAddress();
+            } catch (UnknownHostException e) {
+                host = "unknown";
+            }
+            if (address.length == 16) {
+                host = "[" + host + "]";
+            }
+            return port == 80 ? host : host + ":" + port;
+        }
+
+        void add(TcpSegment segment, long timestamp) {
+            if (segment.hasFlag(TcpSegment.FLAG_RST)) {
+                close();
+                return;
+            }
+            boolean fromClient =
+                    segment.getSourcePort() == clientPort
+                            && Arrays.equals(segment.getSourceAddress(), clientAddress);
+            Direction direction = fromClient ? toServer : toClient;
+            direction.add(segment, timestamp);
+            if (toServer.finished && toClient.finished) {
+                close();
+            }
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toServer.flush();
+            toClient.flush();
+            parser.end(false, toClient.lastTimestamp);
+            parser.close();
+        }
+
+        private class Direction {
+
+            private final boolean fromClient;
+            private final Map<Integer, byte[]> outOfOrder;
+            private boolean sequenceKnown;
+            private int nextSequence;
+            private int outOfOrderBytes;
+            private boolean finished;
+            private long lastTimestamp;
+
+            Direction(boolean fromClient) {
+                this.fromClient = fromClient;
+                this.outOfOrder = new LinkedHashMap<>();
+            }
+
+            void add(TcpSegment segment, long timestamp) {
+                lastTimestamp = timestamp;
+                int sequence = segment.getSequenceNumber();
+                if (segment.hasFlag(TcpSegment.FLAG_SYN)) {
+                    sequence++;
+                    if (!sequenceKnown) {
+                        nextSequence = sequence;
+                        sequenceKnown = true;
+                    }
+                } else if (!sequenceKnown) {
+                    nextSequence = sequence;
+                    sequenceKnown = true;
+                }
+
+                ByteBuffer payload = segment.getPayload();
+                if (payload.hasRemaining()) {
+                    int offset = nextSequence - sequence;
+                    if (offset < 0) {
+                        buffer(sequence, payload);
+                    } else if (offset < payload.remaining()) {
+                        deliver(payload, offset);
+                        deliverBuffered();
+                    }
+                }
+
+                if (segment.hasFlag(TcpSegment.FLAG_FIN) && !finished) {
+                    flush();
+                    finished = true;
+                    parser.end(fromClient, timestamp);
+                }
+            }
+
+            private void deliver(ByteBuffer payload, int offset) {
+                ByteBuffer data = payload.duplicate();
+                data.position(data.position() + offset);
+                nextSequence += data.remaining();
+                parser.data(fromClient, data, lastTimestamp);
+            }
+
+            private void buffer(int sequence, ByteBuffer payload) {
+                if (outOfOrderBytes + payload.remaining() > MAX_OUT_OF_ORDER_BYTES) {
+                    skipGap();
+                    if (nextSequence - sequence >= 0) {
+                        int offset = nextSequence - sequence;
+                        if (offset < payload.remaining()) {
+                            deliver(payload, offset);
+                        }
+                        deliverBuffered();
+                        return;
+                    }
+                }
+                byte[] data = new byte[payload.remaining()];
+                payload.duplicate().get(data);
+                byte[] previous = outOfOrder.put(sequence, data);
+                outOfOrderBytes += data.length - (previous != null ? previous.length : 0);
+            }
+
+            /** Delivers the buffered segments that are now in order. */
+            private void deliverBuffered() {
+                boolean delivered = true;
+                while (delivered && !outOfOrder.isEmpty()) {
+                    delivered = false;
+                    Iterator<Map.Entry<Integer, byte[]>> it = outOfOrder.entrySet().iterator();
+                    while (it.hasNext()) {
+                        Map.Entry<Integer, byte[]> entry = it.next();
+                        int offset = nextSequence - entry.getKey();
+                        byte[] data = entry.getValue();
+                        if (offset < 0) {
+                            continue;
+                        }
+                        it.remove();
+                        outOfOrderBytes -= data.length;
+                        if (offset < data.length) {
+                            deliver(ByteBuffer.wrap(data), offset);
+                            delivered = true;
+                        }
+                    }
+                }
+            }
+
+            /** Skips the missing data up to the earliest buffered segment. */
+            private void skipGap() {
+                if (outOfOrder.isEmpty()) {
+                    return;
+                }
+                int earliest = nextSequence;
+                int smallestDistance = Integer.MAX_VALUE;
+                for (Integer sequence : outOfOrder.keySet()) {
+                    int distance = sequence - nextSequence;
+                    if (distance > 0 && distance < smallestDistance) {
+                        smallestDistance = distance;
+                        earliest = sequence;
+                    }
+                }
+                nextSequence = earliest;
+                parser.gap(fromClient);
+            }
+
+            /** Delivers all the buffered data, skipping the missing data. */
+            void flush() {
+                while (!outOfOrder.isEmpty()) {
+                    skipGap();
+                    deliverBuffered();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.pcap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A TCP segment decoded from a captured packet.
+ *
+ * <p>Supports IPv4 and IPv6 over Ethernet (with VLAN tags), BSD loopback, Linux cooked capture, and
+ * raw IP link-layer types. Fragmented IP packets are not supported.
+ */
+class TcpSegment {
+
+    static final int FLAG_FIN = 0x01;
+    static final int FLAG_SYN = 0x02;
+    static final int FLAG_RST = 0x04;
+    static final int FLAG_ACK = 0x10;
+
+    private static final int LINKTYPE_NULL = 0;
+    private static final int LINKTYPE_ETHERNET = 1;
+    private static final int LINKTYPE_RAW = 101;
+    private static final int LINKTYPE_LOOP = 108;
+    private static final int LINKTYPE_LINUX_SLL = 113;
+    private static final int LINKTYPE_IPV4 = 228;
+    private static final int LINKTYPE_IPV6 = 229;
+
+    private static final int ETHERTYPE_IPV4 = 0x0800;
+    private static final int ETHERTYPE_IPV6 = 0x86DD;
+    private static final int ETHERTYPE_VLAN = 0x8100;
+    private static final int ETHERTYPE_QINQ = 0x88A8;
+
+    private static final int BSD_AF_INET = 2;
+    private static final int BSD_AF_INET6_BSD = 24;
+    private static final int BSD_AF_INET6_FREEBSD = 28;
+    private static final int BSD_AF_INET6_DARWIN = 30;
+
+    private static final int IP_PROTOCOL_TCP = 6;
+    private static final int IPV6_HOP_BY_HOP = 0;
+    private static final int IPV6_ROUTING = 43;
+    private static final int IPV6_DESTINATION_OPTIONS = 60;
+
+    private final byte[] sourceAddress;
+    private final int sourcePort;
+    private final byte[] destinationAddress;
+    private final int destinationPort;
+    private final int sequenceNumber;
+    private final int flags;
+    private final ByteBuffer payload;
+
+    private TcpSegment(
+            byte[] sourceAddress,
+            int sourcePort,
+            byte[] destinationAddress,
+            int destinationPort,
+            int sequenceNumber,
+            int flags,
+            ByteBuffer payload) {
+        this.sourceAddress = sourceAddress;
+        this.sourcePort = sourcePort;
+        this.destinationAddress = destinationAddress;
+        this.destinationPort = destinationPort;
+        this.sequenceNumber = sequenceNumber;
+        this.flags = flags;
+        this.payload = payload;
+    }
+
+    byte[] getSourceAddress() {
+        return sourceAddress;
+    }
+
+    int getSourcePort() {
+        return sourcePort;
+    }
+
+    byte[] getDestinationAddress() {
+        return destinationAddress;
+    }
+
+    int getDestinationPort() {
+        return destinationPort;
+    }
+
+    int getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    /**
+     * Gets the payload of the segment, backed by the data of the packet.
+     *
+     * @return the payload.
+     */
+    ByteBuffer getPayload() {
+        return payload;
+    }
+
+    /**
+     * Decodes the TCP segment of the given packet data.
+     *
+     * @param linkType the link-layer type of the packet.
+     * @param packetData the data of the packet.
+     * @return the TCP segment, or {@code null} if the packet does not have a (supported) TCP
+     *     segment.
+     */
+    static TcpSegment decode(int linkType, ByteBuffer packetData) {
+        ByteBuffer data = packetData.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            switch (linkType) {
+                case LINKTYPE_ETHERNET:
+                    return decodeEthernet(data);
+                case LINKTYPE_NULL:
+                case LINKTYPE_LOOP:
+                    return decodeLoopback(data);
+                case LINKTYPE_LINUX_SLL:
+                    return decodeEtherType(data.getShort(14) & 0xFFFF, slice(data, 16));
+                case LINKTYPE_RAW:
+                case LINKTYPE_IPV4:
+                case LINKTYPE_IPV6:
+                    return decodeIp(data);
+                default:
+                    return null;
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            // Truncated or malformed packet.
+            return null;
+        }
+    }
+
+    private static TcpSegment decodeEthernet(ByteBuffer data) {
+        int offset = 12;
+        int etherType = data.getShort(offset) & 0xFFFF;
+        while (etherType == ETHERTYPE_VLAN || etherType == ETHERTYPE_QINQ) {
+            offset += 4;
+            etherType = data.getShort(offset) & 0xFFFF;
+        }
+        return decodeEtherType(etherType, slice(data, offset + 2));
+    }
+
+    private static TcpSegment decodeLoopback(ByteBuffer data) {
+        // The family is in the byte order of the capturing host.
+        int family = data.get(0) != 0 ? data.get(0) & 0xFF : data.get(3) & 0xFF;
+        switch (family) {
+            case BSD_AF_INET:
+            case BSD_AF_INET6_BSD:
+            case BSD_AF_INET6_FREEBSD:
+            case BSD_AF_INET6_DARWIN:
+                return decodeIp(slice(data, 4));
+            default:
+                return null;
+        }
+    }
+
+    private static TcpSegment decodeEtherType(int etherType, ByteBuffer data) {
+        if (etherType == ETHERTYPE_IPV4 || etherType == ETHERTYPE_IPV6) {
+            return decodeIp(data);
+        }
+        return null;
+    }
+
+    private static TcpSegment decodeIp(ByteBuffer data) {
+        int version = (data.get(0) & 0xF0) >> 4;
+        if (version == 4) {
+            return decodeIpv4(data);
+        }
+        if (version == 6) {
+            return decodeIpv6(data);
+        }
+        return null;
+    }
+
+    private static TcpSegment decodeIpv4(ByteBuffer data) {
+        int headerLength = (data.get(0) & 0x0F) * 4;
+        int totalLength = data.getShort(2) & 0xFFFF;
+        int fragment = data.getShort(6) & 0xFFFF;
+        boolean moreFragments = (fragment & 0x2000) != 0;
+        if (moreFragments || (fragment & 0x1FFF) != 0 || data.get(9) != IP_PROTOCOL_TCP) {
+            return null;
+        }
+        byte[] source = bytes(data, 12, 4);
+        byte[] destination = bytes(data, 16, 4);
+        // Total length might be zero with segmentation offload, otherwise it excludes the padding.
+        int end = totalLength == 0 ? data.limit() : Math.min(totalLength, data.limit());
+        ByteBuffer tcp = slice(data, headerLength);
+        tcp.limit(end - headerLength);
+        return decodeTcp(source, destination, tcp);
+    }
+
+    private static TcpSegment decodeIpv6(ByteBuffer data) {
+        int payloadLength = data.getShort(4) & 0xFFFF;
+        int nextHeader = data.get(6) & 0xFF;
+        byte[] source = bytes(data, 8, 16);
+        byte[] destination = bytes(data, 24, 16);
+        int offset = 40;
+        int end = payloadLength == 0 ? data.limit() : Math.min(40 + payloadLength, data.limit());
+        while (nextHeader == IPV6_HOP_BY_HOP
+                || nextHeader == IPV6_ROUTING
+                || nextHeader == IPV6_DESTINATION_OPTIONS) {
+            int extensionLength = ((data.get(offset + 1) & 0xFF) + 1) * 8;
+            nextHeader = data.get(offset) & 0xFF;
+            offset += extensionLength;
+        }
+        if (nextHeader != IP_PROTOCOL_TCP) {
+            return null;
+        }
+        ByteBuffer tcp = slice(data, offset);
+        tcp.limit(end - offset);
+        return decodeTcp(source, destination, tcp);
+    }
+
+    private static TcpSegment decodeTcp(byte[] source, byte[] destination, ByteBuffer tcp) {
+        int sourcePort = tcp.getShort(0) & 0xFFFF;
+        int destinationPort = tcp.getShort(2) & 0xFFFF;
+        int sequenceNumber = tcp.getInt(4);
+        int headerLength = ((tcp.get(12) & 0xF0) >> 4) * 4;
+        int flags = tcp.get(13) & 0xFF;
+        return new TcpSegment(
+                source,
+                sourcePort,
+                destination,
+                destinationPort,
+                sequenceNumber,
+                flags,
+                slice(tcp, headerLength));
+    }
+
+    private static ByteBuffer slice(ByteBuffer data, int offset) {
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(offset);
+        return buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private static byte[] bytes(ByteBuffer data, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = data.get(offset + i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.urls;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded queue of items per host, taken in round-robin across the hosts.
+ *
+ * <p>A host with the maximum number of items in flight is skipped while other hosts have items
+ * pending, so a slow (or rate limited) host does not hold all the consumers.
+ *
+ * @param <T> the type of the items.
+ */
+class HostFairQueue<T> {
+
+    private final int capacity;
+    private final int maxInFlightPerHost;
+    private final Map<String, Deque<T>> pending;
+    private final Map<String, Integer> inFlight;
+    private final ReentrantLock lock;
+    private final Condition notFull;
+    private final Condition notEmpty;
+
+    private int size;
+    private boolean closed;
+
+    /**
+     * Constructs a {@code HostFairQueue}.
+     *
+     * @param capacity the maximum number of items pending, across all hosts.
+     * @param maxInFlightPerHost the number of items in flight per host after which other hosts are
+     *     preferred.
+     */
+    HostFairQueue(int capacity, int maxInFlightPerHost) {
+        this.capacity = capacity;
+        this.maxInFlightPerHost = maxInFlightPerHost;
+        this.pending = new LinkedHashMap<>();
+        this.inFlight = new HashMap<>();
+        this.lock = new ReentrantLock();
+        this.notFull = lock.newCondition();
+        this.notEmpty = lock.newCondition();
+    }
+
+    /**
+     * Adds the given item, waiting if the queue is full.
+     *
+     * @param host the host of the item.
+     * @param item the item.
+     * @return {@code true} if the item was added, {@code false} if the queue was closed.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    boolean put(String host, T item) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size >= capacity && !closed) {
+                notFull.await();
+            }
+            if (closed) {
+                return false;
+            }
+            pending.computeIfAbsent(host, k -> new ArrayDeque<>()).add(item);
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next item, waiting if none is pending. The caller must call {@link #done(String)}
+     * once finished with the item.
+     *
+     * @return the item, or {@code null} if the queue was closed and no items are pending.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (closed) {
+                    return null;
+                }
+                notEmpty.await();
+            }
+            String host = nextHost();
+            Deque<T> items = pending.remove(host);
+            T item = items.poll();
+            if (!items.isEmpty()) {
+                // Re-add at the end, for the round-robin.
+                pending.put(host, items);
+            }
+            size--;
+            inFlight.merge(host, 1, Integer::sum);
+            notFull.signal();
+            return item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String nextHost() {
+        Iterator<String> it = pending.keySet().iterator();
+        String first = it.next();
+        if (inFlight.getOrDefault(first, 0) < maxInFlightPerHost) {
+            return first;
+        }
+        while (it.hasNext()) {
+            String host = it.next();
+            if (inFlight.getOrDefault(host, 0) < maxInFlightPerHost) {
+                return host;
+            }
+        }
+        // All busy, do not leave the consumer idle.
+        return first;
+    }
+
+    /**
+     * Notifies that an item taken previously is no longer in flight.
+     *
+     * @param host the host of the item.
+     */
+    void done(String host) {
+        lock.lock();
+        try {
+            inFlight.computeIfPresent(host, (k, v) -> v > 1 ? v - 1 : null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Closes the queue, no more items are added and the consumers finish once empty. */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -19,44 +19,97 @@
  */
 package org.zaproxy.addon.exim.urls;
 
-import java.awt.EventQueue;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntConsumer;
 import org.apache.commons.httpclient.URI;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
-import org.parosproxy.paros.control.Control;
-import org.parosproxy.paros.extension.history.ExtensionHistory;
 import org.parosproxy.paros.model.HistoryReference;
-import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpRequestHeader;
 import org.parosproxy.paros.network.HttpSender;
 import org.parosproxy.paros.view.View;
+import org.zaproxy.addon.commonlib.http.HistoryBatchPersister;
 import org.zaproxy.addon.commonlib.ui.ProgressPaneListener;
+import org.zaproxy.addon.exim.BatchPersister;
 import org.zaproxy.addon.exim.ExtensionExim;
 import org.zaproxy.zap.utils.Stats;
+import org.zaproxy.zap.utils.ThreadUtils;
 
+/**
+ * Imports a file of URLs, one per line, sending a GET request to each one.
+ *
+ * <p>The requests are sent concurrently, taken in turns per host (the rate limits of the network
+ * add-on apply to each request), while a single thread persists the messages and updates the output
+ * panel in batches.
+ */
 public class UrlsImporter {
 
+    /** The default number of threads used to send the requests. */
+    public static final int DEFAULT_THREAD_COUNT = Constant.getDefaultThreadCount();
+
     private static final Logger LOGGER = LogManager.getLogger(UrlsImporter.class);
     private static final String STATS_URL_FILE = "import.url.file";
     private static final String STATS_URL_FILE_ERROR = "import.url.file.errors";
     private static final String STATS_URL_FILE_URL = "import.url.file.url";
     private static final String STATS_URL_FILE_URL_ERROR = "import.url.file.url.errors";
+    private static final String SENDER_THREAD_PREFIX = "ZAP-Import-Urls-Sender-";
+    private static final String PERSISTER_THREAD_NAME = "ZAP-Import-Urls-Persister";
+    private static final int BATCH_SIZE = 100;
+    private static final int PENDING_URLS_PER_THREAD = 64;
+    private static final int MAX_PENDING_RESULTS = BATCH_SIZE * 4;
 
     private final HttpSender sender = new HttpSender(HttpSender.MANUAL_REQUEST_INITIATOR);
+    private final HistoryBatchPersister historyPersister = new HistoryBatchPersister(BATCH_SIZE);
+    private final int threadCount;
+    private final int skipUrls;
+    private final IntConsumer checkpointListener;
     private ProgressPaneListener progressListener;
     private boolean success;
 
+    private final BitSet completed;
+    private int urlsImported;
+    private int urlsCompleted;
+
     public UrlsImporter(File file) {
         this(file, null);
     }
 
     public UrlsImporter(File file, ProgressPaneListener listener) {
+        this(file, listener, DEFAULT_THREAD_COUNT, 0, null);
+    }
+
+    /**
+     * Constructs a {@code UrlsImporter} and imports the given file.
+     *
+     * @param file the file with the URLs.
+     * @param listener the listener of the progress, might be {@code null}.
+     * @param threadCount the number of threads used to send the requests.
+     * @param skipUrls the number of URLs, from the start of the file, not imported, for example,
+     *     imported previously.
+     * @param checkpointListener the listener notified of the number of URLs imported, from the
+     *     start of the file without gaps, might be {@code null}.
+     */
+    public UrlsImporter(
+            File file,
+            ProgressPaneListener listener,
+            int threadCount,
+            int skipUrls,
+            IntConsumer checkpointListener) {
         this.progressListener = listener;
+        this.threadCount = Math.max(1, threadCount);
+        this.skipUrls = Math.max(0, skipUrls);
+        this.checkpointListener = checkpointListener;
+        this.completed = new BitSet();
+        this.urlsImported = this.skipUrls;
+        this.urlsCompleted = this.skipUrls;
         importUrlFile(file);
         completed();
     }
@@ -69,16 +122,7 @@ public class UrlsImporter {
         try (BufferedReader in = Files.newBufferedReader(file.toPath())) {
             Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_URL_FILE);
             ExtensionExim.updateOutput("exim.output.start", file.toPath().toString());
-
-            int count = 1;
-            String line;
-            while ((line = in.readLine()) != null) {
-                if (!line.startsWith("#") && line.trim().length() > 0) {
-                    updateProgress(count, line);
-                    processLine(line);
-                    count++;
-                }
-            }
+            processLines(in);
             ExtensionExim.updateOutput("exim.output.end", file.toPath().toString());
         } catch (Exception e) {
             LOGGER.warn(
@@ -92,34 +136,99 @@ public class UrlsImporter {
         success = true;
     }
 
-    private void processLine(String line) {
-        StringBuilder outputLine = new StringBuilder();
-        outputLine.append(HttpRequestHeader.GET).append('\t').append(line).append('\t');
-        outputLine.append(processRequest(line));
-        outputLine.append('\n');
-        if (View.isInitialised()) {
-            EventQueue.invokeLater(
-                    () -> {
-                        View.getSingleton().getOutputPanel().append(outputLine.toString());
-                        outputLine.delete(0, outputLine.length());
-                    });
+    private void processLines(BufferedReader in) throws Exception {
+        HostFairQueue<Request> requests =
+                new HostFairQueue<>(
+                        threadCount * PENDING_URLS_PER_THREAD, Math.max(1, threadCount / 2));
+
+        try (BatchPersister<Result> results =
+                new BatchPersister<>(
+                        PERSISTER_THREAD_NAME,
+                        BATCH_SIZE,
+                        MAX_PENDING_RESULTS,
+                        this::persistBatch)) {
+            List<Thread> senders = new ArrayList<>(threadCount);
+            for (int i = 0; i < threadCount; i++) {
+                Thread t =
+                        new Thread(() -> sendRequests(requests, results), SENDER_THREAD_PREFIX + i);
+                senders.add(t);
+                t.start();
+            }
+
+            try {
+                int index = 0;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith("#") || line.trim().isEmpty()) {
+                        continue;
+                    }
+                    if (index >= skipUrls && !queueLine(index, line, requests, results)) {
+                        // The senders stopped, the reason is thrown when closing the results.
+                        break;
+                    }
+                    index++;
+                }
+            } finally {
+                requests.close();
+                for (Thread t : senders) {
+                    t.join();
+                }
+            }
         }
     }
 
-    private String processRequest(String line) {
+    private static boolean queueLine(
+            int index, String line, HostFairQueue<Request> requests, BatchPersister<Result> results)
+            throws InterruptedException, IOException {
+        String outcome;
         try {
             URI url = new URI(line, false);
             if (hasSheme(url)) {
-                HttpMessage msg = new HttpMessage(url);
-                sender.sendAndReceive(msg, true);
-                persistMessage(msg);
+                String host = url.getHost();
+                return requests.put(host, new Request(index, line, host, url));
+            }
+            outcome =
+                    handleWarning(Constant.messages.getString("exim.importurls.warn.scheme", line));
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            outcome = handleWarning(e.getMessage());
+        }
+        results.add(new Result(index, line, outcome, null));
+        return true;
+    }
 
-                Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_URL_FILE_URL);
-                return String.valueOf(msg.getResponseHeader().getStatusCode());
+    private void sendRequests(HostFairQueue<Request> requests, BatchPersister<Result> results) {
+        try {
+            Request request;
+            while ((request = requests.take()) != null) {
+                Result result;
+                try {
+                    result = processRequest(request);
+                } finally {
+                    requests.done(request.host);
+                }
+                results.add(result);
             }
-            return handleWarning(Constant.messages.getString("exim.importurls.warn.scheme", line));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // The results are no longer persisted, stop reading the URLs.
+            requests.close();
+        }
+    }
+
+    private Result processRequest(Request request) {
+        try {
+            HttpMessage msg = new HttpMessage(request.url);
+            sender.sendAndReceive(msg, true);
+            return new Result(
+                    request.index,
+                    request.line,
+                    String.valueOf(msg.getResponseHeader().getStatusCode()),
+                    msg);
         } catch (Exception e) {
-            return handleWarning(e.getMessage());
+            return new Result(request.index, request.line, handleWarning(e.getMessage()), null);
         }
     }
 
@@ -133,38 +242,56 @@ public class UrlsImporter {
         return url.getScheme() != null;
     }
 
-    private static void persistMessage(HttpMessage message) {
-        HistoryReference historyRef;
+    private void persistBatch(List<Result> batch) {
+        StringBuilder output = new StringBuilder();
+        for (Result result : batch) {
+            output.append(HttpRequestHeader.GET).append('\t').append(result.line).append('\t');
+            output.append(result.outcome).append('\n');
+            if (result.message == null) {
+                continue;
+            }
+            try {
+                historyPersister.persist(result.message, HistoryReference.TYPE_ZAP_USER);
+                Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_URL_FILE_URL);
+            } catch (Exception e) {
+                LOGGER.warn(e.getMessage());
+            }
+        }
+        historyPersister.flush();
 
-        try {
-            historyRef =
-                    new HistoryReference(
-                            Model.getSingleton().getSession(),
-                            HistoryReference.TYPE_ZAP_USER,
-                            message);
-        } catch (Exception e) {
-            LOGGER.warn(e.getMessage());
-            return;
+        if (View.isInitialised()) {
+            ThreadUtils.invokeAndWaitHandled(
+                    () -> View.getSingleton().getOutputPanel().append(output.toString()));
         }
 
-        ExtensionHistory extHistory =
-                Control.getSingleton().getExtensionLoader().getExtension(ExtensionHistory.class);
-        if (extHistory != null) {
-            EventQueue.invokeLater(
-                    () -> {
-                        extHistory.addHistory(historyRef);
-                        Model.getSingleton()
-                                .getSession()
-                                .getSiteTree()
-                                .addPath(historyRef, message);
-                    });
+        for (Result result : batch) {
+            completed.set(result.index);
+        }
+        urlsCompleted += batch.size();
+        int next = completed.nextClearBit(urlsImported);
+        if (next != urlsImported) {
+            urlsImported = next;
+            if (checkpointListener != null) {
+                checkpointListener.accept(urlsImported);
+            }
         }
+        updateProgress(urlsCompleted, batch.get(batch.size() - 1).line);
     }
 
     public boolean isSuccess() {
         return success;
     }
 
+    /**
+     * Gets the number of URLs imported, from the start of the file without gaps, including the URLs
+     * skipped.
+     *
+     * @return the number of URLs imported.
+     */
+    public int getUrlsImported() {
+        return urlsImported;
+    }
+
     private void updateProgress(int count, String line) {
         if (progressListener != null) {
             progressListener.setTasksDone(count);
@@ -178,4 +305,34 @@ public class UrlsImporter {
             progressListener.completed();
         }
     }
+
+    private static class Request {
+
+        private final int index;
+        private final String line;
+        private final String host;
+        private final URI url;
+
+        Request(int index, String line, String host, URI url) {
+            this.index = index;
+            this.line = line;
+            this.host = host;
+            this.url = url;
+        }
+    }
+
+    private static class Result {
+
+        private final int index;
+        private final String line;
+        private final String outcome;
+        private final HttpMessage message;
+
+        Result(int index, String line, String outcome, HttpMessage message) {
+            this.index = index;
+            this.line = line;
+            this.outcome = outcome;
+            this.message = message;
+        }
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/** Unit test for {@link BatchPersister}. */
+@Timeout(30)
+class BatchPersisterUnitTest {
+
+    @Test
+    void shouldPersistAllItemsInOrderAndInBatches() throws Exception {
+        // Given
+        List<Integer> persisted = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        // When
+        try (BatchPersister<Integer> persister =
+                new BatchPersister<>(
+                        "test",
+                        10,
+                        20,
+                        batch -> {
+                            batchSizes.add(batch.size());
+                            persisted.addAll(batch);
+                        })) {
+            for (int i = 0; i < 1000; i++) {
+                persister.add(i);
+            }
+        }
+        // Then
+        assertThat(persisted, is(equalTo(range(1000))));
+        assertThat(batchSizes, everyItem(is(lessThanOrEqualTo(10))));
+    }
+
+    @Test
+    void shouldPersistItemsOfSeveralProducers() throws Exception {
+        // Given
+        List<Integer> persisted = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> producers = new ArrayList<>();
+        // When
+        try (BatchPersister<Integer> persister =
+                new BatchPersister<>("test", 10, 20, persisted::addAll)) {
+            for (int p = 0; p < 4; p++) {
+                int start = p * 250;
+                Thread producer =
+                        new Thread(
+                                () -> {
+                                    try {
+                                        for (int i = start; i < start + 250; i++) {
+                                            persister.add(i);
+                                        }
+                                    } catch (IOException e) {
+                                        throw new RuntimeException(e);
+                                    }
+                                });
+                producers.add(producer);
+                producer.start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+        }
+        // Then
+        Collections.sort(persisted);
+        assertThat(persisted, is(equalTo(range(1000))));
+    }
+
+    @Test
+    void shouldNotBlockProducerIfPersisterFails() throws Exception {
+        // Given
+        RuntimeException failure = new RuntimeException();
+        CountDownLatch failing = new CountDownLatch(1);
+        BatchPersister<Integer> persister =
+                new BatchPersister<>(
+                        "test",
+                        1,
+                        1,
+                        batch -> {
+                            failing.countDown();
+                            throw failure;
+                        });
+        persister.add(0);
+        failing.await(5, TimeUnit.SECONDS);
+        // When
+        IOException e =
+                assertThrows(
+                        IOException.class,
+                        () -> {
+                            for (int i = 1; i < 1000; i++) {
+                                persister.add(i);
+                            }
+                        });
+        // Then
+        assertThat(e.getCause(), is(sameInstance(failure)));
+        IOException closeException = assertThrows(IOException.class, persister::close);
+        assertThat(closeException.getCause(), is(sameInstance(failure)));
+    }
+
+    @Test
+    void shouldThrowOnCloseIfPersisterFailed() throws Exception {
+        // Given
+        Error failure = new AssertionError();
+        BatchPersister<Integer> persister =
+                new BatchPersister<>(
+                        "test",
+                        10,
+                        10,
+                        batch -> {
+                            throw failure;
+                        });
+        persister.add(0);
+        // When
+        IOException e = assertThrows(IOException.class, persister::close);
+        // Then
+        assertThat(e.getCause(), is(sameInstance(failure)));
+    }
+
+    private static List<Integer> range(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+}
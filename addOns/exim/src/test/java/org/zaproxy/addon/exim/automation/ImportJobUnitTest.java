@@ -21,6 +21,7 @@ package org.zaproxy.addon.exim.automation;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.BDDMockito.given;
@@ -28,11 +29,14 @@ import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.withSettings;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.quality.Strictness;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.control.Control;
@@ -85,9 +89,11 @@ class ImportJobUnitTest {
         Map<String, String> params = job.getCustomConfigParameters();
 
         // Then
-        assertThat(params.size(), is(equalTo(2)));
+        assertThat(params.size(), is(equalTo(4)));
         assertThat(params.get("type"), is(equalTo("")));
         assertThat(params.get("fileName"), is(equalTo("")));
+        assertThat(params.get("threadCount"), is(equalTo("")));
+        assertThat(params.get("resume"), is(equalTo("")));
     }
 
     @Test
@@ -139,4 +145,60 @@ class ImportJobUnitTest {
         assertThat(progress.hasErrors(), is(equalTo(true)));
         assertThat(progress.getErrors().get(0), is(equalTo("!exim.automation.import.error.file!")));
     }
+
+    @Test
+    void shouldApplyUrlImportParams() {
+        // Given
+        AutomationProgress progress = new AutomationProgress();
+        String yamlStr =
+                "parameters:\n"
+                        + "  type: url\n"
+                        + "  fileName: urls.txt\n"
+                        + "  threadCount: 3\n"
+                        + "  resume: true";
+        Yaml yaml = new Yaml();
+        Object data = yaml.load(yamlStr);
+
+        ImportJob job = new ImportJob();
+        job.setJobData(((LinkedHashMap<?, ?>) data));
+
+        // When
+        job.verifyParameters(progress);
+
+        // Then
+        assertThat(job.getParameters().getThreadCount(), is(equalTo(3)));
+        assertThat(job.getParameters().getResume(), is(equalTo(true)));
+        assertThat(progress.hasWarnings(), is(equalTo(false)));
+        assertThat(progress.hasErrors(), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldResumeUrlImportAndDeleteProgressFileWhenFinished(@TempDir Path dir)
+            throws Exception {
+        // Given
+        AutomationPlan plan = new AutomationPlan();
+        AutomationProgress progress = plan.getProgress();
+        AutomationEnvironment env = plan.getEnv();
+        Path file = dir.resolve("urls.txt");
+        Files.write(file, "# Imported\nhttp://example.com/1\nhttp://example.com/2\n".getBytes());
+        Path progressFile = ImportJob.getProgressFile(file.toFile());
+        Files.write(progressFile, "2".getBytes());
+        String yamlStr =
+                "parameters:\n" + "  type: url\n" + "  fileName: " + file + "\n" + "  resume: true";
+        Yaml yaml = new Yaml();
+        Object data = yaml.load(yamlStr);
+
+        ImportJob job = new ImportJob();
+        job.setJobData(((LinkedHashMap<?, ?>) data));
+        job.setPlan(plan);
+
+        // When
+        job.verifyParameters(progress);
+        job.runJob(env, progress);
+
+        // Then
+        assertThat(progress.hasErrors(), is(equalTo(false)));
+        assertThat(progress.getInfos(), hasItem("!exim.automation.import.info.resume!"));
+        assertThat(Files.exists(progressFile), is(equalTo(false)));
+    }
 }
@@ -104,6 +104,24 @@ class HarImporterUnitTest {
         assertThat(messages.get(0).isResponseFromTargetHost(), equalTo(false));
     }
 
+    @Test
+    void shouldDecodeBase64ResponseBody() throws Exception {
+        // Given
+        byte[] responseBody = {0x00, (byte) 0xFF, 0x10};
+        HttpMessage httpMessage =
+                new HttpMessage(
+                        "GET / HTTP/1.1\r\n\r\n",
+                        EMPTY_BODY,
+                        "HTTP/1.1 200 OK\r\nContent-Type: application/octet-stream\r\n\r\n",
+                        responseBody);
+        HarLog harLog = createHarLog(httpMessage);
+        // When
+        List<HttpMessage> messages = HarImporter.getHttpMessages(harLog);
+        // Then
+        assertThat(messages, hasSize(1));
+        assertThat(messages.get(0).getResponseBody().getBytes(), equalTo(responseBody));
+    }
+
     @Test
     void shouldBeFailureIfFileNotFound(@TempDir Path dir) throws Exception {
         // Given
@@ -0,0 +1,147 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.har;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.umass.cs.benchlab.har.HarEntry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parosproxy.paros.model.HistoryReference;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link HarStreamReader} and {@link HarWriter}. */
+class HarStreamReaderUnitTest {
+
+    @TempDir Path dir;
+
+    @Test
+    void shouldReadEntriesWrittenOneAtATime() throws Exception {
+        // Given
+        Path file = dir.resolve("messages.har");
+        HttpMessage message1 = createMessage("/1");
+        HttpMessage message2 = createMessage("/2");
+        try (HarWriter writer = new HarWriter(Files.newOutputStream(file))) {
+            writer.write(1, HistoryReference.TYPE_PROXIED, message1);
+            writer.write(2, HistoryReference.TYPE_PROXIED, message2);
+        }
+
+        // When
+        try (HarStreamReader reader = new HarStreamReader(file.toFile())) {
+            HarEntry entry1 = reader.readEntry();
+            HarEntry entry2 = reader.readEntry();
+            HarEntry entry3 = reader.readEntry();
+
+            // Then
+            assertThat(HarImporter.getHttpMessage(entry1), is(equalTo(message1)));
+            assertThat(HarImporter.getHttpMessage(entry2), is(equalTo(message2)));
+            assertThat(entry3, is(nullValue()));
+            assertThat(reader.getBytesRead(), is(equalTo(Files.size(file))));
+        }
+    }
+
+    @Test
+    void shouldReadGzipCompressedFile() throws Exception {
+        // Given
+        Path file = dir.resolve("messages.har.gz");
+        HttpMessage message = createMessage("/");
+        try (HarWriter writer = new HarWriter(new GZIPOutputStream(Files.newOutputStream(file)))) {
+            writer.write(1, HistoryReference.TYPE_PROXIED, message);
+        }
+
+        // When
+        try (HarStreamReader reader = new HarStreamReader(file.toFile())) {
+            HarEntry entry = reader.readEntry();
+
+            // Then
+            assertThat(HarImporter.getHttpMessage(entry), is(equalTo(message)));
+            assertThat(reader.readEntry(), is(nullValue()));
+        }
+    }
+
+    @Test
+    void shouldSkipOtherFieldsOfTheLog() throws Exception {
+        // Given
+        Path file =
+                write(
+                        "{\"log\": {\"version\": \"1.2\", \"pages\": [{\"id\": \"a\"}],"
+                                + " \"creator\": {\"name\": \"x\", \"version\": \"1\"},"
+                                + " \"entries\": []}}");
+
+        // When
+        try (HarStreamReader reader = new HarStreamReader(file.toFile())) {
+            HarEntry entry = reader.readEntry();
+
+            // Then
+            assertThat(entry, is(nullValue()));
+        }
+    }
+
+    @Test
+    void shouldReturnNoEntriesIfLogHasNone() throws Exception {
+        // Given
+        Path file = write("{\"log\": {\"version\": \"1.2\"}}");
+
+        // When
+        try (HarStreamReader reader = new HarStreamReader(file.toFile())) {
+            HarEntry entry = reader.readEntry();
+
+            // Then
+            assertThat(entry, is(nullValue()));
+        }
+    }
+
+    @Test
+    void shouldFailIfNotJsonObject() throws Exception {
+        // Given
+        Path file = write("[]");
+
+        // When / Then
+        try (HarStreamReader reader = new HarStreamReader(file.toFile())) {
+            assertThrows(IOException.class, reader::readEntry);
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = dir.resolve("file.har");
+        try (OutputStream os = Files.newOutputStream(file)) {
+            os.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static HttpMessage createMessage(String path) throws Exception {
+        return new HttpMessage(
+                "GET https://example.com" + path + " HTTP/1.1\r\nHost: example.com\r\n\r\n",
+                new byte[0],
+                "HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\n\r\n",
+                "body".getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -21,24 +21,344 @@ package org.zaproxy.addon.exim.pcap;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.quality.Strictness;
+import org.parosproxy.paros.Constant;
+import org.parosproxy.paros.network.HttpHeader;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.addon.commonlib.ui.ProgressPaneListener;
+import org.zaproxy.zap.utils.I18N;
 
 /** Unit test for {@link PcapImporter}. */
 class PcapImporterUnitTest {
-    // no tests implemented yet
+
+    private static final byte[] CLIENT = {10, 0, 0, 1};
+    private static final byte[] SERVER = {10, 0, 0, 2};
+    private static final int CLIENT_PORT = 50000;
+    private static final int SERVER_PORT = 8080;
+    private static final int FLAG_SYN = 0x02;
+    private static final int FLAG_ACK = 0x10;
+    private static final int FLAG_PSH_ACK = 0x18;
+
+    @TempDir Path dir;
 
     @BeforeAll
-    static void setup() {}
+    static void setup() {
+        Constant.messages = mock(I18N.class, withSettings().strictness(Strictness.LENIENT));
+    }
 
     @AfterAll
-    static void cleanup() {}
+    static void cleanup() {
+        Constant.messages = null;
+    }
+
+    @Test
+    void shouldReadPipelinedRequestsSplitAcrossSegments() throws Exception {
+        // Given
+        String requests =
+                "GET /a HTTP/1.1\r\nHost: example.com\r\n\r\n"
+                        + "POST /b HTTP/1.1\r\nHost: example.com\r\nContent-Length: 4\r\n\r\nbody";
+        String responses =
+                "HTTP/1.1 200 OK\r\nContent-Length: 1\r\n\r\nA"
+                        + "HTTP/1.1 201 Created\r\nContent-Length: 1\r\n\r\nB";
+        Capture capture = new Capture();
+        capture.fromClient(1000, requests.substring(0, 20));
+        capture.fromClient(1020, requests.substring(20, 70));
+        capture.fromClient(1070, requests.substring(70));
+        capture.fromServer(5000, responses);
+        Path file = capture.writePcap(dir.resolve("capture.pcap"));
+
+        // When
+        List<HttpMessage> messages = readMessages(file);
+
+        // Then
+        assertThat(messages, hasSize(2));
+        assertMessage(messages.get(0), "GET", "http://example.com/a", "", 200, "A");
+        assertMessage(messages.get(1), "POST", "http://example.com/b", "body", 201, "B");
+    }
+
+    @Test
+    void shouldReassembleOutOfOrderSegments() throws Exception {
+        // Given
+        String request = "GET / HTTP/1.1\r\nHost: example.com\r\n\r\n";
+        String response = "HTTP/1.1 200 OK\r\nContent-Length: 5\r\n\r\nHello";
+        Capture capture = new Capture();
+        capture.handshake(999, 4999);
+        capture.fromClient(1000, request);
+        capture.fromServer(5000 + 20, response.substring(20));
+        capture.fromServer(5000, response.substring(0, 20));
+        Path file = capture.writePcap(dir.resolve("capture.pcap"));
+
+        // When
+        List<HttpMessage> messages = readMessages(file);
+
+        // Then
+        assertThat(messages, hasSize(1));
+        assertMessage(messages.get(0), "GET", "http://example.com/", "", 200, "Hello");
+    }
+
+    @Test
+    void shouldDechunkResponseBody() throws Exception {
+        // Given
+        String request = "GET / HTTP/1.1\r\nHost: example.com\r\n\r\n";
+        String response =
+                "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                        + "5\r\nHello\r\n6\r\n World\r\n0\r\n\r\n";
+        Capture capture = new Capture();
+        capture.fromClient(1000, request);
+        capture.fromServer(5000, response);
+        Path file = capture.writePcap(dir.resolve("capture.pcap"));
+
+        // When
+        List<HttpMessage> messages = readMessages(file);
+
+        // Then
+        assertThat(messages, hasSize(1));
+        HttpMessage message = messages.get(0);
+        assertMessage(message, "GET", "http://example.com/", "", 200, "Hello World");
+        assertThat(
+                message.getResponseHeader().getHeader(HttpHeader.TRANSFER_ENCODING),
+                is(nullValue()));
+        assertThat(
+                message.getResponseHeader().getHeader(HttpHeader.CONTENT_LENGTH),
+                is(equalTo("11")));
+    }
+
+    @Test
+    void shouldUseServerAddressIfNoHostHeader() throws Exception {
+        // Given
+        Capture capture = new Capture();
+        capture.fromClient(1000, "GET /path HTTP/1.0\r\n\r\n");
+        capture.fromServer(5000, "HTTP/1.0 200 OK\r\n\r\nBody until close");
+        Path file = capture.writePcap(dir.resolve("capture.pcap"));
+
+        // When
+        List<HttpMessage> messages = readMessages(file);
+
+        // Then
+        assertThat(messages, hasSize(1));
+        assertMessage(
+                messages.get(0), "GET", "http://10.0.0.2:8080/path", "", 200, "Body until close");
+    }
+
+    @Test
+    void shouldReadPcapngFile() throws Exception {
+        // Given
+        Capture capture = new Capture();
+        capture.fromClient(1000, "GET / HTTP/1.1\r\nHost: example.com\r\n\r\n");
+        capture.fromServer(5000, "HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\n\r\n");
+        Path file = capture.writePcapng(dir.resolve("capture.pcapng"));
+
+        // When
+        List<HttpMessage> messages = readMessages(file);
+
+        // Then
+        assertThat(messages, hasSize(1));
+        assertMessage(messages.get(0), "GET", "http://example.com/", "", 404, "");
+    }
+
+    @Test
+    void shouldReadFileWithSmallerWindowsThanFile() throws Exception {
+        // Given
+        Capture capture = new Capture();
+        for (int i = 0; i < 20; i++) {
+            capture.fromClient(1000 + i * 40, String.format("GET /%02d HTTP/1.1\r\n\r\n", i));
+        }
+        Path file = capture.writePcap(dir.resolve("capture.pcap"));
+        List<HttpMessage> messages = new ArrayList<>();
+
+        // When
+        try (PcapReader reader = new PcapReader(file.toFile(), 128)) {
+            PcapImporter.readMessages(reader, messages::add, bytes -> {});
+        }
+
+        // Then
+        assertThat(messages, hasSize(20));
+        assertThat(messages.get(19).getRequestHeader().getURI().getPath(), is(equalTo("/19")));
+    }
+
+    @Test
+    void shouldFailToReadInvalidFile() throws Exception {
+        // Given
+        Path file = dir.resolve("capture.pcap");
+        Files.write(file, "Not a capture file".getBytes(StandardCharsets.US_ASCII));
+
+        // When / Then
+        assertThrows(IOException.class, () -> new PcapReader(file.toFile()));
+    }
 
     @Test
-    void skeletonTest() {
-        assertThat(true, is(equalTo(true)));
+    void shouldBeFailureAndCompleteListenerIfFileInvalid() throws Exception {
+        // Given
+        Path file = dir.resolve("capture.pcap");
+        Files.write(file, "Not a capture file".getBytes(StandardCharsets.US_ASCII));
+        ProgressPaneListener listener = mock(ProgressPaneListener.class);
+
+        // When
+        PcapImporter importer = new PcapImporter(file.toFile(), listener);
+
+        // Then
+        assertThat(importer.isSuccess(), is(equalTo(false)));
+        verify(listener).completed();
+    }
+
+    private static List<HttpMessage> readMessages(Path file) throws IOException {
+        List<HttpMessage> messages = new ArrayList<>();
+        try (PcapReader reader = new PcapReader(file.toFile())) {
+            PcapImporter.readMessages(reader, messages::add, bytes -> {});
+        }
+        return messages;
+    }
+
+    private static void assertMessage(
+            HttpMessage message,
+            String method,
+            String uri,
+            String requestBody,
+            int statusCode,
+            String responseBody) {
+        assertThat(message.getRequestHeader().getMethod(), is(equalTo(method)));
+        assertThat(message.getRequestHeader().getURI().toString(), is(equalTo(uri)));
+        assertThat(message.getRequestBody().toString(), is(equalTo(requestBody)));
+        assertThat(message.getResponseHeader().getStatusCode(), is(equalTo(statusCode)));
+        assertThat(message.getResponseBody().toString(), is(equalTo(responseBody)));
+    }
+
+    /** Builds the packets of a TCP connection, over IPv4 and Ethernet. */
+    private static class Capture {
+
+        private final List<byte[]> packets = new ArrayList<>();
+        private long timestamp = 1_700_000_000_000_000L;
+
+        void handshake(int clientSequence, int serverSequence) {
+            add(true, clientSequence, FLAG_SYN, "");
+            add(false, serverSequence, FLAG_SYN | FLAG_ACK, "");
+        }
+
+        void fromClient(int sequence, String payload) {
+            add(true, sequence, FLAG_PSH_ACK, payload);
+        }
+
+        void fromServer(int sequence, String payload) {
+            add(false, sequence, FLAG_PSH_ACK, payload);
+        }
+
+        private void add(boolean fromClient, int sequence, int flags, String payload) {
+            packets.add(
+                    fromClient
+                            ? ethernet(
+                                    tcp(
+                                            CLIENT,
+                                            CLIENT_PORT,
+                                            SERVER,
+                                            SERVER_PORT,
+                                            sequence,
+                                            flags,
+                                            payload))
+                            : ethernet(
+                                    tcp(
+                                            SERVER,
+                                            SERVER_PORT,
+                                            CLIENT,
+                                            CLIENT_PORT,
+                                            sequence,
+                                            flags,
+                                            payload)));
+        }
+
+        Path writePcap(Path file) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteBuffer header = le(24);
+            header.putInt(0xA1B2C3D4).putShort((short) 2).putShort((short) 4);
+            header.putInt(0).putInt(0).putInt(65535).putInt(1);
+            out.write(header.array());
+            for (byte[] packet : packets) {
+                ByteBuffer record = le(16);
+                long ts = timestamp++;
+                record.putInt((int) (ts / 1_000_000)).putInt((int) (ts % 1_000_000));
+                record.putInt(packet.length).putInt(packet.length);
+                out.write(record.array());
+                out.write(packet);
+            }
+            return Files.write(file, out.toByteArray());
+        }
+
+        Path writePcapng(Path file) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteBuffer shb = le(28);
+            shb.putInt(0x0A0D0D0A).putInt(28).putInt(0x1A2B3C4D);
+            shb.putShort((short) 1).putShort((short) 0).putLong(-1).putInt(28);
+            out.write(shb.array());
+            ByteBuffer idb = le(20);
+            idb.putInt(1).putInt(20).putShort((short) 1).putShort((short) 0);
+            idb.putInt(65535).putInt(20);
+            out.write(idb.array());
+            for (byte[] packet : packets) {
+                int padded = (packet.length + 3) & ~3;
+                int length = 32 + padded;
+                ByteBuffer epb = le(length);
+                long ts = timestamp++;
+                epb.putInt(6).putInt(length).putInt(0);
+                epb.putInt((int) (ts >>> 32)).putInt((int) ts);
+                epb.putInt(packet.length).putInt(packet.length);
+                epb.put(packet);
+                epb.position(28 + padded);
+                epb.putInt(length);
+                out.write(epb.array());
+            }
+            return Files.write(file, out.toByteArray());
+        }
+
+        private static byte[] ethernet(byte[] ip) {
+            ByteBuffer frame = ByteBuffer.allocate(14 + ip.length);
+            frame.put(new byte[12]).putShort((short) 0x0800).put(ip);
+            return frame.array();
+        }
+
+        private static byte[] tcp(
+                byte[] source,
+                int sourcePort,
+                byte[] destination,
+                int destinationPort,
+                int sequence,
+                int flags,
+                String payload) {
+            byte[] data = payload.getBytes(StandardCharsets.ISO_8859_1);
+            ByteBuffer ip = ByteBuffer.allocate(20 + 20 + data.length);
+            ip.put((byte) 0x45).put((byte) 0).putShort((short) ip.capacity());
+            ip.putShort((short) 0).putShort((short) 0x4000);
+            ip.put((byte) 64).put((byte) 6).putShort((short) 0);
+            ip.put(source).put(destination);
+            ip.putShort((short) sourcePort).putShort((short) destinationPort);
+            ip.putInt(sequence).putInt(0);
+            ip.put((byte) 0x50).put((byte) flags);
+            ip.putShort((short) 65535).putShort((short) 0).putShort((short) 0);
+            ip.put(data);
+            return ip.array();
+        }
+
+        private static ByteBuffer le(int length) {
+            return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        }
     }
 }
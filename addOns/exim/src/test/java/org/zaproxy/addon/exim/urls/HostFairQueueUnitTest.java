@@ -0,0 +1,133 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.urls;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link HostFairQueue}. */
+class HostFairQueueUnitTest {
+
+    @Test
+    void shouldTakeItemsInTurnsPerHost() throws Exception {
+        // Given
+        HostFairQueue<String> queue = new HostFairQueue<>(10, 10);
+        queue.put("a", "a1");
+        queue.put("a", "a2");
+        queue.put("a", "a3");
+        queue.put("b", "b1");
+        queue.put("c", "c1");
+        queue.put("b", "b2");
+        queue.close();
+        List<String> items = new ArrayList<>();
+
+        // When
+        String item;
+        while ((item = queue.take()) != null) {
+            items.add(item);
+        }
+
+        // Then
+        assertThat(items, contains("a1", "b1", "c1", "a2", "b2", "a3"));
+    }
+
+    @Test
+    void shouldPreferHostsWithLessItemsInFlight() throws Exception {
+        // Given
+        HostFairQueue<String> queue = new HostFairQueue<>(10, 1);
+        queue.put("a", "a1");
+        queue.put("a", "a2");
+        queue.put("b", "b1");
+        queue.put("b", "b2");
+
+        // When
+        String first = queue.take();
+        String second = queue.take();
+        queue.done("a");
+        String third = queue.take();
+
+        // Then
+        assertThat(first, is(equalTo("a1")));
+        assertThat(second, is(equalTo("b1")));
+        assertThat(third, is(equalTo("a2")));
+    }
+
+    @Test
+    void shouldTakeFromBusyHostIfNoOtherHostPending() throws Exception {
+        // Given
+        HostFairQueue<String> queue = new HostFairQueue<>(10, 1);
+        queue.put("a", "a1");
+        queue.put("a", "a2");
+
+        // When
+        String first = queue.take();
+        String second = queue.take();
+
+        // Then
+        assertThat(first, is(equalTo("a1")));
+        assertThat(second, is(equalTo("a2")));
+    }
+
+    @Test
+    void shouldReturnNullWhenClosedAndEmpty() throws Exception {
+        // Given
+        HostFairQueue<String> queue = new HostFairQueue<>(10, 1);
+        queue.close();
+
+        // When
+        String item = queue.take();
+
+        // Then
+        assertThat(item, is(nullValue()));
+    }
+
+    @Test
+    void shouldStopWaitingToPutOnceClosed() throws Exception {
+        // Given
+        HostFairQueue<String> queue = new HostFairQueue<>(1, 1);
+        queue.put("a", "a1");
+        Thread closer =
+                new Thread(
+                        () -> {
+                            try {
+                                Thread.sleep(50);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            queue.close();
+                        });
+        closer.start();
+
+        // When
+        boolean added = queue.put("b", "b1");
+
+        // Then
+        closer.join();
+        assertThat(added, is(equalTo(false)));
+        assertThat(queue.take(), is(equalTo("a1")));
+    }
+}
@@ -142,5 +142,6 @@ public class ExtensionGraalJs extends ExtensionAdaptor {
     @Override
     public void unload() {
         getExtScript().removeScriptEngineWrapper(engineWrapper);
+        engineWrapper.close();
     }
 }
@@ -38,6 +38,8 @@ public class GraalJsEngineWrapper extends DefaultEngineWrapper {
     private final List<Path> defaultTemplates;
     private final ImageIcon icon;
 
+    private Engine engine;
+
     public GraalJsEngineWrapper(
             ClassLoader hostClassLoader, List<Path> defaultTemplates, ImageIcon icon) {
         super(new GraalJSEngineFactory());
@@ -64,12 +66,6 @@ public class GraalJsEngineWrapper extends DefaultEngineWrapper {
 
     @Override
     public ScriptEngine getEngine() {
-        Engine engine =
-                Engine.newBuilder()
-                        .allowExperimentalOptions(true)
-                        .option("engine.WarnInterpreterOnly", "false")
-                        .build();
-
         Context.Builder contextBuilder =
                 Context.newBuilder("js")
                         .allowExperimentalOptions(true)
@@ -80,7 +76,34 @@ public class GraalJsEngineWrapper extends DefaultEngineWrapper {
                         .allowAllAccess(true)
                         .hostClassLoader(hostClassLoader);
 
-        return GraalJSScriptEngine.create(engine, contextBuilder);
+        return GraalJSScriptEngine.create(getPolyglotEngine(), contextBuilder);
+    }
+
+    /**
+     * Gets the polyglot engine shared by all the script engines.
+     *
+     * <p>Sharing the engine allows the scripts parsed and compiled by one script engine to be
+     * reused by the others, instead of starting cold each time.
+     *
+     * @return the polyglot engine.
+     */
+    synchronized Engine getPolyglotEngine() {
+        if (engine == null) {
+            engine =
+                    Engine.newBuilder()
+                            .allowExperimentalOptions(true)
+                            .option("engine.WarnInterpreterOnly", "false")
+                            .build();
+        }
+        return engine;
+    }
+
+    /** Closes the shared polyglot engine, cancelling any script still running. */
+    synchronized void close() {
+        if (engine != null) {
+            engine.close(true);
+            engine = null;
+        }
     }
 
     @Override
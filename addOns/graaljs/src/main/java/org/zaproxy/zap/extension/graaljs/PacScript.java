@@ -31,8 +31,10 @@ import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.Security;
 import java.time.Clock;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
@@ -44,14 +46,22 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import javax.script.Invocable;
 import javax.script.ScriptException;
 import org.apache.commons.io.IOUtils;
+import org.zaproxy.zap.utils.Stats;
 
 /**
  * Represents a PAC script file and methods to evaluate its content.
@@ -74,7 +84,41 @@ class PacScript {
     private static final String TYPE_PROXY_DATA_SEPARATOR = " ";
     private static final String HOST_PORT_SEPARATOR = ":";
 
-    private final Invocable pacImpl;
+    private static final String DNS_CACHE_TTL_PROPERTY = "networkaddress.cache.ttl";
+    private static final String DNS_CACHE_NEGATIVE_TTL_PROPERTY =
+            "networkaddress.cache.negative.ttl";
+    private static final Duration DEFAULT_DNS_CACHE_TTL = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_DNS_CACHE_NEGATIVE_TTL = Duration.ofSeconds(10);
+    private static final int MAX_DNS_CACHE_ENTRIES = 1000;
+
+    private static final Duration RESULT_CACHE_TTL = Duration.ofSeconds(30);
+    private static final int MAX_RESULT_CACHE_ENTRIES = 1000;
+
+    static final String CACHE_HIT_STATS = "stats.graaljs.pac.cache.hit";
+    static final String CACHE_MISS_STATS = "stats.graaljs.pac.cache.miss";
+    static final String EVALUATION_STATS = "stats.graaljs.pac.eval";
+    static final String EVALUATION_TIME_STATS = "stats.graaljs.pac.eval.time";
+
+    private static final Pattern FIND_PROXY_FUNCTION_PATTERN =
+            Pattern.compile("function\\s+FindProxyForURL\\s*\\(\\s*([\\w$]+)");
+
+    private static final List<String> TIME_FUNCTIONS =
+            Arrays.asList("dateRange", "timeRange", "weekdayRange");
+
+    private final String scriptContent;
+    private final BlockingQueue<Invocable> pacImpls;
+    private final AtomicInteger pacImplsCreated;
+    private final int maxPacImpls;
+
+    private final boolean resultsCacheable;
+    private final boolean urlSensitive;
+    private final TtlCache<String, List<Setting>> resultCache;
+    private final TtlCache<String, Optional<InetAddress>> dnsCache;
+    private final Duration dnsCacheTtl;
+    private final Duration dnsCacheNegativeTtl;
+
+    private final LongAdder cacheHits;
+    private final LongAdder evaluations;
 
     private Clock baseClock;
 
@@ -120,16 +164,69 @@ class PacScript {
             throw new IllegalArgumentException("The PAC script content must not be null or empty.");
         }
         this.baseClock = Clock.systemDefaultZone();
+        this.scriptContent = scriptContent;
+
+        resultsCacheable = TIME_FUNCTIONS.stream().noneMatch(scriptContent::contains);
+        urlSensitive = isUrlSensitive(scriptContent);
+        resultCache = new TtlCache<>(MAX_RESULT_CACHE_ENTRIES, Clock.systemUTC());
+        dnsCache = new TtlCache<>(MAX_DNS_CACHE_ENTRIES, Clock.systemUTC());
+        dnsCacheTtl = getDnsCacheTtl(DNS_CACHE_TTL_PROPERTY, DEFAULT_DNS_CACHE_TTL);
+        dnsCacheNegativeTtl =
+                getDnsCacheTtl(DNS_CACHE_NEGATIVE_TTL_PROPERTY, DEFAULT_DNS_CACHE_NEGATIVE_TTL);
+        cacheHits = new LongAdder();
+        evaluations = new LongAdder();
+
+        maxPacImpls = Math.max(1, Runtime.getRuntime().availableProcessors());
+        pacImpls = new LinkedBlockingQueue<>();
+        pacImplsCreated = new AtomicInteger(1);
+        pacImpls.add(createPacImpl());
+    }
 
+    /**
+     * Tells whether or not the given script uses the URL, not just the host, to find the proxy.
+     *
+     * @param scriptContent the contents of the PAC script.
+     * @return {@code true} if the URL is used, or if not possible to know, {@code false} otherwise.
+     */
+    static boolean isUrlSensitive(String scriptContent) {
+        Matcher matcher = FIND_PROXY_FUNCTION_PATTERN.matcher(scriptContent);
+        if (!matcher.find()) {
+            return true;
+        }
+        Matcher usages =
+                Pattern.compile("(?<![\\w$])" + Pattern.quote(matcher.group(1)) + "(?![\\w$])")
+                        .matcher(scriptContent);
+        int count = 0;
+        while (usages.find()) {
+            count++;
+        }
+        return count > 1;
+    }
+
+    private static Duration getDnsCacheTtl(String property, Duration defaultTtl) {
+        String value = Security.getProperty(property);
+        if (value == null) {
+            return defaultTtl;
+        }
+        try {
+            int seconds = Integer.parseInt(value.trim());
+            // Negative means forever, which is also bounded by the size of the cache.
+            return seconds < 0 ? Duration.ofDays(1) : Duration.ofSeconds(seconds);
+        } catch (NumberFormatException e) {
+            return defaultTtl;
+        }
+    }
+
+    private Invocable createPacImpl() throws ScriptException {
         GraalSandbox sandbox = GraalSandboxes.create();
 
         sandbox.inject("dateRange", (ObjectPredicate) this::dateRange);
         sandbox.inject("dnsDomainIs", (BiFunction<String, String, Boolean>) PacScript::dnsDomainIs);
         sandbox.inject("dnsDomainLevels", (Function<String, Integer>) PacScript::dnsDomainLevels);
-        sandbox.inject("dnsResolve", (Function<String, String>) PacScript::dnsResolve);
-        sandbox.inject("isInNet", (StringPredicate) PacScript::isInNet);
+        sandbox.inject("dnsResolve", (Function<String, String>) this::dnsResolve);
+        sandbox.inject("isInNet", (StringPredicate) this::isInNet);
         sandbox.inject("isPlainHostName", (Function<String, Boolean>) PacScript::isPlainHostName);
-        sandbox.inject("isResolvable", (Function<String, Boolean>) PacScript::isResolvable);
+        sandbox.inject("isResolvable", (Function<String, Boolean>) this::isResolvable);
         sandbox.inject(
                 "localHostOrDomainIs",
                 (BiFunction<String, String, Boolean>) PacScript::localHostOrDomainIs);
@@ -143,7 +240,7 @@ class PacScript {
         } catch (ScriptAbuseException e) {
             throw new ScriptException(e);
         }
-        pacImpl = sandbox.getSandboxedInvocable();
+        return sandbox.getSandboxedInvocable();
     }
 
     void setBaseClock(Clock baseClock) {
@@ -160,10 +257,47 @@ class PacScript {
      *     function.
      */
     String evaluate(String url, String host) throws ScriptException {
+        Invocable pacImpl = acquirePacImpl();
+        long start = System.nanoTime();
         try {
             return (String) pacImpl.invokeFunction("FindProxyForURL", url, host);
         } catch (NoSuchMethodException | ScriptAbuseException e) {
             throw new ScriptException(e);
+        } finally {
+            pacImpls.add(pacImpl);
+            evaluations.increment();
+            Stats.incCounter(EVALUATION_STATS);
+            Stats.incCounter(
+                    EVALUATION_TIME_STATS,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Gets a script instance not in use, creating one if none available and the maximum was not yet
+     * reached, otherwise waits for one to be available.
+     *
+     * <p>The script instances are not thread-safe, each concurrent evaluation needs its own.
+     */
+    private Invocable acquirePacImpl() throws ScriptException {
+        Invocable pacImpl = pacImpls.poll();
+        if (pacImpl != null) {
+            return pacImpl;
+        }
+        if (pacImplsCreated.incrementAndGet() <= maxPacImpls) {
+            try {
+                return createPacImpl();
+            } catch (ScriptException | RuntimeException e) {
+                pacImplsCreated.decrementAndGet();
+                throw e;
+            }
+        }
+        pacImplsCreated.decrementAndGet();
+        try {
+            return pacImpls.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScriptException("Interrupted while waiting to evaluate the PAC script.");
         }
     }
 
@@ -177,7 +311,24 @@ class PacScript {
      *     function or parsing its result.
      */
     public List<Setting> findProxyForUrl(String url, String host) throws ScriptException {
-        String result = evaluate(url, host);
+        if (!resultsCacheable) {
+            return parseResult(evaluate(url, host));
+        }
+
+        String key = urlSensitive ? url : host;
+        List<Setting> settings = resultCache.get(key);
+        if (settings != null) {
+            cacheHits.increment();
+            Stats.incCounter(CACHE_HIT_STATS);
+            return settings;
+        }
+        Stats.incCounter(CACHE_MISS_STATS);
+        settings = parseResult(evaluate(url, host));
+        resultCache.put(key, settings, RESULT_CACHE_TTL);
+        return settings;
+    }
+
+    private static List<Setting> parseResult(String result) throws ScriptException {
         if (result == null || result.isEmpty()) {
             return Collections.emptyList();
         }
@@ -195,7 +346,45 @@ class PacScript {
                 break;
             }
         }
-        return settings;
+        return Collections.unmodifiableList(settings);
+    }
+
+    /**
+     * Gets the number of times the {@code FindProxyForURL} function was called.
+     *
+     * @return the number of evaluations.
+     */
+    long getEvaluationCount() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Gets the number of times the proxy settings were obtained from the cache.
+     *
+     * @return the number of cache hits.
+     */
+    long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Resolves the given host name, using the results of previous lookups that did not yet expire.
+     *
+     * @param hostName the host name.
+     * @return the address, or {@code null} if unknown.
+     */
+    private InetAddress resolve(String hostName) {
+        return dnsCache.computeIfAbsent(
+                        hostName,
+                        k -> {
+                            try {
+                                return Optional.of(InetAddress.getByName(k));
+                            } catch (UnknownHostException e) {
+                                return Optional.empty();
+                            }
+                        },
+                        v -> v.isPresent() ? dnsCacheTtl : dnsCacheNegativeTtl)
+                .orElse(null);
     }
 
     private static Setting createSetting(String value) throws ScriptException {
@@ -522,11 +711,9 @@ class PacScript {
      * @see <a href="http://findproxyforurl.com/netscape-documentation/#dnsResolve">Netscape
      *     documentation</a>
      */
-    private static String dnsResolve(String hostName) {
-        InetAddress address;
-        try {
-            address = InetAddress.getByName(hostName);
-        } catch (UnknownHostException e) {
+    private String dnsResolve(String hostName) {
+        InetAddress address = resolve(hostName);
+        if (address == null) {
             return ""; // Unknown host
         }
 
@@ -554,7 +741,7 @@ class PacScript {
      *     documentation</a>
      * @see PacScript#dnsResolve(String)
      */
-    private static boolean isInNet(String... args) {
+    private boolean isInNet(String... args) {
         String host = extractArg(args, 0);
         String network = extractArg(args, 1);
         String mask = extractArg(args, 2);
@@ -623,14 +810,8 @@ class PacScript {
      * @see <a href="http://findproxyforurl.com/netscape-documentation/#isResolvable">Netscape
      *     documentation</a>
      */
-    private static boolean isResolvable(String hostName) {
-        try {
-            InetAddress.getByName(hostName);
-        } catch (UnknownHostException e) {
-            return false; // Unknown host
-        }
-
-        return true;
+    private boolean isResolvable(String hostName) {
+        return resolve(hostName) != null;
     }
 
     /**
@@ -0,0 +1,127 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.graaljs;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded cache whose entries expire after a time to live.
+ *
+ * <p>Once the maximum number of entries is reached the least recently used entries are removed.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+class TtlCache<K, V> {
+
+    private final Map<K, Entry<V>> entries;
+    private final Clock clock;
+
+    /**
+     * Constructs a {@code TtlCache} with the given maximum number of entries.
+     *
+     * @param maxEntries the maximum number of entries.
+     * @param clock the clock to expire the entries.
+     */
+    TtlCache(int maxEntries, Clock clock) {
+        this.clock = clock;
+        this.entries =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                        return size() > maxEntries;
+                    }
+                };
+    }
+
+    /**
+     * Gets the value of the given key, if not expired.
+     *
+     * @param key the key.
+     * @return the value, or {@code null} if not present or expired.
+     */
+    synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiry <= clock.millis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Puts the given value, replacing any previous value of the key.
+     *
+     * @param key the key.
+     * @param value the value, must not be {@code null}.
+     * @param ttl the time the value is valid.
+     */
+    synchronized void put(K key, V value, Duration ttl) {
+        entries.put(key, new Entry<>(value, clock.millis() + ttl.toMillis()));
+    }
+
+    /**
+     * Gets the value of the given key, computing it if not present or expired.
+     *
+     * <p>The value is computed outside the lock, concurrent calls for the same key might compute it
+     * more than once.
+     *
+     * @param key the key.
+     * @param function the function to compute the value.
+     * @param ttl the function to obtain the time the computed value is valid.
+     * @return the value.
+     */
+    V computeIfAbsent(K key, Function<K, V> function, Function<V, Duration> ttl) {
+        V value = get(key);
+        if (value == null) {
+            value = function.apply(key);
+            put(key, value, ttl.apply(value));
+        }
+        return value;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+        private final long expiry;
+
+        Entry(V value, long expiry) {
+            this.value = value;
+            this.expiry = expiry;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.graaljs;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.oracle.truffle.js.scriptengine.GraalJSScriptEngine;
+import java.util.Collections;
+import org.graalvm.polyglot.Engine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link GraalJsEngineWrapper}. */
+class GraalJsEngineWrapperUnitTest {
+
+    private GraalJsEngineWrapper engineWrapper;
+
+    @BeforeEach
+    void setUp() {
+        engineWrapper =
+                new GraalJsEngineWrapper(
+                        getClass().getClassLoader(), Collections.emptyList(), null);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        engineWrapper.close();
+    }
+
+    @Test
+    void shouldShareThePolyglotEngineBetweenScriptEngines() {
+        // Given / When
+        GraalJSScriptEngine se1 = (GraalJSScriptEngine) engineWrapper.getEngine();
+        GraalJSScriptEngine se2 = (GraalJSScriptEngine) engineWrapper.getEngine();
+        // Then
+        assertThat(se1, is(not(sameInstance(se2))));
+        assertThat(se1.getPolyglotEngine(), is(sameInstance(se2.getPolyglotEngine())));
+    }
+
+    @Test
+    void shouldKeepTheGlobalsOfEachScriptEngineSeparate() throws Exception {
+        // Given
+        GraalJSScriptEngine se1 = (GraalJSScriptEngine) engineWrapper.getEngine();
+        GraalJSScriptEngine se2 = (GraalJSScriptEngine) engineWrapper.getEngine();
+        // When
+        se1.eval("var value = 1;");
+        se2.eval("var value = 2;");
+        // Then
+        assertThat(((Number) se1.eval("value")).intValue(), is(equalTo(1)));
+        assertThat(((Number) se2.eval("value")).intValue(), is(equalTo(2)));
+    }
+
+    @Test
+    void shouldCreateNewPolyglotEngineAfterClose() {
+        // Given
+        Engine engine = engineWrapper.getPolyglotEngine();
+        // When
+        engineWrapper.close();
+        // Then
+        assertThat(engineWrapper.getPolyglotEngine(), is(not(sameInstance(engine))));
+    }
+}
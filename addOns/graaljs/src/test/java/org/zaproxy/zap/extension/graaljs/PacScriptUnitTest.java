@@ -22,6 +22,8 @@ package org.zaproxy.zap.extension.graaljs;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -34,7 +36,11 @@ import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.WeekFields;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.script.ScriptException;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
@@ -509,6 +515,92 @@ class PacScriptUnitTest extends TestUtils {
                 () -> pacScript.findProxyForUrl("http://example.com/", "example.com"));
     }
 
+    @Test
+    void shouldCacheSettingsByHostIfUrlNotUsed() throws Exception {
+        // Given
+        PacScript pacScript = new PacScript(returns("PROXY example.com:80"));
+        // When
+        List<Setting> settings1 = pacScript.findProxyForUrl("http://example.com/a", "example.com");
+        List<Setting> settings2 = pacScript.findProxyForUrl("http://example.com/b", "example.com");
+        List<Setting> settings3 = pacScript.findProxyForUrl("http://example.org/", "example.org");
+        // Then
+        assertThat(settings2, is(sameInstance(settings1)));
+        assertThat(settings3, hasSize(1));
+        assertEquals(2, pacScript.getEvaluationCount());
+        assertEquals(1, pacScript.getCacheHitCount());
+    }
+
+    @Test
+    void shouldCacheSettingsByUrlIfUrlUsed() throws Exception {
+        // Given
+        PacScript pacScript =
+                new PacScript(
+                        "function FindProxyForURL(url, host) { return url.indexOf('/a') != -1"
+                                + " ? 'PROXY example.com:80' : 'DIRECT'; }");
+        // When
+        List<Setting> settings1 = pacScript.findProxyForUrl("http://example.com/a", "example.com");
+        List<Setting> settings2 = pacScript.findProxyForUrl("http://example.com/b", "example.com");
+        List<Setting> settings3 = pacScript.findProxyForUrl("http://example.com/a", "example.com");
+        // Then
+        assertThat(settings1.get(0), hasType(Type.PROXY));
+        assertThat(settings2.get(0), hasType(Type.DIRECT));
+        assertThat(settings3, is(sameInstance(settings1)));
+        assertEquals(2, pacScript.getEvaluationCount());
+    }
+
+    @Test
+    void shouldNotCacheSettingsIfScriptUsesTime() throws Exception {
+        // Given
+        PacScript pacScript =
+                new PacScript(
+                        "function FindProxyForURL(url, host) { return timeRange(0, 24)"
+                                + " ? 'DIRECT' : 'PROXY example.com:80'; }");
+        // When
+        pacScript.findProxyForUrl("http://example.com/", "example.com");
+        pacScript.findProxyForUrl("http://example.com/", "example.com");
+        // Then
+        assertEquals(2, pacScript.getEvaluationCount());
+        assertEquals(0, pacScript.getCacheHitCount());
+    }
+
+    @Test
+    void shouldEvaluateConcurrently() throws Exception {
+        // Given
+        PacScript pacScript =
+                new PacScript(
+                        "function FindProxyForURL(url, host) { return 'PROXY ' + host + ':80'; }");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<Setting>>> results = new ArrayList<>();
+        // When
+        try {
+            for (int i = 0; i < 50; i++) {
+                String host = "host" + i;
+                results.add(
+                        executor.submit(
+                                () -> pacScript.findProxyForUrl("http://" + host + "/", host)));
+            }
+            // Then
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get().get(0), hasHost("host" + i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldKnowIfScriptIsUrlSensitive() {
+        assertEquals(
+                true, PacScript.isUrlSensitive("function FindProxyForURL(u, h) { return u; }"));
+        assertEquals(
+                false, PacScript.isUrlSensitive("function FindProxyForURL(u, h) { return h; }"));
+        assertEquals(
+                false,
+                PacScript.isUrlSensitive(
+                        "function FindProxyForURL(url, host) { var urls = host; return urls; }"));
+        assertEquals(true, PacScript.isUrlSensitive("var FindProxyForURL = function(u, h) {}"));
+    }
+
     private static URL getFileUrl(String fileName) {
         return PacScriptUnitTest.class.getResource(fileName);
     }
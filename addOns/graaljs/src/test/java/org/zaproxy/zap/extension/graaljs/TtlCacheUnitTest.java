@@ -0,0 +1,128 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.graaljs;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link TtlCache}. */
+class TtlCacheUnitTest {
+
+    @Test
+    void shouldGetValueNotExpired() {
+        // Given
+        MutableClock clock = new MutableClock();
+        TtlCache<String, String> cache = new TtlCache<>(10, clock);
+        cache.put("key", "value", Duration.ofSeconds(10));
+        clock.advance(Duration.ofSeconds(9));
+        // When
+        String value = cache.get("key");
+        // Then
+        assertThat(value, is(equalTo("value")));
+    }
+
+    @Test
+    void shouldNotGetValueExpired() {
+        // Given
+        MutableClock clock = new MutableClock();
+        TtlCache<String, String> cache = new TtlCache<>(10, clock);
+        cache.put("key", "value", Duration.ofSeconds(10));
+        clock.advance(Duration.ofSeconds(10));
+        // When
+        String value = cache.get("key");
+        // Then
+        assertThat(value, is(nullValue()));
+        assertThat(cache.size(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldRemoveLeastRecentlyUsedEntriesWhenFull() {
+        // Given
+        TtlCache<String, String> cache = new TtlCache<>(2, new MutableClock());
+        cache.put("key1", "value1", Duration.ofSeconds(10));
+        cache.put("key2", "value2", Duration.ofSeconds(10));
+        cache.get("key1");
+        // When
+        cache.put("key3", "value3", Duration.ofSeconds(10));
+        // Then
+        assertThat(cache.get("key1"), is(equalTo("value1")));
+        assertThat(cache.get("key2"), is(nullValue()));
+        assertThat(cache.get("key3"), is(equalTo("value3")));
+    }
+
+    @Test
+    void shouldComputeValueOnlyIfAbsentOrExpired() {
+        // Given
+        MutableClock clock = new MutableClock();
+        TtlCache<String, String> cache = new TtlCache<>(10, clock);
+        AtomicInteger computations = new AtomicInteger();
+        // When
+        cache.computeIfAbsent(
+                "key", k -> "value" + computations.incrementAndGet(), v -> Duration.ofSeconds(5));
+        String cached =
+                cache.computeIfAbsent(
+                        "key",
+                        k -> "value" + computations.incrementAndGet(),
+                        v -> Duration.ofSeconds(5));
+        clock.advance(Duration.ofSeconds(5));
+        String recomputed =
+                cache.computeIfAbsent(
+                        "key",
+                        k -> "value" + computations.incrementAndGet(),
+                        v -> Duration.ofSeconds(5));
+        // Then
+        assertThat(cached, is(equalTo("value1")));
+        assertThat(recomputed, is(equalTo("value2")));
+        assertThat(computations.get(), is(equalTo(2)));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.ofEpochMilli(1_000_000);
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -102,6 +102,7 @@ public class GraphQlFingerprinter {
             }
         }
         queryCache.clear();
+        requestor.flushListeners();
     }
 
     void sendQuery(String query) {
@@ -41,6 +41,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.apache.commons.lang3.StringUtils;
@@ -52,10 +53,16 @@ import org.zaproxy.zap.model.ValueGenerator;
 public class GraphQlGenerator {
 
     private static final Logger LOGGER = LogManager.getLogger(GraphQlGenerator.class);
+
+    /** The placeholder for the prefix of the variable names in the cached selections. */
+    private static final String VARIABLE_PREFIX = "\0";
+
     private final Requestor requestor;
     private final GraphQlParam param;
     private final GraphQLSchema schema;
     private boolean inlineArgsEnabled;
+    private final Map<String, Selection> selections = new HashMap<>();
+    private final boolean reuseSelections;
 
     public enum RequestType {
         QUERY,
@@ -67,22 +74,44 @@ public class GraphQlGenerator {
 
     public GraphQlGenerator(
             ValueGenerator valueGenerator, String sdl, Requestor requestor, GraphQlParam param) {
+        this(valueGenerator, sdl, requestor, param, true);
+    }
+
+    /**
+     * Constructs a {@code GraphQlGenerator} that reuses or not the selections already generated,
+     * to compare with the selections generated each time.
+     *
+     * @param valueGenerator the generator of the values of the arguments.
+     * @param sdl the schema.
+     * @param requestor the requestor, to send the queries.
+     * @param param the options.
+     * @param reuseSelections {@code true} if the selections should be reused, {@code false}
+     *     otherwise.
+     */
+    GraphQlGenerator(
+            ValueGenerator valueGenerator,
+            String sdl,
+            Requestor requestor,
+            GraphQlParam param,
+            boolean reuseSelections) {
         this.valueGenerator = valueGenerator;
         schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(new SchemaParser().parse(sdl));
         this.requestor = requestor;
         this.param = param;
+        this.reuseSelections = reuseSelections;
     }
 
     /** Send three requests to check which service methods are available. */
     public void checkServiceMethods() {
         String query = "{__schema{types{name kind description}}}";
-        requestor.sendQuery(query, RequestMethodOption.GET);
-        requestor.sendQuery(query, RequestMethodOption.POST_JSON);
-        requestor.sendQuery(query, RequestMethodOption.POST_GRAPHQL);
+        requestor.queueQuery(query, RequestMethodOption.GET);
+        requestor.queueQuery(query, RequestMethodOption.POST_JSON);
+        requestor.queueQuery(query, RequestMethodOption.POST_GRAPHQL);
     }
 
     /** Generates and sends graphql requests based on user set parameters. */
     public void generateAndSend() {
+        selections.clear();
         switch (param.getArgsType()) {
             case INLINE:
                 inlineArgsEnabled = true;
@@ -112,6 +141,7 @@ public class GraphQlGenerator {
     public String generate(RequestType requestType) {
         try {
             inlineArgsEnabled = true;
+            selections.clear();
             StringBuilder query = new StringBuilder();
             generate(query, null, getRequestTypeObject(requestType), 0);
             prefixRequestType(query, requestType);
@@ -131,6 +161,7 @@ public class GraphQlGenerator {
     public String[] generateWithVariables(RequestType requestType) {
         try {
             inlineArgsEnabled = false;
+            selections.clear();
             StringBuilder query = new StringBuilder();
             JSONObject variables = new JSONObject();
             generate(query, variables, getRequestTypeObject(requestType), 0);
@@ -168,7 +199,7 @@ public class GraphQlGenerator {
             JSONObject variables = new JSONObject();
             generate(query, variables, getRequestTypeObject(requestType), 0);
             prefixRequestType(query, requestType);
-            requestor.sendQuery(query.toString(), variables.toString(), param.getRequestMethod());
+            requestor.queueQuery(query.toString(), variables.toString(), param.getRequestMethod());
         } catch (InterruptedException e) {
             // Do nothing.
         }
@@ -193,6 +224,9 @@ public class GraphQlGenerator {
 
     private void sendByField(RequestType requestType) {
         GraphQLObjectType object = getRequestTypeObject(requestType);
+        if (object == null) {
+            return;
+        }
         List<GraphQLFieldDefinition> fields = object.getFieldDefinitions();
         for (GraphQLFieldDefinition field : fields) {
             StringBuilder query = new StringBuilder();
@@ -210,7 +244,7 @@ public class GraphQlGenerator {
             }
             query.append('}');
             prefixRequestType(query, requestType);
-            requestor.sendQuery(query.toString(), variables.toString(), param.getRequestMethod());
+            requestor.queueQuery(query.toString(), variables.toString(), param.getRequestMethod());
         }
     }
 
@@ -267,13 +301,80 @@ public class GraphQlGenerator {
             Requestor requestor,
             RequestType requestType)
             throws InterruptedException {
+        generate(query, variables, variableName, type, depth, requestor, requestType, null);
+    }
+
+    /**
+     * Generates a GraphQL query recursively, reusing the selections already generated when not
+     * sending by leaf.
+     *
+     * @param selection the selection being generated, to declare the variables in, or {@code null}
+     *     if generating directly in the query.
+     */
+    private void generate(
+            StringBuilder query,
+            JSONObject variables,
+            StringBuilder variableName,
+            GraphQLType type,
+            int depth,
+            Requestor requestor,
+            RequestType requestType,
+            Selection selection)
+            throws InterruptedException {
+        if (reuseSelections && requestor == null && type instanceof GraphQLNamedType) {
+            getSelection((GraphQLNamedType) type, depth)
+                    .appendTo(query, variables, variableName.toString(), selection);
+            return;
+        }
+        generateSelection(
+                query, variables, variableName, type, depth, requestor, requestType, selection);
+    }
+
+    /**
+     * Gets the selection of the given type at the given depth, generating it if not yet generated.
+     *
+     * <p>The selection depends only on the type, the depth, and the arguments mode, so it's
+     * generated once per type and depth, no matter how many times the type is reached (e.g. in
+     * cyclic relationships).
+     */
+    private Selection getSelection(GraphQLNamedType type, int depth) throws InterruptedException {
+        String key = type.getName() + '|' + depth + '|' + inlineArgsEnabled;
+        Selection selection = selections.get(key);
+        if (selection == null) {
+            selection = new Selection();
+            StringBuilder text = new StringBuilder();
+            generateSelection(
+                    text,
+                    selection.variables,
+                    new StringBuilder(VARIABLE_PREFIX),
+                    type,
+                    depth,
+                    null,
+                    RequestType.QUERY,
+                    selection);
+            selection.text = text.toString();
+            selections.put(key, selection);
+        }
+        return selection;
+    }
+
+    private void generateSelection(
+            StringBuilder query,
+            JSONObject variables,
+            StringBuilder variableName,
+            GraphQLType type,
+            int depth,
+            Requestor requestor,
+            RequestType requestType,
+            Selection selection)
+            throws InterruptedException {
         if (depth >= param.getMaxQueryDepth()) {
             if (param.getLenientMaxQueryDepthEnabled()) {
                 query.append(getFirstLeafQuery(type, variables, variableName));
                 if (requestor != null) {
                     query.append(StringUtils.repeat("} ", depth));
                     prefixRequestType(query, requestType);
-                    requestor.sendQuery(
+                    requestor.queueQuery(
                             query.toString(), variables.toString(), param.getRequestMethod());
                 }
             } else if (getFirstLeafField(type) == null) {
@@ -301,18 +402,18 @@ public class GraphQlGenerator {
                 if (GraphQLTypeUtil.isLeaf(fieldType)) {
                     query.append(field.getName()).append(' ');
                     variableName.append(field.getName()).append('_');
-                    addArguments(query, variables, variableName, field);
+                    addArguments(query, variables, variableName, field, selection);
                     variableName.setLength(variableName.length() - field.getName().length() - 1);
                     if (requestor != null) {
                         query.append("} ".repeat(depth + 1));
                         prefixRequestType(query, requestType);
-                        requestor.sendQuery(
+                        requestor.queueQuery(
                                 query.toString(), variables.toString(), param.getRequestMethod());
                     }
                 } else {
                     query.append(field.getName()).append(' ');
                     variableName.append(field.getName()).append('_');
-                    addArguments(query, variables, variableName, field);
+                    addArguments(query, variables, variableName, field, selection);
                     generate(
                             query,
                             variables,
@@ -320,7 +421,8 @@ public class GraphQlGenerator {
                             fieldType,
                             depth + 1,
                             requestor,
-                            requestType);
+                            requestType,
+                            selection);
                     variableName.setLength(variableName.length() - field.getName().length() - 1);
                 }
                 if (requestor != null) {
@@ -334,7 +436,15 @@ public class GraphQlGenerator {
             query.append("{ ");
             for (GraphQLObjectType object : objects) {
                 query.append("... on ").append(object.getName()).append(' ');
-                generate(query, variables, variableName, object, depth + 1, requestor, requestType);
+                generate(
+                        query,
+                        variables,
+                        variableName,
+                        object,
+                        depth + 1,
+                        requestor,
+                        requestType,
+                        selection);
             }
             query.append("} ");
         } else if (type instanceof GraphQLUnionType) {
@@ -343,7 +453,15 @@ public class GraphQlGenerator {
             query.append("{ ");
             for (GraphQLNamedOutputType member : members) {
                 query.append("... on ").append(member.getName()).append(' ');
-                generate(query, variables, variableName, member, depth + 1, requestor, requestType);
+                generate(
+                        query,
+                        variables,
+                        variableName,
+                        member,
+                        depth + 1,
+                        requestor,
+                        requestType,
+                        selection);
             }
             query.append("} ");
         }
@@ -500,6 +618,15 @@ public class GraphQlGenerator {
             JSONObject variables,
             StringBuilder variableName,
             GraphQLFieldDefinition field) {
+        addArguments(query, variables, variableName, field, null);
+    }
+
+    private void addArguments(
+            StringBuilder query,
+            JSONObject variables,
+            StringBuilder variableName,
+            GraphQLFieldDefinition field,
+            Selection selection) {
         List<GraphQLArgument> args = field.getArguments();
         if (args != null && !args.isEmpty()) {
             query.append('(');
@@ -528,10 +655,10 @@ public class GraphQlGenerator {
                             var_type = namedType.getName();
                         }
                         if (var_type != null && !var_type.isEmpty()) {
-                            if (query.toString().startsWith("(")) {
-                                query.insert(1, '$' + var_name + ": " + var_type + ", ");
+                            if (selection != null) {
+                                selection.declarations.add(new String[] {var_name, var_type});
                             } else {
-                                query.insert(0, "($" + var_name + ": " + var_type + ") ");
+                                declareVariable(query, var_name, var_type);
                             }
                         }
 
@@ -552,6 +679,14 @@ public class GraphQlGenerator {
         }
     }
 
+    private static void declareVariable(StringBuilder query, String name, String type) {
+        if (query.length() > 0 && query.charAt(0) == '(') {
+            query.insert(1, '$' + name + ": " + type + ", ");
+        } else {
+            query.insert(0, "($" + name + ": " + type + ") ");
+        }
+    }
+
     private Object getDefaultValue(
             String argName, GraphQLType type, int depth, boolean quoteStrings) {
         if (depth > param.getMaxArgsDepth()) return null;
@@ -649,4 +784,43 @@ public class GraphQlGenerator {
             return null;
         }
     }
+
+    /**
+     * A selection generated for a type at a depth. The names of its variables start with {@link
+     * #VARIABLE_PREFIX}, replaced with the actual prefix when appended.
+     */
+    private static class Selection {
+
+        private String text;
+        private final List<String[]> declarations = new ArrayList<>();
+        private final JSONObject variables = new JSONObject();
+
+        /**
+         * Appends the selection to the given query.
+         *
+         * @param query the query to append to.
+         * @param variables the variables of the query, might be {@code null}.
+         * @param prefix the prefix of the variable names.
+         * @param parent the selection being generated, to declare the variables in, or {@code null}
+         *     if appending directly to the query.
+         */
+        void appendTo(StringBuilder query, JSONObject variables, String prefix, Selection parent) {
+            for (String[] declaration : declarations) {
+                String name = declaration[0].replace(VARIABLE_PREFIX, prefix);
+                if (parent != null) {
+                    parent.declarations.add(new String[] {name, declaration[1]});
+                } else {
+                    declareVariable(query, name, declaration[1]);
+                }
+            }
+            query.append(text.replace(VARIABLE_PREFIX, prefix));
+            if (variables != null) {
+                for (Object name : this.variables.keySet()) {
+                    variables.put(
+                            ((String) name).replace(VARIABLE_PREFIX, prefix),
+                            this.variables.get(name));
+                }
+            }
+        }
+    }
 }
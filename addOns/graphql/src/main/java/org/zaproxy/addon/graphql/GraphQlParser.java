@@ -98,6 +98,7 @@ public class GraphQlParser {
         HttpMessage importMessage =
                 requestor.sendQuery(
                         INTROSPECTION_QUERY, GraphQlParam.RequestMethodOption.POST_JSON);
+        requestor.flushListeners();
         if (importMessage == null) {
             throw new IOException(Constant.messages.getString("graphql.error.introspection"));
         }
@@ -133,7 +134,11 @@ public class GraphQlParser {
 
     public void importUrl(URI schemaUrl) throws IOException {
         HttpMessage importMessage = new HttpMessage(schemaUrl);
-        requestor.send(importMessage);
+        try {
+            requestor.send(importMessage);
+        } finally {
+            requestor.flushListeners();
+        }
         parse(importMessage.getResponseBody().toString());
     }
 
@@ -184,8 +189,14 @@ public class GraphQlParser {
                             extensionGraphQl.getValueGenerator(), schema, requestor, param);
             generator.checkServiceMethods();
             generator.generateAndSend();
+            if (Thread.currentThread() instanceof ParserThread
+                    && !((ParserThread) Thread.currentThread()).isRunning()) {
+                requestor.cancelQueued();
+            }
         } catch (Exception e) {
             LOGGER.error(e.getMessage(), e);
+        } finally {
+            requestor.awaitCompletion();
         }
     }
 
@@ -21,50 +21,39 @@ package org.zaproxy.addon.graphql;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.parosproxy.paros.control.Control;
-import org.parosproxy.paros.extension.history.ExtensionHistory;
 import org.parosproxy.paros.model.HistoryReference;
-import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpSender;
-import org.zaproxy.zap.utils.ThreadUtils;
+import org.zaproxy.addon.commonlib.http.HistoryBatchPersister;
 
+/**
+ * Persists the messages sent, and adds them to the History tab and Sites tree.
+ *
+ * <p>The messages are added to the History tab and Sites tree in batches, the messages pending are
+ * added when {@link #flush() flushed}.
+ */
 public class HistoryPersister implements RequesterListener {
 
     private static final Logger LOGGER = LogManager.getLogger(ExtensionGraphQl.class);
 
+    private final HistoryBatchPersister persister = new HistoryBatchPersister();
+
     @Override
     public void handleMessage(final HttpMessage message, int initiator) {
         // Add the message to the history panel and sites tree
-        final HistoryReference historyRef;
-
         try {
-            historyRef =
-                    new HistoryReference(
-                            Model.getSingleton().getSession(),
-                            initiator == HttpSender.SPIDER_INITIATOR
-                                    ? HistoryReference.TYPE_SPIDER
-                                    : HistoryReference.TYPE_ZAP_USER,
-                            message);
+            persister.persist(
+                    message,
+                    initiator == HttpSender.SPIDER_INITIATOR
+                            ? HistoryReference.TYPE_SPIDER
+                            : HistoryReference.TYPE_ZAP_USER);
         } catch (Exception e) {
             LOGGER.error(e.getMessage(), e);
-            return;
         }
+    }
 
-        final ExtensionHistory extHistory =
-                Control.getSingleton().getExtensionLoader().getExtension(ExtensionHistory.class);
-        try {
-            ThreadUtils.invokeAndWait(
-                    () -> {
-                        extHistory.addHistory(historyRef);
-                        Model.getSingleton()
-                                .getSession()
-                                .getSiteTree()
-                                .addPath(historyRef, message);
-                    });
-        } catch (Exception e) {
-            LOGGER.error("Could not add message to sites tree.", e);
-            return;
-        }
+    @Override
+    public void flush() {
+        persister.flush();
     }
 }
@@ -24,6 +24,7 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import net.sf.json.JSONObject;
 import org.apache.commons.httpclient.URI;
 import org.apache.logging.log4j.LogManager;
@@ -32,6 +33,7 @@ import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpRequestHeader;
 import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.addon.commonlib.http.RequestDispatcher;
 import org.zaproxy.zap.network.HttpRedirectionValidator;
 import org.zaproxy.zap.network.HttpRequestBody;
 import org.zaproxy.zap.network.HttpRequestConfig;
@@ -43,6 +45,7 @@ public class Requestor {
     private List<RequesterListener> listeners = new ArrayList<>();
     private HttpSender sender;
     private final HttpRequestConfig requestConfig;
+    private RequestDispatcher dispatcher;
     private static final Logger LOGGER = LogManager.getLogger(Requestor.class);
     private static final String GRAPHQL_CONTENT_TYPE = "application/graphql";
 
@@ -54,45 +57,77 @@ public class Requestor {
                 HttpRequestConfig.builder().setRedirectionValidator(new MessageHandler()).build();
     }
 
-    private HttpMessage sendQueryByGet(String query, String variables) {
-        try {
-            String updatedEndpointUrl =
-                    endpointUrl
-                            + "?query="
-                            + URLEncoder.encode(query, StandardCharsets.UTF_8.toString());
-            if (!variables.isEmpty()) {
-                updatedEndpointUrl +=
-                        "?variables="
-                                + URLEncoder.encode(variables, StandardCharsets.UTF_8.toString());
-            }
+    private HttpMessage createQueryByGet(String query, String variables) throws IOException {
+        String updatedEndpointUrl =
+                endpointUrl
+                        + "?query="
+                        + URLEncoder.encode(query, StandardCharsets.UTF_8.toString());
+        if (!variables.isEmpty()) {
+            updatedEndpointUrl +=
+                    "?variables=" + URLEncoder.encode(variables, StandardCharsets.UTF_8.toString());
+        }
 
-            URI url = UrlBuilder.build(updatedEndpointUrl);
-            HttpMessage message = new HttpMessage(url);
-            send(message);
-            return message;
-        } catch (IOException e) {
-            LOGGER.warn(e.getMessage());
+        URI url = UrlBuilder.build(updatedEndpointUrl);
+        return new HttpMessage(url);
+    }
+
+    private HttpMessage createQueryByGraphQlPost(String query, String variables)
+            throws IOException {
+        String updatedEndpointUrl = endpointUrl.toString();
+        if (!variables.isEmpty()) {
+            updatedEndpointUrl +=
+                    "?variables=" + URLEncoder.encode(variables, StandardCharsets.UTF_8.toString());
         }
-        return null;
+        URI url = UrlBuilder.build(updatedEndpointUrl);
+        HttpRequestBody msgBody = new HttpRequestBody(query);
+        HttpRequestHeader msgHeader =
+                new HttpRequestHeader(HttpRequestHeader.POST, url, HttpHeader.HTTP11);
+        msgHeader.setHeader("Accept", HttpHeader.JSON_CONTENT_TYPE);
+        msgHeader.setHeader(HttpHeader.CONTENT_TYPE, GRAPHQL_CONTENT_TYPE);
+        msgHeader.setContentLength(msgBody.length());
+
+        return new HttpMessage(msgHeader, msgBody);
+    }
+
+    private HttpMessage createQueryByJsonPost(String query, String variables) throws IOException {
+        JSONObject msgBodyJson = new JSONObject();
+        msgBodyJson.put("query", query);
+        if (!variables.isEmpty()) {
+            msgBodyJson.put("variables", variables);
+        }
+        HttpRequestBody msgBody = new HttpRequestBody(msgBodyJson.toString());
+
+        HttpRequestHeader msgHeader =
+                new HttpRequestHeader(HttpRequestHeader.POST, endpointUrl, HttpHeader.HTTP11);
+        msgHeader.setHeader("Accept", HttpHeader.JSON_CONTENT_TYPE);
+        msgHeader.setHeader(HttpHeader.CONTENT_TYPE, HttpHeader.JSON_CONTENT_TYPE);
+        msgHeader.setContentLength(msgBody.length());
+
+        return new HttpMessage(msgHeader, msgBody);
     }
 
-    private HttpMessage sendQueryByGraphQlPost(String query, String variables) {
+    private HttpMessage createQuery(
+            String query, String variables, GraphQlParam.RequestMethodOption method)
+            throws IOException {
+        switch (method) {
+            case GET:
+                return createQueryByGet(query, variables);
+            case POST_GRAPHQL:
+                return createQueryByGraphQlPost(query, variables);
+            case POST_JSON:
+            default:
+                return createQueryByJsonPost(query, variables);
+        }
+    }
+
+    public HttpMessage sendQuery(String query, GraphQlParam.RequestMethodOption method) {
+        return sendQuery(query, "", method);
+    }
+
+    public HttpMessage sendQuery(
+            String query, String variables, GraphQlParam.RequestMethodOption method) {
         try {
-            String updatedEndpointUrl = endpointUrl.toString();
-            if (!variables.isEmpty()) {
-                updatedEndpointUrl +=
-                        "?variables="
-                                + URLEncoder.encode(variables, StandardCharsets.UTF_8.toString());
-            }
-            URI url = UrlBuilder.build(updatedEndpointUrl);
-            HttpRequestBody msgBody = new HttpRequestBody(query);
-            HttpRequestHeader msgHeader =
-                    new HttpRequestHeader(HttpRequestHeader.POST, url, HttpHeader.HTTP11);
-            msgHeader.setHeader("Accept", HttpHeader.JSON_CONTENT_TYPE);
-            msgHeader.setHeader(HttpHeader.CONTENT_TYPE, GRAPHQL_CONTENT_TYPE);
-            msgHeader.setContentLength(msgBody.length());
-
-            HttpMessage message = new HttpMessage(msgHeader, msgBody);
+            HttpMessage message = createQuery(query, variables, method);
             send(message);
             return message;
         } catch (IOException e) {
@@ -101,51 +136,101 @@ public class Requestor {
         return null;
     }
 
-    private HttpMessage sendQueryByJsonPost(String query, String variables) {
-        try {
-            JSONObject msgBodyJson = new JSONObject();
-            msgBodyJson.put("query", query);
-            if (!variables.isEmpty()) {
-                msgBodyJson.put("variables", variables);
-            }
-            HttpRequestBody msgBody = new HttpRequestBody(msgBodyJson.toString());
-
-            HttpRequestHeader msgHeader =
-                    new HttpRequestHeader(HttpRequestHeader.POST, endpointUrl, HttpHeader.HTTP11);
-            msgHeader.setHeader("Accept", HttpHeader.JSON_CONTENT_TYPE);
-            msgHeader.setHeader(HttpHeader.CONTENT_TYPE, HttpHeader.JSON_CONTENT_TYPE);
-            msgHeader.setContentLength(msgBody.length());
+    /**
+     * Queues the given query to be sent, concurrently with other queued queries.
+     *
+     * @param query the query.
+     * @param method the request method.
+     * @see #awaitCompletion()
+     */
+    public void queueQuery(String query, GraphQlParam.RequestMethodOption method) {
+        queueQuery(query, "", method);
+    }
 
-            HttpMessage message = new HttpMessage(msgHeader, msgBody);
-            send(message);
-            return message;
+    /**
+     * Queues the given query to be sent, concurrently with other queued queries.
+     *
+     * @param query the query.
+     * @param variables the variables of the query.
+     * @param method the request method.
+     * @see #awaitCompletion()
+     */
+    public void queueQuery(
+            String query, String variables, GraphQlParam.RequestMethodOption method) {
+        HttpMessage message;
+        try {
+            message = createQuery(query, variables, method);
         } catch (IOException e) {
-            LOGGER.warn(e.getMessage(), e);
+            LOGGER.warn(e.getMessage());
+            return;
         }
-        return null;
+        getDispatcher()
+                .send(message)
+                .whenComplete(
+                        (msg, e) -> {
+                            if (e != null && !(e instanceof CancellationException)) {
+                                LOGGER.warn(e.getMessage());
+                            }
+                        });
     }
 
-    public HttpMessage sendQuery(String query, GraphQlParam.RequestMethodOption method) {
-        return sendQuery(query, "", method);
+    private synchronized RequestDispatcher getDispatcher() {
+        if (dispatcher == null) {
+            dispatcher = new RequestDispatcher(sender, requestConfig);
+        }
+        return dispatcher;
     }
 
-    public HttpMessage sendQuery(
-            String query, String variables, GraphQlParam.RequestMethodOption method) {
-        switch (method) {
-            case GET:
-                return sendQueryByGet(query, variables);
-            case POST_GRAPHQL:
-                return sendQueryByGraphQlPost(query, variables);
-            case POST_JSON:
-            default:
-                return sendQueryByJsonPost(query, variables);
+    /**
+     * Waits for the queued queries to be sent and flushes the listeners. The threads used to send
+     * the queries are released.
+     */
+    public void awaitCompletion() {
+        RequestDispatcher currentDispatcher;
+        synchronized (this) {
+            currentDispatcher = dispatcher;
+            dispatcher = null;
+        }
+        if (currentDispatcher != null) {
+            currentDispatcher.awaitCompletion();
+            currentDispatcher.close();
         }
+        flushListeners();
     }
 
+    /** Cancels the queued queries that were not yet sent. */
+    public synchronized void cancelQueued() {
+        if (dispatcher != null) {
+            dispatcher.cancelPending();
+        }
+    }
+
+    /**
+     * Sends the given message.
+     *
+     * <p>The listeners are notified of the message but not flushed, that should be done once all
+     * the messages are sent.
+     *
+     * @param message the message to send.
+     * @throws IOException if an error occurred while sending the message.
+     * @see #flushListeners()
+     * @see #awaitCompletion()
+     */
     public void send(HttpMessage message) throws IOException {
         sender.sendAndReceive(message, requestConfig);
     }
 
+    /** Flushes the listeners, for example, to add the messages sent to the History tab. */
+    void flushListeners() {
+        for (RequesterListener listener : listeners) {
+            try {
+                listener.flush();
+            } catch (Exception e) {
+                LOGGER.warn(e.getMessage(), e);
+            }
+        }
+    }
+
     public void addListener(RequesterListener listener) {
         this.listeners.add(listener);
     }
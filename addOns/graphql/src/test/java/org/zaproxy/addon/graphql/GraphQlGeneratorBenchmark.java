@@ -0,0 +1,107 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.graphql;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.zaproxy.addon.graphql.GraphQlParam.ArgsTypeOption;
+import org.zaproxy.addon.graphql.GraphQlParam.QuerySplitOption;
+import org.zaproxy.addon.graphql.GraphQlParam.RequestMethodOption;
+import org.zaproxy.zap.model.ValueGenerator;
+import org.zaproxy.zap.testutils.TestUtils;
+
+/**
+ * Benchmark of the {@link GraphQlGenerator} with a large cyclic schema, reusing the selections and
+ * not.
+ *
+ * <p>Not run with the unit tests, run with the {@code benchmark} task. The timings are printed, not
+ * asserted, they depend on the machine.
+ */
+@Tag("benchmark")
+class GraphQlGeneratorBenchmark extends TestUtils {
+
+    private static final int TYPE_COUNT = 200;
+    private static final int RUNS = 3;
+
+    private ValueGenerator valueGenerator;
+    private GraphQlParam param;
+
+    @BeforeEach
+    void setup() throws Exception {
+        setUpZap();
+        valueGenerator = mock(ValueGenerator.class);
+        param =
+                new GraphQlParam(
+                        true,
+                        5,
+                        true,
+                        5,
+                        5,
+                        true,
+                        ArgsTypeOption.BOTH,
+                        QuerySplitOption.ROOT_FIELD,
+                        RequestMethodOption.POST_JSON);
+    }
+
+    @Test
+    void largeCyclicSchema() {
+        String sdl = createCyclicSchema();
+        for (boolean reuseSelections : new boolean[] {true, false}) {
+            for (int i = 0; i < RUNS; i++) {
+                Requestor requestor = mock(Requestor.class);
+                GraphQlGenerator generator =
+                        new GraphQlGenerator(
+                                valueGenerator, sdl, requestor, param, reuseSelections);
+                long start = System.nanoTime();
+                generator.generateAndSend();
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                System.out.printf(
+                        "%d types, reuse selections %s, run %d: %d ms, %d queries%n",
+                        TYPE_COUNT,
+                        reuseSelections,
+                        i + 1,
+                        elapsed,
+                        mockingDetails(requestor).getInvocations().size());
+            }
+        }
+    }
+
+    private static String createCyclicSchema() {
+        StringBuilder sdl = new StringBuilder("type Query {");
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            sdl.append(" t").append(i).append("(id: ID): T").append(i);
+        }
+        sdl.append(" }\n");
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            sdl.append("type T").append(i).append(" { id: ID name(filter: String): String");
+            for (int j = 1; j <= 4; j++) {
+                sdl.append(" next").append(j).append("(first: Int): T");
+                sdl.append((i + j) % TYPE_COUNT);
+            }
+            sdl.append(" }\n");
+        }
+        return sdl.toString();
+    }
+}
@@ -19,14 +19,27 @@
  */
 package org.zaproxy.addon.graphql;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.SchemaParser;
 import graphql.schema.idl.UnExecutableSchemaGenerator;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.zaproxy.addon.graphql.GraphQlParam.ArgsTypeOption;
+import org.zaproxy.addon.graphql.GraphQlParam.QuerySplitOption;
+import org.zaproxy.addon.graphql.GraphQlParam.RequestMethodOption;
 import org.zaproxy.zap.model.ValueGenerator;
 import org.zaproxy.zap.testutils.TestUtils;
 
@@ -393,4 +406,73 @@ class GraphQlGeneratorUnitTest extends TestUtils {
         String expectedQuery = "{ jellyBean { count } } ";
         assertEquals(expectedQuery, query);
     }
+
+    @Test
+    void sameTypeInDifferentPathsWithVariables() {
+        // Given
+        String sdl =
+                "type Query { a: Node b: Node }\n"
+                        + "type Node { child(id: ID): Leaf }\n"
+                        + "type Leaf { x: Int }";
+        generator = createGraphQlGenerator(sdl);
+        // When
+        String[] request = generator.generateWithVariables(GraphQlGenerator.RequestType.QUERY);
+        // Then
+        String expectedQuery =
+                "query ($b_child_id: ID, $a_child_id: ID) "
+                        + "{ a { child (id: $a_child_id) { x } } b { child (id: $b_child_id) { x } } } ";
+        String expectedVariables = "{\"a_child_id\":1,\"b_child_id\":1}";
+        assertEquals(expectedQuery, request[0]);
+        assertEquals(expectedVariables, request[1]);
+    }
+
+    @Test
+    void shouldGenerateSameQueriesWhenReusingSelectionsOfCyclicSchema() {
+        // Given
+        int typeCount = 10;
+        StringBuilder sdl = new StringBuilder("type Query {");
+        for (int i = 0; i < typeCount; i++) {
+            sdl.append(" t").append(i).append("(id: ID): T").append(i);
+        }
+        sdl.append(" }\n");
+        for (int i = 0; i < typeCount; i++) {
+            sdl.append("type T").append(i).append(" { id: ID name(filter: String): String");
+            for (int j = 1; j <= 3; j++) {
+                sdl.append(" next").append(j).append("(first: Int): T");
+                sdl.append((i + j) % typeCount);
+            }
+            sdl.append(" }\n");
+        }
+        param =
+                new GraphQlParam(
+                        true,
+                        4,
+                        true,
+                        5,
+                        5,
+                        true,
+                        ArgsTypeOption.BOTH,
+                        QuerySplitOption.ROOT_FIELD,
+                        RequestMethodOption.POST_JSON);
+        // When
+        List<String> reused = generateAndSendQueries(sdl.toString(), true);
+        List<String> notReused = generateAndSendQueries(sdl.toString(), false);
+        // Then
+        assertThat(reused, hasSize(typeCount * 2));
+        assertThat(reused, is(equalTo(notReused)));
+    }
+
+    private List<String> generateAndSendQueries(String sdl, boolean reuseSelections) {
+        Requestor requestor = mock(Requestor.class);
+        generator = new GraphQlGenerator(valueGenerator, sdl, requestor, param, reuseSelections);
+        generator.generateAndSend();
+        ArgumentCaptor<String> queries = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> variables = ArgumentCaptor.forClass(String.class);
+        verify(requestor, atLeastOnce()).queueQuery(queries.capture(), variables.capture(), any());
+        List<String> requests = new ArrayList<>();
+        for (int i = 0; i < queries.getAllValues().size(); i++) {
+            requests.add(queries.getAllValues().get(i) + " " + variables.getAllValues().get(i));
+        }
+        return requests;
+    }
 }
@@ -21,46 +21,42 @@ package org.zaproxy.zap.extension.openapi;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.parosproxy.paros.control.Control;
-import org.parosproxy.paros.extension.history.ExtensionHistory;
 import org.parosproxy.paros.model.HistoryReference;
-import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.addon.commonlib.http.HistoryBatchPersister;
 import org.zaproxy.zap.extension.openapi.network.RequesterListener;
 import org.zaproxy.zap.utils.Stats;
-import org.zaproxy.zap.utils.ThreadUtils;
 
+/**
+ * Persists the messages sent, and adds them to the History tab and Sites tree.
+ *
+ * <p>The messages are added to the History tab and Sites tree in batches, the messages pending are
+ * added when {@link #flush() flushed}.
+ */
 public class HistoryPersister implements RequesterListener {
 
     private static final Logger LOGGER = LogManager.getLogger(HistoryPersister.class);
 
-    private final ExtensionHistory extHistory;
+    private final HistoryBatchPersister persister = new HistoryBatchPersister();
 
     private OpenApiResults results;
 
-    public HistoryPersister() {
-        this.extHistory =
-                Control.getSingleton().getExtensionLoader().getExtension(ExtensionHistory.class);
-    }
+    public HistoryPersister() {}
 
     public HistoryPersister(OpenApiResults results) {
-        this();
         this.results = results;
     }
 
     @Override
     public void handleMessage(final HttpMessage message, int initiator) {
-        HistoryReference historyRef;
-
         try {
-            historyRef =
-                    new HistoryReference(
-                            Model.getSingleton().getSession(),
+            HistoryReference historyRef =
+                    persister.persist(
+                            message,
                             initiator == HttpSender.SPIDER_INITIATOR
                                     ? HistoryReference.TYPE_SPIDER
-                                    : HistoryReference.TYPE_ZAP_USER,
-                            message);
+                                    : HistoryReference.TYPE_ZAP_USER);
 
             if (results != null) {
                 results.addHistoryReference(historyRef);
@@ -68,15 +64,11 @@ public class HistoryPersister implements RequesterListener {
             Stats.incCounter(ExtensionOpenApi.URL_ADDED_STATS);
         } catch (Exception e) {
             LOGGER.warn("Failed to persist the message: {}", e.getMessage(), e);
-            return;
         }
+    }
 
-        ThreadUtils.invokeAndWaitHandled(
-                () -> {
-                    if (extHistory != null) {
-                        extHistory.addHistory(historyRef);
-                    }
-                    Model.getSingleton().getSession().getSiteTree().addPath(historyRef, message);
-                });
+    @Override
+    public void flush() {
+        persister.flush();
     }
 }
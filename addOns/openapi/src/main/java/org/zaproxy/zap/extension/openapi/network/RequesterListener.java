@@ -24,4 +24,12 @@ import org.parosproxy.paros.network.HttpMessage;
 public interface RequesterListener {
 
     void handleMessage(HttpMessage message, int initiator);
+
+    /**
+     * Called once the requests were sent, to handle the messages the listener might still have
+     * pending.
+     *
+     * <p>By default does nothing.
+     */
+    default void flush() {}
 }
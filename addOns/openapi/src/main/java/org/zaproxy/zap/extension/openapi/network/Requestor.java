@@ -22,6 +22,8 @@ package org.zaproxy.zap.extension.openapi.network;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.apache.commons.httpclient.URI;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -29,6 +31,7 @@ import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.network.HttpHeaderField;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.addon.commonlib.http.RequestDispatcher;
 import org.zaproxy.zap.network.HttpRedirectionValidator;
 import org.zaproxy.zap.network.HttpRequestConfig;
 
@@ -47,41 +50,63 @@ public class Requestor {
                 HttpRequestConfig.builder().setRedirectionValidator(new MessageHandler()).build();
     }
 
+    /**
+     * Sends the requests of the given models, concurrently.
+     *
+     * @param requestsModel the models of the requests.
+     * @return the errors that occurred while sending the requests, never {@code null}.
+     */
     public List<String> run(List<RequestModel> requestsModel) {
         List<String> errors = new ArrayList<>();
-        try {
-            for (RequestModel requestModel : requestsModel) {
-                String url = requestModel.getUrl();
-                HttpMessage httpRequest = new HttpMessage(new URI(url, false));
-                httpRequest.getRequestHeader().setMethod(requestModel.getMethod().name());
-                for (HttpHeaderField hhf : requestModel.getHeaders()) {
-                    httpRequest.getRequestHeader().setHeader(hhf.getName(), hhf.getValue());
+        List<String> urls = new ArrayList<>(requestsModel.size());
+        List<CompletableFuture<HttpMessage>> requests = new ArrayList<>(requestsModel.size());
+        String buildError = null;
+        try (RequestDispatcher dispatcher = new RequestDispatcher(sender, requestConfig)) {
+            try {
+                for (RequestModel requestModel : requestsModel) {
+                    HttpMessage httpRequest = createMessage(requestModel);
+                    urls.add(requestModel.getUrl());
+                    requests.add(dispatcher.send(httpRequest));
                 }
-                httpRequest.getRequestBody().setBody(requestModel.getBody());
-                httpRequest
-                        .getRequestHeader()
-                        .setContentLength(httpRequest.getRequestBody().length());
-
-                try {
+            } catch (IOException e) {
+                buildError = e.getMessage();
+                LOGGER.error(e.getMessage(), e);
+            }
+            dispatcher.awaitCompletion();
+        }
 
-                    sender.sendAndReceive(httpRequest, requestConfig);
-                } catch (IOException e) {
-                    errors.add(
-                            Constant.messages.getString(
-                                    "openapi.import.error",
-                                    url,
-                                    e.getClass().getName(),
-                                    e.getMessage()));
-                    LOGGER.debug(e.getMessage(), e);
-                }
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                requests.get(i).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                errors.add(
+                        Constant.messages.getString(
+                                "openapi.import.error",
+                                urls.get(i),
+                                cause.getClass().getName(),
+                                cause.getMessage()));
+                LOGGER.debug(cause.getMessage(), cause);
             }
-        } catch (IOException e) {
-            errors.add(e.getMessage());
-            LOGGER.error(e.getMessage(), e);
         }
+        if (buildError != null) {
+            errors.add(buildError);
+        }
+        flushListeners();
         return errors;
     }
 
+    private static HttpMessage createMessage(RequestModel requestModel) throws IOException {
+        HttpMessage httpRequest = new HttpMessage(new URI(requestModel.getUrl(), false));
+        httpRequest.getRequestHeader().setMethod(requestModel.getMethod().name());
+        for (HttpHeaderField hhf : requestModel.getHeaders()) {
+            httpRequest.getRequestHeader().setHeader(hhf.getName(), hhf.getValue());
+        }
+        httpRequest.getRequestBody().setBody(requestModel.getBody());
+        httpRequest.getRequestHeader().setContentLength(httpRequest.getRequestBody().length());
+        return httpRequest;
+    }
+
     public String getResponseBody(URI uri) throws NullPointerException, IOException {
         HttpMessage httpRequest = new HttpMessage(uri);
         httpRequest.getRequestHeader().setHeader("Accept", "application/json,*/*");
@@ -93,9 +118,20 @@ public class Requestor {
                 LOGGER.error(e.getMessage(), e);
             }
         }
+        flushListeners();
         return httpRequest.getResponseBody().toString();
     }
 
+    private void flushListeners() {
+        for (RequesterListener listener : listeners) {
+            try {
+                listener.flush();
+            } catch (Exception e) {
+                LOGGER.error(e.getMessage(), e);
+            }
+        }
+    }
+
     public void addListener(RequesterListener listener) {
         this.listeners.add(listener);
     }
@@ -31,6 +31,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.RETURNS_MOCKS;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -157,6 +158,7 @@ class HistoryPersisterUnitTest extends TestUtils {
     void shouldPersistMessageAndAddToSiteMapAndHistory() throws Exception {
         // Given / When
         historyPersister.handleMessage(message, 1);
+        historyPersister.flush();
         // Then
         verify(tableHistory).write(eq(sessionId), anyInt(), eq(message));
         verify(extHistory).addHistory(any(HistoryReference.class));
@@ -170,6 +172,7 @@ class HistoryPersisterUnitTest extends TestUtils {
         historyPersister = new HistoryPersister();
         // When
         assertDoesNotThrow(() -> historyPersister.handleMessage(message, 1));
+        historyPersister.flush();
         // Then
         verify(tableHistory).write(eq(sessionId), anyInt(), eq(message));
         verify(siteMap).addPath(any(HistoryReference.class), eq(message));
@@ -249,7 +252,41 @@ class HistoryPersisterUnitTest extends TestUtils {
                 .addHistory(any(HistoryReference.class));
         // When
         historyPersister.handleMessage(message, 1);
+        historyPersister.flush();
         // Then
         assertThat(synchronous.get(), is(true));
     }
+
+    @Test
+    void shouldPersistMessageButNotAddToSiteMapNorHistoryUntilFlushed() throws Exception {
+        // Given / When
+        historyPersister.handleMessage(message, 1);
+        // Then
+        verify(tableHistory).write(eq(sessionId), anyInt(), eq(message));
+        verifyNoInteractions(extHistory);
+        verifyNoInteractions(siteMap);
+    }
+
+    @Test
+    void shouldAddMessagesToSiteMapAndHistoryOnceBatchIsFull() throws Exception {
+        // Given / When
+        for (int i = 0; i < 50; i++) {
+            historyPersister.handleMessage(message, 1);
+        }
+        // Then
+        verify(extHistory, times(50)).addHistory(any(HistoryReference.class));
+        verify(siteMap, times(50)).addPath(any(HistoryReference.class), eq(message));
+    }
+
+    @Test
+    void shouldNotAddMessagesAgainWhenFlushedAgain() throws Exception {
+        // Given
+        historyPersister.handleMessage(message, 1);
+        historyPersister.flush();
+        // When
+        historyPersister.flush();
+        // Then
+        verify(extHistory, times(1)).addHistory(any(HistoryReference.class));
+        verify(siteMap, times(1)).addPath(any(HistoryReference.class), eq(message));
+    }
 }
@@ -45,7 +45,7 @@ import org.zaproxy.addon.paramdigger.gui.ParamDiggerHistoryTableModel;
 import org.zaproxy.zap.utils.ThreadUtils;
 
 public class UrlBruteForce implements Callable<ParamReasons> {
-    private ComparableResponse base;
+    private Baseline base;
     private Method method;
     private Map<String, String> params;
     private Mode mode;
@@ -58,7 +58,9 @@ public class UrlBruteForce implements Callable<ParamReasons> {
     private List<String> wordlist;
     private List<ParamGuessResult> guessedParams;
     private List<Integer> ERRORCODES = Arrays.asList(400, 413, 418, 429, 503);
+    private static final List<Integer> TOO_LARGE_CODES = Arrays.asList(413, 414, 431);
     private String baseValue;
+    private Status status;
     private static final Logger LOGGER = LogManager.getLogger(UrlBruteForce.class);
 
     public UrlBruteForce(
@@ -72,9 +74,31 @@ public class UrlBruteForce implements Callable<ParamReasons> {
             HttpSender sender,
             List<String> wordlist,
             List<ParamGuessResult> guessedParams) {
+        this(
+                base != null ? new Baseline(base, baseValue) : null,
+                method,
+                params,
+                mode,
+                scan,
+                guesser,
+                sender,
+                wordlist,
+                guessedParams);
+    }
+
+    UrlBruteForce(
+            Baseline base,
+            Method method,
+            Map<String, String> params,
+            Mode mode,
+            GuesserScan scan,
+            UrlGuesser guesser,
+            HttpSender sender,
+            List<String> wordlist,
+            List<ParamGuessResult> guessedParams) {
         /** For Mode.VERIFY, guessedParams cannot be null */
         this.base = base;
-        this.baseValue = baseValue;
+        this.baseValue = base != null ? base.value : null;
         this.method = method;
         this.params = params;
         this.mode = mode;
@@ -95,9 +119,9 @@ public class UrlBruteForce implements Callable<ParamReasons> {
             return null;
         }
         ComparableResponse response = new ComparableResponse(msg, valueSent);
-        Status status = errorHandler(base, response);
+        status = errorHandler(base.response, response);
 
-        if (status.equals(Status.KILL)) {
+        if (!status.equals(Status.OK)) {
             return null;
         }
 
@@ -117,10 +141,16 @@ public class UrlBruteForce implements Callable<ParamReasons> {
      *
      * @param base the base response
      * @param response the response to check
-     * @return Status.OK if the response is valid, false otherwise.
+     * @return Status.OK if the response is valid, Status.RETRY if the request was too large for the
+     *     target and should be retried with fewer params, Status.KILL otherwise.
      */
     public Status errorHandler(ComparableResponse base, ComparableResponse response) {
         int status = response.getStatusCode();
+        if (TOO_LARGE_CODES.contains(status)
+                && params.size() > 1
+                && base.getStatusCode() != status) {
+            return Status.RETRY;
+        }
         if (ERRORCODES.contains(status)) {
             if (status == 503) {
                 // TODO Display on out panel "Taget unable to process requests"
@@ -311,6 +341,23 @@ public class UrlBruteForce implements Callable<ParamReasons> {
         return null;
     }
 
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Gets the status of the response received, once called.
+     *
+     * @return the status, or {@code null} if no response was received.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
     /**
      * Comapres two responses and finds if a paramter is vulnerable or not.
      *
@@ -321,7 +368,12 @@ public class UrlBruteForce implements Callable<ParamReasons> {
      */
     public ParamReasons compare(
             ComparableResponse resp1, ComparableResponse resp2, Map<String, String> params) {
+        return compare(new Baseline(resp1, baseValue), resp2, params);
+    }
 
+    private ParamReasons compare(
+            Baseline baseline, ComparableResponse resp2, Map<String, String> params) {
+        ComparableResponse resp1 = baseline.response;
         ParamReasons reasons = new ParamReasons();
         if (resp1.getStatusCode() != resp2.getStatusCode()
                 || ComparableResponse.statusCodeHeuristic(resp1, resp2)
@@ -355,13 +407,12 @@ public class UrlBruteForce implements Callable<ParamReasons> {
             reasons.addReason(Reason.WORD_COUNT);
         }
 
-        Source source1 = new Source(resp1.getBody());
-        Source source2 = new Source(resp2.getBody());
-        if (!source1.toString().equals(source2.toString())) {
+        if (!resp1.getBody().equals(resp2.getBody())
+                && !baseline.getText().equals(new Source(resp2.getBody()).toString())) {
             reasons.addReason(Reason.TEXT);
         }
 
-        if (!resp1.getBody().contains(resp1.getValueSent())) {
+        if (!baseline.reflectsValueSent) {
             if (this.firstComparison) {
                 this.firstComparison = false;
                 this.paramsPresent = new ArrayList<>();
@@ -386,7 +437,7 @@ public class UrlBruteForce implements Callable<ParamReasons> {
             }
         }
 
-        if (!resp1.getBody().contains(baseValue)) {
+        if (!baseline.reflectsValue) {
             for (String values : params.values()) {
                 if (resp2.getBody().contains(values)) {
                     Pattern searchValuePattern = Pattern.compile("['\"\\s]" + values + "['\"\\s]");
@@ -403,4 +454,37 @@ public class UrlBruteForce implements Callable<ParamReasons> {
 
         return reasons;
     }
+
+    /**
+     * The features of a base response, shared by all the requests compared with it so that they are
+     * computed just once.
+     */
+    static class Baseline {
+
+        private final ComparableResponse response;
+        private final String value;
+        private final boolean reflectsValueSent;
+        private final boolean reflectsValue;
+        private volatile String text;
+
+        Baseline(ComparableResponse response, String value) {
+            this.response = response;
+            this.value = value;
+            String body = response.getBody();
+            this.reflectsValueSent =
+                    response.getValueSent() != null && body.contains(response.getValueSent());
+            this.reflectsValue = value != null && body.contains(value);
+        }
+
+        ComparableResponse getResponse() {
+            return response;
+        }
+
+        private String getText() {
+            if (text == null) {
+                text = new Source(response.getBody()).toString();
+            }
+            return text;
+        }
+    }
 }
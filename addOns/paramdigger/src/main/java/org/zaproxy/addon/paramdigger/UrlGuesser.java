@@ -28,6 +28,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import org.apache.logging.log4j.LogManager;
@@ -72,6 +74,9 @@ public class UrlGuesser implements Runnable {
     private final String INIT_PARAM_2 = "pow";
     private final String INIT_VALUE_2 = "4321";
 
+    /** The maximum length of the request line and headers accepted by most servers. */
+    private static final int MAX_HEADER_LENGTH = 8192;
+
     private float statusCodeThreshold;
     private float httpHeadersThreshold;
     private float bodyTreesStructureHeuristicThreshold;
@@ -147,7 +152,8 @@ public class UrlGuesser implements Runnable {
     }
 
     private void startGuess(Method method, List<String> wordlist) {
-        ComparableResponse primary = firstRequest(method, INIT_PARAM_1, INIT_VALUE_1);
+        HttpMessage primaryMsg = new HttpMessage();
+        ComparableResponse primary = firstRequest(primaryMsg, method, INIT_PARAM_1, INIT_VALUE_1);
         ComparableResponse base = firstRequest(method, INIT_PARAM_2, INIT_VALUE_2);
 
         // Set threshold values
@@ -161,103 +167,108 @@ public class UrlGuesser implements Runnable {
         this.scan.notifyListenersProgress();
         // TODO Add heuristic method to mine parameters from base response.
 
-        List<Map<String, String>> paramGroups =
-                Utils.slice(Utils.populate(wordlist), config.getUrlGuessChunkSize());
-        this.scan.setMaximum(paramGroups.size());
-        List<Map<String, String>> usableParams = new ArrayList<>();
-
-        // BruteForcing step
-        while (!paramGroups.isEmpty()) {
-            if (this.scan.isStopped()) {
-                return;
-            }
-            paramGroups = narrowDownParams(base, method, paramGroups);
-            paramGroups = Utils.confirmUsableParameters(paramGroups, usableParams);
-            this.scan.setMaximum(paramGroups.size());
-            this.scan.notifyListenersProgress();
-            LOGGER.debug("param groups size: {}", paramGroups.size());
+        UrlBruteForce.Baseline baseline = new UrlBruteForce.Baseline(base, INIT_VALUE_2);
+        Map<String, String> params = Utils.populate(wordlist);
+        int chunkCount = config.getUrlGuessChunkSize();
+        if (method == Method.GET) {
+            // Keep the request line and headers within the size usually accepted by servers,
+            // larger requests are still split if rejected.
+            int baseLength =
+                    primaryMsg.getRequestHeader().toString().length()
+                            - INIT_PARAM_1.length()
+                            - INIT_VALUE_1.length();
+            chunkCount = Utils.getChunkCount(params, baseLength, MAX_HEADER_LENGTH, chunkCount);
         }
-
-        LOGGER.debug("Usable parameters: {}", usableParams.size());
-        this.scan.setMaximum(usableParams.size());
+        List<Map<String, String>> paramGroups = Utils.slice(params, chunkCount);
         paramGuessResults = Collections.synchronizedList(new ArrayList<>());
 
-        // Confirmation step
-        List<Future<ParamReasons>> reasons = new ArrayList<>();
-        for (Map<String, String> paramVerify : usableParams) {
-            if (this.scan.isStopped()) {
-                return;
-            }
-
-            this.scan.notifyListenersProgress();
-            reasons.add(
-                    executor.submit(
-                            new UrlBruteForce(
-                                    base,
-                                    INIT_VALUE_2,
-                                    method,
-                                    paramVerify,
-                                    Mode.VERIFY,
-                                    scan,
-                                    this,
-                                    this.httpSender,
-                                    wordlist,
-                                    paramGuessResults)));
-        }
-        for (Future<ParamReasons> future : reasons) {
-            try {
-                ParamReasons paramReasons = future.get();
-            } catch (Exception e) {
-                // TODO display exception message in GUI
-                LOGGER.error(e, e);
-            }
-        }
+        guess(baseline, method, paramGroups);
     }
 
-    private List<Map<String, String>> narrowDownParams(
-            ComparableResponse base, Method method, List<Map<String, String>> paramGroups) {
-        List<Map<String, String>> narrowedParamGroups = new ArrayList<>();
-        List<Future<ParamReasons>> futures = new ArrayList<>();
+    /**
+     * Sends the given param groups and, as each response is received, narrows down the groups with
+     * reasons and verifies the single params found, until no groups are left.
+     */
+    private void guess(
+            UrlBruteForce.Baseline baseline, Method method, List<Map<String, String>> paramGroups) {
+        CompletionService<ParamReasons> completionService =
+                new ExecutorCompletionService<>(executor);
+        Map<Future<ParamReasons>, UrlBruteForce> tasks = new HashMap<>();
 
         for (Map<String, String> param : paramGroups) {
-            if (this.scan.isStopped()) {
-                return narrowedParamGroups;
-            }
-            futures.add(
-                    executor.submit(
-                            new UrlBruteForce(
-                                    base,
-                                    INIT_VALUE_2,
-                                    method,
-                                    param,
-                                    Mode.BRUTEFORCE,
-                                    scan,
-                                    this,
-                                    this.httpSender,
-                                    wordlist,
-                                    null)));
+            submit(completionService, tasks, baseline, method, param);
         }
 
-        for (Future<ParamReasons> future : futures) {
+        while (!tasks.isEmpty()) {
+            if (this.scan.isStopped()) {
+                tasks.keySet().forEach(future -> future.cancel(false));
+                return;
+            }
+            UrlBruteForce task;
+            ParamReasons reasons;
             try {
-                ParamReasons narrowedParam = future.get();
-                if (narrowedParam != null && !narrowedParam.isEmpty()) {
-                    List<Map<String, String>> slices = Utils.slice(narrowedParam.getParams(), 2);
-                    for (Map<String, String> slice : slices) {
-                        narrowedParamGroups.add(slice);
-                    }
-                    this.scan.notifyListenersProgress();
-                }
+                Future<ParamReasons> future = completionService.take();
+                task = tasks.remove(future);
+                reasons = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             } catch (Exception e) {
                 // TODO Display proper error message to user
                 LOGGER.error(e, e);
+                this.scan.notifyListenersProgress();
+                continue;
+            }
+            this.scan.notifyListenersProgress();
+
+            Map<String, String> narrowedParams = null;
+            if (task.getStatus() == Status.RETRY) {
+                LOGGER.debug("Request too large, retrying with fewer params.");
+                narrowedParams = task.getParams();
+            } else if (task.getMode() == Mode.BRUTEFORCE && reasons != null && !reasons.isEmpty()) {
+                narrowedParams = reasons.getParams();
+            }
+            if (narrowedParams == null) {
+                continue;
+            }
+            for (Map<String, String> slice : Utils.slice(narrowedParams, 2)) {
+                submit(completionService, tasks, baseline, method, slice);
             }
         }
-        return narrowedParamGroups;
+    }
+
+    private void submit(
+            CompletionService<ParamReasons> completionService,
+            Map<Future<ParamReasons>, UrlBruteForce> tasks,
+            UrlBruteForce.Baseline baseline,
+            Method method,
+            Map<String, String> params) {
+        if (params.isEmpty()) {
+            return;
+        }
+        // The single params are verified, no need to narrow them down further.
+        Mode mode = params.size() == 1 ? Mode.VERIFY : Mode.BRUTEFORCE;
+        UrlBruteForce task =
+                new UrlBruteForce(
+                        baseline,
+                        method,
+                        params,
+                        mode,
+                        scan,
+                        this,
+                        this.httpSender,
+                        wordlist,
+                        paramGuessResults);
+        tasks.put(completionService.submit(task), task);
+        this.scan.setMaximum(1);
     }
 
     public ComparableResponse firstRequest(Method method, String param, String value) {
-        HttpMessage msg = new HttpMessage();
+        return firstRequest(new HttpMessage(), method, param, value);
+    }
+
+    private ComparableResponse firstRequest(
+            HttpMessage msg, Method method, String param, String value) {
         Map<String, String> initialParam = new HashMap<>();
         initialParam.put(param, value);
 
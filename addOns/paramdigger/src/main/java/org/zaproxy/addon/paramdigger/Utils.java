@@ -106,6 +106,31 @@ public class Utils {
         return list;
     }
 
+    /**
+     * Returns the number of parts to divide a given Map of parameters into, so that each part fits
+     * in the given length.
+     *
+     * @param map the Map of parameters to be divided.
+     * @param baseLength the length already used, without the parameters.
+     * @param maxLength the maximum length, or {@code 0} if unlimited.
+     * @param minParts the minimum number of parts.
+     * @return the number of parts, never more than the number of parameters.
+     */
+    public static int getChunkCount(
+            Map<String, String> map, int baseLength, int maxLength, int minParts) {
+        int parts = minParts;
+        if (maxLength > 0) {
+            long length = 0;
+            for (Entry<String, String> entry : map.entrySet()) {
+                // The name, value and the separators.
+                length += entry.getKey().length() + entry.getValue().length() + 2;
+            }
+            long available = Math.max(1, maxLength - baseLength);
+            parts = (int) Math.max(parts, (length + available - 1) / available);
+        }
+        return Math.max(1, Math.min(parts, map.size()));
+    }
+
     /**
      * Returns a query string from a given parameter map. The query string is not encoded.
      *
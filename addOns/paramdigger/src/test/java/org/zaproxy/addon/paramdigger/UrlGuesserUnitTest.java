@@ -32,6 +32,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.withSettings;
 
+import fi.iki.elonen.NanoHTTPD;
 import fi.iki.elonen.NanoHTTPD.IHTTPSession;
 import fi.iki.elonen.NanoHTTPD.Response;
 import java.io.InputStream;
@@ -163,6 +164,45 @@ class UrlGuesserUnitTest extends TestUtils {
                         Reason.PARAM_VALUE_REFLECTION));
     }
 
+    @Test
+    void shouldGuessUrlParametersIfRequestsTooLarge() throws Exception {
+        // Given
+        String path = "/body";
+        this.nano.addHandler(
+                new NanoServerHandler(path) {
+                    @Override
+                    protected Response serve(IHTTPSession session) {
+                        if (session.getQueryParameterString().length() > 60) {
+                            return newFixedLengthResponse(
+                                    Response.Status.PAYLOAD_TOO_LARGE,
+                                    NanoHTTPD.MIME_PLAINTEXT,
+                                    "Too Large");
+                        }
+                        String name = getFirstParamValue(session, "q");
+                        name = name == null ? " " : name;
+                        String response =
+                                getHtml("ReflectionInBody.html", new String[][] {{"q", name}});
+
+                        return newFixedLengthResponse(response);
+                    }
+                });
+
+        HttpMessage msg = getHttpMessage(path);
+        config.setUrl(msg.getRequestHeader().getURI().toString());
+        config.setDoUrlGuess(true);
+        config.setUrlGetRequest(true);
+        given(scan.getConfig()).willReturn(config);
+        urlGuesser = new UrlGuesser(0, scan, httpSender, executor);
+
+        // When
+        urlGuesser.run();
+
+        // Then
+        ArgumentCaptor<ParamGuessResult> result = ArgumentCaptor.forClass(ParamGuessResult.class);
+        verify(scan).addParamGuessResult(result.capture());
+        assertThat(result.getValue().getParamName(), equalTo("q"));
+    }
+
     @Test
     void shouldGuessParamteresForReflectionInTags() throws Exception {
         // Given
@@ -87,6 +87,47 @@ class UtilsUnitTest extends TestUtils {
         assertThat(sliced.get(0).size(), equalTo(30));
     }
 
+    @Test
+    void shouldGetMinimumChunkCountIfParamsFitInMaxLength() {
+        // Given
+        Map<String, String> map = Utils.populate(Utils.read(this.file));
+
+        // When
+        int count = Utils.getChunkCount(map, 100, 8192, 2);
+
+        // Then
+        assertThat(count, equalTo(2));
+    }
+
+    @Test
+    void shouldGetChunkCountToFitParamsInMaxLength() {
+        // Given
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(String.format("param%04d", i), "111111");
+        }
+
+        // When
+        int count = Utils.getChunkCount(map, 100, 600, 2);
+
+        // Then
+        assertThat(count, equalTo(4));
+    }
+
+    @Test
+    void shouldNotGetMoreChunksThanParams() {
+        // Given
+        Map<String, String> map = new HashMap<>();
+        map.put("q", "111110");
+        map.put("admin", "111111");
+
+        // When
+        int count = Utils.getChunkCount(map, 100, 0, 40);
+
+        // Then
+        assertThat(count, equalTo(2));
+    }
+
     @Test
     void shouldGetQueryStringWithoutErrors() {
         // Given
@@ -0,0 +1,420 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.portscan;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A port scanner that uses non-blocking connects, to have many connection attempts in flight with a
+ * single thread.
+ *
+ * <p>The number of connection attempts in flight to the host is limited, and the attempts time out
+ * based on the round trip times measured during the scan (see {@link RttEstimator}). The attempts
+ * that time out before the timeout configured are tried once more with that timeout, so that a
+ * slower response does not make an open port be reported as closed. The open ports are notified in
+ * batches.
+ */
+class NioPortScanner {
+
+    /** The minimum timeout of the connection attempts, in milliseconds. */
+    static final int MIN_TIMEOUT_IN_MS = 20;
+
+    static final int DEFAULT_BATCH_SIZE = 50;
+
+    private static final long BATCH_INTERVAL_IN_MS = 250;
+
+    private static final Logger LOGGER = LogManager.getLogger(NioPortScanner.class);
+
+    private final InetAddress address;
+    private final int[] ports;
+    private final int maxConnections;
+    private final RttEstimator rttEstimator;
+    private final long retryTimeoutNanos;
+    private final Listener listener;
+    private final int batchSize;
+
+    private final Deque<Attempt> attempts;
+    private final Deque<Attempt> retryAttempts;
+    private final Deque<Integer> pendingRetries;
+    private final List<Integer> openPorts;
+
+    private volatile boolean stopped;
+    private volatile boolean paused;
+    private volatile Selector selector;
+
+    private int inFlight;
+    private int maxInFlight;
+    private int completed;
+    private int retries;
+
+    /**
+     * Constructs a {@code NioPortScanner} with the default batch size.
+     *
+     * @param address the address of the host to scan.
+     * @param ports the ports to scan, in the order to scan.
+     * @param maxConnections the maximum number of connection attempts in flight.
+     * @param timeoutInMs the maximum timeout of the connection attempts, in milliseconds, {@code 0}
+     *     for no maximum.
+     * @param listener the listener of the results.
+     */
+    NioPortScanner(
+            InetAddress address,
+            int[] ports,
+            int maxConnections,
+            int timeoutInMs,
+            Listener listener) {
+        this(address, ports, maxConnections, timeoutInMs, listener, DEFAULT_BATCH_SIZE);
+    }
+
+    NioPortScanner(
+            InetAddress address,
+            int[] ports,
+            int maxConnections,
+            int timeoutInMs,
+            Listener listener,
+            int batchSize) {
+        this(
+                address,
+                ports,
+                maxConnections,
+                timeoutInMs,
+                new RttEstimator(MIN_TIMEOUT_IN_MS, timeoutInMs),
+                listener,
+                batchSize);
+    }
+
+    NioPortScanner(
+            InetAddress address,
+            int[] ports,
+            int maxConnections,
+            int timeoutInMs,
+            RttEstimator rttEstimator,
+            Listener listener,
+            int batchSize) {
+        this.address = address;
+        this.ports = ports;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.rttEstimator = rttEstimator;
+        this.retryTimeoutNanos =
+                timeoutInMs <= 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+        this.listener = listener;
+        this.batchSize = Math.max(1, batchSize);
+        this.attempts = new ArrayDeque<>();
+        this.retryAttempts = new ArrayDeque<>();
+        this.pendingRetries = new ArrayDeque<>();
+        this.openPorts = new ArrayList<>();
+    }
+
+    /**
+     * Scans the ports, returning once all the ports were scanned or the scan was stopped.
+     *
+     * @throws IOException if an error occurred while opening the selector.
+     */
+    void scan() throws IOException {
+        try (Selector sel = Selector.open()) {
+            selector = sel;
+            int next = 0;
+            long lastFlush = System.nanoTime();
+            while (!stopped) {
+                while (!paused && inFlight < maxConnections) {
+                    Integer retryPort = pendingRetries.peek();
+                    if (retryPort != null) {
+                        if (!connect(retryPort, true)) {
+                            break;
+                        }
+                        pendingRetries.poll();
+                    } else if (next < ports.length) {
+                        if (!connect(ports[next], false)) {
+                            break;
+                        }
+                        next++;
+                    } else {
+                        break;
+                    }
+                }
+                if (inFlight == 0 && next >= ports.length && pendingRetries.isEmpty()) {
+                    break;
+                }
+
+                long waitMs = Math.min(BATCH_INTERVAL_IN_MS, expire());
+                sel.select(Math.max(1, waitMs));
+                processSelected(sel);
+
+                long now = System.nanoTime();
+                if (openPorts.size() >= batchSize
+                        || TimeUnit.NANOSECONDS.toMillis(now - lastFlush) >= BATCH_INTERVAL_IN_MS) {
+                    flush();
+                    lastFlush = now;
+                }
+            }
+        } finally {
+            for (Attempt attempt : attempts) {
+                close(attempt.channel);
+            }
+            for (Attempt attempt : retryAttempts) {
+                close(attempt.channel);
+            }
+            attempts.clear();
+            retryAttempts.clear();
+            pendingRetries.clear();
+            inFlight = 0;
+            selector = null;
+            flush();
+        }
+    }
+
+    /**
+     * Starts the connection attempt to the given port.
+     *
+     * @param port the port.
+     * @param retry {@code true} if the attempt is a retry, {@code false} otherwise.
+     * @return {@code true} if the port was handled, {@code false} if it should be tried again
+     *     later.
+     */
+    private boolean connect(int port, boolean retry) {
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open();
+        } catch (IOException e) {
+            if (inFlight > 0) {
+                // Most likely too many open files, wait for the attempts in flight.
+                LOGGER.debug("Failed to open channel, waiting for attempts in flight: {}", e);
+                return false;
+            }
+            LOGGER.warn("Failed to open channel to scan port {}: {}", port, e.getMessage());
+            completed++;
+            return true;
+        }
+
+        long start = System.nanoTime();
+        try {
+            channel.configureBlocking(false);
+            if (channel.connect(new InetSocketAddress(address, port))) {
+                rttEstimator.addSample(System.nanoTime() - start);
+                portOpen(port, channel);
+                completed++;
+                return true;
+            }
+            SelectionKey key = channel.register(selector, SelectionKey.OP_CONNECT);
+            Attempt attempt = new Attempt(port, channel, start);
+            key.attach(attempt);
+            if (retry) {
+                retries++;
+                retryAttempts.add(attempt);
+            } else {
+                attempts.add(attempt);
+            }
+            inFlight++;
+            maxInFlight = Math.max(maxInFlight, inFlight);
+        } catch (IOException e) {
+            // Refused right away.
+            close(channel);
+            completed++;
+        }
+        return true;
+    }
+
+    private void processSelected(Selector sel) {
+        Iterator<SelectionKey> it = sel.selectedKeys().iterator();
+        while (it.hasNext()) {
+            SelectionKey key = it.next();
+            it.remove();
+            Attempt attempt = (Attempt) key.attachment();
+            boolean open;
+            try {
+                open = attempt.channel.finishConnect();
+            } catch (IOException e) {
+                open = false;
+            }
+            rttEstimator.addSample(System.nanoTime() - attempt.start);
+            finish(attempt, key, true);
+            if (open) {
+                portOpen(attempt.port, attempt.channel);
+            } else {
+                close(attempt.channel);
+            }
+        }
+    }
+
+    /**
+     * Expires the attempts that timed out.
+     *
+     * <p>The first attempts are expired with the current timeout and the retries with the timeout
+     * configured, so in both cases they expire in the order they were started. The ports of the
+     * first attempts that expired before the timeout configured are retried.
+     *
+     * @return the time until the next attempt expires, in milliseconds.
+     */
+    private long expire() {
+        long now = System.nanoTime();
+        return Math.min(
+                expire(attempts, rttEstimator.getTimeoutNanos(), now),
+                expire(retryAttempts, retryTimeoutNanos, now));
+    }
+
+    private long expire(Deque<Attempt> attempts, long timeout, long now) {
+        Attempt attempt;
+        while ((attempt = attempts.peek()) != null) {
+            if (attempt.done) {
+                attempts.poll();
+                continue;
+            }
+            long elapsed = now - attempt.start;
+            if (elapsed < timeout) {
+                return TimeUnit.NANOSECONDS.toMillis(timeout - elapsed) + 1;
+            }
+            attempts.poll();
+            boolean retry = attempts != retryAttempts && timeout < retryTimeoutNanos;
+            finish(attempt, attempt.channel.keyFor(selector), !retry);
+            close(attempt.channel);
+            if (retry) {
+                pendingRetries.add(attempt.port);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private void finish(Attempt attempt, SelectionKey key, boolean portCompleted) {
+        if (key != null) {
+            key.cancel();
+        }
+        attempt.done = true;
+        inFlight--;
+        if (portCompleted) {
+            completed++;
+        }
+    }
+
+    private void portOpen(int port, SocketChannel channel) {
+        LOGGER.debug("Site : {} open port: {}", address, port);
+        openPorts.add(port);
+        try {
+            // Reset the connection, no need to keep it in TIME_WAIT.
+            channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+        } catch (IOException e) {
+            // Ignore, just closed normally.
+        }
+        close(channel);
+    }
+
+    private void flush() {
+        if (!openPorts.isEmpty()) {
+            listener.portsOpen(new ArrayList<>(openPorts));
+            openPorts.clear();
+        }
+        listener.portsScanned(completed);
+    }
+
+    private static void close(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Ignore.
+        }
+    }
+
+    /** Stops the scan, the connection attempts in flight are discarded. */
+    void stop() {
+        stopped = true;
+        wakeup();
+    }
+
+    /**
+     * Pauses or resumes the scan. While paused no new connection attempts are started.
+     *
+     * @param paused {@code true} to pause, {@code false} to resume.
+     */
+    void setPaused(boolean paused) {
+        this.paused = paused;
+        wakeup();
+    }
+
+    private void wakeup() {
+        Selector sel = selector;
+        if (sel != null) {
+            sel.wakeup();
+        }
+    }
+
+    /**
+     * Gets the maximum number of connection attempts that were in flight at the same time.
+     *
+     * @return the number of connection attempts.
+     */
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Gets the number of connection attempts retried, after timing out before the timeout
+     * configured.
+     *
+     * @return the number of connection attempts.
+     */
+    int getRetries() {
+        return retries;
+    }
+
+    /** The listener of the results of the scan, notified in the thread that runs the scan. */
+    interface Listener {
+
+        /**
+         * Called when ports were found open.
+         *
+         * @param ports the open ports.
+         */
+        void portsOpen(List<Integer> ports);
+
+        /**
+         * Called periodically with the number of ports scanned.
+         *
+         * @param count the number of ports scanned.
+         */
+        void portsScanned(int count);
+    }
+
+    private static class Attempt {
+
+        private final int port;
+        private final SocketChannel channel;
+        private final long start;
+        private boolean done;
+
+        Attempt(int port, SocketChannel channel, long start) {
+            this.port = port;
+            this.channel = channel;
+            this.start = start;
+        }
+    }
+}
@@ -43,6 +43,8 @@ public class OptionsPortScanPanel extends AbstractParamPanel {
     private ZapNumberSpinner threadsPerScanSpinner = null;
     private JSlider sliderTimeoutInMs = null;
     private JCheckBox checkUseProxy = null;
+    private JCheckBox checkNonBlocking = null;
+    private ZapNumberSpinner maxConnectionsPerHostSpinner = null;
 
     public OptionsPortScanPanel() {
         super();
@@ -63,6 +65,7 @@ public class OptionsPortScanPanel extends AbstractParamPanel {
             panelPortScan.setName("");
 
             JPanel panelProxy = new JPanel();
+            JPanel panelNonBlocking = new JPanel();
 
             panelPortScan.add(
                     new JLabel(Constant.messages.getString("ports.options.label.maxPort")),
@@ -135,11 +138,43 @@ public class OptionsPortScanPanel extends AbstractParamPanel {
                     LayoutHelper.getGBC(
                             0, 4, 2, 1.0D, 0, GridBagConstraints.WEST, new Insets(2, 2, 2, 2)));
 
+            panelNonBlocking.add(
+                    new JLabel(Constant.messages.getString("ports.options.label.nonBlocking")));
+            panelNonBlocking.add(getCheckNonBlocking());
+
+            panelPortScan.add(
+                    panelNonBlocking,
+                    LayoutHelper.getGBC(
+                            0, 5, 2, 1.0D, 0, GridBagConstraints.WEST, new Insets(2, 2, 2, 2)));
+
+            panelPortScan.add(
+                    new JLabel(
+                            Constant.messages.getString(
+                                    "ports.options.label.maxConnectionsPerHost")),
+                    LayoutHelper.getGBC(
+                            0,
+                            6,
+                            1,
+                            1.0D,
+                            0,
+                            GridBagConstraints.HORIZONTAL,
+                            new Insets(2, 2, 2, 2)));
+            panelPortScan.add(
+                    getMaxConnectionsPerHostSpinner(),
+                    LayoutHelper.getGBC(
+                            1,
+                            6,
+                            1,
+                            1.0D,
+                            0,
+                            GridBagConstraints.HORIZONTAL,
+                            new Insets(2, 2, 2, 2)));
+
             panelPortScan.add(
                     new JLabel(""),
                     LayoutHelper.getGBC(
                             0,
-                            5,
+                            7,
                             2,
                             1.0D,
                             1.0D,
@@ -158,11 +193,16 @@ public class OptionsPortScanPanel extends AbstractParamPanel {
             getThreadsPerScanSpinner().setValue(Constants.getDefaultThreadCount());
             getSliderTimeoutInMs().setValue(PortScanParam.DEFAULT_TIMEOUT_IN_MS);
             getCheckUseProxy().setSelected(PortScanParam.DEFAULT_USE_PROXY);
+            getCheckNonBlocking().setSelected(PortScanParam.DEFAULT_NON_BLOCKING);
+            getMaxConnectionsPerHostSpinner()
+                    .setValue(PortScanParam.DEFAULT_MAX_CONNECTIONS_PER_HOST);
         } else {
             getMaxPortSpinner().setValue(param.getMaxPort());
             getThreadsPerScanSpinner().setValue(param.getThreadPerScan());
             getSliderTimeoutInMs().setValue(param.getTimeoutInMs());
             getCheckUseProxy().setSelected(param.isUseProxy());
+            getCheckNonBlocking().setSelected(param.isNonBlocking());
+            getMaxConnectionsPerHostSpinner().setValue(param.getMaxConnectionsPerHost());
         }
     }
 
@@ -183,6 +223,8 @@ public class OptionsPortScanPanel extends AbstractParamPanel {
         param.setThreadPerScan(getThreadsPerScanSpinner().getValue());
         param.setTimeoutInMs(getSliderTimeoutInMs().getValue());
         param.setUseProxy(getCheckUseProxy().isSelected());
+        param.setNonBlocking(getCheckNonBlocking().isSelected());
+        param.setMaxConnectionsPerHost(getMaxConnectionsPerHostSpinner().getValue());
     }
 
     private ZapPortNumberSpinner getMaxPortSpinner() {
@@ -231,6 +273,26 @@ public class OptionsPortScanPanel extends AbstractParamPanel {
         return checkUseProxy;
     }
 
+    private JCheckBox getCheckNonBlocking() {
+        if (checkNonBlocking == null) {
+            checkNonBlocking = new JCheckBox();
+            checkNonBlocking.addItemListener(
+                    e ->
+                            getMaxConnectionsPerHostSpinner()
+                                    .setEnabled(checkNonBlocking.isSelected()));
+        }
+        return checkNonBlocking;
+    }
+
+    private ZapNumberSpinner getMaxConnectionsPerHostSpinner() {
+        if (maxConnectionsPerHostSpinner == null) {
+            maxConnectionsPerHostSpinner =
+                    new ZapNumberSpinner(
+                            1, PortScanParam.DEFAULT_MAX_CONNECTIONS_PER_HOST, Integer.MAX_VALUE);
+        }
+        return maxConnectionsPerHostSpinner;
+    }
+
     @Override
     public String getHelpIndex() {
         return "addon.portscan.options";
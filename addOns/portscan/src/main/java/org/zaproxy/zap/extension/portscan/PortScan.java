@@ -21,15 +21,18 @@ package org.zaproxy.zap.extension.portscan;
 
 import java.awt.EventQueue;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import javax.swing.DefaultListModel;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -58,6 +61,9 @@ public class PortScan extends ScanThread implements ScanListenner {
     private int progress = 0;
     private int timeout = 0;
     private boolean useProxy = true;
+    private boolean nonBlocking;
+    private int maxConnectionsPerHost;
+    private volatile NioPortScanner nioPortScanner;
     private List<PortScan> subThreads = new ArrayList<>();
 
     private static final Logger LOGGER = LogManager.getLogger(PortScan.class);
@@ -70,6 +76,8 @@ public class PortScan extends ScanThread implements ScanListenner {
         this.threads = portScanParam.getThreadPerScan();
         this.timeout = portScanParam.getTimeoutInMs();
         this.useProxy = portScanParam.isUseProxy();
+        this.nonBlocking = portScanParam.isNonBlocking();
+        this.maxConnectionsPerHost = portScanParam.getMaxConnectionsPerHost();
 
         LOGGER.debug("PortScan : {} threads: {}", site, threads);
     }
@@ -94,7 +102,9 @@ public class PortScan extends ScanThread implements ScanListenner {
 
     @Override
     public void run() {
-        if (threads > 1 && threadIndex == -1) {
+        if (nonBlocking && threadIndex == -1 && getProxy() == Proxy.NO_PROXY) {
+            runNonBlockingScan();
+        } else if (threads > 1 && threadIndex == -1) {
             // Start the sub threads
             runSubThreads();
         } else {
@@ -189,6 +199,64 @@ public class PortScan extends ScanThread implements ScanListenner {
         LOGGER.debug("Took {} mins", ((stop.getTime() - start.getTime()) / 60000));
     }
 
+    private void runNonBlockingScan() {
+        Date start = new Date();
+        LOGGER.debug("Starting non-blocking scan on {} at {}", site, start);
+        reset();
+
+        InetAddress address;
+        try {
+            address = InetAddress.getByName(site);
+        } catch (UnknownHostException e) {
+            LOGGER.warn("Failed to resolve {}: {}", site, e.getMessage());
+            return;
+        }
+
+        NioPortScanner scanner =
+                new NioPortScanner(
+                        address,
+                        IntStream.range(1, maxPort).toArray(),
+                        maxConnectionsPerHost,
+                        timeout,
+                        new NioPortScanner.Listener() {
+
+                            @Override
+                            public void portsOpen(List<Integer> ports) {
+                                addResults(ports);
+                            }
+
+                            @Override
+                            public void portsScanned(int count) {
+                                if (listener != null) {
+                                    scanProgress(site, count, maxPort);
+                                }
+                            }
+                        });
+        nioPortScanner = scanner;
+        // Stopped or paused before the scanner was set.
+        if (stopScan) {
+            scanner.stop();
+        }
+        if (isPaused) {
+            scanner.setPaused(true);
+        }
+
+        try {
+            scanner.scan();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to scan {}: {}", site, e.getMessage());
+        } finally {
+            nioPortScanner = null;
+        }
+
+        Date stop = new Date();
+        LOGGER.debug("Finished non-blocking scan on {} at {}", site, stop);
+        LOGGER.debug(
+                "Took {} mins, max connections in flight: {}",
+                ((stop.getTime() - start.getTime()) / 60000),
+                scanner.getMaxInFlight());
+    }
+
     private Proxy getProxy() {
         if (useProxy) {
             ConnectionOptions connectionOptions =
@@ -210,6 +278,10 @@ public class PortScan extends ScanThread implements ScanListenner {
         }
     }
 
+    private void addResults(List<Integer> ports) {
+        EventQueue.invokeLater(() -> resultsTableModel.addPorts(ports));
+    }
+
     private void runSubThreads() {
         for (int i = 0; i < threads; i++) {
             PortScan ps = new PortScan(site, this, resultsTableModel, maxPort, threads, i + 1);
@@ -248,6 +320,10 @@ public class PortScan extends ScanThread implements ScanListenner {
     @Override
     public void stopScan() {
         stopScan = true;
+        NioPortScanner scanner = nioPortScanner;
+        if (scanner != null) {
+            scanner.stop();
+        }
     }
 
     @Override
@@ -310,6 +386,10 @@ public class PortScan extends ScanThread implements ScanListenner {
         this.pauseScan = true;
         this.unpauseScan = false;
         this.isPaused = true;
+        NioPortScanner scanner = nioPortScanner;
+        if (scanner != null) {
+            scanner.setPaused(true);
+        }
     }
 
     @Override
@@ -317,6 +397,10 @@ public class PortScan extends ScanThread implements ScanListenner {
         this.unpauseScan = true;
         this.pauseScan = false;
         this.isPaused = false;
+        NioPortScanner scanner = nioPortScanner;
+        if (scanner != null) {
+            scanner.setPaused(false);
+        }
     }
 
     @Override
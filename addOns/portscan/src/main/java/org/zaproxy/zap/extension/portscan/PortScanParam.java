@@ -46,15 +46,21 @@ public class PortScanParam extends VersionedAbstractParam {
     private static final String THREAD_PER_SCAN = "portscan.threadPerHost";
     private static final String TIMEOUT_IN_MS = "portscan.timeoutInMs";
     private static final String USE_PROXY = "portscan.useProxy";
+    private static final String NON_BLOCKING = "portscan.nonBlocking";
+    private static final String MAX_CONNECTIONS_PER_HOST = "portscan.maxConnectionsPerHost";
 
     public static final int DEFAULT_MAX_PORT = 10240;
     public static final int DEFAULT_TIMEOUT_IN_MS = 100;
     public static final boolean DEFAULT_USE_PROXY = true;
+    public static final boolean DEFAULT_NON_BLOCKING = true;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 500;
 
     private int maxPort = DEFAULT_MAX_PORT;
     private int threadPerScan = 1;
     private int timeoutInMs = DEFAULT_TIMEOUT_IN_MS;
     private boolean useProxy = DEFAULT_USE_PROXY;
+    private boolean nonBlocking = DEFAULT_NON_BLOCKING;
+    private int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
 
     public PortScanParam() {}
 
@@ -87,6 +93,15 @@ public class PortScanParam extends VersionedAbstractParam {
             setUseProxy(getConfig().getBoolean(USE_PROXY, true));
         } catch (Exception e) {
         }
+        try {
+            setNonBlocking(getConfig().getBoolean(NON_BLOCKING, DEFAULT_NON_BLOCKING));
+        } catch (Exception e) {
+        }
+        try {
+            setMaxConnectionsPerHost(
+                    getConfig().getInt(MAX_CONNECTIONS_PER_HOST, DEFAULT_MAX_CONNECTIONS_PER_HOST));
+        } catch (Exception e) {
+        }
     }
 
     @Override
@@ -143,4 +158,35 @@ public class PortScanParam extends VersionedAbstractParam {
     public void setUseProxy(boolean useProxy) {
         this.useProxy = useProxy;
     }
+
+    /**
+     * Tells whether or not the ports are scanned with non-blocking connects, when not using a
+     * proxy.
+     *
+     * @return {@code true} if non-blocking connects are used, {@code false} otherwise.
+     */
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    public void setNonBlocking(boolean nonBlocking) {
+        this.nonBlocking = nonBlocking;
+        getConfig().setProperty(NON_BLOCKING, Boolean.toString(nonBlocking));
+    }
+
+    /**
+     * Gets the maximum number of connection attempts in flight to a host, when using non-blocking
+     * connects.
+     *
+     * @return the maximum number of connection attempts.
+     * @see #isNonBlocking()
+     */
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        getConfig().setProperty(MAX_CONNECTIONS_PER_HOST, Integer.toString(maxConnectionsPerHost));
+    }
 }
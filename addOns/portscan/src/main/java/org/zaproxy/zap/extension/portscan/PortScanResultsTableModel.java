@@ -89,6 +89,23 @@ public class PortScanResultsTableModel extends AbstractTableModel {
         fireTableRowsInserted(index, index);
     }
 
+    /**
+     * Adds the given ports, notifying the listeners just once.
+     *
+     * @param ports the ports to add.
+     */
+    public void addPorts(List<Integer> ports) {
+        if (ports.isEmpty()) {
+            return;
+        }
+        int index = results.size();
+        for (int port : ports) {
+            results.add(new PortScanResultEntry(port));
+        }
+
+        fireTableRowsInserted(index, results.size() - 1);
+    }
+
     public PortScanResultEntry getResult(int rowIndex) {
         return results.get(rowIndex);
     }
@@ -0,0 +1,85 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.portscan;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates the timeout of the connection attempts from the round trip times measured, in the same
+ * way as TCP estimates its retransmission timeout (RFC 6298).
+ *
+ * <p>The timeout is kept between a minimum and a maximum, the maximum is used until the first round
+ * trip time is measured.
+ */
+class RttEstimator {
+
+    private static final double ALPHA = 1 / 8.0;
+    private static final double BETA = 1 / 4.0;
+    private static final int K = 4;
+
+    private final long minTimeoutNanos;
+    private final long maxTimeoutNanos;
+
+    private double smoothedRtt;
+    private double rttVariation;
+    private boolean measured;
+
+    /**
+     * Constructs a {@code RttEstimator} with the given timeout limits.
+     *
+     * @param minTimeoutMs the minimum timeout, in milliseconds.
+     * @param maxTimeoutMs the maximum timeout, in milliseconds, {@code 0} for no maximum.
+     */
+    RttEstimator(int minTimeoutMs, int maxTimeoutMs) {
+        this.maxTimeoutNanos =
+                maxTimeoutMs <= 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(maxTimeoutMs);
+        this.minTimeoutNanos =
+                Math.min(TimeUnit.MILLISECONDS.toNanos(minTimeoutMs), maxTimeoutNanos);
+    }
+
+    /**
+     * Adds a round trip time measured.
+     *
+     * @param rttNanos the round trip time, in nanoseconds.
+     */
+    void addSample(long rttNanos) {
+        if (!measured) {
+            smoothedRtt = rttNanos;
+            rttVariation = rttNanos / 2.0;
+            measured = true;
+            return;
+        }
+        rttVariation = (1 - BETA) * rttVariation + BETA * Math.abs(smoothedRtt - rttNanos);
+        smoothedRtt = (1 - ALPHA) * smoothedRtt + ALPHA * rttNanos;
+    }
+
+    /**
+     * Gets the current timeout.
+     *
+     * @return the timeout, in nanoseconds, {@code Long.MAX_VALUE} if none.
+     */
+    long getTimeoutNanos() {
+        if (!measured) {
+            return maxTimeoutNanos;
+        }
+        long timeout = (long) (smoothedRtt + K * rttVariation);
+        return Math.max(minTimeoutNanos, Math.min(timeout, maxTimeoutNanos));
+    }
+}
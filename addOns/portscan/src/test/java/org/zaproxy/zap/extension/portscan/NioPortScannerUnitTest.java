@@ -0,0 +1,234 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.portscan;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/** Unit test for {@link NioPortScanner}. */
+@Timeout(30)
+class NioPortScannerUnitTest {
+
+    private InetAddress loopback;
+    private List<ServerSocket> listeners;
+    private ResultsListener results;
+
+    @BeforeEach
+    void setUp() {
+        loopback = InetAddress.getLoopbackAddress();
+        listeners = new ArrayList<>();
+        results = new ResultsListener();
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        for (ServerSocket listener : listeners) {
+            listener.close();
+        }
+    }
+
+    @Test
+    void shouldFindOpenPorts() throws Exception {
+        // Given
+        int open1 = listen();
+        int open2 = listen();
+        int closed1 = closedPort();
+        int closed2 = closedPort();
+        NioPortScanner scanner =
+                new NioPortScanner(
+                        loopback, new int[] {closed1, open1, closed2, open2}, 10, 1000, results);
+        // When
+        scanner.scan();
+        // Then
+        assertThat(results.getOpenPorts(), containsInAnyOrder(open1, open2));
+        assertThat(results.lastCount, is(equalTo(4)));
+    }
+
+    @Test
+    void shouldNotFindOpenPortsIfAllClosed() throws Exception {
+        // Given
+        NioPortScanner scanner =
+                new NioPortScanner(
+                        loopback, new int[] {closedPort(), closedPort()}, 10, 1000, results);
+        // When
+        scanner.scan();
+        // Then
+        assertThat(results.getOpenPorts(), is(empty()));
+        assertThat(results.lastCount, is(equalTo(2)));
+    }
+
+    @Test
+    void shouldLimitConnectionsInFlight() throws Exception {
+        // Given
+        int[] ports = new int[200];
+        for (int i = 0; i < ports.length; i += 2) {
+            ports[i] = listen();
+        }
+        for (int i = 1; i < ports.length; i += 2) {
+            ports[i] = closedPort();
+        }
+        NioPortScanner scanner = new NioPortScanner(loopback, ports, 5, 1000, results);
+        // When
+        scanner.scan();
+        // Then
+        assertThat(scanner.getMaxInFlight(), is(lessThanOrEqualTo(5)));
+        assertThat(results.getOpenPorts().size(), is(equalTo(100)));
+        assertThat(results.lastCount, is(equalTo(200)));
+    }
+
+    @Test
+    void shouldNotifyOpenPortsInBatches() throws Exception {
+        // Given
+        int[] ports = new int[20];
+        for (int i = 0; i < ports.length; i++) {
+            ports[i] = listen();
+        }
+        NioPortScanner scanner = new NioPortScanner(loopback, ports, 1, 1000, results, 5);
+        // When
+        scanner.scan();
+        // Then
+        assertThat(results.getOpenPorts().size(), is(equalTo(20)));
+        assertThat(results.batches.size(), is(greaterThanOrEqualTo(ports.length / 5)));
+        assertThat(results.batches, everyItem(hasSize(lessThanOrEqualTo(5))));
+    }
+
+    @Test
+    void shouldRetryTimedOutPortsWithConfiguredTimeout() throws Exception {
+        // Given
+        int[] ports = new int[20];
+        for (int i = 0; i < ports.length; i++) {
+            ports[i] = listen();
+        }
+        RttEstimator expiringEstimator =
+                new RttEstimator(NioPortScanner.MIN_TIMEOUT_IN_MS, 1000) {
+                    @Override
+                    long getTimeoutNanos() {
+                        return 0;
+                    }
+                };
+        NioPortScanner scanner =
+                new NioPortScanner(loopback, ports, 10, 1000, expiringEstimator, results, 50);
+        // When
+        scanner.scan();
+        // Then
+        assertThat(results.getOpenPorts().size(), is(equalTo(ports.length)));
+        assertThat(results.lastCount, is(equalTo(ports.length)));
+    }
+
+    @Test
+    void shouldNotScanIfStopped() throws Exception {
+        // Given
+        int open = listen();
+        NioPortScanner scanner = new NioPortScanner(loopback, new int[] {open}, 10, 1000, results);
+        scanner.stop();
+        // When
+        scanner.scan();
+        // Then
+        assertThat(results.getOpenPorts(), is(empty()));
+        assertThat(results.lastCount, is(equalTo(0)));
+    }
+
+    @Test
+    void shouldStopScanFromListener() throws Exception {
+        // Given
+        int[] ports = new int[20];
+        for (int i = 0; i < ports.length; i++) {
+            ports[i] = listen();
+        }
+        List<Integer> openPorts = new ArrayList<>();
+        NioPortScanner[] scanner = new NioPortScanner[1];
+        scanner[0] =
+                new NioPortScanner(
+                        loopback,
+                        ports,
+                        1,
+                        1000,
+                        new NioPortScanner.Listener() {
+
+                            @Override
+                            public void portsOpen(List<Integer> ports) {
+                                openPorts.addAll(ports);
+                                scanner[0].stop();
+                            }
+
+                            @Override
+                            public void portsScanned(int count) {
+                                // Nothing to do.
+                            }
+                        },
+                        1);
+        // When
+        scanner[0].scan();
+        // Then
+        assertThat(openPorts, contains(ports[0]));
+    }
+
+    private int listen() throws IOException {
+        ServerSocket listener = new ServerSocket(0, 50, loopback);
+        listeners.add(listener);
+        return listener.getLocalPort();
+    }
+
+    private int closedPort() throws IOException {
+        try (ServerSocket listener = new ServerSocket(0, 50, loopback)) {
+            return listener.getLocalPort();
+        }
+    }
+
+    private static class ResultsListener implements NioPortScanner.Listener {
+
+        private final List<List<Integer>> batches = new ArrayList<>();
+        private int lastCount;
+
+        @Override
+        public void portsOpen(List<Integer> ports) {
+            batches.add(ports);
+        }
+
+        @Override
+        public void portsScanned(int count) {
+            lastCount = count;
+        }
+
+        List<Integer> getOpenPorts() {
+            List<Integer> openPorts = new ArrayList<>();
+            batches.forEach(openPorts::addAll);
+            return openPorts;
+        }
+    }
+}
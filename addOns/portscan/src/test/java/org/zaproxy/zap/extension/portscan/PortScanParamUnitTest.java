@@ -120,4 +120,27 @@ class PortScanParamUnitTest {
             assertThat(param.getThreadPerScan(), is(equalTo(3)));
         }
     }
+
+    @Test
+    void shouldDefaultNonBlockingOptions() {
+        // Given
+        configuration = new ZapXmlConfiguration();
+        // When
+        param.load(configuration);
+        // Then
+        assertThat(param.isNonBlocking(), is(equalTo(true)));
+        assertThat(param.getMaxConnectionsPerHost(), is(equalTo(500)));
+    }
+
+    @Test
+    void shouldLoadNonBlockingOptionsFromConfig() {
+        // Given
+        configuration.setProperty("portscan.nonBlocking", false);
+        configuration.setProperty("portscan.maxConnectionsPerHost", 50);
+        // When
+        param.load(configuration);
+        // Then
+        assertThat(param.isNonBlocking(), is(equalTo(false)));
+        assertThat(param.getMaxConnectionsPerHost(), is(equalTo(50)));
+    }
 }
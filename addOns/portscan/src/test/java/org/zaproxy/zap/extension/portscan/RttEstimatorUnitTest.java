@@ -0,0 +1,103 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.portscan;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link RttEstimator}. */
+class RttEstimatorUnitTest {
+
+    @Test
+    void shouldUseMaxTimeoutBeforeMeasuring() {
+        // Given
+        RttEstimator estimator = new RttEstimator(20, 100);
+        // When
+        long timeout = estimator.getTimeoutNanos();
+        // Then
+        assertThat(timeout, is(equalTo(TimeUnit.MILLISECONDS.toNanos(100))));
+    }
+
+    @Test
+    void shouldHaveNoTimeoutIfNoMax() {
+        // Given
+        RttEstimator estimator = new RttEstimator(20, 0);
+        // When
+        long timeout = estimator.getTimeoutNanos();
+        // Then
+        assertThat(timeout, is(equalTo(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void shouldDeriveTimeoutFromRtt() {
+        // Given
+        RttEstimator estimator = new RttEstimator(0, 1000);
+        // When
+        estimator.addSample(TimeUnit.MILLISECONDS.toNanos(10));
+        // Then
+        assertThat(estimator.getTimeoutNanos(), is(equalTo(TimeUnit.MILLISECONDS.toNanos(30))));
+    }
+
+    @Test
+    void shouldConvergeToStableRtt() {
+        // Given
+        RttEstimator estimator = new RttEstimator(0, 1000);
+        // When
+        for (int i = 0; i < 100; i++) {
+            estimator.addSample(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        // Then
+        assertThat(TimeUnit.NANOSECONDS.toMillis(estimator.getTimeoutNanos()), is(equalTo(10L)));
+    }
+
+    @Test
+    void shouldNotGoBelowMinTimeout() {
+        // Given
+        RttEstimator estimator = new RttEstimator(20, 100);
+        // When
+        estimator.addSample(TimeUnit.MICROSECONDS.toNanos(50));
+        // Then
+        assertThat(estimator.getTimeoutNanos(), is(equalTo(TimeUnit.MILLISECONDS.toNanos(20))));
+    }
+
+    @Test
+    void shouldNotGoAboveMaxTimeout() {
+        // Given
+        RttEstimator estimator = new RttEstimator(20, 100);
+        // When
+        estimator.addSample(TimeUnit.MILLISECONDS.toNanos(500));
+        // Then
+        assertThat(estimator.getTimeoutNanos(), is(equalTo(TimeUnit.MILLISECONDS.toNanos(100))));
+    }
+
+    @Test
+    void shouldLimitMinTimeoutToMaxTimeout() {
+        // Given
+        RttEstimator estimator = new RttEstimator(20, 10);
+        // When
+        estimator.addSample(TimeUnit.MICROSECONDS.toNanos(50));
+        // Then
+        assertThat(estimator.getTimeoutNanos(), is(equalTo(TimeUnit.MILLISECONDS.toNanos(10))));
+    }
+}
@@ -20,12 +20,16 @@
 package org.zaproxy.zap.extension.replacer;
 
 import java.awt.event.KeyEvent;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -35,12 +39,14 @@ import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.control.Control;
 import org.parosproxy.paros.extension.ExtensionAdaptor;
 import org.parosproxy.paros.extension.ExtensionHook;
+import org.parosproxy.paros.network.HttpBody;
 import org.parosproxy.paros.network.HttpHeaderField;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpRequestHeader;
 import org.parosproxy.paros.network.HttpResponseHeader;
 import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.zap.extension.replacer.ReplacerRuleSet.CompiledRule;
 import org.zaproxy.zap.network.HttpSenderListener;
 import org.zaproxy.zap.view.ZapMenuItem;
 
@@ -58,6 +64,9 @@ public class ExtensionReplacer extends ExtensionAdaptor implements HttpSenderLis
     private static final String RINT_TOKEN = "RINT";
     private static final String UUID_TOKEN = "UUID";
     private static final String TICKS_TOKEN = "TICKS";
+    private static final Pattern WINDOWS_CHARSET_PATTERN = Pattern.compile("windows-125[0-8]");
+    private static final Map<String, Boolean> ASCII_TRANSPARENT_CHARSETS =
+            new ConcurrentHashMap<>();
 
     public static final String NAME = "ExtensionReplacer";
 
@@ -67,6 +76,7 @@ public class ExtensionReplacer extends ExtensionAdaptor implements HttpSenderLis
     private OptionsReplacerPanel optionsReplacerPanel;
     private ReplacerParam params;
     private ZapMenuItem replacerMenuItem;
+    private volatile ReplacerRuleSet ruleSet = ReplacerRuleSet.EMPTY;
     private static final Logger LOGGER = LogManager.getLogger(ExtensionReplacer.class);
 
     public ExtensionReplacer() {
@@ -112,6 +122,26 @@ public class ExtensionReplacer extends ExtensionAdaptor implements HttpSenderLis
         return params;
     }
 
+    /**
+     * Gets the compiled rules, compiling them again if changed.
+     *
+     * @return the compiled rules, never {@code null}.
+     */
+    private ReplacerRuleSet getRuleSet() {
+        List<ReplacerParamRule> rules = getParams().getRules();
+        ReplacerRuleSet current = ruleSet;
+        if (!current.isUpToDate(rules)) {
+            synchronized (this) {
+                current = ruleSet;
+                if (!current.isUpToDate(rules)) {
+                    current = ReplacerRuleSet.compile(rules);
+                    ruleSet = current;
+                }
+            }
+        }
+        return current;
+    }
+
     @Override
     public String getUIName() {
         return Constant.messages.getString(PREFIX + ".name");
@@ -143,16 +173,45 @@ public class ExtensionReplacer extends ExtensionAdaptor implements HttpSenderLis
         return replacerMenuItem;
     }
 
-    private static boolean contains(String original, String match, Pattern p) {
+    /**
+     * Replaces the matches of the given rule in the given string.
+     *
+     * @return the string with the matches replaced, or {@code null} if the rule did not match.
+     */
+    private static String replace(String original, CompiledRule compiledRule) {
+        ReplacerParamRule rule = compiledRule.getRule();
+        Pattern p = compiledRule.getPattern();
+        Matcher matcher = null;
         if (p != null) {
-            return p.matcher(original).find();
+            matcher = p.matcher(original);
+            if (!matcher.find()) {
+                return null;
+            }
+        } else if (!original.contains(rule.getMatchString())) {
+            return null;
         }
 
-        return original.contains(match);
+        String replacement =
+                processReplacement(
+                        rule.getMatchString(),
+                        p,
+                        rule.getEscapedReplacement(),
+                        rule.isTokenProcessingEnabled());
+
+        if (matcher != null) {
+            // Continue from the first match, already found.
+            StringBuilder sb = new StringBuilder(original.length());
+            do {
+                matcher.appendReplacement(sb, replacement);
+            } while (matcher.find());
+            matcher.appendTail(sb);
+            return sb.toString();
+        }
+        return original.replace(rule.getMatchString(), replacement);
     }
 
-    private static String replace(
-            String original, String match, Pattern p, String replacement, boolean tokenProcessing) {
+    private static String processReplacement(
+            String match, Pattern p, String replacement, boolean tokenProcessing) {
         LOGGER.debug("Static Replacement function.");
 
         if (tokenProcessing) {
@@ -197,11 +256,108 @@ public class ExtensionReplacer extends ExtensionAdaptor implements HttpSenderLis
             LOGGER.debug("Pattern is null? {}", (p == null));
             LOGGER.debug("Final replacement: {} => {}", match, replacement);
         }
+        return replacement;
+    }
 
-        if (p != null) {
-            return p.matcher(original).replaceAll(replacement);
+    /**
+     * Replaces the matches of the given rule in the given body.
+     *
+     * <p>Literal ASCII matches are replaced in the bytes of the body, if its charset is ASCII
+     * transparent, otherwise in the string of the body.
+     *
+     * @return {@code true} if the body was changed, {@code false} otherwise.
+     */
+    private static boolean replace(HttpBody body, CompiledRule compiledRule) {
+        byte[] match = compiledRule.getLiteralMatch();
+        if (match != null && !body.hasContentEncodingErrors() && isAsciiTransparent(body)) {
+            byte[] content =
+                    replace(body.getContent(), match, compiledRule.getLiteralReplacement());
+            if (content == null) {
+                return false;
+            }
+            body.setContent(content);
+            return true;
+        }
+
+        String original = body.toString();
+        String replaced = replace(original, compiledRule);
+        if (replaced == null || replaced.equals(original)) {
+            return false;
+        }
+        body.setBody(replaced);
+        return true;
+    }
+
+    private static boolean isAsciiTransparent(HttpBody body) {
+        String charset = body.getCharset();
+        if (charset == null) {
+            return true;
+        }
+        return ASCII_TRANSPARENT_CHARSETS.computeIfAbsent(
+                charset, ExtensionReplacer::isAsciiTransparent);
+    }
+
+    /**
+     * Tells whether or not the given charset encodes the ASCII chars as ASCII bytes and does not
+     * use ASCII bytes in the encoding of other chars, for example, Shift_JIS, GBK, and Big5 use
+     * them in multibyte chars.
+     *
+     * @param charset the name of the charset.
+     * @return {@code true} if the charset is ASCII transparent, {@code false} otherwise.
+     */
+    static boolean isAsciiTransparent(String charset) {
+        String name;
+        try {
+            name = Charset.forName(charset).name();
+        } catch (IllegalArgumentException e) {
+            return false;
         }
-        return original.replace(match, replacement);
+        return StandardCharsets.UTF_8.name().equals(name)
+                || StandardCharsets.US_ASCII.name().equals(name)
+                || name.startsWith("ISO-8859-")
+                || WINDOWS_CHARSET_PATTERN.matcher(name).matches();
+    }
+
+    /**
+     * Replaces all the occurrences of the match in the given data.
+     *
+     * @return the data with the occurrences replaced, or {@code null} if none.
+     */
+    static byte[] replace(byte[] data, byte[] match, byte[] replacement) {
+        int index = indexOf(data, match, 0);
+        if (index == -1) {
+            return null;
+        }
+        ByteArrayOutputStream out =
+                new ByteArrayOutputStream(
+                        data.length + Math.max(0, replacement.length - match.length));
+        int start = 0;
+        do {
+            out.write(data, start, index - start);
+            out.write(replacement, 0, replacement.length);
+            start = index + match.length;
+            index = indexOf(data, match, start);
+        } while (index != -1);
+        out.write(data, start, data.length - start);
+        return out.toByteArray();
+    }
+
+    private static int indexOf(byte[] data, byte[] match, int from) {
+        byte first = match[0];
+        int max = data.length - match.length;
+        for (int i = from; i <= max; i++) {
+            if (data[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < match.length && data[i + j] == match[j]) {
+                j++;
+            }
+            if (j == match.length) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     private static int parseInt(String value, int defaultValue) {
@@ -228,79 +384,65 @@ public class ExtensionReplacer extends ExtensionAdaptor implements HttpSenderLis
     @Override
     @SuppressWarnings("unchecked")
     public void onHttpRequestSend(HttpMessage msg, int initiator, HttpSender httpSender) {
+        List<CompiledRule> rules = getRuleSet().getRequestRules(initiator);
+        if (rules.isEmpty()) {
+            return;
+        }
+
+        UrlMatcher urlMatcher = new UrlMatcher(msg);
         boolean hostHeaderChanged = false;
-        for (ReplacerParamRule rule : this.getParams().getRules()) {
-            if (rule.isEnabled()
-                    && rule.appliesToInitiator(initiator)
-                    && rule.matchesUrl(msg.getRequestHeader().getURI().toString())) {
-                Pattern p = null;
-                if (rule.isMatchRegex()) {
-                    p = Pattern.compile(rule.getMatchString());
-                }
-                switch (rule.getMatchType()) {
-                    case REQ_HEADER:
-                        LOGGER.debug(
-                                "Add in request header: {} : {}",
-                                rule.getMatchString(),
-                                rule.getReplacement());
-                        hostHeaderChanged |=
-                                HttpRequestHeader.HOST.equalsIgnoreCase(rule.getMatchString());
-                        if (rule.getReplacement().length() == 0) {
-                            // Remove the header
-                            msg.getRequestHeader().setHeader(rule.getMatchString(), null);
-                        } else {
-                            msg.getRequestHeader()
-                                    .setHeader(rule.getMatchString(), rule.getEscapedReplacement());
-                        }
-                        break;
-                    case REQ_HEADER_STR:
-                        LOGGER.debug(
-                                "Replace in request header: {} with {}",
-                                rule.getMatchString(),
-                                rule.getReplacement());
-                        String header = msg.getRequestHeader().toString();
-                        if (contains(header, rule.getMatchString(), p)) {
-                            header =
-                                    replace(
-                                            header,
-                                            rule.getMatchString(),
-                                            p,
-                                            rule.getEscapedReplacement(),
-                                            rule.isTokenProcessingEnabled());
-                            try {
-                                List<HttpHeaderField> oldHostHeaders = getHostHeaders(msg);
-                                msg.setRequestHeader(new HttpRequestHeader(header));
-                                hostHeaderChanged |= !oldHostHeaders.equals(getHostHeaders(msg));
-                            } catch (HttpMalformedHeaderException e) {
-                                LOGGER.error(e.getMessage(), e);
-                            }
-                        }
-                        break;
-                    case REQ_BODY_STR:
-                        LOGGER.debug(
-                                "Add in request body: {} : {}",
-                                rule.getMatchString(),
-                                rule.getReplacement());
-                        String body = msg.getRequestBody().toString();
-                        if (contains(body, rule.getMatchString(), p)) {
-                            body =
-                                    replace(
-                                            body,
-                                            rule.getMatchString(),
-                                            p,
-                                            rule.getEscapedReplacement(),
-                                            rule.isTokenProcessingEnabled());
-                            msg.getRequestBody().setBody(body);
-                            msg.getRequestHeader().setContentLength(msg.getRequestBody().length());
+        for (CompiledRule compiledRule : rules) {
+            ReplacerParamRule rule = compiledRule.getRule();
+            if (!urlMatcher.matches(rule)) {
+                continue;
+            }
+            switch (rule.getMatchType()) {
+                case REQ_HEADER:
+                    LOGGER.debug(
+                            "Add in request header: {} : {}",
+                            rule.getMatchString(),
+                            rule.getReplacement());
+                    hostHeaderChanged |=
+                            HttpRequestHeader.HOST.equalsIgnoreCase(rule.getMatchString());
+                    if (rule.getReplacement().length() == 0) {
+                        // Remove the header
+                        msg.getRequestHeader().setHeader(rule.getMatchString(), null);
+                    } else {
+                        msg.getRequestHeader()
+                                .setHeader(rule.getMatchString(), rule.getEscapedReplacement());
+                    }
+                    urlMatcher.reset();
+                    break;
+                case REQ_HEADER_STR:
+                    LOGGER.debug(
+                            "Replace in request header: {} with {}",
+                            rule.getMatchString(),
+                            rule.getReplacement());
+                    String header = msg.getRequestHeader().toString();
+                    String newHeader = replace(header, compiledRule);
+                    if (newHeader != null && !newHeader.equals(header)) {
+                        try {
+                            List<HttpHeaderField> oldHostHeaders = getHostHeaders(msg);
+                            msg.setRequestHeader(new HttpRequestHeader(newHeader));
+                            hostHeaderChanged |= !oldHostHeaders.equals(getHostHeaders(msg));
+                            urlMatcher.reset();
+                        } catch (HttpMalformedHeaderException e) {
+                            LOGGER.error(e.getMessage(), e);
                         }
-                        break;
-                    case RESP_HEADER:
-                    case RESP_HEADER_STR:
-                    case RESP_BODY_STR:
-                        // Ignore response rules here
-                        LOGGER.debug("Ignore response rule {}", rule.getDescription());
-                        break;
-                }
+                    }
+                    break;
+                case REQ_BODY_STR:
+                    LOGGER.debug(
+                            "Add in request body: {} : {}",
+                            rule.getMatchString(),
+                            rule.getReplacement());
+                    if (replace(msg.getRequestBody(), compiledRule)) {
+                        msg.getRequestHeader().setContentLength(msg.getRequestBody().length());
+                    }
+                    break;
+                default:
+                    // Response rules are not indexed for requests.
+                    break;
             }
         }
 
@@ -325,76 +467,91 @@ public class ExtensionReplacer extends ExtensionAdaptor implements HttpSenderLis
 
     @Override
     public void onHttpResponseReceive(HttpMessage msg, int initiator, HttpSender httpSender) {
-        for (ReplacerParamRule rule : this.getParams().getRules()) {
-            if (rule.isEnabled()
-                    && rule.appliesToInitiator(initiator)
-                    && rule.matchesUrl(msg.getRequestHeader().getURI().toString())) {
-                Pattern p = null;
-                if (rule.isMatchRegex()) {
-                    p = Pattern.compile(rule.getMatchString());
-                }
-                switch (rule.getMatchType()) {
-                    case REQ_HEADER:
-                    case REQ_HEADER_STR:
-                    case REQ_BODY_STR:
-                        // Ignore request rules here
-                        LOGGER.debug("Ignore request rule {}", rule.getDescription());
-                        break;
-                    case RESP_HEADER:
-                        LOGGER.debug(
-                                "Add in response header: {} : {}",
-                                rule.getMatchString(),
-                                rule.getReplacement());
-                        if (rule.getReplacement().length() == 0) {
-                            // Remove the header
-                            msg.getResponseHeader().setHeader(rule.getMatchString(), null);
-                        } else {
-                            msg.getResponseHeader()
-                                    .setHeader(rule.getMatchString(), rule.getEscapedReplacement());
-                        }
-                        break;
-                    case RESP_HEADER_STR:
-                        LOGGER.debug(
-                                "Replace in response header: {} with {}",
-                                rule.getMatchString(),
-                                rule.getReplacement());
-                        String header = msg.getResponseHeader().toString();
-                        if (contains(header, rule.getMatchString(), p)) {
-                            header =
-                                    replace(
-                                            header,
-                                            rule.getMatchString(),
-                                            p,
-                                            rule.getEscapedReplacement(),
-                                            rule.isTokenProcessingEnabled());
-                            try {
-                                msg.setResponseHeader(new HttpResponseHeader(header));
-                            } catch (HttpMalformedHeaderException e) {
-                                LOGGER.error(e.getMessage(), e);
-                            }
-                        }
-                        break;
-                    case RESP_BODY_STR:
-                        LOGGER.debug(
-                                "Replace in response body: {} with {}",
-                                rule.getMatchString(),
-                                rule.getReplacement());
-                        String body = msg.getResponseBody().toString();
-                        if (contains(body, rule.getMatchString(), p)) {
-                            body =
-                                    replace(
-                                            body,
-                                            rule.getMatchString(),
-                                            p,
-                                            rule.getEscapedReplacement(),
-                                            rule.isTokenProcessingEnabled());
-                            msg.getResponseBody().setBody(body);
-                            msg.getResponseHeader()
-                                    .setContentLength(msg.getResponseBody().length());
+        List<CompiledRule> rules = getRuleSet().getResponseRules(initiator);
+        if (rules.isEmpty()) {
+            return;
+        }
+
+        UrlMatcher urlMatcher = new UrlMatcher(msg);
+        for (CompiledRule compiledRule : rules) {
+            ReplacerParamRule rule = compiledRule.getRule();
+            if (!urlMatcher.matches(rule)) {
+                continue;
+            }
+            switch (rule.getMatchType()) {
+                case RESP_HEADER:
+                    LOGGER.debug(
+                            "Add in response header: {} : {}",
+                            rule.getMatchString(),
+                            rule.getReplacement());
+                    if (rule.getReplacement().length() == 0) {
+                        // Remove the header
+                        msg.getResponseHeader().setHeader(rule.getMatchString(), null);
+                    } else {
+                        msg.getResponseHeader()
+                                .setHeader(rule.getMatchString(), rule.getEscapedReplacement());
+                    }
+                    break;
+                case RESP_HEADER_STR:
+                    LOGGER.debug(
+                            "Replace in response header: {} with {}",
+                            rule.getMatchString(),
+                            rule.getReplacement());
+                    String header = msg.getResponseHeader().toString();
+                    String newHeader = replace(header, compiledRule);
+                    if (newHeader != null && !newHeader.equals(header)) {
+                        try {
+                            msg.setResponseHeader(new HttpResponseHeader(newHeader));
+                        } catch (HttpMalformedHeaderException e) {
+                            LOGGER.error(e.getMessage(), e);
                         }
-                        break;
-                }
+                    }
+                    break;
+                case RESP_BODY_STR:
+                    LOGGER.debug(
+                            "Replace in response body: {} with {}",
+                            rule.getMatchString(),
+                            rule.getReplacement());
+                    if (replace(msg.getResponseBody(), compiledRule)) {
+                        msg.getResponseHeader().setContentLength(msg.getResponseBody().length());
+                    }
+                    break;
+                default:
+                    // Request rules are not indexed for responses.
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Matches the URL of a message against the URL regexes of the rules, computing the URL once and
+     * matching each distinct regex once, until reset.
+     */
+    private static class UrlMatcher {
+
+        private final HttpMessage msg;
+        private String url;
+        private Map<String, Boolean> results;
+
+        UrlMatcher(HttpMessage msg) {
+            this.msg = msg;
+        }
+
+        boolean matches(ReplacerParamRule rule) {
+            if (rule.getUrl().isEmpty()) {
+                return true;
             }
+            if (url == null) {
+                url = msg.getRequestHeader().getURI().toString();
+                results = new HashMap<>();
+            }
+            return results.computeIfAbsent(rule.getUrl(), k -> rule.matchesUrl(url));
+        }
+
+        /** Resets the URL and the results, the request header was changed by a rule. */
+        void reset() {
+            url = null;
+            results = null;
         }
     }
 }
@@ -44,6 +44,7 @@ public class ReplacerParamRule extends Enableable {
     private boolean matchRegex;
     private List<Integer> initiators;
     private boolean tokenProcessingEnabled;
+    private int version;
 
     public ReplacerParamRule() {
         this("", MatchType.RESP_BODY_STR, "");
@@ -147,6 +148,7 @@ public class ReplacerParamRule extends Enableable {
 
     public void setDescription(String description) {
         this.description = description;
+        version++;
     }
 
     public String getUrl() {
@@ -154,6 +156,7 @@ public class ReplacerParamRule extends Enableable {
     }
 
     public void setUrl(String url) {
+        version++;
         if (url == null || url.isEmpty()) {
             this.url = "";
             urlPattern = null;
@@ -177,6 +180,7 @@ public class ReplacerParamRule extends Enableable {
 
     public void setMatchString(String matchString) {
         this.matchString = matchString;
+        version++;
     }
 
     public MatchType getMatchType() {
@@ -185,6 +189,7 @@ public class ReplacerParamRule extends Enableable {
 
     public void setMatchType(MatchType matchType) {
         this.matchType = matchType;
+        version++;
     }
 
     public boolean isMatchRegex() {
@@ -193,6 +198,7 @@ public class ReplacerParamRule extends Enableable {
 
     public void setMatchRegex(boolean matchRegex) {
         this.matchRegex = matchRegex;
+        version++;
     }
 
     public String getReplacement() {
@@ -201,6 +207,8 @@ public class ReplacerParamRule extends Enableable {
 
     public void setReplacement(String replacement) {
         this.replacement = replacement;
+        this.escapedReplacement = replacement != null ? HexString.compile(replacement) : null;
+        version++;
     }
 
     String getEscapedReplacement() {
@@ -213,6 +221,7 @@ public class ReplacerParamRule extends Enableable {
 
     public void setInitiators(List<Integer> initiators) {
         this.initiators = initiators;
+        version++;
     }
 
     public boolean appliesToInitiator(int initiator) {
@@ -227,6 +236,23 @@ public class ReplacerParamRule extends Enableable {
         return tokenProcessingEnabled;
     }
 
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+        version++;
+    }
+
+    /**
+     * Gets the version of the rule, changed each time the rule is changed.
+     *
+     * <p>Allows to know if the rule changed since it was {@link ReplacerRuleSet compiled}.
+     *
+     * @return the version of the rule.
+     */
+    int getVersion() {
+        return version;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -0,0 +1,254 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.replacer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.zaproxy.zap.extension.replacer.ReplacerParamRule.MatchType;
+
+/**
+ * The enabled rules of the replacer, compiled and indexed by message direction and initiator.
+ *
+ * <p>A snapshot of the rules, the set should be {@link #isUpToDate(List) checked} against the
+ * current rules before being used.
+ */
+class ReplacerRuleSet {
+
+    private static final Logger LOGGER = LogManager.getLogger(ReplacerRuleSet.class);
+
+    static final ReplacerRuleSet EMPTY = new ReplacerRuleSet(Collections.emptyList());
+
+    private final ReplacerParamRule[] rules;
+    private final int[] versions;
+
+    private final InitiatorIndex requestRules;
+    private final InitiatorIndex responseRules;
+
+    private ReplacerRuleSet(List<ReplacerParamRule> rules) {
+        this.rules = rules.toArray(new ReplacerParamRule[0]);
+        this.versions = new int[this.rules.length];
+
+        List<CompiledRule> request = new ArrayList<>();
+        List<CompiledRule> response = new ArrayList<>();
+        for (int i = 0; i < this.rules.length; i++) {
+            ReplacerParamRule rule = this.rules[i];
+            versions[i] = rule.getVersion();
+            if (!rule.isEnabled()) {
+                continue;
+            }
+            CompiledRule compiledRule = compile(rule);
+            if (compiledRule == null) {
+                continue;
+            }
+            if (isRequestRule(rule.getMatchType())) {
+                request.add(compiledRule);
+            } else {
+                response.add(compiledRule);
+            }
+        }
+        requestRules = new InitiatorIndex(request);
+        responseRules = new InitiatorIndex(response);
+    }
+
+    /**
+     * Compiles the given rules.
+     *
+     * @param rules the rules to compile.
+     * @return the compiled rules.
+     */
+    static ReplacerRuleSet compile(List<ReplacerParamRule> rules) {
+        return new ReplacerRuleSet(rules);
+    }
+
+    private static CompiledRule compile(ReplacerParamRule rule) {
+        try {
+            return new CompiledRule(rule);
+        } catch (PatternSyntaxException e) {
+            LOGGER.warn(
+                    "Ignoring replacer rule {} with invalid regex: {}",
+                    rule.getDescription(),
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isRequestRule(MatchType matchType) {
+        switch (matchType) {
+            case REQ_HEADER:
+            case REQ_HEADER_STR:
+            case REQ_BODY_STR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Tells whether or not this set was compiled from the given rules, in their current state.
+     *
+     * @param rules the current rules.
+     * @return {@code true} if the set is up to date, {@code false} otherwise.
+     */
+    boolean isUpToDate(List<ReplacerParamRule> rules) {
+        if (rules.size() != this.rules.length) {
+            return false;
+        }
+        for (int i = 0; i < this.rules.length; i++) {
+            ReplacerParamRule rule = rules.get(i);
+            if (rule != this.rules[i] || rule.getVersion() != versions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the request rules that apply to the given initiator, in the order they were defined.
+     *
+     * @param initiator the initiator of the message.
+     * @return the rules, never {@code null}.
+     */
+    List<CompiledRule> getRequestRules(int initiator) {
+        return requestRules.get(initiator);
+    }
+
+    /**
+     * Gets the response rules that apply to the given initiator, in the order they were defined.
+     *
+     * @param initiator the initiator of the message.
+     * @return the rules, never {@code null}.
+     */
+    List<CompiledRule> getResponseRules(int initiator) {
+        return responseRules.get(initiator);
+    }
+
+    /** The rules for each of the initiators explicitly set, and for any other initiator. */
+    private static class InitiatorIndex {
+
+        private final List<CompiledRule> allInitiatorsRules;
+        private final Map<Integer, List<CompiledRule>> initiatorRules;
+
+        InitiatorIndex(List<CompiledRule> rules) {
+            allInitiatorsRules = new ArrayList<>();
+            Set<Integer> initiators = new LinkedHashSet<>();
+            for (CompiledRule rule : rules) {
+                if (rule.getRule().appliesToAllInitiators()) {
+                    allInitiatorsRules.add(rule);
+                } else {
+                    initiators.addAll(rule.getRule().getInitiators());
+                }
+            }
+
+            initiatorRules = new HashMap<>();
+            for (Integer initiator : initiators) {
+                List<CompiledRule> list = new ArrayList<>();
+                for (CompiledRule rule : rules) {
+                    if (rule.getRule().appliesToInitiator(initiator)) {
+                        list.add(rule);
+                    }
+                }
+                initiatorRules.put(initiator, list);
+            }
+        }
+
+        List<CompiledRule> get(int initiator) {
+            return initiatorRules.getOrDefault(initiator, allInitiatorsRules);
+        }
+    }
+
+    /** A rule with its match compiled. */
+    static class CompiledRule {
+
+        private final ReplacerParamRule rule;
+        private final Pattern pattern;
+        private final byte[] literalMatch;
+        private final byte[] literalReplacement;
+
+        CompiledRule(ReplacerParamRule rule) {
+            this.rule = rule;
+            this.pattern = rule.isMatchRegex() ? Pattern.compile(rule.getMatchString()) : null;
+
+            String replacement = rule.getEscapedReplacement();
+            if (pattern == null
+                    && !rule.isTokenProcessingEnabled()
+                    && !rule.getMatchString().isEmpty()
+                    && isAscii(rule.getMatchString())
+                    && replacement != null
+                    && isAscii(replacement)) {
+                literalMatch = rule.getMatchString().getBytes(StandardCharsets.US_ASCII);
+                literalReplacement = replacement.getBytes(StandardCharsets.US_ASCII);
+            } else {
+                literalMatch = null;
+                literalReplacement = null;
+            }
+        }
+
+        private static boolean isAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) > 0x7F) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        ReplacerParamRule getRule() {
+            return rule;
+        }
+
+        /**
+         * Gets the compiled regex of the match string.
+         *
+         * @return the pattern, or {@code null} if the match string is not a regex.
+         */
+        Pattern getPattern() {
+            return pattern;
+        }
+
+        /**
+         * Gets the ASCII bytes of the match string, if the match can be done on the bytes of the
+         * body.
+         *
+         * @return the bytes, or {@code null} if the match needs to be done on the string.
+         */
+        byte[] getLiteralMatch() {
+            return literalMatch;
+        }
+
+        /**
+         * Gets the ASCII bytes of the replacement.
+         *
+         * @return the bytes, or {@code null} if {@link #getLiteralMatch()} is {@code null}.
+         */
+        byte[] getLiteralReplacement() {
+            return literalReplacement;
+        }
+    }
+}
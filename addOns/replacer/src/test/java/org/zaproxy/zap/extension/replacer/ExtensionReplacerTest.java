@@ -26,6 +26,7 @@ import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.matchesRegex;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.zaproxy.zap.extension.replacer.ReplacerParamRule.MatchType.REQ_BODY_STR;
 import static org.zaproxy.zap.extension.replacer.ReplacerParamRule.MatchType.REQ_HEADER;
@@ -34,6 +35,8 @@ import static org.zaproxy.zap.extension.replacer.ReplacerParamRule.MatchType.RES
 import static org.zaproxy.zap.extension.replacer.ReplacerParamRule.MatchType.RESP_HEADER;
 import static org.zaproxy.zap.extension.replacer.ReplacerParamRule.MatchType.RESP_HEADER_STR;
 
+import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.regex.PatternSyntaxException;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +48,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpRequestHeader;
+import org.parosproxy.paros.network.HttpResponseHeader;
 
 class ExtensionReplacerTest {
 
@@ -669,6 +673,201 @@ class ExtensionReplacerTest {
         assertThat(msg.getRequestBody().toString(), equalTo("--TICKS--"));
     }
 
+    @Test
+    void shouldReplaceLiteralInResponseBodyKeepingOtherBytes() throws HttpMalformedHeaderException {
+        // Given
+        replacerRule(RESP_BODY_STR, "abc", "xy");
+        msg.setResponseHeader("HTTP/1.1 200 OK");
+        msg.getResponseBody().setBody(new byte[] {'a', 'b', 'c', (byte) 0xC3, 'a', 'b', 'c'});
+
+        // When
+        extensionReplacer.onHttpResponseReceive(msg, 0, null);
+
+        // Then
+        assertThat(
+                msg.getResponseBody().getBytes(),
+                is(equalTo(new byte[] {'x', 'y', (byte) 0xC3, 'x', 'y'})));
+        assertThat(msg.getResponseHeader().getContentLength(), is(equalTo(5)));
+    }
+
+    @Test
+    void shouldNotChangeResponseIfNoMatch() throws HttpMalformedHeaderException {
+        // Given
+        replacerRule(RESP_BODY_STR, "abc", "xy");
+        replacerRule(RESP_HEADER_STR, "abc", "xy");
+        msg.setResponseHeader("HTTP/1.1 200 OK");
+        msg.setResponseBody("def");
+        HttpResponseHeader header = msg.getResponseHeader();
+
+        // When
+        extensionReplacer.onHttpResponseReceive(msg, 0, null);
+
+        // Then
+        assertThat(msg.getResponseHeader(), is(sameInstance(header)));
+        assertThat(msg.getResponseHeader().getContentLength(), is(equalTo(-1)));
+        assertThat(msg.getResponseBody().toString(), is(equalTo("def")));
+    }
+
+    @Test
+    void shouldApplyChangedRule() throws HttpMalformedHeaderException {
+        // Given
+        replacerRule(REQ_BODY_STR, "abc", "xy");
+        msg.setRequestHeader("POST / HTTP/1.1");
+        msg.setRequestBody("abc def");
+        extensionReplacer.onHttpRequestSend(msg, 0, null);
+        extensionReplacer.getParams().getRules().get(0).setMatchString("def");
+
+        // When
+        extensionReplacer.onHttpRequestSend(msg, 0, null);
+
+        // Then
+        assertThat(msg.getRequestBody().toString(), is(equalTo("xy xy")));
+    }
+
+    @Test
+    void shouldNotApplyDisabledRule() throws HttpMalformedHeaderException {
+        // Given
+        replacerRule(REQ_BODY_STR, "abc", "xy");
+        msg.setRequestHeader("POST / HTTP/1.1");
+        msg.setRequestBody("abc");
+        extensionReplacer.onHttpRequestSend(msg, 0, null);
+        extensionReplacer.getParams().getRules().get(0).setEnabled(false);
+        msg.setRequestBody("abc");
+
+        // When
+        extensionReplacer.onHttpRequestSend(msg, 0, null);
+
+        // Then
+        assertThat(msg.getRequestBody().toString(), is(equalTo("abc")));
+    }
+
+    @Test
+    void shouldApplyRulesOnlyToTheirInitiators() throws HttpMalformedHeaderException {
+        // Given
+        extensionReplacer
+                .getParams()
+                .getRules()
+                .add(
+                        new ReplacerParamRule(
+                                "", REQ_BODY_STR, "a", false, "b", Arrays.asList(1, 2), true));
+        extensionReplacer
+                .getParams()
+                .getRules()
+                .add(new ReplacerParamRule("", REQ_BODY_STR, "b", false, "c", null, true));
+        msg.setRequestHeader("POST / HTTP/1.1");
+        msg.setRequestBody("a");
+        HttpMessage otherMsg = new HttpMessage();
+        otherMsg.setRequestHeader("POST / HTTP/1.1");
+        otherMsg.setRequestBody("a");
+
+        // When
+        extensionReplacer.onHttpRequestSend(msg, 2, null);
+        extensionReplacer.onHttpRequestSend(otherMsg, 3, null);
+
+        // Then
+        assertThat(msg.getRequestBody().toString(), is(equalTo("c")));
+        assertThat(otherMsg.getRequestBody().toString(), is(equalTo("a")));
+    }
+
+    @Test
+    void shouldIgnoreRuleWithInvalidRegex() throws HttpMalformedHeaderException {
+        // Given
+        extensionReplacer
+                .getParams()
+                .getRules()
+                .add(new ReplacerParamRule("", REQ_BODY_STR, "(", true, "b", null, true));
+        replacerRule(REQ_BODY_STR, "a", "c");
+        msg.setRequestHeader("POST / HTTP/1.1");
+        msg.setRequestBody("a(");
+
+        // When
+        extensionReplacer.onHttpRequestSend(msg, 0, null);
+
+        // Then
+        assertThat(msg.getRequestBody().toString(), is(equalTo("c(")));
+    }
+
+    @Test
+    void shouldMatchUrlChangedByPreviousRule() throws HttpMalformedHeaderException {
+        // Given
+        replacerRule(REQ_HEADER_STR, "/a", "/b");
+        extensionReplacer
+                .getParams()
+                .getRules()
+                .add(
+                        new ReplacerParamRule(
+                                "", ".*/b", REQ_BODY_STR, "x", false, "y", null, true, false));
+        msg.setRequestHeader("POST http://example.com/a HTTP/1.1");
+        msg.setRequestBody("x");
+
+        // When
+        extensionReplacer.onHttpRequestSend(msg, 0, null);
+
+        // Then
+        assertThat(msg.getRequestHeader().getURI().toString(), is(equalTo("http://example.com/b")));
+        assertThat(msg.getRequestBody().toString(), is(equalTo("y")));
+    }
+
+    @Test
+    void shouldNotReplaceAsciiBytesOfMultibyteChars() throws HttpMalformedHeaderException {
+        // Given
+        Charset shiftJis = Charset.forName("Shift_JIS");
+        // The second byte of the char is the backslash.
+        String body = "\u30bd\\";
+        replacerRule(RESP_BODY_STR, "\\", "/");
+        msg.setResponseHeader("HTTP/1.1 200 OK\r\nContent-Type: text/plain; charset=Shift_JIS");
+        msg.getResponseBody().setCharset(shiftJis.name());
+        msg.getResponseBody().setBody(body.getBytes(shiftJis));
+
+        // When
+        extensionReplacer.onHttpResponseReceive(msg, 0, null);
+
+        // Then
+        assertThat(msg.getResponseBody().getBytes(), is(equalTo("\u30bd/".getBytes(shiftJis))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "UTF-8",
+                "utf8",
+                "US-ASCII",
+                "ISO-8859-1",
+                "ISO-8859-15",
+                "windows-1252",
+                "Cp1251"
+            })
+    void shouldBeAsciiTransparent(String charset) {
+        assertThat(ExtensionReplacer.isAsciiTransparent(charset), is(equalTo(true)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Shift_JIS", "GBK", "Big5", "UTF-16", "UTF-7", "not-a-charset"})
+    void shouldNotBeAsciiTransparent(String charset) {
+        assertThat(ExtensionReplacer.isAsciiTransparent(charset), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldReplaceAllOccurrencesInBytes() {
+        // Given
+        byte[] data = "aXbXXc".getBytes(US_ASCII);
+        // When
+        byte[] replaced =
+                ExtensionReplacer.replace(data, "X".getBytes(US_ASCII), "YZ".getBytes(US_ASCII));
+        // Then
+        assertThat(new String(replaced, US_ASCII), is(equalTo("aYZbYZYZc")));
+    }
+
+    @Test
+    void shouldReturnNullIfNoOccurrencesInBytes() {
+        // Given
+        byte[] data = "abc".getBytes(US_ASCII);
+        // When
+        byte[] replaced = ExtensionReplacer.replace(data, "bd".getBytes(US_ASCII), new byte[0]);
+        // Then
+        assertThat(replaced, is(nullValue()));
+    }
+
     private static ExtensionReplacer givenATokenProcessingReplacementRuleFor(
             ReplacerParamRule.MatchType matchType, String match, String replacement)
             throws HttpMalformedHeaderException {
@@ -37,8 +37,14 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -59,9 +65,7 @@ import org.parosproxy.paros.model.SiteMap;
 import org.parosproxy.paros.model.SiteNode;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.view.View;
-import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
-import org.thymeleaf.templateresolver.FileTemplateResolver;
 import org.xhtmlrenderer.pdf.ITextRenderer;
 import org.zaproxy.zap.extension.alert.AlertNode;
 import org.zaproxy.zap.extension.alert.ExtensionAlert;
@@ -90,6 +94,7 @@ public class ExtensionReports extends ExtensionAdaptor {
     private static final Pattern DATETIME_PATTERN = Pattern.compile(DATETIME_REGEX);
     private static final SimpleDateFormat SIMPLE_DATE_FORMAT =
             new SimpleDateFormat("EEE, d MMM yyyy HH:mm:ss");
+    private static final Object RESOURCES_LOCK = new Object();
     static final int RISK_FALSE_POSITIVE = -1;
 
     private ZapMenuItem reportMenu;
@@ -362,23 +367,126 @@ public class ExtensionReports extends ExtensionAdaptor {
     public File generateReport(
             ReportData reportData, Template template, String reportFilename, boolean display)
             throws IOException {
+        if (reportDataHandler != null) {
+            reportDataHandler.handle(reportData);
+        }
+        AlertNode rootNode = reportData.getAlertTreeRootNode();
+        return renderReport(
+                reportData,
+                template,
+                reportFilename,
+                display,
+                getAlertCountsByRisk(rootNode),
+                getAlertCountsByRule(rootNode));
+    }
+
+    /**
+     * Generates a report for each of the given templates, rendering them in parallel.
+     *
+     * <p>The report data, including the filtered alert tree and sections, is shared by all of the
+     * reports and the alert counts are calculated only once. The theme of the report data is used
+     * if the template has it, otherwise the first theme of the template (if any). The time taken to
+     * render each report is recorded in the {@code stats.reports.time.<template>} statistic.
+     *
+     * @param reportData the data used for all the reports.
+     * @param reportFilenames the templates mapped to the full path of the file the corresponding
+     *     report will be written to.
+     * @param display {@code true} if the reports should be displayed using the default application.
+     * @return the templates mapped to the file their report was written to.
+     * @throws IOException if an error occurred while generating any of the reports.
+     * @since 0.32.0
+     */
+    public Map<Template, File> generateReports(
+            ReportData reportData, Map<Template, String> reportFilenames, boolean display)
+            throws IOException {
+        if (reportDataHandler != null) {
+            reportDataHandler.handle(reportData);
+        }
+        AlertNode rootNode = reportData.getAlertTreeRootNode();
+        Map<Integer, Integer> alertCounts = getAlertCountsByRisk(rootNode);
+        Map<Integer, Integer> alertCountsByRule = getAlertCountsByRule(rootNode);
+
+        Map<Template, File> files = new LinkedHashMap<>();
+        int threads =
+                Math.max(
+                        1,
+                        Math.min(
+                                reportFilenames.size(),
+                                Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        threads,
+                        r -> {
+                            Thread t =
+                                    new Thread(r, "ZAP-Reports-" + threadNumber.getAndIncrement());
+                            t.setDaemon(true);
+                            return t;
+                        });
         try {
-            TemplateEngine templateEngine = new TemplateEngine();
-            FileTemplateResolver templateResolver = new FileTemplateResolver();
-            templateResolver.setTemplateMode(template.getMode());
-            templateEngine.setTemplateResolver(templateResolver);
+            Map<Template, Future<File>> futures = new LinkedHashMap<>();
+            reportFilenames.forEach(
+                    (template, reportFilename) ->
+                            futures.put(
+                                    template,
+                                    executor.submit(
+                                            () ->
+                                                    renderReport(
+                                                            getTemplateReportData(
+                                                                    reportData, template),
+                                                            template,
+                                                            reportFilename,
+                                                            display,
+                                                            alertCounts,
+                                                            alertCountsByRule))));
+
+            for (Map.Entry<Template, Future<File>> entry : futures.entrySet()) {
+                try {
+                    files.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException(
+                            "Failed to generate report: " + entry.getKey().getConfigName(), cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while generating the reports", e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return files;
+    }
 
-            templateEngine.setMessageResolver(new ReportMessageResolver(template));
+    private static ReportData getTemplateReportData(ReportData reportData, Template template) {
+        List<String> themes = template.getThemes();
+        String theme = reportData.getTheme();
+        if (themes.isEmpty() || themes.contains(theme)) {
+            return reportData;
+        }
+        return reportData.withTheme(themes.get(0));
+    }
 
+    private File renderReport(
+            ReportData reportData,
+            Template template,
+            String reportFilename,
+            boolean display,
+            Map<Integer, Integer> alertCounts,
+            Map<Integer, Integer> alertCountsByRule)
+            throws IOException {
+        long startTime = System.currentTimeMillis();
+        try {
             Context context = new Context();
             context.setVariable("alertTree", reportData.getAlertTreeRootNode());
             context.setVariable("reportTitle", reportData.getTitle());
             context.setVariable("description", reportData.getDescription());
             context.setVariable("helper", new ReportHelper());
-            context.setVariable(
-                    "alertCounts", getAlertCountsByRisk(reportData.getAlertTreeRootNode()));
-            context.setVariable(
-                    "alertCountsByRule", getAlertCountsByRule(reportData.getAlertTreeRootNode()));
+            context.setVariable("alertCounts", alertCounts);
+            context.setVariable("alertCountsByRule", alertCountsByRule);
             context.setVariable("reportData", reportData);
 
             ExtensionStats extStats =
@@ -397,10 +505,6 @@ public class ExtensionReports extends ExtensionAdaptor {
             context.setVariable("zapVersion", Constant.PROGRAM_VERSION);
             context.setVariable("programName", Constant.PROGRAM_NAME_SHORT);
 
-            if (reportDataHandler != null) {
-                reportDataHandler.handle(reportData);
-            }
-
             if ("PDF".equals(template.getFormat())) {
                 if (reportFilename.toLowerCase().endsWith(".pdf")) {
                     reportFilename = reportFilename.substring(0, reportFilename.length() - 4);
@@ -418,24 +522,30 @@ public class ExtensionReports extends ExtensionAdaptor {
                 } else {
                     subDirName = reportFilename + "_d";
                 }
-                File subDir = new File(subDirName);
-                int i = 1;
-                while (subDir.exists()) {
-                    i += 1;
-                    subDir = new File(subDirName + i);
+                // Reports rendered in parallel might share the same base name
+                synchronized (RESOURCES_LOCK) {
+                    File subDir = new File(subDirName);
+                    int i = 1;
+                    while (subDir.exists()) {
+                        i += 1;
+                        subDir = new File(subDirName + i);
+                    }
+                    LOGGER.debug(
+                            "Copying resources from {} to {}",
+                            resourcesDir.getAbsolutePath(),
+                            subDir.getAbsolutePath());
+                    FileUtils.copyDirectory(resourcesDir, subDir);
+                    context.setVariable("resources", subDir.getName());
                 }
-                LOGGER.debug(
-                        "Copying resources from {} to {}",
-                        resourcesDir.getAbsolutePath(),
-                        subDir.getAbsolutePath());
-                FileUtils.copyDirectory(resourcesDir, subDir);
-                context.setVariable("resources", subDir.getName());
             }
 
             File file = new File(reportFilename);
             try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
-                templateEngine.process(
-                        template.getReportTemplateFile().getAbsolutePath(), context, writer);
+                template.getTemplateEngine()
+                        .process(
+                                template.getReportTemplateFile().getAbsolutePath(),
+                                context,
+                                writer);
                 Stats.incCounter("stats.reports.generated." + template.getConfigName());
             }
 
@@ -463,7 +573,9 @@ public class ExtensionReports extends ExtensionAdaptor {
                 file = pdfFile;
             }
 
-            LOGGER.debug("Generated report {}", file.getAbsolutePath());
+            long renderTime = System.currentTimeMillis() - startTime;
+            Stats.incCounter("stats.reports.time." + template.getConfigName(), renderTime);
+            LOGGER.debug("Generated report {} in {} ms", file.getAbsolutePath(), renderTime);
             if (display) {
                 if ("HTML".equals(template.getFormat())) {
                     DesktopUtils.openUrlInBrowser(file.toURI());
@@ -169,4 +169,26 @@ public class ReportData {
     public void setTheme(String theme) {
         this.theme = theme;
     }
+
+    /**
+     * Returns a copy of this report data with the given theme. The alert tree and the report
+     * objects are shared with this report data.
+     *
+     * @param theme the theme of the copy.
+     * @return the copy of the report data.
+     */
+    ReportData withTheme(String theme) {
+        ReportData copy = new ReportData();
+        copy.alertTreeRootNode = alertTreeRootNode;
+        copy.title = title;
+        copy.description = description;
+        copy.contexts = contexts;
+        copy.sites = sites;
+        copy.reportObjects = reportObjects;
+        copy.confidences = confidences.clone();
+        copy.risks = risks.clone();
+        copy.sections = sections;
+        copy.theme = theme;
+        return copy;
+    }
 }
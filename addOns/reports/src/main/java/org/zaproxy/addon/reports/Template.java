@@ -34,7 +34,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
+import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.FileTemplateResolver;
 import org.yaml.snakeyaml.Yaml;
 
 public class Template {
@@ -52,6 +54,7 @@ public class Template {
     private ResourceBundle msgs = null;
     private Boolean hasMsgs = null;
     private URLClassLoader classloader = null;
+    private TemplateEngine templateEngine;
 
     public Template(File templateYaml) throws IOException {
         Yaml yaml = new Yaml();
@@ -179,8 +182,28 @@ public class Template {
         return mode;
     }
 
-    public void setMode(TemplateMode mode) {
+    public synchronized void setMode(TemplateMode mode) {
         this.mode = mode;
+        this.templateEngine = null;
+    }
+
+    /**
+     * Gets the engine used to render this template. The engine is created on first use and then
+     * reused, so that the parsed template is cached between reports.
+     *
+     * @return the template engine, never {@code null}.
+     */
+    synchronized TemplateEngine getTemplateEngine() {
+        if (templateEngine == null) {
+            FileTemplateResolver templateResolver = new FileTemplateResolver();
+            templateResolver.setTemplateMode(mode);
+            templateResolver.setCacheable(true);
+
+            templateEngine = new TemplateEngine();
+            templateEngine.setTemplateResolver(templateResolver);
+            templateEngine.setMessageResolver(new ReportMessageResolver(this));
+        }
+        return templateEngine;
     }
 
     public File getResourcesDir() {
@@ -235,6 +258,17 @@ public class Template {
      *     return null otherwise.
      */
     public String getI18nString(String key, Object[] messageParameters) {
+        if (!hasMsgs() || !msgs.containsKey(key)) {
+            return null;
+        }
+        String str = msgs.getString(key);
+        if (messageParameters != null && messageParameters.length > 0) {
+            return MessageFormat.format(str, messageParameters);
+        }
+        return str;
+    }
+
+    private synchronized boolean hasMsgs() {
         if (hasMsgs == null) {
             try {
                 File dir = this.reportTemplateFile.getParentFile();
@@ -244,20 +278,13 @@ public class Template {
                 hasMsgs = Boolean.TRUE;
             } catch (Exception e) {
                 hasMsgs = Boolean.FALSE;
-                return null;
             }
         }
-        if (hasMsgs && msgs.containsKey(key)) {
-            String str = msgs.getString(key);
-            if (messageParameters != null && messageParameters.length > 0) {
-                return MessageFormat.format(str, messageParameters);
-            }
-            return str;
-        }
-        return null;
+        return hasMsgs;
     }
 
-    void unload() {
+    synchronized void unload() {
+        templateEngine = null;
         if (classloader != null) {
             ResourceBundle.clearCache(classloader);
             try {
@@ -21,9 +21,13 @@ package org.zaproxy.addon.reports.automation;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.control.Control;
@@ -96,21 +100,32 @@ public class ReportJob extends AutomationJob {
             templateName = ReportParam.DEFAULT_TEMPLATE;
             this.getParameters().setTemplate(templateName);
         }
-        Template template = getExtReport().getTemplateByConfigName(templateName);
-        if (template == null) {
-            progress.error(
-                    Constant.messages.getString(
-                            "reports.automation.error.badtemplate",
-                            this.getName(),
-                            getParameters().getTemplate(),
-                            getExtReport().getTemplateConfigNames()));
+
+        list = getJobDataList(jobData, "templates", progress);
+        if (!list.isEmpty()) {
+            this.getData().setTemplates(list);
+        }
+
+        List<Template> templates = new ArrayList<>();
+        for (String name : getTemplateNames()) {
+            Template template = getExtReport().getTemplateByConfigName(name);
+            if (template == null) {
+                progress.error(
+                        Constant.messages.getString(
+                                "reports.automation.error.badtemplate",
+                                this.getName(),
+                                name,
+                                getExtReport().getTemplateConfigNames()));
+            } else {
+                templates.add(template);
+            }
         }
 
         list = getJobDataList(jobData, "sections", progress);
         if (!list.isEmpty()) {
-            if (template != null) {
+            if (!templates.isEmpty()) {
                 // Validate
-                List<String> validSections = template.getSections();
+                List<String> validSections = getSections(templates);
                 for (String section : list) {
                     if (!validSections.contains(section)) {
                         progress.warn(
@@ -118,7 +133,7 @@ public class ReportJob extends AutomationJob {
                                         "reports.automation.error.badsection",
                                         this.getName(),
                                         section,
-                                        template.getConfigName(),
+                                        getConfigNames(templates),
                                         validSections));
                     }
                 }
@@ -141,23 +156,23 @@ public class ReportJob extends AutomationJob {
     public void runJob(AutomationEnvironment env, AutomationProgress progress) {
         ReportData reportData = new ReportData();
 
-        String templateName = this.getParameters().getTemplate();
-        if (StringUtils.isEmpty(templateName)) {
-            templateName = ReportParam.DEFAULT_TEMPLATE;
-        }
-        Template template = getExtReport().getTemplateByConfigName(templateName);
-
-        if (template == null) {
-            progress.error(
-                    Constant.messages.getString(
-                            "reports.automation.error.badtemplate",
-                            this.getName(),
-                            this.getParameters().getTemplate()));
-            return;
+        List<Template> templates = new ArrayList<>();
+        for (String templateName : getTemplateNames()) {
+            Template template = getExtReport().getTemplateByConfigName(templateName);
+            if (template == null) {
+                progress.error(
+                        Constant.messages.getString(
+                                "reports.automation.error.badtemplate",
+                                this.getName(),
+                                templateName));
+                return;
+            }
+            templates.add(template);
         }
         String theme = this.getParameters().getTheme();
-        if (StringUtils.isEmpty(theme) && template.getThemes().size() > 0) {
-            theme = template.getThemes().get(0);
+        if (StringUtils.isEmpty(theme) && templates.get(0).getThemes().size() > 0) {
+            // The other templates without this theme use their first theme
+            theme = templates.get(0).getThemes().get(0);
         }
         reportData.setTheme(theme);
 
@@ -174,17 +189,9 @@ public class ReportJob extends AutomationJob {
                                 filePattern,
                                 env.replaceVars(env.getDefaultContextWrapper().getUrls().get(0))));
 
-        if (!fileName.endsWith("." + template.getExtension())) {
-            fileName += "." + template.getExtension();
-        }
-
-        File file;
-        String reportDir = getParameters().getReportDir();
-        if (reportDir != null && reportDir.length() > 0) {
-            File dir = JobUtils.getFile(reportDir, getPlan());
-            file = new File(dir, fileName);
-        } else {
-            file = JobUtils.getFile(fileName, getPlan());
+        Map<Template, String> reportFilenames = new LinkedHashMap<>();
+        for (Template t : templates) {
+            reportFilenames.put(t, getReportFile(fileName, t, templates).getAbsolutePath());
         }
         reportData.setTitle(this.getParameters().getReportTitle());
         reportData.setDescription(this.getParameters().getReportDescription());
@@ -206,10 +213,10 @@ public class ReportJob extends AutomationJob {
             }
         }
 
+        List<String> validSections = getSections(templates);
         if (this.getData().getSections() == null) {
-            reportData.setSections(template.getSections());
+            reportData.setSections(validSections);
         } else {
-            List<String> validSections = template.getSections();
             for (String section : this.getData().getSections()) {
                 if (validSections.contains(section)) {
                     reportData.addSection(section);
@@ -219,7 +226,7 @@ public class ReportJob extends AutomationJob {
                                     "reports.automation.error.badsection",
                                     this.getName(),
                                     section,
-                                    template.getConfigName(),
+                                    getConfigNames(templates),
                                     validSections));
                 }
             }
@@ -251,21 +258,35 @@ public class ReportJob extends AutomationJob {
             }
         }
 
+        // The filtered alerts and their counts are shared by all the templates
         reportData.setAlertTreeRootNode(getExtReport().getFilteredAlertTree(reportData));
 
+        boolean display = JobUtils.unBox(this.getParameters().getDisplayReport());
         try {
-            file =
-                    getExtReport()
-                            .generateReport(
-                                    reportData,
-                                    template,
-                                    file.getAbsolutePath(),
-                                    JobUtils.unBox(this.getParameters().getDisplayReport()));
-            progress.info(
-                    Constant.messages.getString(
-                            "reports.automation.info.reportgen",
-                            this.getName(),
-                            file.getAbsolutePath()));
+            Collection<File> files;
+            if (templates.size() == 1) {
+                Map.Entry<Template, String> entry = reportFilenames.entrySet().iterator().next();
+                files =
+                        List.of(
+                                getExtReport()
+                                        .generateReport(
+                                                reportData,
+                                                entry.getKey(),
+                                                entry.getValue(),
+                                                display));
+            } else {
+                files =
+                        getExtReport()
+                                .generateReports(reportData, reportFilenames, display)
+                                .values();
+            }
+            for (File file : files) {
+                progress.info(
+                        Constant.messages.getString(
+                                "reports.automation.info.reportgen",
+                                this.getName(),
+                                file.getAbsolutePath()));
+            }
         } catch (Exception e) {
             progress.error(
                     Constant.messages.getString(
@@ -273,6 +294,49 @@ public class ReportJob extends AutomationJob {
         }
     }
 
+    private List<String> getTemplateNames() {
+        List<String> templateNames = this.getData().getTemplates();
+        if (templateNames != null && !templateNames.isEmpty()) {
+            return templateNames;
+        }
+        String templateName = this.getParameters().getTemplate();
+        if (StringUtils.isEmpty(templateName)) {
+            templateName = ReportParam.DEFAULT_TEMPLATE;
+        }
+        return List.of(templateName);
+    }
+
+    private static List<String> getSections(List<Template> templates) {
+        Set<String> sections = new LinkedHashSet<>();
+        templates.forEach(t -> sections.addAll(t.getSections()));
+        return new ArrayList<>(sections);
+    }
+
+    private static String getConfigNames(List<Template> templates) {
+        return templates.stream().map(Template::getConfigName).collect(Collectors.joining(", "));
+    }
+
+    private File getReportFile(String fileName, Template template, List<Template> templates) {
+        String extension = template.getExtension();
+        boolean sharedExtension =
+                templates.stream()
+                        .anyMatch(t -> t != template && extension.equals(t.getExtension()));
+        if (sharedExtension) {
+            // Keep the reports with the same extension apart
+            fileName += "-" + template.getConfigName();
+        }
+        if (!fileName.endsWith("." + extension)) {
+            fileName += "." + extension;
+        }
+
+        String reportDir = getParameters().getReportDir();
+        if (reportDir != null && reportDir.length() > 0) {
+            File dir = JobUtils.getFile(reportDir, getPlan());
+            return new File(dir, fileName);
+        }
+        return JobUtils.getFile(fileName, getPlan());
+    }
+
     private int riskStringToInt(String str, AutomationProgress progress) {
         switch (str.toLowerCase()) {
             case "high":
@@ -433,7 +497,7 @@ public class ReportJob extends AutomationJob {
     @Override
     public String getSummary() {
         return Constant.messages.getString(
-                "reports.automation.dialog.summary", this.getParameters().getTemplate());
+                "reports.automation.dialog.summary", String.join(", ", getTemplateNames()));
     }
 
     @Override
@@ -443,6 +507,7 @@ public class ReportJob extends AutomationJob {
 
     public static class Data extends JobData {
         private Parameters parameters;
+        private List<String> templates;
         private List<String> risks;
         private List<String> confidences;
         private List<String> sections;
@@ -457,6 +522,14 @@ public class ReportJob extends AutomationJob {
             return parameters;
         }
 
+        public List<String> getTemplates() {
+            return templates;
+        }
+
+        public void setTemplates(List<String> templates) {
+            this.templates = templates;
+        }
+
         public List<String> getRisks() {
             return risks;
         }
@@ -25,6 +25,7 @@ import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
@@ -41,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -822,6 +824,60 @@ class ExtensionReportsUnitTest extends TestUtils {
         assertThat(cleanReport(report), is(equalTo(cleanReport(expected))));
     }
 
+    @Test
+    void shouldGenerateSameReportsInParallel() throws Exception {
+        // Given
+        Constant.messages = new I18N(Locale.ENGLISH);
+        ExtensionReports extRep = new ExtensionReports();
+        List<String> templateNames =
+                Arrays.asList("traditional-md", "traditional-json", "traditional-xml");
+        Map<Template, String> reportFilenames = new LinkedHashMap<>();
+        Map<Template, File> expectedReports = new HashMap<>();
+        for (String templateName : templateNames) {
+            Template template = getTemplateFromYamlFile(templateName);
+            reportFilenames.put(
+                    template,
+                    File.createTempFile("parallel-" + templateName, template.getExtension())
+                            .getAbsolutePath());
+            expectedReports.put(
+                    template,
+                    generateReportWithAlerts(
+                            template,
+                            File.createTempFile(
+                                    "sequential-" + templateName, template.getExtension())));
+        }
+        ReportData reportData = getTestReportDataWithAlerts();
+        reportData.setSections(reportFilenames.keySet().iterator().next().getSections());
+
+        // When
+        Map<Template, File> reports = extRep.generateReports(reportData, reportFilenames, false);
+
+        // Then
+        assertThat(reports.size(), is(equalTo(templateNames.size())));
+        for (Map.Entry<Template, File> entry : reports.entrySet()) {
+            String report = new String(Files.readAllBytes(entry.getValue().toPath()));
+            String expected =
+                    new String(Files.readAllBytes(expectedReports.get(entry.getKey()).toPath()));
+            assertThat(cleanReport(report), is(equalTo(cleanReport(expected))));
+        }
+    }
+
+    @Test
+    void shouldReuseTemplateEngineBetweenReports() throws Exception {
+        // Given
+        ExtensionReports extRep = new ExtensionReports();
+        Template template = getTemplateFromYamlFile("traditional-md");
+        File f = File.createTempFile("zap.reports.test", "x");
+        extRep.generateReport(getTestReportData(), template, f.getAbsolutePath(), false);
+        Object engine = template.getTemplateEngine();
+
+        // When
+        extRep.generateReport(getTestReportData(), template, f.getAbsolutePath(), false);
+
+        // Then
+        assertThat(template.getTemplateEngine(), is(sameInstance(engine)));
+    }
+
     private static void checkAlert(JSONObject alert) {
         assertThat(alert.getString("@name"), is(equalTo("http://example.com")));
         assertThat(alert.getString("@host"), is(equalTo("example.com")));
@@ -247,6 +247,49 @@ class ReportJobUnitTest extends TestUtils {
         assertThat(progress.hasErrors(), is(equalTo(false)));
     }
 
+    @Test
+    void shouldGenerateReportsOfAllTemplatesFromSameData() throws IOException {
+        // Given
+        ReportJob job =
+                createReportJob(
+                        "parameters:\n"
+                                + "  reportFile: report-file\n"
+                                + "templates:\n"
+                                + "  - template-a\n"
+                                + "  - template-b\n"
+                                + "  - template-c");
+        AutomationPlan plan = new AutomationPlan();
+        AutomationProgress progress = plan.getProgress();
+        AutomationEnvironment env = plan.getEnv();
+        ContextWrapper contextWrapper = mock(ContextWrapper.class);
+        given(contextWrapper.getUrls()).willReturn(Collections.singletonList(""));
+        env.setContexts(Arrays.asList(contextWrapper));
+        Template templateA = mockTemplate("template-a", "json");
+        Template templateB = mockTemplate("template-b", "json");
+        Template templateC = mockTemplate("template-c", "html");
+        given(extensionReports.generateReports(any(), any(), anyBoolean())).willReturn(Map.of());
+        job.verifyParameters(progress);
+        job.setPlan(plan);
+
+        // When
+        job.runJob(env, progress);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Template, String>> captorReportFileNames =
+                ArgumentCaptor.forClass(Map.class);
+        verify(extensionReports).getFilteredAlertTree(any());
+        verify(extensionReports)
+                .generateReports(any(), captorReportFileNames.capture(), anyBoolean());
+        Map<Template, String> reportFileNames = captorReportFileNames.getValue();
+        assertThat(reportFileNames.size(), is(equalTo(3)));
+        assertThat(reportFileNames.get(templateA), endsWith(fsPath("report-file-template-a.json")));
+        assertThat(reportFileNames.get(templateB), endsWith(fsPath("report-file-template-b.json")));
+        assertThat(reportFileNames.get(templateC), endsWith(fsPath("report-file.html")));
+        assertThat(progress.hasWarnings(), is(equalTo(false)));
+        assertThat(progress.hasErrors(), is(equalTo(false)));
+    }
+
     @Test
     void shouldReplaceVarInReportDirWhenRunning() throws IOException {
         // Given
@@ -643,4 +686,12 @@ class ReportJobUnitTest extends TestUtils {
         String separator = FileSystems.getDefault().getSeparator();
         return separator + String.join(separator, elements);
     }
+
+    private Template mockTemplate(String name, String extension) {
+        Template template = mock(Template.class, withSettings().strictness(Strictness.LENIENT));
+        given(template.getConfigName()).willReturn(name);
+        given(template.getExtension()).willReturn(extension);
+        given(extensionReports.getTemplateByConfigName(name)).willReturn(template);
+        return template;
+    }
 }
@@ -13,3 +13,7 @@ zapAddOn {
         messages.set(file("src/main/resources/org/zaproxy/zap/extension/revisit/resources/Messages.properties"))
     }
 }
+
+dependencies {
+    testImplementation(project(":testutils"))
+}
@@ -35,6 +35,7 @@ import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.control.Control;
 import org.parosproxy.paros.control.Control.Mode;
 import org.parosproxy.paros.core.proxy.ProxyListener;
+import org.parosproxy.paros.db.DatabaseException;
 import org.parosproxy.paros.extension.Extension;
 import org.parosproxy.paros.extension.ExtensionAdaptor;
 import org.parosproxy.paros.extension.ExtensionHook;
@@ -86,11 +87,14 @@ public class ExtensionRevisit extends ExtensionAdaptor implements ProxyListener
     protected static final String PREFIX = "revisit";
 
     public static final String ICON_RESOURCE = "/resource/icon/16/026.png";
+    private static final int MAX_DIAGS = 10;
+
     public static DateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
 
     private Logger LOGGER = LogManager.getLogger(this.getClass());
 
     private Map<String, TimeRange> sites = new HashMap<>();
+    private final RevisitIndex index = new RevisitIndex();
     private RevisitDialog revisitDialog;
     private RevisitAPI revisitAPI;
 
@@ -201,67 +205,86 @@ public class ExtensionRevisit extends ExtensionAdaptor implements ProxyListener
                                     Control.getSingleton()
                                             .getExtensionLoader()
                                             .getExtension(ExtensionHistory.NAME);
-
-                    for (int i = 1; i <= node.getHistoryReference().getHistoryId(); i++) {
-                        HistoryReference hr = extHist.getHistoryReference(i);
-                        if (hr != null
-                                && hr.getHistoryType() == HistoryReference.TYPE_PROXIED
-                                && isSimilarRequest(url, hr.getURI().toString())) {
-                            if (!url.equals(hr.getURI().toString())) {
-                                // We dont perform an exact match above so that we can
-                                // record similar urls here :)
-                                if (urlCount <= 10) {
-                                    // Add to 404 diags
-                                    appendMsgToDiags(
-                                            hr.getHttpMessage(),
-                                            urlsFor404,
-                                            Constant.messages.getString("revisit.diags.params"));
-                                    urlCount++;
-                                }
-                                continue;
-                            }
-                            if (hr.getTimeSentMillis() < rs.getStartTime().getTime()) {
-                                // Before specified range
-                                LOGGER.debug("Before specified range: {}", url);
-                                if (urlCount <= 10) {
-                                    // Add to 404 diags
-                                    appendMsgToDiags(
-                                            hr.getHttpMessage(),
-                                            urlsFor404,
-                                            Constant.messages.getString("revisit.diags.before"));
-                                    urlCount++;
-                                }
-                                continue;
+                    int lastHistoryId = node.getHistoryReference().getHistoryId();
+                    String method = msg.getRequestHeader().getMethod();
+                    long startTime = rs.getStartTime().getTime();
+                    long endTime = rs.getEndTime().getTime();
+
+                    updateIndex(extHist);
+                    for (RevisitIndex.Entry entry :
+                            index.getEntries(url, startTime, endTime, MAX_DIAGS)) {
+                        if (entry.getHistoryId() > lastHistoryId) {
+                            continue;
+                        }
+                        HistoryReference hr = extHist.getHistoryReference(entry.getHistoryId());
+                        if (hr == null) {
+                            // Deleted from the history
+                            continue;
+                        }
+                        if (!url.equals(entry.getUrl())) {
+                            // We dont perform an exact match in the index so that we can
+                            // record similar urls here :)
+                            if (urlCount <= MAX_DIAGS) {
+                                // Add to 404 diags
+                                appendMsgToDiags(
+                                        hr.getHttpMessage(),
+                                        urlsFor404,
+                                        Constant.messages.getString("revisit.diags.params"));
+                                urlCount++;
                             }
-                            if (hr.getTimeSentMillis() < rs.getStartTime().getTime()
-                                    || hr.getTimeSentMillis() > rs.getEndTime().getTime()) {
-                                // After specified range (so no point continuing)
-                                LOGGER.debug("After specified range: {}", url);
-                                // Always add so that they know there was something after the
-                                // time they specified
+                            continue;
+                        }
+                        if (entry.getTimeSent() < startTime) {
+                            // Before specified range
+                            LOGGER.debug("Before specified range: {}", url);
+                            if (urlCount <= MAX_DIAGS) {
+                                // Add to 404 diags
                                 appendMsgToDiags(
                                         hr.getHttpMessage(),
                                         urlsFor404,
-                                        Constant.messages.getString("revisit.diags.after"));
-                                break;
+                                        Constant.messages.getString("revisit.diags.before"));
+                                urlCount++;
                             }
-                            // Reading the full message from the db takes time, so perform
-                            // any checks we can without it before getting it
-                            HttpMessage msg2 = hr.getHttpMessage();
-                            if (this.isSameRequest(msg, msg2)) {
-                                LOGGER.debug("Returning revisited page: {}", url);
-                                copyResponse(msg2, msg);
-                                found = true;
-                                break;
-                            } else if (urlCount <= 10) {
+                            continue;
+                        }
+                        if (entry.getTimeSent() > endTime) {
+                            // After specified range (so no point continuing)
+                            LOGGER.debug("After specified range: {}", url);
+                            // Always add so that they know there was something after the
+                            // time they specified
+                            appendMsgToDiags(
+                                    hr.getHttpMessage(),
+                                    urlsFor404,
+                                    Constant.messages.getString("revisit.diags.after"));
+                            break;
+                        }
+                        // Reading the full message from the db takes time, so perform
+                        // any checks we can without it before getting it
+                        if (!method.equals(entry.getMethod())) {
+                            if (urlCount <= MAX_DIAGS) {
                                 appendMsgToDiags(
-                                        msg2,
+                                        hr.getHttpMessage(),
                                         urlsFor404,
                                         Constant.messages.getString("revisit.diags.params"));
                                 urlCount++;
                             }
-                            LOGGER.debug("Not the same request: {}", url);
+                            LOGGER.debug("Not the same method: {}", url);
+                            continue;
+                        }
+                        HttpMessage msg2 = hr.getHttpMessage();
+                        if (this.isSameRequest(msg, msg2)) {
+                            LOGGER.debug("Returning revisited page: {}", url);
+                            copyResponse(msg2, msg);
+                            found = true;
+                            break;
+                        } else if (urlCount <= MAX_DIAGS) {
+                            appendMsgToDiags(
+                                    msg2,
+                                    urlsFor404,
+                                    Constant.messages.getString("revisit.diags.params"));
+                            urlCount++;
                         }
+                        LOGGER.debug("Not the same request: {}", url);
                     }
                 }
             } catch (Exception e) {
@@ -325,19 +348,6 @@ public class ExtensionRevisit extends ExtensionAdaptor implements ProxyListener
         }
     }
 
-    private boolean isSimilarRequest(String url1, String url2) {
-        // TODO also support user defined url params to ignore?
-        int queryIndex = url1.indexOf("?");
-        if (queryIndex > 0) {
-            url1 = url1.substring(0, queryIndex - 1);
-        }
-        queryIndex = url2.indexOf("?");
-        if (queryIndex > 0) {
-            url2 = url2.substring(0, queryIndex - 1);
-        }
-        return url1.equals(url2);
-    }
-
     private boolean isSameRequest(HttpMessage msg, HttpMessage msg2) {
         if (msg2 == null) {
             return false;
@@ -461,19 +471,20 @@ public class ExtensionRevisit extends ExtensionAdaptor implements ProxyListener
             revisitDialog = new RevisitDialog(this);
         }
 
-        Date startTime = null;
         ExtensionHistory extHist =
                 (ExtensionHistory)
                         Control.getSingleton()
                                 .getExtensionLoader()
                                 .getExtension(ExtensionHistory.NAME);
-        int i = 0;
-        while (startTime == null) {
-            HistoryReference hr = extHist.getHistoryReference(i);
-            if (hr != null) {
-                startTime = new Date(hr.getTimeSentMillis());
+        Date startTime = new Date();
+        try {
+            updateIndex(extHist);
+            long earliestTime = index.getEarliestTime();
+            if (earliestTime != -1) {
+                startTime = new Date(earliestTime);
             }
-            i++;
+        } catch (DatabaseException e) {
+            LOGGER.error(e.getMessage(), e);
         }
         Date endTime = new Date();
 
@@ -481,6 +492,35 @@ public class ExtensionRevisit extends ExtensionAdaptor implements ProxyListener
         revisitDialog.setVisible(true);
     }
 
+    /**
+     * Adds to the index the proxied messages added to the history since the last update.
+     *
+     * @param extHist the extension to obtain the history references.
+     * @throws DatabaseException if an error occurred while reading the history IDs.
+     */
+    private void updateIndex(ExtensionHistory extHist) throws DatabaseException {
+        synchronized (index) {
+            List<Integer> historyIds =
+                    Model.getSingleton()
+                            .getDb()
+                            .getTableHistory()
+                            .getHistoryIdsOfHistTypeStartingAt(
+                                    Model.getSingleton().getSession().getSessionId(),
+                                    index.getLastHistoryId() + 1,
+                                    HistoryReference.TYPE_PROXIED);
+            for (Integer historyId : historyIds) {
+                HistoryReference hr = extHist.getHistoryReference(historyId);
+                if (hr != null) {
+                    index.add(
+                            historyId,
+                            hr.getURI().toString(),
+                            hr.getMethod(),
+                            hr.getTimeSentMillis());
+                }
+            }
+        }
+    }
+
     public void setEnabledForSite(String url, Date startTime, Date endTime) {
         String site = ExtensionRevisit.getSiteForURL(url);
         if (!this.sites.containsKey(site)) {
@@ -547,6 +587,7 @@ public class ExtensionRevisit extends ExtensionAdaptor implements ProxyListener
             if (!sites.isEmpty()) {
                 sites = new HashMap<>();
             }
+            index.clear();
         }
 
         @Override
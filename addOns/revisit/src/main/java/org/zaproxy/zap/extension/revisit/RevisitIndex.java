@@ -0,0 +1,179 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.revisit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the proxied messages of the session, by URL (without the query) and sorted by time,
+ * to find the messages to revisit without reading all the history.
+ *
+ * <p>Only the request line and time of the messages are kept, the messages are read from the
+ * history when needed.
+ */
+class RevisitIndex {
+
+    private final Map<String, List<Entry>> entries = new HashMap<>();
+    private int lastHistoryId;
+    private long earliestTime = Long.MAX_VALUE;
+
+    /**
+     * Adds a message to the index.
+     *
+     * @param historyId the ID of the message in the history.
+     * @param url the URL of the message.
+     * @param method the method of the message.
+     * @param timeSent the time the message was sent, in milliseconds.
+     */
+    synchronized void add(int historyId, String url, String method, long timeSent) {
+        Entry entry = new Entry(historyId, url, method, timeSent);
+        List<Entry> list = entries.computeIfAbsent(getKey(url), k -> new ArrayList<>());
+        // The messages are usually added in time order, so insert from the end.
+        int i = list.size();
+        while (i > 0 && compare(list.get(i - 1), entry) > 0) {
+            i--;
+        }
+        list.add(i, entry);
+
+        lastHistoryId = Math.max(lastHistoryId, historyId);
+        earliestTime = Math.min(earliestTime, timeSent);
+    }
+
+    private static int compare(Entry a, Entry b) {
+        int result = Long.compare(a.getTimeSent(), b.getTimeSent());
+        if (result != 0) {
+            return result;
+        }
+        return Integer.compare(a.getHistoryId(), b.getHistoryId());
+    }
+
+    /**
+     * Gets the highest history ID added.
+     *
+     * @return the history ID, {@code 0} if none.
+     */
+    synchronized int getLastHistoryId() {
+        return lastHistoryId;
+    }
+
+    /**
+     * Gets the time of the earliest message.
+     *
+     * @return the time in milliseconds, or {@code -1} if there are no messages.
+     */
+    synchronized long getEarliestTime() {
+        return entries.isEmpty() ? -1 : earliestTime;
+    }
+
+    /**
+     * Gets the messages with URLs similar to the given URL (same URL without the query), sent in
+     * the given time range, in time order.
+     *
+     * <p>Also included, for diagnostics, are up to {@code maxBefore} messages sent right before the
+     * range and the first message sent after the range.
+     *
+     * @param url the URL.
+     * @param startTime the start of the time range, inclusive.
+     * @param endTime the end of the time range, inclusive.
+     * @param maxBefore the maximum number of messages before the range to include.
+     * @return the messages, never {@code null}.
+     */
+    synchronized List<Entry> getEntries(String url, long startTime, long endTime, int maxBefore) {
+        List<Entry> list = entries.get(getKey(url));
+        if (list == null) {
+            return Collections.emptyList();
+        }
+        int start = firstAtOrAfter(list, startTime);
+        int end = firstAtOrAfter(list, endTime + 1);
+        return new ArrayList<>(
+                list.subList(Math.max(0, start - maxBefore), Math.min(list.size(), end + 1)));
+    }
+
+    private static int firstAtOrAfter(List<Entry> list, long time) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list.get(mid).getTimeSent() < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Removes all the messages. */
+    synchronized void clear() {
+        entries.clear();
+        lastHistoryId = 0;
+        earliestTime = Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the key of the given URL, messages with the same key are considered similar.
+     *
+     * @param url the URL.
+     * @return the key.
+     */
+    static String getKey(String url) {
+        int queryIndex = url.indexOf('?');
+        if (queryIndex > 0) {
+            return url.substring(0, queryIndex);
+        }
+        return url;
+    }
+
+    /** A message in the index. */
+    static class Entry {
+
+        private final int historyId;
+        private final String url;
+        private final String method;
+        private final long timeSent;
+
+        Entry(int historyId, String url, String method, long timeSent) {
+            this.historyId = historyId;
+            this.url = url;
+            this.method = method;
+            this.timeSent = timeSent;
+        }
+
+        int getHistoryId() {
+            return historyId;
+        }
+
+        String getUrl() {
+            return url;
+        }
+
+        String getMethod() {
+            return method;
+        }
+
+        long getTimeSent() {
+            return timeSent;
+        }
+    }
+}
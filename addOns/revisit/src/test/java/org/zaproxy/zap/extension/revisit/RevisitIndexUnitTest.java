@@ -0,0 +1,136 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.revisit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link RevisitIndex}. */
+class RevisitIndexUnitTest {
+
+    private static final String URL = "https://example.com/path";
+
+    @Test
+    void shouldHaveNoEntriesIfUrlNotIndexed() {
+        // Given
+        RevisitIndex index = new RevisitIndex();
+        index.add(1, "https://example.com/other", "GET", 10);
+        // When
+        List<RevisitIndex.Entry> entries = index.getEntries(URL, 0, 100, 10);
+        // Then
+        assertThat(entries, is(empty()));
+    }
+
+    @Test
+    void shouldGetEntriesInRangeInTimeOrder() {
+        // Given
+        RevisitIndex index = new RevisitIndex();
+        index.add(1, URL, "GET", 30);
+        index.add(2, URL, "GET", 10);
+        index.add(3, URL, "POST", 20);
+        // When
+        List<RevisitIndex.Entry> entries = index.getEntries(URL, 10, 30, 0);
+        // Then
+        assertThat(historyIds(entries), contains(2, 3, 1));
+    }
+
+    @Test
+    void shouldIncludeEntriesBeforeAndFirstAfterRange() {
+        // Given
+        RevisitIndex index = new RevisitIndex();
+        for (int i = 1; i <= 10; i++) {
+            index.add(i, URL, "GET", i * 10);
+        }
+        // When
+        List<RevisitIndex.Entry> entries = index.getEntries(URL, 50, 60, 2);
+        // Then
+        assertThat(historyIds(entries), contains(3, 4, 5, 6, 7));
+    }
+
+    @Test
+    void shouldIncludeSimilarUrls() {
+        // Given
+        RevisitIndex index = new RevisitIndex();
+        index.add(1, URL + "?a=1", "GET", 10);
+        index.add(2, URL + "?a=2", "GET", 20);
+        index.add(3, "https://example.com/other?a=1", "GET", 20);
+        // When
+        List<RevisitIndex.Entry> entries = index.getEntries(URL + "?a=1", 0, 100, 0);
+        // Then
+        assertThat(historyIds(entries), contains(1, 2));
+    }
+
+    @Test
+    void shouldNotIncludeUrlsWithPathDifferentInLastCharacter() {
+        // Given
+        RevisitIndex index = new RevisitIndex();
+        index.add(1, "https://example.com/page1?a=1", "GET", 10);
+        index.add(2, "https://example.com/page2?a=1", "GET", 20);
+        // When
+        List<RevisitIndex.Entry> entries =
+                index.getEntries("https://example.com/page1?a=2", 0, 100, 0);
+        // Then
+        assertThat(historyIds(entries), contains(1));
+    }
+
+    @Test
+    void shouldGetKeyWithoutQuery() {
+        // Given
+        String url = "https://example.com/path?a=1&b=2";
+        // When
+        String key = RevisitIndex.getKey(url);
+        // Then
+        assertThat(key, is("https://example.com/path"));
+    }
+
+    @Test
+    void shouldTrackLastHistoryIdAndEarliestTime() {
+        // Given
+        RevisitIndex index = new RevisitIndex();
+        index.add(5, URL, "GET", 30);
+        index.add(7, URL, "GET", 20);
+        // When / Then
+        assertThat(index.getLastHistoryId(), is(7));
+        assertThat(index.getEarliestTime(), is(20L));
+    }
+
+    @Test
+    void shouldClear() {
+        // Given
+        RevisitIndex index = new RevisitIndex();
+        index.add(5, URL, "GET", 30);
+        // When
+        index.clear();
+        // Then
+        assertThat(index.getLastHistoryId(), is(0));
+        assertThat(index.getEarliestTime(), is(-1L));
+        assertThat(index.getEntries(URL, 0, 100, 10), is(empty()));
+    }
+
+    private static List<Integer> historyIds(List<RevisitIndex.Entry> entries) {
+        return entries.stream().map(RevisitIndex.Entry::getHistoryId).collect(Collectors.toList());
+    }
+}
@@ -48,11 +48,14 @@ import java.io.InputStream;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Supplier;
 import org.apache.commons.httpclient.URI;
 import org.apache.commons.httpclient.URIException;
@@ -60,20 +63,19 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.codehaus.groovy.runtime.metaclass.MissingPropertyExceptionNoStack;
 import org.parosproxy.paros.Constant;
-import org.parosproxy.paros.control.Control;
 import org.parosproxy.paros.db.DatabaseException;
-import org.parosproxy.paros.extension.history.ExtensionHistory;
 import org.parosproxy.paros.model.HistoryReference;
-import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpRequestHeader;
 import org.parosproxy.paros.network.HttpSender;
 import org.parosproxy.paros.view.View;
+import org.zaproxy.addon.commonlib.http.HistoryBatchPersister;
+import org.zaproxy.addon.commonlib.http.RequestDispatcher;
 import org.zaproxy.zap.model.ValueGenerator;
 import org.zaproxy.zap.network.HttpRequestBody;
+import org.zaproxy.zap.network.HttpRequestConfig;
 import org.zaproxy.zap.utils.Stats;
-import org.zaproxy.zap.utils.ThreadUtils;
 
 public class WSDLCustomParser {
 
@@ -276,9 +278,43 @@ public class WSDLCustomParser {
     /* Parses WSDL definitions and identifies endpoints and operations. */
     private void parseWSDL(Definitions wsdl, boolean sendMessages) {
         StringBuilder sb = new StringBuilder();
-        List<Service> services = wsdl.getServices();
         keyIndex++;
 
+        if (!sendMessages) {
+            parseServices(wsdl, sb, null, null, null);
+            printOutput(sb);
+            return;
+        }
+
+        List<SoapRequest> requests = new ArrayList<>();
+        HistoryBatchPersister persister = new HistoryBatchPersister();
+        try (RequestDispatcher dispatcher =
+                new RequestDispatcher(
+                        new HttpSender(HttpSender.MANUAL_REQUEST_INITIATOR),
+                        HttpRequestConfig.builder().setFollowRedirects(true).build())) {
+            try {
+                parseServices(wsdl, sb, dispatcher, persister, requests);
+            } finally {
+                dispatcher.awaitCompletion();
+                persister.flush();
+            }
+        }
+        completeSoapRequests(requests, sb);
+        printOutput(sb);
+    }
+
+    /*
+     * Identifies the endpoints and operations of the WSDL definitions. The requests of the
+     * operations are dispatched if a dispatcher is given, otherwise they are just created.
+     */
+    private void parseServices(
+            Definitions wsdl,
+            StringBuilder sb,
+            RequestDispatcher dispatcher,
+            HistoryBatchPersister persister,
+            List<SoapRequest> requests) {
+        List<Service> services = wsdl.getServices();
+
         /* Endpoint identification. */
         for (Service service : services) {
             for (Port port : service.getPorts()) {
@@ -325,12 +361,13 @@ public class WSDLCustomParser {
                                 new SOAPMsgConfig(wsdl, soapVersion, formParams, port, bindOp);
                         lastConfig = soapConfig;
                         HttpMessage requestMessage = createSoapRequest(soapConfig);
-                        if (sendMessages) sendSoapRequest(requestMessage, sb);
+                        if (dispatcher != null)
+                            sendSoapRequest(
+                                    dispatcher, persister, requestMessage, sb.length(), requests);
                     } // bindingOperations loop
                 } // Binding check if
             } // Ports loop
         }
-        printOutput(sb);
     }
 
     /*
@@ -580,56 +617,60 @@ public class WSDLCustomParser {
     }
 
     /*
-     * Sends a given SOAP request. File is needed to record its associated ops, and
-     * stringBuilder logs the output message.
+     * Dispatches a given SOAP request, to be sent concurrently with other requests and persisted
+     * once sent. The outputPosition is where its status code is added to the output message.
      */
-    private void sendSoapRequest(HttpMessage httpRequest, StringBuilder sb) {
+    private static void sendSoapRequest(
+            RequestDispatcher dispatcher,
+            HistoryBatchPersister persister,
+            HttpMessage httpRequest,
+            int outputPosition,
+            List<SoapRequest> requests) {
         if (httpRequest == null) return;
         HttpRequestBody body = httpRequest.getRequestBody();
         /* Avoids connection if message has no proper body. */
         if (body == null || body.getBytes().length <= 0) return;
-        /* Connection. */
-        HttpSender sender = new HttpSender(HttpSender.MANUAL_REQUEST_INITIATOR);
         /* Send request. */
-        try {
-            sender.sendAndReceive(httpRequest, true);
-        } catch (IOException e) {
-            LOGGER.error("Unable to communicate with SOAP server. Server may be not available.", e);
-        }
-        persistMessage(httpRequest);
-        if (sb != null)
-            sb.append(" (Status code: ")
-                    .append(httpRequest.getResponseHeader().getStatusCode())
-                    .append(")\n");
+        CompletableFuture<HttpMessage> future =
+                dispatcher
+                        .send(httpRequest)
+                        .whenComplete(
+                                (msg, e) -> {
+                                    if (e != null) {
+                                        LOGGER.error(
+                                                "Unable to communicate with SOAP server. Server may be not available.",
+                                                e);
+                                    }
+                                    persistMessage(persister, httpRequest);
+                                });
+        requests.add(new SoapRequest(httpRequest, future, outputPosition));
     }
 
-    private static void persistMessage(final HttpMessage message) {
+    private static void persistMessage(HistoryBatchPersister persister, HttpMessage message) {
         // Add the message to the history panel and sites tree
-        final HistoryReference historyRef;
-
         try {
-            historyRef =
-                    new HistoryReference(
-                            Model.getSingleton().getSession(),
-                            HistoryReference.TYPE_ZAP_USER,
-                            message);
+            persister.persist(message, HistoryReference.TYPE_ZAP_USER);
+            Stats.incCounter(ExtensionImportWSDL.STATS_ADDED_URLS);
         } catch (Exception e) {
             LOGGER.warn(e.getMessage(), e);
-            return;
         }
+    }
 
-        final ExtensionHistory extHistory =
-                Control.getSingleton().getExtensionLoader().getExtension(ExtensionHistory.class);
-        if (extHistory != null) {
-            ThreadUtils.invokeAndWaitHandled(
-                    () -> {
-                        extHistory.addHistory(historyRef);
-                        Model.getSingleton()
-                                .getSession()
-                                .getSiteTree()
-                                .addPath(historyRef, message);
-                        Stats.incCounter(ExtensionImportWSDL.STATS_ADDED_URLS);
-                    });
+    /* Adds the status codes of the SOAP requests sent to the output message. */
+    private static void completeSoapRequests(List<SoapRequest> requests, StringBuilder sb) {
+        // In reverse order, to not change the positions of the previous requests.
+        for (int i = requests.size() - 1; i >= 0; i--) {
+            SoapRequest request = requests.get(i);
+            try {
+                request.future.join();
+            } catch (CompletionException e) {
+                // Already logged.
+            }
+            sb.insert(
+                    request.outputPosition,
+                    " (Status code: "
+                            + request.message.getResponseHeader().getStatusCode()
+                            + ")\n");
         }
     }
 
@@ -644,4 +685,18 @@ public class WSDLCustomParser {
     SOAPMsgConfig getLastConfig() {
         return lastConfig;
     }
+
+    private static class SoapRequest {
+
+        private final HttpMessage message;
+        private final CompletableFuture<HttpMessage> future;
+        private final int outputPosition;
+
+        SoapRequest(
+                HttpMessage message, CompletableFuture<HttpMessage> future, int outputPosition) {
+            this.message = message;
+            this.future = future;
+            this.outputPosition = outputPosition;
+        }
+    }
 }
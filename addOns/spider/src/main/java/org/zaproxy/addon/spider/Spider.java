@@ -21,8 +21,8 @@ package org.zaproxy.addon.spider;
 
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
@@ -159,7 +159,7 @@ public class Spider {
         this.model = model;
         this.extension = extension;
         this.controller = new SpiderController(this, extension.getCustomParsers());
-        this.listeners = new LinkedList<>();
+        this.listeners = new CopyOnWriteArrayList<>();
         this.seedList = new LinkedHashSet<>();
         this.scanContext = scanContext;
 
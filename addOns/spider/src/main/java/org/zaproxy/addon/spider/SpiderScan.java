@@ -216,6 +216,30 @@ public class SpiderScan implements ScanListenner, SpiderListener, GenericScanner
         }
     }
 
+    /**
+     * Adds a listener that is notified of the spider events, for example, when the spider
+     * completes.
+     *
+     * <p>The listener can be added before or after the scan is started.
+     *
+     * @param listener the listener to add.
+     * @since 0.11.0
+     */
+    public void addSpiderListener(SpiderListener listener) {
+        spiderThread.addSpiderListener(listener);
+    }
+
+    /**
+     * Removes a listener previously added.
+     *
+     * @param listener the listener to remove.
+     * @since 0.11.0
+     * @see #addSpiderListener(SpiderListener)
+     */
+    public void removeSpiderListener(SpiderListener listener) {
+        spiderThread.removeSpiderListener(listener);
+    }
+
     /**
      * Pauses the scan.
      *
@@ -584,6 +584,18 @@ public class SpiderThread extends ScanThread implements SpiderListener {
         }
     }
 
+    /**
+     * Removes a spider listener.
+     *
+     * @param listener the listener
+     */
+    public void removeSpiderListener(SpiderListener listener) {
+        if (spider != null) {
+            this.spider.removeSpiderListener(listener);
+        }
+        this.pendingSpiderListeners.remove(listener);
+    }
+
     @Override
     public void setJustScanInScope(boolean scanInScope) {
         this.justScanInScope = scanInScope;
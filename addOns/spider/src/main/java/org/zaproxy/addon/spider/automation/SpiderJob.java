@@ -50,8 +50,11 @@ import org.zaproxy.addon.automation.tests.AbstractAutomationTest;
 import org.zaproxy.addon.automation.tests.AutomationStatisticTest;
 import org.zaproxy.addon.network.common.ZapUnknownHostException;
 import org.zaproxy.addon.spider.ExtensionSpider2;
+import org.zaproxy.addon.spider.SpiderListener;
 import org.zaproxy.addon.spider.SpiderParam.HandleParametersOption;
 import org.zaproxy.addon.spider.SpiderScan;
+import org.zaproxy.addon.spider.SpiderTaskResult;
+import org.zaproxy.addon.spider.filters.FetchFilter.FetchStatus;
 import org.zaproxy.zap.model.Target;
 import org.zaproxy.zap.users.User;
 import org.zaproxy.zap.utils.Stats;
@@ -231,26 +234,36 @@ public class SpiderJob extends AutomationJob {
                             + TimeUnit.SECONDS.toMillis(5);
         }
 
-        // Wait for the spider to finish
-        SpiderScan scan;
+        // Wait for the spider to finish, woken up when it completes
+        SpiderScan scan = this.getExtSpider().getScan(scanId);
+        SpiderListener listener = new ProgressSpiderListener();
+        if (scan != null) {
+            scan.addSpiderListener(listener);
+        }
         boolean forceStop = false;
         int numUrlsFound = 0;
         int lastCount = 0;
 
-        while (true) {
-            this.sleep(500);
+        try {
+            while (true) {
+                this.waitForProgress(500);
 
-            scan = this.getExtSpider().getScan(scanId);
-            numUrlsFound = scan.getNumberOfURIsFound();
-            Stats.incCounter(URLS_ADDED_STATS_KEY, numUrlsFound - lastCount);
-            lastCount = numUrlsFound;
+                scan = this.getExtSpider().getScan(scanId);
+                numUrlsFound = scan.getNumberOfURIsFound();
+                Stats.incCounter(URLS_ADDED_STATS_KEY, numUrlsFound - lastCount);
+                lastCount = numUrlsFound;
 
-            if (scan.isStopped()) {
-                break;
+                if (scan.isStopped()) {
+                    break;
+                }
+                if (!this.runMonitorTests(progress) || System.currentTimeMillis() > endTime) {
+                    forceStop = true;
+                    break;
+                }
             }
-            if (!this.runMonitorTests(progress) || System.currentTimeMillis() > endTime) {
-                forceStop = true;
-                break;
+        } finally {
+            if (scan != null) {
+                scan.removeSpiderListener(listener);
             }
         }
         if (forceStop) {
@@ -266,6 +279,29 @@ public class SpiderJob extends AutomationJob {
         getExtSpider().setPanelSwitch(true);
     }
 
+    private class ProgressSpiderListener implements SpiderListener {
+
+        @Override
+        public void spiderProgress(int percentageComplete, int numberCrawled, int numberToCrawl) {
+            // Nothing to do.
+        }
+
+        @Override
+        public void foundURI(String uri, String method, FetchStatus status) {
+            // Nothing to do.
+        }
+
+        @Override
+        public void notifySpiderTaskResult(SpiderTaskResult spiderTaskResult) {
+            // Nothing to do.
+        }
+
+        @Override
+        public void spiderComplete(boolean successful) {
+            notifyProgress();
+        }
+    }
+
     /**
      * Only for use by unit tests
      *
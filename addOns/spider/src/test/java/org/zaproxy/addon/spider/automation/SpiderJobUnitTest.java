@@ -49,6 +49,7 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
@@ -68,6 +69,7 @@ import org.zaproxy.addon.automation.ContextWrapper;
 import org.zaproxy.addon.automation.tests.AutomationStatisticTest;
 import org.zaproxy.addon.network.common.ZapUnknownHostException;
 import org.zaproxy.addon.spider.ExtensionSpider2;
+import org.zaproxy.addon.spider.SpiderListener;
 import org.zaproxy.addon.spider.SpiderParam;
 import org.zaproxy.addon.spider.SpiderParam.HandleParametersOption;
 import org.zaproxy.addon.spider.SpiderScan;
@@ -220,6 +222,31 @@ class SpiderJobUnitTest extends TestUtils {
         assertThat(progress.hasErrors(), is(equalTo(false)));
     }
 
+    @Test
+    void shouldRemoveSpiderListenerOnceJobEnds() throws MalformedURLException {
+        // Given
+        Constant.messages = new I18N(Locale.ENGLISH);
+        Context context = mock(Context.class);
+        ContextWrapper contextWrapper = new ContextWrapper(context);
+        given(extSpider.startScan(any(), any(), any())).willReturn(1);
+        SpiderScan spiderScan = mock(SpiderScan.class);
+        given(spiderScan.isStopped()).willReturn(true);
+        given(extSpider.getScan(1)).willReturn(spiderScan);
+        AutomationProgress progress = new AutomationProgress();
+        AutomationEnvironment env = mock(AutomationEnvironment.class);
+        given(env.getDefaultContextWrapper()).willReturn(contextWrapper);
+        SpiderJob job = new SpiderJob();
+        job.setUrlRequester(urlRequester);
+        ArgumentCaptor<SpiderListener> listener = ArgumentCaptor.forClass(SpiderListener.class);
+
+        // When
+        job.runJob(env, progress);
+
+        // Then
+        verify(spiderScan).addSpiderListener(listener.capture());
+        verify(spiderScan).removeSpiderListener(listener.getValue());
+    }
+
     @Test
     void shouldFailIfInvalidUrl() throws MalformedURLException {
         // Given
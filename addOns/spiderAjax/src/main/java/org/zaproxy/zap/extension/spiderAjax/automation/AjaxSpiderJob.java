@@ -336,13 +336,13 @@ public class AjaxSpiderJob extends AutomationJob {
                             + TimeUnit.SECONDS.toMillis(5);
         }
 
-        // Wait for the ajax spider to finish
+        // Wait for the ajax spider to finish, woken up when it stops
         boolean forceStop = false;
         int numUrlsFound = 0;
         int lastCount = 0;
 
         while (true) {
-            this.sleep(500);
+            this.waitForProgress(500);
 
             numUrlsFound = listener.getMessagesFound();
             Stats.incCounter("spiderAjax.urls.added", numUrlsFound - lastCount);
@@ -443,7 +443,9 @@ public class AjaxSpiderJob extends AutomationJob {
         }
 
         @Override
-        public void spiderStopped() {}
+        public void spiderStopped() {
+            notifyProgress();
+        }
     }
 
     @Override
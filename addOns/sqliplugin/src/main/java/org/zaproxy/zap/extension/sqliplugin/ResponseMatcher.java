@@ -19,8 +19,7 @@
  */
 package org.zaproxy.zap.extension.sqliplugin;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Class for string diff management used to compare the original content to the one related to a
@@ -28,6 +27,9 @@ import java.util.Map;
  * Ratcliff and Obershelp under the hyperbolic name "gestalt pattern matching". The idea is to find
  * the longest contiguous matching subsequence that contains no "junk" elements.
  *
+ * <p>The chars of the original content are indexed once, and the injected contents are compared in
+ * place, stopping as soon as the result of {@link #isComparable()} is known.
+ *
  * @author yhawke (2013)
  */
 public class ResponseMatcher {
@@ -45,15 +47,22 @@ public class ResponseMatcher {
     // Maximum value for comparison ratio
     public static final double MAX_RATIO = 1.0;
 
+    // Number of words of the char sets, one bit per char
+    private static final int CHAR_SET_WORDS = (Character.MAX_VALUE + 1) / Long.SIZE;
+
     private String strA;
     private String strB;
-    // Inner helper class for strB string counting
-    private Map<Integer, Integer> fullBCount;
+    // The chars of strB, after the common prefix, and their count
+    private final long[] charsB;
+    private int charsBCount;
+    // The chars of strA already matched
+    private final long[] matchedA;
     private double matchRatio;
     private boolean negativeLogic;
 
     public ResponseMatcher() {
-        fullBCount = new HashMap<>();
+        charsB = new long[CHAR_SET_WORDS];
+        matchedA = new long[CHAR_SET_WORDS];
         matchRatio = -1;
         negativeLogic = false;
     }
@@ -70,7 +79,7 @@ public class ResponseMatcher {
      */
     public void setOriginalResponse(String b) {
         this.strB = b;
-        this.fullBCount.clear();
+        clearCharsB();
         matchRatio = -1;
     }
 
@@ -88,52 +97,85 @@ public class ResponseMatcher {
      * @return
      */
     public double getQuickRatio() {
-        int chr;
-        int count;
-        int matches = 0;
+        int start = getCommonPrefixLength();
+        indexCharsB(start);
+        return getRatio(start, countMatches(start, 0));
+    }
+
+    private int getCommonPrefixLength() {
+        int length = Math.min(strA.length(), strB.length());
         int start = 0;
-        while (start < Math.min(strA.length(), strB.length())) {
-            if (strA.charAt(start) == strB.charAt(start)) {
-                start += 1;
+        while (start < length && strA.charAt(start) == strB.charAt(start)) {
+            start++;
+        }
+        return start;
+    }
 
-            } else break;
+    private void clearCharsB() {
+        if (charsBCount != 0) {
+            Arrays.fill(charsB, 0);
+            charsBCount = 0;
         }
+    }
 
-        // viewing strA and strB as multisets, set matches to the cardinality
-        // of their intersection; this counts the number of matches
-        // without regard to order, so is clearly an upper bound
-        if (fullBCount.isEmpty()) {
+    /**
+     * Indexes the chars of strB after the given start, if not already indexed for the current
+     * original response.
+     *
+     * @param start the length of the common prefix of the first comparison.
+     */
+    private void indexCharsB(int start) {
+        if (charsBCount != 0) {
+            return;
+        }
 
-            for (int i = start; i < strB.length(); i++) {
-                chr = strB.charAt(i);
-                count = fullBCount.containsKey(chr) ? fullBCount.get(chr) : 1;
-                fullBCount.put(chr, count);
+        for (int i = start; i < strB.length(); i++) {
+            char chr = strB.charAt(i);
+            long bit = 1L << chr;
+            int word = chr >>> 6;
+            if ((charsB[word] & bit) == 0) {
+                charsB[word] |= bit;
+                charsBCount++;
             }
         }
+    }
 
-        // avail[x] is the number of times x appears in 'strB' less the
-        // number of times we've seen it in 'strA' so far ... kinda
-        Map<Integer, Integer> avail = new HashMap<>();
-
-        for (int i = start; i < strA.length(); i++) {
-            chr = strA.charAt(i);
-            if (avail.containsKey(chr)) {
-                count = avail.get(chr);
-
-            } else if (fullBCount.containsKey(chr)) {
-                count = fullBCount.get(chr);
-
-            } else {
-                count = 0;
+    /**
+     * Counts the matches of strA, after the given start, with the chars of strB.
+     *
+     * <p>Viewing strA and strB as multisets, set matches to the cardinality of their intersection;
+     * this counts the number of matches without regard to order, so is clearly an upper bound. Each
+     * distinct char of strB is counted once.
+     *
+     * @param start the length of the common prefix.
+     * @param decisive the number of matches that decides the result, the count stops once reached
+     *     or no longer reachable, or {@code 0} to count all matches.
+     * @return the number of matches, or the number of matches when decided.
+     */
+    private int countMatches(int start, int decisive) {
+        Arrays.fill(matchedA, 0);
+        int matches = 0;
+        int length = strA.length();
+        for (int i = start; i < length; i++) {
+            char chr = strA.charAt(i);
+            long bit = 1L << chr;
+            int word = chr >>> 6;
+            if ((charsB[word] & bit) != 0 && (matchedA[word] & bit) == 0) {
+                matchedA[word] |= bit;
+                matches++;
+                if (matches == decisive) {
+                    break;
+                }
             }
-
-            avail.put(chr, count - 1);
-
-            if (count > 0) {
-                matches += 1;
+            if (decisive != 0
+                    && matches + Math.min(length - i - 1, charsBCount - matches) < decisive) {
+                break;
             }
         }
+        return matches;
+    }
 
+    private double getRatio(int start, int matches) {
         int totalLength = strA.length() + strB.length();
 
         return (totalLength > 0) ? 2.0 * (start + matches) / totalLength : 1.0;
@@ -144,14 +186,29 @@ public class ResponseMatcher {
      * @return
      */
     public boolean isComparable() {
-        double ratio = getQuickRatio();
+        boolean comparable;
 
         // If comparison has never been done
         // set it as base ratio value
-        if (matchRatio < 0) matchRatio = ratio;
+        if (matchRatio < 0) {
+            double ratio = getQuickRatio();
+            matchRatio = ratio;
+            comparable = isComparable(ratio);
+
+        } else {
+            int start = getCommonPrefixLength();
+            indexCharsB(start);
+            int decisive = getDecisiveMatches(start);
+            if (decisive == 0) {
+                comparable = true;
 
-        boolean comparable =
-                ((ratio > UPPER_RATIO_BOUND) || ((ratio - matchRatio) > DIFF_TOLERANCE));
+            } else if (decisive < 0) {
+                comparable = false;
+
+            } else {
+                comparable = countMatches(start, decisive) >= decisive;
+            }
+        }
 
         // Test if we need strA negative logic approach.
         // This is used in raw page comparison scheme as that what is "different" than original
@@ -160,4 +217,32 @@ public class ResponseMatcher {
         // by the comparison mechanism itself
         return negativeLogic ^ comparable;
     }
+
+    private boolean isComparable(double ratio) {
+        return (ratio > UPPER_RATIO_BOUND) || ((ratio - matchRatio) > DIFF_TOLERANCE);
+    }
+
+    /**
+     * Gets the minimum number of matches that makes the responses comparable, the ratio increases
+     * with the matches.
+     *
+     * @param start the length of the common prefix.
+     * @return the number of matches, or {@code -1} if not comparable with any number of matches.
+     */
+    private int getDecisiveMatches(int start) {
+        int low = 0;
+        int high = Math.min(strA.length() - start, charsBCount);
+        if (!isComparable(getRatio(start, high))) {
+            return -1;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isComparable(getRatio(start, mid))) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
 }
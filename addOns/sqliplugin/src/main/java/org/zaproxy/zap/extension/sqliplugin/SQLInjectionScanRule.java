@@ -22,10 +22,8 @@ package org.zaproxy.zap.extension.sqliplugin;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
@@ -82,9 +80,9 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
     // --level=LEVEL       Level of tests to perform (1-5, default 1)
     private int level = 1;
     // --prefix=PREFIX     Injection payload prefix string
-    private String prefix = null;
+    private SQLiPayloadTemplate prefix = null;
     // --suffix=SUFFIX     Injection payload suffix string
-    private String suffix = null;
+    private SQLiPayloadTemplate suffix = null;
     // --invalid-bignum    Use big numbers for invalidating values
     private boolean invalidBignum = false;
     // --invalid-logical   Use logical operations for invalidating values
@@ -107,11 +105,8 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
     private static final Pattern errorPattern =
             Pattern.compile("SQL (warning|error|syntax)", Pattern.CASE_INSENSITIVE);
 
-    // Generic pattern for RandNum tag retrieval
-    private static final Pattern randnumPattern = Pattern.compile("\\[RANDNUM(?:\\d+)?\\]");
-
-    // Generic pattern for RandStr tag retrieval
-    private static final Pattern randstrPattern = Pattern.compile("\\[RANDSTR(?:\\d+)?\\]");
+    // Pattern used to merge consecutive statement separators
+    private static final Pattern stackedSeparatorsPattern = Pattern.compile("(?s);\\W*;");
 
     // Internal dynamic properties
     private final ResponseMatcher responseMatcher;
@@ -324,8 +319,8 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
         // Internal engine variable definition
         HttpMessage origMsg;
         HttpMessage tempMsg;
-        String currentPrefix;
-        String currentSuffix;
+        SQLiPayloadTemplate currentPrefix;
+        SQLiPayloadTemplate currentSuffix;
         String currentComment;
         String payloadValue;
         String reqPayload;
@@ -558,35 +553,18 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
             currentComment =
                     (manager.getBoundaries().size() > 1) ? test.getRequest().getComment() : null;
 
-            // Start iterating through applicable boundaries
-            for (SQLiBoundary boundary : manager.getBoundaries()) {
+            // Start iterating through applicable boundaries, those
+            // with a level not higher than the provided (or default)
+            // value and matching against test's <clause> and <where>
+            for (SQLiBoundary boundary : manager.getBoundaries(test, level)) {
 
                 // First set to false the injectable param
                 injectable = false;
 
-                // Skip boundary if the level is higher than the provided (or
-                // default) value
-                // Parse boundary's <level>
-                if (boundary.getLevel() > level) {
-                    continue;
-                }
-
-                // Skip boundary if it does not match against test's <clause>
-                // Parse test's <clause> and boundary's <clause>
-                if (!test.matchClause(boundary)) {
-                    continue;
-                }
-
-                // Skip boundary if it does not match against test's <where>
-                // Parse test's <where> and boundary's <where>
-                if (!test.matchWhere(boundary)) {
-                    continue;
-                }
-
                 // Parse boundary's <prefix>, <suffix>
                 // Options --prefix/--suffix have a higher priority (if set by user)
-                currentPrefix = (prefix == null) ? boundary.getPrefix() : prefix;
-                currentSuffix = (suffix == null) ? boundary.getSuffix() : suffix;
+                currentPrefix = (prefix == null) ? boundary.getPrefixTemplate() : prefix;
+                currentSuffix = (suffix == null) ? boundary.getSuffixTemplate() : suffix;
                 currentComment = (suffix == null) ? currentComment : null;
 
                 // For each test's <where>
@@ -665,7 +643,9 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
                     // Forge request payload by prepending with boundary's
                     // prefix and appending the boundary's suffix to the
                     // test's ' <payload><comment> ' string
-                    reqPayload = prepareCleanPayload(test.getRequest().getPayload(), payloadValue);
+                    reqPayload =
+                            prepareCleanPayload(
+                                    test.getRequest().getPayloadTemplate(), payloadValue);
                     reqPayload = preparePrefix(reqPayload, currentPrefix, where, test);
                     reqPayload = prepareSuffix(reqPayload, currentComment, currentSuffix, where);
                     // Now prefix the parameter value
@@ -697,7 +677,8 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
                             // Generate payload used for comparison
                             cmpPayload =
                                     prepareCleanPayload(
-                                            test.getResponse().getComparison(), payloadValue);
+                                            test.getResponse().getComparisonTemplate(),
+                                            payloadValue);
 
                             // Forge response payload by prepending with
                             // boundary's prefix and appending the boundary's
@@ -816,7 +797,8 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
                             // Get the payload that need to be checked
                             // inside the response content
                             String checkString =
-                                    prepareCleanPayload(test.getResponse().getGrep(), payloadValue);
+                                    prepareCleanPayload(
+                                            test.getResponse().getGrepTemplate(), payloadValue);
                             Pattern checkPattern =
                                     Pattern.compile(
                                             checkString, Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
@@ -1284,74 +1266,26 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
             return null;
         }
 
-        String result = payload.replace("[DELIMITER_START]", SQLiPayloadManager.charsStart);
-        result = result.replace("[DELIMITER_STOP]", SQLiPayloadManager.charsStop);
-        result = result.replace("[AT_REPLACE]", SQLiPayloadManager.charsAt);
-        result = result.replace("[SPACE_REPLACE]", SQLiPayloadManager.charsSpace);
-        result = result.replace("[DOLLAR_REPLACE]", SQLiPayloadManager.charsDollar);
-        result = result.replace("[HASH_REPLACE]", SQLiPayloadManager.charsHash);
-
-        // Set random integers
-        // ------------------------
-        Matcher matcher = randnumPattern.matcher(result);
-        Set<String> elements = new HashSet<>();
-        while (matcher.find()) {
-            elements.add(matcher.group());
-        }
-
-        for (String el : elements) {
-            result = result.replace(el, SQLiPayloadManager.randomInt());
-        }
-
-        // Set random strings
-        // ------------------------
-        matcher = randstrPattern.matcher(result);
-        elements.clear();
-        while (matcher.find()) {
-            elements.add(matcher.group());
-        }
-
-        for (String el : elements) {
-            result = result.replace(el, SQLiPayloadManager.randomString());
-        }
-
-        // Set original Value
-        // ------------------------
-        if (paramValue != null) {
-            try {
-                Integer.parseInt(paramValue);
-                result = result.replace("[ORIGVALUE]", paramValue);
-
-            } catch (NumberFormatException nfe) {
-                result = result.replace("[ORIGVALUE]", "'" + paramValue + "'");
-            }
+        // All the elements to set are enclosed in brackets,
+        // nothing to do if there are none (e.g. already prepared)
+        if (payload.indexOf('[') == -1) {
+            return payload;
         }
 
-        // Inferenced payload seems used only to exploit
-        // the vulnerability, not to test it.
-        // So we skip this replacement
-        // if (result.contains("[INFERENCE]")) {
-        /*
-        if Backend.getIdentifiedDbms() is not None:
-        inference = queries[Backend.getIdentifiedDbms()].inference
-
-        if "dbms_version" in inference:
-        if isDBMSVersionAtLeast(inference.dbms_version):
-        inferenceQuery = inference.query
-        else:
-        inferenceQuery = inference.query2
-        else:
-        inferenceQuery = inference.query
-
-        payload = payload.replace("[INFERENCE]", inferenceQuery)
-        else:
-        errMsg = "invalid usage of inference payload without "
-        errMsg += "knowledge of underlying DBMS"
-        raise SqlmapNoneDataException, errMsg
-        */
-        // }
+        return SQLiPayloadTemplate.compile(payload).expand(paramValue);
+    }
 
-        return result;
+    /**
+     * Prepare a clean attack payload from a compiled payload, setting the random values and the
+     * original value
+     *
+     * @param template the compiled payload, might be {@code null}
+     * @param paramValue the value that need to be set for the original parameter
+     * @return a prepared payload that need to be prefixed and suffixed, or {@code null} if no
+     *     payload
+     */
+    private static String prepareCleanPayload(SQLiPayloadTemplate template, String paramValue) {
+        return template != null ? template.expand(paramValue) : null;
     }
 
     /**
@@ -1359,12 +1293,13 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
      * model
      *
      * @param payload
-     * @param prefix
+     * @param prefix the compiled prefix, expanded with new random values
      * @param where
      * @param test
      * @return
      */
-    protected String preparePrefix(String payload, String prefix, int where, SQLiTest test) {
+    protected String preparePrefix(
+            String payload, SQLiPayloadTemplate prefix, int where, SQLiTest test) {
         String prefixQuery;
         // payload = prepareCleanPayload(payload, null);
         if (currentDbms != null) {
@@ -1379,11 +1314,11 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
             // If the technique is stacked queries (<stype>) do not put a space
             // after the prefix or it is in GROUP BY / ORDER BY (<clause>)
         } else if (test.matchClauseList(new int[] {2, 3})) {
-            prefixQuery = prefix;
+            prefixQuery = (prefix != null) ? prefix.expand(null) : "";
 
             // In any other case prepend with the full prefix
         } else {
-            prefixQuery = (prefix != null) ? prefix : "";
+            prefixQuery = (prefix != null) ? prefix.expand(null) : "";
 
             if (payload.isEmpty() || (payload.charAt(0) != ';')) {
                 prefixQuery += " ";
@@ -1398,11 +1333,12 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
      *
      * @param payload
      * @param comment
-     * @param suffix
+     * @param suffix the compiled suffix, expanded with new random values
      * @param where
      * @return
      */
-    protected String prepareSuffix(String payload, String comment, String suffix, int where) {
+    protected String prepareSuffix(
+            String payload, String comment, SQLiPayloadTemplate suffix, int where) {
 
         // Set correct comment if it's revealed as an Access database
         if ((currentDbms == DBMSHelper.ACCESS) && DBMSHelper.GENERIC_SQL_COMMENT.equals(comment)) {
@@ -1418,10 +1354,11 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
         if (where == SQLiPayloadManager.WHERE_REPLACE) {
             // Do Nothing
         } else if ((suffix != null) && (comment == null)) {
-            payload += suffix;
+            payload += suffix.expand(null);
         }
 
-        return prepareCleanPayload(payload.replaceAll("(?s);\\W*;", ";"), null);
+        return prepareCleanPayload(
+                stackedSeparatorsPattern.matcher(payload).replaceAll(";"), null);
     }
 
     /**
@@ -1498,7 +1435,7 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
      * @param prefix the prefix string
      */
     public void setPrefix(String prefix) {
-        this.prefix = prefix;
+        this.prefix = (prefix != null) ? SQLiPayloadTemplate.compile(prefix) : null;
     }
 
     /**
@@ -1507,7 +1444,7 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
      * @param suffix
      */
     public void setSuffix(String suffix) {
-        this.suffix = suffix;
+        this.suffix = (suffix != null) ? SQLiPayloadTemplate.compile(suffix) : null;
     }
 
     /**
@@ -37,6 +37,8 @@ public class SQLiBoundary {
     private int ptype;
     private String prefix;
     private String suffix;
+    private SQLiPayloadTemplate prefixTemplate;
+    private SQLiPayloadTemplate suffixTemplate;
 
     /** */
     public SQLiBoundary() {
@@ -46,6 +48,8 @@ public class SQLiBoundary {
         ptype = 0;
         prefix = "";
         suffix = "";
+        prefixTemplate = SQLiPayloadTemplate.compile(prefix);
+        suffixTemplate = SQLiPayloadTemplate.compile(suffix);
     }
 
     /*
@@ -142,11 +146,13 @@ public class SQLiBoundary {
         value = el.getChild(TAG_BOUNDARY_PREFIX);
         if (value != null) {
             this.prefix = value.getText();
+            this.prefixTemplate = SQLiPayloadTemplate.compile(prefix);
         }
 
         value = el.getChild(TAG_BOUNDARY_SUFFIX);
         if (value != null) {
             this.suffix = value.getText();
+            this.suffixTemplate = SQLiPayloadTemplate.compile(suffix);
         }
     }
 
@@ -193,4 +199,18 @@ public class SQLiBoundary {
     public String getSuffix() {
         return suffix;
     }
+
+    /**
+     * @return the compiled prefix, to expand with new random values each time it's used
+     */
+    SQLiPayloadTemplate getPrefixTemplate() {
+        return prefixTemplate;
+    }
+
+    /**
+     * @return the compiled suffix, to expand with new random values each time it's used
+     */
+    SQLiPayloadTemplate getSuffixTemplate() {
+        return suffixTemplate;
+    }
 }
@@ -23,10 +23,12 @@ package org.zaproxy.zap.extension.sqliplugin;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdom2.Document;
@@ -94,6 +96,9 @@ public class SQLiPayloadManager {
 
     private List<SQLiBoundary> boundaries;
     private List<SQLiTest> tests;
+    // Applicable boundaries by test and level
+    private final Map<SQLiTest, Map<Integer, List<SQLiBoundary>>> testBoundaries =
+            new ConcurrentHashMap<>();
 
     private static final Logger LOGGER = LogManager.getLogger(SQLiPayloadManager.class);
 
@@ -166,6 +171,33 @@ public class SQLiPayloadManager {
         return boundaries;
     }
 
+    /**
+     * Get the boundaries applicable to the given test, that is, with a level not higher than the
+     * given one and matching the test's clause and where. The list is computed once per test and
+     * level.
+     *
+     * @param test the test
+     * @param level the maximum level of the boundaries
+     * @return an unmodifiable list of boundary elements
+     */
+    public List<SQLiBoundary> getBoundaries(SQLiTest test, int level) {
+        return testBoundaries
+                .computeIfAbsent(test, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(level, k -> createBoundaries(test, level));
+    }
+
+    private List<SQLiBoundary> createBoundaries(SQLiTest test, int level) {
+        List<SQLiBoundary> result = new ArrayList<>();
+        for (SQLiBoundary boundary : boundaries) {
+            if (boundary.getLevel() <= level
+                    && test.matchClause(boundary)
+                    && test.matchWhere(boundary)) {
+                result.add(boundary);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
     /**
      * Get a list of all defined tests
      *
@@ -0,0 +1,144 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.sqliplugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A payload compiled into its literal parts and the placeholders to fill, so that preparing the
+ * payload is a simple concatenation.
+ *
+ * <p>The delimiters and replacement chars are set when compiled, the random values (same value for
+ * the same placeholder) and the original value when expanded.
+ */
+class SQLiPayloadTemplate {
+
+    private static final Pattern PLACEHOLDER_PATTERN =
+            Pattern.compile("\\[(RANDNUM|RANDSTR)(?:\\d+)?\\]|\\[ORIGVALUE\\]");
+
+    private static final String ORIGVALUE = "[ORIGVALUE]";
+
+    /** The slot of the original value, the others are the indexes of the random values. */
+    private static final int ORIGVALUE_SLOT = -1;
+
+    private final String[] literals;
+    private final int[] slots;
+    private final boolean[] randomNumbers;
+
+    private SQLiPayloadTemplate(String[] literals, int[] slots, boolean[] randomNumbers) {
+        this.literals = literals;
+        this.slots = slots;
+        this.randomNumbers = randomNumbers;
+    }
+
+    /**
+     * Compiles the given payload.
+     *
+     * @param payload the payload, must not be {@code null}.
+     * @return the compiled payload.
+     */
+    static SQLiPayloadTemplate compile(String payload) {
+        String result = payload.replace("[DELIMITER_START]", SQLiPayloadManager.charsStart);
+        result = result.replace("[DELIMITER_STOP]", SQLiPayloadManager.charsStop);
+        result = result.replace("[AT_REPLACE]", SQLiPayloadManager.charsAt);
+        result = result.replace("[SPACE_REPLACE]", SQLiPayloadManager.charsSpace);
+        result = result.replace("[DOLLAR_REPLACE]", SQLiPayloadManager.charsDollar);
+        result = result.replace("[HASH_REPLACE]", SQLiPayloadManager.charsHash);
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        Map<String, Integer> randoms = new HashMap<>();
+        List<Boolean> randomNumbers = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(result);
+        int start = 0;
+        while (matcher.find()) {
+            literals.add(result.substring(start, matcher.start()));
+            String placeholder = matcher.group();
+            if (ORIGVALUE.equals(placeholder)) {
+                slots.add(ORIGVALUE_SLOT);
+            } else {
+                Integer slot = randoms.get(placeholder);
+                if (slot == null) {
+                    slot = randoms.size();
+                    randoms.put(placeholder, slot);
+                    randomNumbers.add("RANDNUM".equals(matcher.group(1)));
+                }
+                slots.add(slot);
+            }
+            start = matcher.end();
+        }
+        literals.add(result.substring(start));
+
+        boolean[] numbers = new boolean[randomNumbers.size()];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = randomNumbers.get(i);
+        }
+        return new SQLiPayloadTemplate(
+                literals.toArray(new String[0]),
+                slots.stream().mapToInt(Integer::intValue).toArray(),
+                numbers);
+    }
+
+    /**
+     * Expands the payload, with new random values.
+     *
+     * @param paramValue the original value of the parameter, or {@code null} to keep the
+     *     placeholder.
+     * @return the expanded payload.
+     */
+    String expand(String paramValue) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+
+        String[] randoms = new String[randomNumbers.length];
+        for (int i = 0; i < randoms.length; i++) {
+            randoms[i] =
+                    randomNumbers[i]
+                            ? SQLiPayloadManager.randomInt()
+                            : SQLiPayloadManager.randomString();
+        }
+        String origValue = getOrigValue(paramValue);
+
+        StringBuilder result = new StringBuilder(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            result.append(slots[i] == ORIGVALUE_SLOT ? origValue : randoms[slots[i]]);
+            result.append(literals[i + 1]);
+        }
+        return result.toString();
+    }
+
+    private static String getOrigValue(String paramValue) {
+        if (paramValue == null) {
+            return ORIGVALUE;
+        }
+        try {
+            Integer.parseInt(paramValue);
+            return paramValue;
+        } catch (NumberFormatException nfe) {
+            return "'" + paramValue + "'";
+        }
+    }
+}
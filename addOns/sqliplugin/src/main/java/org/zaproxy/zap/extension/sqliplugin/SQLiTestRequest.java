@@ -50,6 +50,7 @@ public class SQLiTestRequest {
     private String comment;
     private String chars;
     private String columns;
+    private SQLiPayloadTemplate payloadTemplate;
 
     /** */
     public SQLiTestRequest() {
@@ -77,6 +78,7 @@ public class SQLiTestRequest {
         Element value = el.getChild(TAG_REQUEST_PAYLOAD);
         if (value != null) {
             this.payload = value.getText();
+            this.payloadTemplate = SQLiPayloadTemplate.compile(payload);
         }
 
         value = el.getChild(TAG_REQUEST_COMMENT);
@@ -99,6 +101,13 @@ public class SQLiTestRequest {
         return payload;
     }
 
+    /**
+     * @return the compiled payload, or {@code null} if there's no payload
+     */
+    SQLiPayloadTemplate getPayloadTemplate() {
+        return payloadTemplate;
+    }
+
     public String getComment() {
         return comment;
     }
@@ -63,6 +63,8 @@ public class SQLiTestResponse {
     private String time;
     private String grep;
     private boolean union;
+    private SQLiPayloadTemplate comparisonTemplate;
+    private SQLiPayloadTemplate grepTemplate;
 
     /** */
     public SQLiTestResponse() {
@@ -90,11 +92,13 @@ public class SQLiTestResponse {
         Element value = el.getChild(TAG_RESPONSE_COMPARISON);
         if (value != null) {
             this.comparison = value.getText();
+            this.comparisonTemplate = SQLiPayloadTemplate.compile(comparison);
         }
 
         value = el.getChild(TAG_RESPONSE_GREP);
         if (value != null) {
             this.grep = value.getText();
+            this.grepTemplate = SQLiPayloadTemplate.compile(grep);
         }
 
         value = el.getChild(TAG_RESPONSE_TIME);
@@ -110,6 +114,13 @@ public class SQLiTestResponse {
         return comparison;
     }
 
+    /**
+     * @return the compiled comparison payload, or {@code null} if there's no comparison
+     */
+    SQLiPayloadTemplate getComparisonTemplate() {
+        return comparisonTemplate;
+    }
+
     public String getTime() {
         return time;
     }
@@ -118,6 +129,13 @@ public class SQLiTestResponse {
         return grep;
     }
 
+    /**
+     * @return the compiled grep payload, or {@code null} if there's no grep
+     */
+    SQLiPayloadTemplate getGrepTemplate() {
+        return grepTemplate;
+    }
+
     public boolean isUnion() {
         return union;
     }
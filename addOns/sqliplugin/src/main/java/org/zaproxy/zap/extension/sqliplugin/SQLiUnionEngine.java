@@ -58,8 +58,8 @@ public class SQLiUnionEngine {
     // ----------------------------------------
     private String paramName;
     private String paramValue;
-    private String prefix;
-    private String suffix;
+    private SQLiPayloadTemplate prefix;
+    private SQLiPayloadTemplate suffix;
     private String comment;
     private DBMSHelper dbms;
     private int uColsStart;
@@ -1055,11 +1055,11 @@ public class SQLiUnionEngine {
         this.paramValue = paramValue;
     }
 
-    public void setPrefix(String prefix) {
+    public void setPrefix(SQLiPayloadTemplate prefix) {
         this.prefix = prefix;
     }
 
-    public void setSuffix(String suffix) {
+    public void setSuffix(SQLiPayloadTemplate suffix) {
         this.suffix = suffix;
     }
 
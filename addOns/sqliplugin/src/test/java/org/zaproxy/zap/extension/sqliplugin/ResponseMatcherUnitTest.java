@@ -0,0 +1,211 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.sqliplugin;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Unit test for {@link ResponseMatcher}. */
+class ResponseMatcherUnitTest {
+
+    @Test
+    void shouldHaveRatioOfOneForSameResponses() {
+        // Given
+        ResponseMatcher matcher = new ResponseMatcher();
+        matcher.setOriginalResponse("<html>Same</html>");
+        matcher.setInjectedResponse("<html>Same</html>");
+        // When
+        double ratio = matcher.getQuickRatio();
+        // Then
+        assertThat(ratio, is(closeTo(1.0, 0.0)));
+    }
+
+    @Test
+    void shouldHaveRatioOfOneForEmptyResponses() {
+        // Given
+        ResponseMatcher matcher = new ResponseMatcher();
+        matcher.setOriginalResponse("");
+        matcher.setInjectedResponse("");
+        // When
+        double ratio = matcher.getQuickRatio();
+        // Then
+        assertThat(ratio, is(closeTo(1.0, 0.0)));
+    }
+
+    @Test
+    void shouldHaveRatioOfZeroForResponsesWithoutCommonChars() {
+        // Given
+        ResponseMatcher matcher = new ResponseMatcher();
+        matcher.setOriginalResponse("aaaa");
+        matcher.setInjectedResponse("bbbb");
+        // When
+        double ratio = matcher.getQuickRatio();
+        // Then
+        assertThat(ratio, is(closeTo(0.0, 0.0)));
+    }
+
+    @Test
+    void shouldBeComparableWithSameResponse() {
+        // Given
+        ResponseMatcher matcher = new ResponseMatcher();
+        matcher.setOriginalResponse("<html>Original</html>");
+        matcher.setLogic(SQLiPayloadManager.WHERE_ORIGINAL);
+        matcher.setInjectedResponse("<html>Original</html>");
+        // When
+        boolean comparable = matcher.isComparable();
+        // Then
+        assertThat(comparable, is(true));
+    }
+
+    @Test
+    void shouldNotBeComparableWithDifferentResponseUsingNegativeLogic() {
+        // Given
+        ResponseMatcher matcher = new ResponseMatcher();
+        matcher.setOriginalResponse("<html>Original</html>");
+        matcher.setLogic(SQLiPayloadManager.WHERE_NEGATIVE);
+        matcher.setInjectedResponse("<html>Original</html>");
+        // When
+        boolean comparable = matcher.isComparable();
+        // Then
+        assertThat(comparable, is(false));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4, 16, 128})
+    void shouldMatchPreviousImplementation(int alphabetSize) {
+        // Given
+        Random random = new Random(alphabetSize);
+        ResponseMatcher matcher = new ResponseMatcher();
+        PreviousResponseMatcher previous = new PreviousResponseMatcher();
+        for (int i = 0; i < 200; i++) {
+            String original = randomString(random, alphabetSize, "");
+            int logic = 1 + random.nextInt(3);
+            matcher.setOriginalResponse(original);
+            matcher.setLogic(logic);
+            previous.setOriginalResponse(original);
+            previous.setLogic(logic);
+            for (int j = 0; j < 10; j++) {
+                String injected =
+                        randomString(
+                                random,
+                                alphabetSize,
+                                original.substring(0, random.nextInt(original.length() + 1)));
+                matcher.setInjectedResponse(injected);
+                previous.setInjectedResponse(injected);
+                // When
+                boolean quick = random.nextBoolean();
+                Object result = quick ? matcher.getQuickRatio() : matcher.isComparable();
+                Object expected = quick ? previous.getQuickRatio() : previous.isComparable();
+                // Then
+                assertThat(result, is(equalTo(expected)));
+            }
+        }
+    }
+
+    private static String randomString(Random random, int alphabetSize, String prefix) {
+        StringBuilder strBuilder = new StringBuilder(prefix);
+        int length = random.nextInt(200);
+        for (int i = 0; i < length; i++) {
+            strBuilder.append(
+                    (char)
+                            ((random.nextBoolean() ? 'a' : '\u0100')
+                                    + random.nextInt(alphabetSize)));
+        }
+        return strBuilder.toString();
+    }
+
+    /** The previous implementation, using maps of the chars. */
+    private static class PreviousResponseMatcher {
+
+        private String strA;
+        private String strB;
+        private Map<Integer, Integer> fullBCount = new HashMap<>();
+        private double matchRatio = -1;
+        private boolean negativeLogic;
+
+        void setInjectedResponse(String a) {
+            this.strA = a;
+        }
+
+        void setOriginalResponse(String b) {
+            this.strB = b;
+            this.fullBCount.clear();
+            matchRatio = -1;
+        }
+
+        void setLogic(int replacementMode) {
+            this.negativeLogic = (replacementMode == SQLiPayloadManager.WHERE_NEGATIVE);
+        }
+
+        double getQuickRatio() {
+            int chr;
+            int count;
+            int matches = 0;
+            int start = 0;
+            while (start < Math.min(strA.length(), strB.length())) {
+                if (strA.charAt(start) == strB.charAt(start)) {
+                    start += 1;
+                } else break;
+            }
+            if (fullBCount.isEmpty()) {
+                for (int i = start; i < strB.length(); i++) {
+                    chr = strB.charAt(i);
+                    count = fullBCount.containsKey(chr) ? fullBCount.get(chr) : 1;
+                    fullBCount.put(chr, count);
+                }
+            }
+            Map<Integer, Integer> avail = new HashMap<>();
+            for (int i = start; i < strA.length(); i++) {
+                chr = strA.charAt(i);
+                if (avail.containsKey(chr)) {
+                    count = avail.get(chr);
+                } else if (fullBCount.containsKey(chr)) {
+                    count = fullBCount.get(chr);
+                } else {
+                    count = 0;
+                }
+                avail.put(chr, count - 1);
+                if (count > 0) {
+                    matches += 1;
+                }
+            }
+            int totalLength = strA.length() + strB.length();
+            return (totalLength > 0) ? 2.0 * (start + matches) / totalLength : 1.0;
+        }
+
+        boolean isComparable() {
+            double ratio = getQuickRatio();
+            if (matchRatio < 0) matchRatio = ratio;
+            boolean comparable =
+                    ((ratio > ResponseMatcher.UPPER_RATIO_BOUND)
+                            || ((ratio - matchRatio) > ResponseMatcher.DIFF_TOLERANCE));
+            return negativeLogic ^ comparable;
+        }
+    }
+}
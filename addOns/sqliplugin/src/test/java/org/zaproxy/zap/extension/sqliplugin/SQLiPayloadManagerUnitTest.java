@@ -0,0 +1,93 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.sqliplugin;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link SQLiPayloadManager}. */
+class SQLiPayloadManagerUnitTest {
+
+    @Test
+    void shouldGetBoundariesApplicableToTestAndLevel() {
+        // Given
+        SQLiPayloadManager manager = SQLiPayloadManager.getInstance();
+        int level = 2;
+        for (SQLiTest test : manager.getTests()) {
+            // When
+            List<SQLiBoundary> boundaries = manager.getBoundaries(test, level);
+            // Then
+            List<SQLiBoundary> expected =
+                    manager.getBoundaries().stream()
+                            .filter(b -> b.getLevel() <= level)
+                            .filter(test::matchClause)
+                            .filter(test::matchWhere)
+                            .collect(Collectors.toList());
+            assertThat(boundaries, is(expected));
+            boundaries.forEach(b -> assertThat(b.getLevel(), is(lessThanOrEqualTo(level))));
+        }
+    }
+
+    @Test
+    void shouldReuseBoundariesOfSameTestAndLevel() {
+        // Given
+        SQLiPayloadManager manager = SQLiPayloadManager.getInstance();
+        SQLiTest test = manager.getTests().get(0);
+        List<SQLiBoundary> boundaries = manager.getBoundaries(test, 5);
+        // When
+        List<SQLiBoundary> otherBoundaries = manager.getBoundaries(test, 5);
+        // Then
+        assertThat(otherBoundaries, is(sameInstance(boundaries)));
+    }
+
+    @Test
+    void shouldCompileTestPayloadsWhenLoaded() {
+        // Given
+        SQLiPayloadManager manager = SQLiPayloadManager.getInstance();
+        for (SQLiTest test : manager.getTests()) {
+            // When
+            SQLiPayloadTemplate template = test.getRequest().getPayloadTemplate();
+            // Then
+            assertThat(template == null, is(test.getRequest().getPayload() == null));
+        }
+    }
+
+    @Test
+    void shouldCompileBoundaryPrefixesAndSuffixesWhenLoaded() {
+        // Given
+        SQLiPayloadManager manager = SQLiPayloadManager.getInstance();
+        for (SQLiBoundary boundary : manager.getBoundaries()) {
+            // When
+            String prefix = boundary.getPrefixTemplate().expand(null);
+            String suffix = boundary.getSuffixTemplate().expand(null);
+            // Then
+            assertThat(prefix, not(matchesPattern(".*\\[RAND(NUM|STR)\\d*\\].*")));
+            assertThat(suffix, not(matchesPattern(".*\\[RAND(NUM|STR)\\d*\\].*")));
+        }
+    }
+}
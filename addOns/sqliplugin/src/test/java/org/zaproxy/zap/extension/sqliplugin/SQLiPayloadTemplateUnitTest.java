@@ -0,0 +1,143 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.sqliplugin;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link SQLiPayloadTemplate}. */
+class SQLiPayloadTemplateUnitTest {
+
+    @Test
+    void shouldExpandPayloadWithoutPlaceholders() {
+        // Given
+        SQLiPayloadTemplate template = SQLiPayloadTemplate.compile("AND 1=1");
+        // When
+        String payload = template.expand("value");
+        // Then
+        assertThat(payload, is("AND 1=1"));
+    }
+
+    @Test
+    void shouldSetDelimitersAndReplacementCharsWhenCompiled() {
+        // Given
+        SQLiPayloadTemplate template =
+                SQLiPayloadTemplate.compile(
+                        "[DELIMITER_START][DELIMITER_STOP][AT_REPLACE][SPACE_REPLACE][DOLLAR_REPLACE][HASH_REPLACE]");
+        // When
+        String payload = template.expand(null);
+        // Then
+        assertThat(
+                payload,
+                is(
+                        SQLiPayloadManager.charsStart
+                                + SQLiPayloadManager.charsStop
+                                + SQLiPayloadManager.charsAt
+                                + SQLiPayloadManager.charsSpace
+                                + SQLiPayloadManager.charsDollar
+                                + SQLiPayloadManager.charsHash));
+    }
+
+    @Test
+    void shouldSetSameRandomValueForSamePlaceholder() {
+        // Given
+        SQLiPayloadTemplate template =
+                SQLiPayloadTemplate.compile("AND [RANDNUM]=[RANDNUM] OR '[RANDSTR1]'='[RANDSTR1]'");
+        // When
+        String payload = template.expand(null);
+        // Then
+        assertThat(payload, matchesPattern("AND (\\d{4})=\\1 OR '([a-zA-Z]{4})'='\\2'"));
+    }
+
+    @Test
+    void shouldSetDifferentRandomValuesForDifferentPlaceholders() {
+        // Given
+        SQLiPayloadTemplate template =
+                SQLiPayloadTemplate.compile("[RANDNUM1]|[RANDNUM2]|[RANDNUM3]|[RANDNUM4]");
+        // When
+        String payload = template.expand(null);
+        // Then
+        String[] values = payload.split("\\|");
+        assertThat(values.length, is(4));
+        assertThat(values[0], matchesPattern("\\d{4}"));
+        assertThat(
+                values[0].equals(values[1])
+                        && values[1].equals(values[2])
+                        && values[2].equals(values[3]),
+                is(false));
+    }
+
+    @Test
+    void shouldSetNewRandomValuesOnEachExpansion() {
+        // Given
+        SQLiPayloadTemplate template =
+                SQLiPayloadTemplate.compile("[RANDSTR][RANDSTR1][RANDSTR2][RANDSTR3]");
+        // When
+        String payload1 = template.expand(null);
+        String payload2 = template.expand(null);
+        // Then
+        assertThat(payload1, is(not(equalTo(payload2))));
+    }
+
+    @Test
+    void shouldSetNumericOriginalValueAsIs() {
+        // Given
+        SQLiPayloadTemplate template = SQLiPayloadTemplate.compile("AND [ORIGVALUE]=[ORIGVALUE]");
+        // When
+        String payload = template.expand("42");
+        // Then
+        assertThat(payload, is("AND 42=42"));
+    }
+
+    @Test
+    void shouldQuoteNonNumericOriginalValue() {
+        // Given
+        SQLiPayloadTemplate template = SQLiPayloadTemplate.compile("AND [ORIGVALUE]=1");
+        // When
+        String payload = template.expand("abc");
+        // Then
+        assertThat(payload, is("AND 'abc'=1"));
+    }
+
+    @Test
+    void shouldKeepOriginalValuePlaceholderIfNoValue() {
+        // Given
+        SQLiPayloadTemplate template = SQLiPayloadTemplate.compile("AND [ORIGVALUE]=1");
+        // When
+        String payload = template.expand(null);
+        // Then
+        assertThat(payload, is("AND [ORIGVALUE]=1"));
+    }
+
+    @Test
+    void shouldKeepUnknownPlaceholders() {
+        // Given
+        SQLiPayloadTemplate template = SQLiPayloadTemplate.compile("[INFERENCE] [RANDNUMX]");
+        // When
+        String payload = template.expand("1");
+        // Then
+        assertThat(payload, is("[INFERENCE] [RANDNUMX]"));
+    }
+}
@@ -199,10 +199,18 @@ public class Base {
 				}
 	}
 
-	public static java.text.DecimalFormat df = new java.text.DecimalFormat();
-	static {
-		df.setMaximumFractionDigits(4);
-		df.setMinimumFractionDigits(4);
+	/**
+	 * DecimalFormat is not thread safe, each thread formats with its own, the tests might run
+	 * concurrently.
+	 */
+	private static final ThreadLocal<java.text.DecimalFormat> DECIMAL_FORMAT = ThreadLocal
+			.withInitial(Base::newDecimalFormat);
+
+	private static java.text.DecimalFormat newDecimalFormat() {
+		java.text.DecimalFormat format = new java.text.DecimalFormat();
+		format.setMaximumFractionDigits(4);
+		format.setMinimumFractionDigits(4);
+		return format;
 	}
 
 	/**
@@ -217,7 +225,7 @@ public class Base {
 	 * @return double with 4 decimal places (as in C "%.4f")
 	 */
 	public String d4d(double d) {
-		return df.format(d);
+		return DECIMAL_FORMAT.get().format(d);
 	}
 
 	/**
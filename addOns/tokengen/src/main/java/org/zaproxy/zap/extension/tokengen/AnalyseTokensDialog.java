@@ -26,8 +26,10 @@ import java.awt.HeadlessException;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
+import java.text.MessageFormat;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
 import javax.swing.JPanel;
@@ -67,6 +69,7 @@ public class AnalyseTokensDialog extends AbstractDialog implements TokenAnalyser
     private JProgressBar progressBar = null;
 
     TokenAnalyserThread analyserThread = null;
+    private long analysisStartTime;
 
     private static final Logger LOGGER = LogManager.getLogger(AnalyseTokensDialog.class);
 
@@ -162,6 +165,7 @@ public class AnalyseTokensDialog extends AbstractDialog implements TokenAnalyser
 
     public void startAnalysis(CharacterFrequencyMap cfm) {
         this.requestFocus();
+        analysisStartTime = System.currentTimeMillis();
         analyserThread = new TokenAnalyserThread(messages);
         analyserThread.setCfm(cfm);
         analyserThread.addListenner(this);
@@ -189,6 +193,25 @@ public class AnalyseTokensDialog extends AbstractDialog implements TokenAnalyser
             this.getErrorsArea().append("\n");
         }
         this.getProgressBar().setValue(this.getProgressBar().getValue() + 1);
+        updateProgressText();
+    }
+
+    private void updateProgressText() {
+        int done = this.getProgressBar().getValue();
+        int total = this.getProgressBar().getMaximum();
+        if (done >= total) {
+            this.getProgressBar().setString(null);
+            return;
+        }
+        long elapsed = System.currentTimeMillis() - analysisStartTime;
+        long remainingSecs = TimeUnit.MILLISECONDS.toSeconds(elapsed * (total - done) / done);
+        this.getProgressBar()
+                .setString(
+                        MessageFormat.format(
+                                messages.getString("tokengen.analyse.progress"),
+                                done,
+                                total,
+                                String.format("%d:%02d", remainingSecs / 60, remainingSecs % 60)));
     }
 
     private JButton getCancelButton() {
@@ -261,6 +284,7 @@ public class AnalyseTokensDialog extends AbstractDialog implements TokenAnalyser
 
     public void reset() {
         this.getProgressBar().setValue(0);
+        this.getProgressBar().setString(null);
         this.getErrorsArea().setText("");
         this.getDetailsArea().setText("");
         this.getTokenAnalysisResultsTableModel().clear();
@@ -27,6 +27,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -44,7 +45,7 @@ public class CharacterFrequencyMap {
     private static String DEC_CHRS = "-.0123456789";
     private static String HEX_CHRS = "0123456789ABCDEFabcdef";
 
-    private List<String> tokens = new ArrayList<>();
+    private final CompactTokenList tokens = new CompactTokenList();
     private Map<Character, Integer> map = new HashMap<>();
     private char lowestChar = Character.MAX_VALUE;
     private char highestChar = Character.MIN_VALUE;
@@ -57,7 +58,7 @@ public class CharacterFrequencyMap {
     private Map<Integer, Set<Character>> charsPerPosn = new HashMap<>();
     private Set<Character> allChrs = new HashSet<>();
 
-    public void addToken(String token) {
+    public synchronized void addToken(String token) {
         tokens.add(token);
         if (token.length() > maxLength) {
             maxLength = token.length();
@@ -112,7 +113,15 @@ public class CharacterFrequencyMap {
         return Math.log(i) / Math.log(2);
     }
 
-    public double getMaxTheoreticalEntropy() {
+    /**
+     * Gets the maximum theoretical entropy of the tokens, in bits.
+     *
+     * <p>The entropy is updated as the tokens are added, so it can be used as a live estimate while
+     * collecting the tokens.
+     *
+     * @return the maximum theoretical entropy.
+     */
+    public synchronized double getMaxTheoreticalEntropy() {
         double entropy = 0;
         Iterator<Entry<Integer, Set<Character>>> iter = charsPerPosn.entrySet().iterator();
         while (iter.hasNext()) {
@@ -141,15 +150,15 @@ public class CharacterFrequencyMap {
             StringBuilder sb = new StringBuilder();
             sb.append("Col ");
             sb.append(i);
-            for (char c : allChrs) {
-                int instantsOfChr = 0;
-
-                // TODO handle decs as special case?
-                for (String token : tokens) {
-                    if (token != null && token.length() > i && token.charAt(i) == c) {
-                        instantsOfChr++;
-                    }
+            // TODO handle decs as special case?
+            Map<Character, Integer> instantsOfChrs = new HashMap<>();
+            for (int t = 0; t < tokens.size(); t++) {
+                if (tokens.length(t) > i) {
+                    instantsOfChrs.merge(tokens.charAt(t, i), 1, Integer::sum);
                 }
+            }
+            for (char c : allChrs) {
+                int instantsOfChr = instantsOfChrs.getOrDefault(c, 0);
                 sb.append(" ");
                 sb.append(c);
                 sb.append(":");
@@ -236,15 +245,16 @@ public class CharacterFrequencyMap {
             int min = mid - mdev;
             int max = mid + mdev;
 
-            for (String token : tokens) {
+            for (int t = 0; t < tokens.size(); t++) {
                 int j = i + 1;
                 if (j >= maxLength) {
                     j = 0;
                 }
-                if (i < token.length()) {
-                    char c1 = token.charAt(i);
-                    if (j < token.length()) {
-                        char c2 = token.charAt(j);
+                int length = tokens.length(t);
+                if (i < length) {
+                    char c1 = tokens.charAt(t, i);
+                    if (j < length) {
+                        char c2 = tokens.charAt(t, j);
                         trans[c1][c2]++;
                     }
                 }
@@ -332,8 +342,16 @@ public class CharacterFrequencyMap {
         return exceededLong;
     }
 
-    public List<String> getTokens() {
-        return tokens;
+    /**
+     * Gets the tokens.
+     *
+     * <p>The tokens are kept in a compact form, the returned list creates them on access. The list
+     * is a snapshot, the tokens added afterwards are not included.
+     *
+     * @return an unmodifiable list with the tokens.
+     */
+    public synchronized List<String> getTokens() {
+        return Collections.unmodifiableList(tokens.copy());
     }
 
     public BigInteger getBigIntegerToken(int index) {
@@ -381,7 +399,7 @@ public class CharacterFrequencyMap {
 
     public void save(File file) throws IOException {
         try (BufferedWriter out = new BufferedWriter(new FileWriter(file))) {
-            for (String token : tokens) {
+            for (String token : getTokens()) {
                 out.write(token + "\n");
             }
         }
@@ -396,7 +414,7 @@ public class CharacterFrequencyMap {
         }
     }
 
-    public int size() {
+    public synchronized int size() {
         return this.tokens.size();
     }
 
@@ -0,0 +1,160 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.tokengen;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * A list of tokens with the characters of all of them kept in a single array, one byte per
+ * character while all are Latin-1, two bytes otherwise.
+ *
+ * <p>The tokens are created on access, the characters can be accessed without creating them with
+ * {@link #length(int)} and {@link #charAt(int, int)}.
+ */
+class CompactTokenList extends AbstractList<String> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private byte[] latin1 = new byte[INITIAL_CAPACITY];
+    private char[] chars;
+    private int charCount;
+    private int[] offsets = new int[INITIAL_CAPACITY + 1];
+    private int size;
+
+    CompactTokenList() {}
+
+    private CompactTokenList(CompactTokenList other) {
+        latin1 = other.latin1 == null ? null : Arrays.copyOf(other.latin1, other.charCount);
+        chars = other.chars == null ? null : Arrays.copyOf(other.chars, other.charCount);
+        charCount = other.charCount;
+        offsets = Arrays.copyOf(other.offsets, other.size + 1);
+        size = other.size;
+    }
+
+    /**
+     * Creates a copy of this list, not affected by later changes to this list.
+     *
+     * @return the copy.
+     */
+    CompactTokenList copy() {
+        return new CompactTokenList(this);
+    }
+
+    @Override
+    public boolean add(String token) {
+        int length = token.length();
+        if (chars == null && !isLatin1(token)) {
+            chars = new char[Math.max(INITIAL_CAPACITY, latin1.length)];
+            for (int i = 0; i < charCount; i++) {
+                chars[i] = (char) (latin1[i] & 0xFF);
+            }
+            latin1 = null;
+        }
+        ensureCharCapacity(charCount + length);
+        if (chars == null) {
+            for (int i = 0; i < length; i++) {
+                latin1[charCount + i] = (byte) token.charAt(i);
+            }
+        } else {
+            token.getChars(0, length, chars, charCount);
+        }
+        charCount += length;
+
+        if (size + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        size++;
+        offsets[size] = charCount;
+        modCount++;
+        return true;
+    }
+
+    private static boolean isLatin1(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCharCapacity(int capacity) {
+        int current = chars == null ? latin1.length : chars.length;
+        if (capacity <= current) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, current * 2);
+        if (chars == null) {
+            latin1 = Arrays.copyOf(latin1, newCapacity);
+        } else {
+            chars = Arrays.copyOf(chars, newCapacity);
+        }
+    }
+
+    @Override
+    public String get(int index) {
+        checkIndex(index);
+        int start = offsets[index];
+        int length = offsets[index + 1] - start;
+        if (chars == null) {
+            return new String(latin1, start, length, StandardCharsets.ISO_8859_1);
+        }
+        return new String(chars, start, length);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the length of the given token.
+     *
+     * @param index the index of the token.
+     * @return the number of characters of the token.
+     */
+    int length(int index) {
+        checkIndex(index);
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Gets a character of the given token.
+     *
+     * @param index the index of the token.
+     * @param position the position of the character in the token.
+     * @return the character.
+     */
+    char charAt(int index, int position) {
+        int start = offsets[index];
+        if (chars == null) {
+            return (char) (latin1[start + position] & 0xFF);
+        }
+        return chars[start + position];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -61,7 +61,8 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
     private TokenOptionsPanel tokenOptionsPanel;
 
     private List<TokenGenerator> generators = Collections.emptyList();
-    private int runningGenerators = 0;
+    private volatile int runningGenerators = 0;
+    private TokenCollector collector;
     private CharacterFrequencyMap cfm = null;
     private boolean manuallyStopped = false;
 
@@ -243,7 +244,8 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
             msg.setNote(token);
         }
 
-        this.getTokenPanel().addTokenResult(new MessageSummary(msg));
+        // Only the summary is kept, the message is reused by the generator.
+        this.getTokenPanel().addTokenResult(new MessageSummary(msg), cfm);
     }
 
     private TokenGenPopupMenu getPopupTokenGen() {
@@ -315,6 +317,8 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
         int numThreads = this.getTokenParam().getThreadsPerScan();
         this.manuallyStopped = false;
 
+        // The generators claim the tokens from the collector, which collects exactly numGen.
+        collector = new TokenCollector(numGen);
         generators = new ArrayList<>();
 
         for (int i = 0; i < numThreads; i++) {
@@ -323,20 +327,29 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
 
             gen.setExtension(this);
             gen.setHttpMessage(msg);
-            gen.setNumberTokens(numGen / numThreads); // TODO what about remainder?
+            gen.setCollector(collector);
             gen.setTargetToken(htmlParameterStats);
             gen.setRequestDelay(getTokenParam().getRequestDelayInMs(), TimeUnit.MILLISECONDS);
             gen.setShouldRemoveCookie(shouldRemoveCookie);
+            synchronized (this) {
+                this.runningGenerators++;
+            }
             gen.execute();
-            this.runningGenerators++;
         }
     }
 
+    CharacterFrequencyMap getCharacterFrequencyMap() {
+        return cfm;
+    }
+
     protected void generatorStopped(TokenGenerator gen) {
-        this.runningGenerators--;
-        LOGGER.debug("generatorStopped runningGenerators {}", runningGenerators);
+        int running;
+        synchronized (this) {
+            running = --this.runningGenerators;
+        }
+        LOGGER.debug("generatorStopped runningGenerators {}", running);
 
-        if (this.runningGenerators <= 0) {
+        if (running <= 0) {
             LOGGER.debug("generatorStopped scanFinished");
             this.getTokenPanel().scanFinshed();
 
@@ -348,20 +361,20 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
 
     public void stopTokenGeneration() {
         this.manuallyStopped = true;
-        for (TokenGenerator gen : generators) {
-            gen.stopGenerating();
+        if (collector != null) {
+            collector.stop();
         }
     }
 
     public void pauseTokenGeneration() {
-        for (TokenGenerator gen : generators) {
-            gen.setPaused(true);
+        if (collector != null) {
+            collector.setPaused(true);
         }
     }
 
     public void resumeTokenGeneration() {
-        for (TokenGenerator gen : generators) {
-            gen.setPaused(false);
+        if (collector != null) {
+            collector.setPaused(false);
         }
     }
 
@@ -29,8 +29,20 @@ import com.fasteasytrade.JRandTest.Tests.Count3Bits;
 import com.fasteasytrade.JRandTest.Tests.Count4Bits;
 import com.fasteasytrade.JRandTest.Tests.Count8Bits;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.zaproxy.zap.extension.tokengen.TokenAnalysisTestResult.Result;
@@ -42,10 +54,25 @@ public class TokenAnalyserThread extends Thread {
     private CharacterFrequencyMap cfm = null;
     private List<TokenAnalyserListenner> listeners = new ArrayList<>();
     private OutputDestination outputDestination = null;
-    private boolean cancelled = false;
+    private volatile boolean cancelled = false;
 
     private static final Logger LOGGER = LogManager.getLogger(TokenAnalyserThread.class);
 
+    private static final long CANCEL_CHECK_INTERVAL_MS = 250;
+
+    private static final Map<TokenAnalysisTestResult.Type, Supplier<Base>> BITSTREAM_TESTS;
+
+    static {
+        Map<TokenAnalysisTestResult.Type, Supplier<Base>> tests = new LinkedHashMap<>();
+        tests.put(TokenAnalysisTestResult.Type.COUNT_1_BIT, Count1Bit::new);
+        tests.put(TokenAnalysisTestResult.Type.COUNT_2_BITS, Count2Bits::new);
+        tests.put(TokenAnalysisTestResult.Type.COUNT_3_BITS, Count3Bits::new);
+        tests.put(TokenAnalysisTestResult.Type.COUNT_4_BITS, Count4Bits::new);
+        tests.put(TokenAnalysisTestResult.Type.COUNT_8_BITS, Count8Bits::new);
+        tests.put(TokenAnalysisTestResult.Type.COUNT_16_BITS, Count16Bits::new);
+        BITSTREAM_TESTS = Collections.unmodifiableMap(tests);
+    }
+
     private ResourceBundle messages;
 
     public TokenAnalyserThread(ResourceBundle messages) {
@@ -106,33 +133,76 @@ public class TokenAnalyserThread extends Thread {
             return;
         }
 
-        TokenRandomStream trs = new TokenRandomStream(cfm);
-
-        runTest(new Count1Bit(), trs, TokenAnalysisTestResult.Type.COUNT_1_BIT);
-        runTest(new Count2Bits(), trs, TokenAnalysisTestResult.Type.COUNT_2_BITS);
-        runTest(new Count3Bits(), trs, TokenAnalysisTestResult.Type.COUNT_3_BITS);
-        runTest(new Count4Bits(), trs, TokenAnalysisTestResult.Type.COUNT_4_BITS);
-        runTest(new Count8Bits(), trs, TokenAnalysisTestResult.Type.COUNT_8_BITS);
-        runTest(new Count16Bits(), trs, TokenAnalysisTestResult.Type.COUNT_16_BITS);
+        // The tests are independent, each reads the tokens through its own stream. The results
+        // and output are notified in the order of the tests, as if run one after the other.
+        TokenBitstream bitstream = TokenBitstream.create(cfm);
+        List<Future<TestRun>> runs = new ArrayList<>();
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.min(
+                                BITSTREAM_TESTS.size(), Runtime.getRuntime().availableProcessors()),
+                        new TestThreadFactory());
+        try {
+            for (Map.Entry<TokenAnalysisTestResult.Type, Supplier<Base>> test :
+                    BITSTREAM_TESTS.entrySet()) {
+                runs.add(
+                        executor.submit(
+                                () ->
+                                        runTest(
+                                                test.getValue().get(),
+                                                bitstream.newStream(),
+                                                test.getKey())));
+            }
+            for (Future<TestRun> run : runs) {
+                TestRun testRun = waitForRun(run);
+                if (testRun == null) {
+                    return;
+                }
+                if (outputDestination != null) {
+                    testRun.getOutput().forEach(outputDestination::printf);
+                }
+                if (testRun.getResult() != null) {
+                    this.notifyListenners(testRun.getResult());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
-    private void runTest(Base test, RandomStream rs, TokenAnalysisTestResult.Type type) {
-        if (cancelled) {
-            return;
+    private TestRun waitForRun(Future<TestRun> run) {
+        while (!cancelled) {
+            try {
+                return run.get(CANCEL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Check if cancelled.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                LOGGER.error(e.getMessage(), e);
+                return null;
+            }
         }
+        return null;
+    }
+
+    static TestRun runTest(Base test, RandomStream rs, TokenAnalysisTestResult.Type type) {
+        TestRun run = new TestRun();
         try {
             TokenAnalysisTestResult result = new TokenAnalysisTestResult(type);
             test.registerInput(rs);
-            test.addOutputDestination(this.outputDestination);
+            test.addOutputDestination(run);
             test.runTest();
             result.setDetails(test.getDetails());
             result.setFailures(test.getErrors());
             result.setResult(Result.valueOf(test.getResult().name()));
             test.help(); // This outputs a summary to the specified outputDestination
-            this.notifyListenners(result);
+            run.result = result;
         } catch (Exception e) {
             LOGGER.error(e.getMessage(), e);
         }
+        return run;
     }
 
     private void notifyListenners(TokenAnalysisTestResult result) {
@@ -158,4 +228,41 @@ public class TokenAnalyserThread extends Thread {
     public void addOutputDestination(OutputDestination outputDestination) {
         this.outputDestination = outputDestination;
     }
+
+    /** The result of a test, and its output, kept until notified. */
+    static class TestRun implements OutputDestination {
+
+        private final List<String> output = new ArrayList<>();
+        private TokenAnalysisTestResult result;
+
+        @Override
+        public void printf(String s) {
+            output.add(s);
+        }
+
+        @Override
+        public void puts(String s) {
+            output.add(s);
+        }
+
+        TokenAnalysisTestResult getResult() {
+            return result;
+        }
+
+        List<String> getOutput() {
+            return output;
+        }
+    }
+
+    private static class TestThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "ZAP-TokenAnalyser-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
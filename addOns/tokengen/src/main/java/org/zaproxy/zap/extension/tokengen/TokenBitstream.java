@@ -0,0 +1,175 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.tokengen;
+
+import com.fasteasytrade.JRandTest.IO.RandomStream;
+import java.util.Arrays;
+
+/**
+ * The bytes of all the tokens of a {@link CharacterFrequencyMap}, decoded once.
+ *
+ * <p>The bitstream is read-only, each test reads it through its own {@link #newStream() stream}.
+ * The streams read the bytes as big-endian numbers, across the tokens, and return -1 once closed.
+ */
+public class TokenBitstream {
+
+    private final byte[] data;
+    private final Exception error;
+    private final boolean errorOnOpen;
+
+    private TokenBitstream(byte[] data, Exception error, boolean errorOnOpen) {
+        this.data = data;
+        this.error = error;
+        this.errorOnOpen = errorOnOpen;
+    }
+
+    /**
+     * Decodes the tokens of the given map.
+     *
+     * <p>A token that can not be read (for example, empty or not valid hex) ends the bitstream, the
+     * streams fail when reading past its end.
+     *
+     * @param cfm the map with the tokens.
+     * @return the bitstream of the tokens.
+     */
+    public static TokenBitstream create(CharacterFrequencyMap cfm) {
+        byte[] data = new byte[1024];
+        int length = 0;
+        Exception error = null;
+        boolean errorOnOpen = false;
+        for (int i = 0; ; i++) {
+            byte[] token;
+            try {
+                token = cfm.getByteArrayToken(i);
+            } catch (Exception e) {
+                error = e;
+                // The first token is decoded when opening the stream.
+                errorOnOpen = i == 0;
+                break;
+            }
+            if (token == null) {
+                break;
+            }
+            if (token.length == 0) {
+                error = new IllegalStateException("Token " + i + " has no bytes.");
+                break;
+            }
+            if (length + token.length > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + token.length));
+            }
+            System.arraycopy(token, 0, data, length, token.length);
+            length += token.length;
+        }
+        return new TokenBitstream(Arrays.copyOf(data, length), error, errorOnOpen);
+    }
+
+    /**
+     * Gets the number of bytes of the bitstream.
+     *
+     * @return the number of bytes.
+     */
+    public int length() {
+        return data.length;
+    }
+
+    /**
+     * Creates a new stream over the bitstream, the streams are independent of each other.
+     *
+     * @return the new stream.
+     */
+    public RandomStream newStream() {
+        return new Stream();
+    }
+
+    private class Stream implements RandomStream {
+
+        private String fileName = "TokenBitstream";
+        private int position;
+        private boolean open = true;
+
+        @Override
+        public boolean closeInputStream() {
+            open = false;
+            return true;
+        }
+
+        @Override
+        public String getFilename() {
+            return fileName;
+        }
+
+        @Override
+        public void setFilename(String fileName) {
+            this.fileName = fileName;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public boolean openInputStream() throws Exception {
+            position = 0;
+            open = data.length != 0 || error != null;
+            if (errorOnOpen) {
+                throw error;
+            }
+            return true;
+        }
+
+        /**
+         * Reads the given number of bytes as a big-endian number, or returns -1 if the stream is
+         * closed before reading all the bytes.
+         */
+        private long readNumber(int sizeInBytes) throws Exception {
+            long value = 0;
+            for (int i = 0; i < sizeInBytes; i++) {
+                if (!open) {
+                    return -1;
+                }
+                if (position >= data.length) {
+                    throw error;
+                }
+                value = (value << 8) | (data[position] & 0xFF);
+                position++;
+                if (position >= data.length && error == null) {
+                    open = false;
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public byte readByte() throws Exception {
+            return (byte) readNumber(1);
+        }
+
+        @Override
+        public int readInt() throws Exception {
+            return (int) readNumber(4);
+        }
+
+        @Override
+        public long readLong() throws Exception {
+            return readNumber(8);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.tokengen;
+
+/**
+ * The state of a token collection shared by the {@link TokenGenerator}s: the tokens still to
+ * collect, and whether the collection is paused or stopped.
+ *
+ * <p>The generators claim each token before sending the request, so that the exact number of tokens
+ * is collected regardless of the number of generators and their speed.
+ */
+public class TokenCollector {
+
+    private int remaining;
+    private boolean paused;
+    private boolean stopped;
+
+    /**
+     * Constructs a {@code TokenCollector} with the given number of tokens to collect.
+     *
+     * @param numberTokens the number of tokens to collect.
+     */
+    public TokenCollector(int numberTokens) {
+        this.remaining = numberTokens;
+    }
+
+    /**
+     * Claims a token to collect, waiting while the collection is paused.
+     *
+     * @return {@code true} if the token was claimed, {@code false} if there are no more tokens to
+     *     collect or the collection was stopped.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public synchronized boolean claim() throws InterruptedException {
+        while (paused && !stopped) {
+            wait();
+        }
+        if (stopped || remaining <= 0) {
+            return false;
+        }
+        remaining--;
+        return true;
+    }
+
+    /**
+     * Releases a claimed token, for example, if it could not be collected and should be retried.
+     */
+    public synchronized void release() {
+        remaining++;
+    }
+
+    /**
+     * Gets the number of tokens not yet claimed.
+     *
+     * @return the number of tokens.
+     */
+    public synchronized int getRemaining() {
+        return remaining;
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    public synchronized void setPaused(boolean paused) {
+        this.paused = paused;
+        notifyAll();
+    }
+
+    public synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    /** Stops the collection, no more tokens can be claimed. */
+    public synchronized void stop() {
+        stopped = true;
+        notifyAll();
+    }
+}
@@ -20,6 +20,7 @@
 package org.zaproxy.zap.extension.tokengen;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import javax.swing.table.AbstractTableModel;
@@ -46,6 +47,9 @@ public class TokenGenMessagesTableModel extends AbstractTableModel {
 
     private static final int COLUMN_COUNT = COLUMN_NAMES.length;
 
+    /** The maximum number of messages kept, to bound the memory used by long collections. */
+    public static final int MAX_MESSAGES = 10_000;
+
     private List<MessageSummary> messages = new ArrayList<>();
 
     public TokenGenMessagesTableModel() {
@@ -118,10 +122,35 @@ public class TokenGenMessagesTableModel extends AbstractTableModel {
     }
 
     public void addMessage(MessageSummary message) {
+        addMessages(Collections.singletonList(message));
+    }
+
+    /**
+     * Adds the given messages, removing the oldest ones if more than {@link #MAX_MESSAGES} would be
+     * kept.
+     *
+     * @param newMessages the messages to add.
+     */
+    public void addMessages(List<MessageSummary> newMessages) {
+        if (newMessages.isEmpty()) {
+            return;
+        }
+        int excess = messages.size() + newMessages.size() - MAX_MESSAGES;
+        if (excess > 0) {
+            int removed = Math.min(excess, messages.size());
+            if (removed > 0) {
+                messages.subList(0, removed).clear();
+                fireTableRowsDeleted(0, removed - 1);
+            }
+            if (newMessages.size() > MAX_MESSAGES) {
+                newMessages =
+                        newMessages.subList(newMessages.size() - MAX_MESSAGES, newMessages.size());
+            }
+        }
         int index = messages.size();
-        messages.add(message);
+        messages.addAll(newMessages);
 
-        fireTableRowsInserted(index, index);
+        fireTableRowsInserted(index, messages.size() - 1);
     }
 
     public void clear() {
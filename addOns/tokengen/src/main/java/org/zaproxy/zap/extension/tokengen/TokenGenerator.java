@@ -29,6 +29,7 @@ import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.network.HtmlParameter;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpResponseHeader;
 import org.parosproxy.paros.network.HttpSender;
 import org.zaproxy.zap.extension.params.HtmlParameterStats;
 
@@ -39,8 +40,7 @@ public class TokenGenerator extends SwingWorker<Void, Void> {
     private HttpSender httpSender = null;
     private HtmlParameterStats targetToken = null;
     private ExtensionTokenGen extension = null;
-    private boolean stopGenerating = false;
-    private boolean paused = false;
+    private TokenCollector collector;
     private long requestDelayDuration;
     private TimeUnit requestDelayTimeUnit;
     private boolean shouldRemoveCookie = false;
@@ -81,38 +81,54 @@ public class TokenGenerator extends SwingWorker<Void, Void> {
             msg.getRequestHeader().setHeader(HttpHeader.COOKIE, null);
         }
 
-        for (int i = 0; i < numberTokens; i++) {
-            while (paused && !this.stopGenerating) {
+        TokenCollector tokenCollector = getCollector();
+        try {
+            while (tokenCollector.claim()) {
+                requestDelayTimeUnit.sleep(requestDelayDuration);
+
+                // The message is reused, do not keep the response (and token) of the previous one.
+                msg.setResponseHeader(new HttpResponseHeader());
+                msg.setResponseBody("");
+                msg.setNote(null);
                 try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    // Ignore
+                    this.getHttpSender().sendAndReceive(msg, true);
+                } catch (SocketTimeoutException ste) {
+                    LOGGER.debug(
+                            "A timeout occurred while sending a request to generate a token. Initiating supplemental request.");
+                    tokenCollector.release();
+                    continue;
+                } catch (Exception e) {
+                    LOGGER.error(e.getMessage(), e);
                 }
+                this.extension.addTokenResult(msg, targetToken);
             }
-            if (this.stopGenerating) {
-                break;
-            }
-
-            requestDelayTimeUnit.sleep(requestDelayDuration);
-
-            try {
-                this.getHttpSender().sendAndReceive(msg, true);
-            } catch (SocketTimeoutException ste) {
-                LOGGER.debug(
-                        "A timeout occurred while sending a request to generate a token. Reducing sent count, initiating supplemental request.");
-                i--;
-            } catch (Exception e) {
-                LOGGER.error(e.getMessage(), e);
-            }
-            this.extension.addTokenResult(msg, targetToken);
+        } finally {
+            this.extension.generatorStopped(this);
         }
-        this.extension.generatorStopped(this);
     }
 
     public void setNumberTokens(int numberTokens) {
         this.numberTokens = numberTokens;
     }
 
+    /**
+     * Sets the collector shared with other generators, from which the tokens to collect are
+     * claimed. If not set the generator collects the {@link #setNumberTokens(int) number of tokens}
+     * by itself.
+     *
+     * @param collector the collector.
+     */
+    public void setCollector(TokenCollector collector) {
+        this.collector = collector;
+    }
+
+    private synchronized TokenCollector getCollector() {
+        if (collector == null) {
+            collector = new TokenCollector(numberTokens);
+        }
+        return collector;
+    }
+
     public void setHttpMessage(HttpMessage httpMessage) {
         this.httpMessage = httpMessage;
     }
@@ -126,7 +142,7 @@ public class TokenGenerator extends SwingWorker<Void, Void> {
     }
 
     public void stopGenerating() {
-        this.stopGenerating = true;
+        getCollector().stop();
     }
 
     public void setExtension(ExtensionTokenGen extension) {
@@ -134,11 +150,11 @@ public class TokenGenerator extends SwingWorker<Void, Void> {
     }
 
     public boolean isPaused() {
-        return paused;
+        return getCollector().isPaused();
     }
 
     public void setPaused(boolean paused) {
-        this.paused = paused;
+        getCollector().setPaused(paused);
     }
 
     public void setRequestDelay(long duration, TimeUnit timeUnit) {
@@ -24,6 +24,12 @@ import java.awt.EventQueue;
 import java.awt.GridBagConstraints;
 import java.awt.event.KeyEvent;
 import java.io.File;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
@@ -67,6 +73,9 @@ public class TokenPanel extends AbstractPanel {
     private JToolBar panelToolbar = null;
     private JScrollPane jScrollPane = null;
     private TokenGenMessagesTableModel resultsModel = new TokenGenMessagesTableModel();
+    private final Queue<MessageSummary> pendingResults = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean updatePending = new AtomicBoolean();
+    private volatile CharacterFrequencyMap liveTokens;
     private JTextPane initialMessage = null;
 
     private JButton stopScanButton = null;
@@ -333,6 +342,9 @@ public class TokenPanel extends AbstractPanel {
     }
 
     private void resetTokenResultList() {
+        pendingResults.clear();
+        liveTokens = null;
+        getProgressBar().setString(null);
         resultsModel.clear();
     }
 
@@ -341,17 +353,49 @@ public class TokenPanel extends AbstractPanel {
     }
 
     protected void addTokenResult(final MessageSummary msg) {
+        addTokenResult(msg, null);
+    }
 
-        if (EventQueue.isDispatchThread()) {
-            resultsModel.addMessage(msg);
-            if (msg.isGoodResponse()) {
-                getProgressBar().setValue(getProgressBar().getValue() + 1);
-            }
+    /**
+     * Adds the given result, and shows the maximum theoretical entropy of the given tokens.
+     *
+     * <p>The results are added to the table in batches, to not flood the EDT when collecting the
+     * tokens at high rates.
+     *
+     * @param msg the summary of the message.
+     * @param cfm the tokens collected so far, might be {@code null}.
+     */
+    protected void addTokenResult(MessageSummary msg, CharacterFrequencyMap cfm) {
+        liveTokens = cfm;
+        pendingResults.add(msg);
+        if (updatePending.compareAndSet(false, true)) {
+            EventQueue.invokeLater(this::addPendingResults);
+        }
+    }
+
+    private void addPendingResults() {
+        updatePending.set(false);
+        List<MessageSummary> results = new ArrayList<>();
+        MessageSummary result;
+        while ((result = pendingResults.poll()) != null) {
+            results.add(result);
+        }
+        if (results.isEmpty()) {
             return;
         }
-        try {
-            EventQueue.invokeLater(() -> addTokenResult(msg));
-        } catch (Exception e) {
+
+        resultsModel.addMessages(results);
+        int goodResponses = (int) results.stream().filter(MessageSummary::isGoodResponse).count();
+        getProgressBar().setValue(getProgressBar().getValue() + goodResponses);
+
+        CharacterFrequencyMap cfm = liveTokens;
+        if (cfm != null) {
+            getProgressBar()
+                    .setString(
+                            MessageFormat.format(
+                                    extension.getMessages().getString("tokengen.panel.progress"),
+                                    (int) (getProgressBar().getPercentComplete() * 100),
+                                    String.format("%.2f", cfm.getMaxTheoreticalEntropy())));
         }
     }
 
@@ -411,17 +455,12 @@ public class TokenPanel extends AbstractPanel {
                     return;
                 }
 
-                CharacterFrequencyMap cfm = new CharacterFrequencyMap();
-
-                for (int i = 0; i < this.resultsModel.getRowCount(); i++) {
-                    MessageSummary msg = this.resultsModel.getMessage(i);
-                    if (msg.getToken() != null) {
-                        cfm.addToken(msg.getToken());
-                    }
+                // The table does not show all the results, save the tokens collected.
+                CharacterFrequencyMap cfm = extension.getCharacterFrequencyMap();
+                if (cfm != null) {
+                    cfm.save(file);
                 }
 
-                cfm.save(file);
-
             } catch (Exception e) {
                 View.getSingleton()
                         .showWarningDialog(
@@ -26,6 +26,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 /** Unit test for {@link CharacterFrequencyMap}. */
@@ -97,4 +98,17 @@ class CharacterFrequencyMapUnitTest {
                 contains("Col 0 A:1 B:1 C:1", "Col 1 A:1 B:1 C:1", "Col 2 A:1 B:1 C:1"));
         assertThat(result.getSummary(), is(nullValue()));
     }
+
+    @Test
+    void shouldGetSnapshotOfTokens() {
+        // Given
+        CharacterFrequencyMap cfm = new CharacterFrequencyMap();
+        cfm.addToken("ABC");
+        // When
+        List<String> tokens = cfm.getTokens();
+        cfm.addToken("BCA");
+        // Then
+        assertThat(tokens, contains("ABC"));
+        assertThat(cfm.getTokens(), contains("ABC", "BCA"));
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.tokengen;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link CompactTokenList}. */
+class CompactTokenListUnitTest {
+
+    @Test
+    void shouldKeepLatin1Tokens() {
+        // Given
+        CompactTokenList tokens = new CompactTokenList();
+        // When
+        tokens.add("abc");
+        tokens.add("");
+        tokens.add("éÿ0");
+        // Then
+        assertThat(tokens, contains("abc", "", "éÿ0"));
+        assertThat(tokens.length(0), is(equalTo(3)));
+        assertThat(tokens.length(1), is(equalTo(0)));
+        assertThat(tokens.charAt(2, 1), is(equalTo('ÿ')));
+    }
+
+    @Test
+    void shouldKeepTokensWithCharsNotLatin1() {
+        // Given
+        CompactTokenList tokens = new CompactTokenList();
+        tokens.add("abc");
+        // When
+        tokens.add("€1");
+        tokens.add("é");
+        // Then
+        assertThat(tokens, contains("abc", "€1", "é"));
+        assertThat(tokens.charAt(1, 0), is(equalTo('€')));
+        assertThat(tokens.charAt(2, 0), is(equalTo('é')));
+    }
+
+    @Test
+    void shouldKeepManyTokens() {
+        // Given
+        CompactTokenList tokens = new CompactTokenList();
+        List<String> expected = new ArrayList<>();
+        // When
+        for (int i = 0; i < 5000; i++) {
+            String token = "token" + i;
+            tokens.add(token);
+            expected.add(token);
+        }
+        // Then
+        assertThat(tokens, is(equalTo(expected)));
+    }
+
+    @Test
+    void shouldNotGetTokenOutOfBounds() {
+        // Given
+        CompactTokenList tokens = new CompactTokenList();
+        tokens.add("abc");
+        // When / Then
+        assertThrows(IndexOutOfBoundsException.class, () -> tokens.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tokens.get(-1));
+    }
+
+    @Test
+    void shouldNotBeModifiableOtherThanAdding() {
+        // Given
+        CompactTokenList tokens = new CompactTokenList();
+        tokens.add("abc");
+        // When / Then
+        assertThrows(UnsupportedOperationException.class, () -> tokens.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> tokens.set(0, "x"));
+    }
+
+    @Test
+    void shouldCopyTokensNotAffectedByLaterAdds() {
+        // Given
+        CompactTokenList tokens = new CompactTokenList();
+        tokens.add("abc");
+        tokens.add("def");
+        // When
+        CompactTokenList copy = tokens.copy();
+        tokens.add("g€");
+        // Then
+        assertThat(copy, contains("abc", "def"));
+        assertThat(tokens, contains("abc", "def", "g€"));
+    }
+}
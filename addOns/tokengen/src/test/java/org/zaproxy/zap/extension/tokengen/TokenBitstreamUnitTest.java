@@ -0,0 +1,167 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.tokengen;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasteasytrade.JRandTest.IO.RandomStream;
+import com.fasteasytrade.JRandTest.Tests.Base;
+import com.fasteasytrade.JRandTest.Tests.Count16Bits;
+import com.fasteasytrade.JRandTest.Tests.Count1Bit;
+import com.fasteasytrade.JRandTest.Tests.Count3Bits;
+import com.fasteasytrade.JRandTest.Tests.Count8Bits;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.ResourceBundle;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.zaproxy.zap.extension.tokengen.TokenAnalyserThread.TestRun;
+
+/** Unit test for {@link TokenBitstream}. */
+class TokenBitstreamUnitTest {
+
+    @BeforeAll
+    static void setUpResourceBundle() {
+        TokenAnalysisTestResult.setResourceBundle(
+                ResourceBundle.getBundle("org.zaproxy.zap.extension.tokengen.resources.Messages"));
+    }
+
+    static Stream<CharacterFrequencyMap> tokens() {
+        Random random = new Random(42);
+        CharacterFrequencyMap text = new CharacterFrequencyMap();
+        CharacterFrequencyMap hex = new CharacterFrequencyMap();
+        CharacterFrequencyMap decimal = new CharacterFrequencyMap();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder token = new StringBuilder();
+            for (int j = 0; j < 3 + random.nextInt(20); j++) {
+                token.append((char) ('!' + random.nextInt(90)));
+            }
+            text.addToken(token.toString());
+            hex.addToken(String.format("%08x%04x", random.nextInt(), random.nextInt(65536)));
+            decimal.addToken(Long.toString(Math.abs(random.nextLong())));
+        }
+        return Stream.of(text, hex, decimal, new CharacterFrequencyMap());
+    }
+
+    @Test
+    void shouldReadBytesOfAllTokensInOrder() throws Exception {
+        // Given
+        CharacterFrequencyMap cfm = new CharacterFrequencyMap();
+        cfm.addToken("0a1b2c3d");
+        cfm.addToken("4e5f6071");
+        cfm.addToken("8293a4b5");
+        RandomStream stream = TokenBitstream.create(cfm).newStream();
+        stream.openInputStream();
+        // When
+        byte first = stream.readByte();
+        int second = stream.readInt();
+        long third = stream.readLong();
+        // Then
+        assertThat(first, is(equalTo((byte) 0x0a)));
+        assertThat(second, is(equalTo(0x1b2c3d4e)));
+        assertThat(third, is(equalTo(-1L)));
+        assertThat(stream.isOpen(), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldAlwaysReturnMinusOneWhenStreamIsClosed() throws Exception {
+        // Given
+        CharacterFrequencyMap cfm = new CharacterFrequencyMap();
+        cfm.addToken("0a1b2c3d");
+        RandomStream stream = TokenBitstream.create(cfm).newStream();
+        stream.openInputStream();
+        stream.closeInputStream();
+        // When / Then
+        assertThat(stream.readByte(), is((byte) -1));
+        assertThat(stream.readInt(), is(-1));
+        assertThat(stream.readLong(), is(-1L));
+    }
+
+    @Test
+    void shouldNotBeOpenIfNoTokens() throws Exception {
+        // Given
+        RandomStream stream = TokenBitstream.create(new CharacterFrequencyMap()).newStream();
+        // When
+        stream.openInputStream();
+        // Then
+        assertThat(stream.isOpen(), is(equalTo(false)));
+        assertThat(stream.readLong(), is(-1L));
+    }
+
+    @ParameterizedTest
+    @MethodSource("tokens")
+    void shouldHaveSameTestResultsForEachStream(CharacterFrequencyMap cfm) {
+        // Given
+        TokenBitstream bitstream = TokenBitstream.create(cfm);
+        List<TestRun> expected = new ArrayList<>();
+        List<TestRun> runs = new ArrayList<>();
+        // When
+        expected.add(run(new Count1Bit(), bitstream.newStream()));
+        expected.add(run(new Count3Bits(), bitstream.newStream()));
+        expected.add(run(new Count8Bits(), bitstream.newStream()));
+        expected.add(run(new Count16Bits(), bitstream.newStream()));
+        runs.add(run(new Count16Bits(), bitstream.newStream()));
+        runs.add(run(new Count8Bits(), bitstream.newStream()));
+        runs.add(run(new Count3Bits(), bitstream.newStream()));
+        runs.add(run(new Count1Bit(), bitstream.newStream()));
+        Collections.reverse(runs);
+        // Then
+        for (int i = 0; i < expected.size(); i++) {
+            TokenAnalysisTestResult expectedResult = expected.get(i).getResult();
+            TokenAnalysisTestResult result = runs.get(i).getResult();
+            assertThat(result, is(notNullValue()));
+            assertThat(result.getResult(), is(equalTo(expectedResult.getResult())));
+            assertThat(result.getDetails(), is(equalTo(expectedResult.getDetails())));
+            assertThat(result.getFailures(), is(equalTo(expectedResult.getFailures())));
+            assertThat(runs.get(i).getOutput(), is(equalTo(expected.get(i).getOutput())));
+        }
+    }
+
+    @Test
+    void shouldFailReadingPastTokenNotValid() throws Exception {
+        // Given
+        CharacterFrequencyMap cfm = new CharacterFrequencyMap();
+        cfm.addToken("abcd");
+        cfm.addToken("abc");
+        RandomStream stream = TokenBitstream.create(cfm).newStream();
+        stream.openInputStream();
+        // When
+        byte first = stream.readByte();
+        byte second = stream.readByte();
+        // Then
+        assertThat(first, is(equalTo((byte) 0xab)));
+        assertThat(second, is(equalTo((byte) 0xcd)));
+        assertThat(stream.isOpen(), is(equalTo(true)));
+        assertThrows(Exception.class, stream::readByte);
+    }
+
+    private static TestRun run(Base test, RandomStream stream) {
+        return TokenAnalyserThread.runTest(test, stream, TokenAnalysisTestResult.Type.COUNT_1_BIT);
+    }
+}
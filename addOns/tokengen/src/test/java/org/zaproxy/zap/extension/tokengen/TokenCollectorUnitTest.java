@@ -0,0 +1,118 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2024 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.tokengen;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link TokenCollector}. */
+class TokenCollectorUnitTest {
+
+    @Test
+    void shouldClaimExactNumberOfTokensAcrossThreads() throws Exception {
+        // Given
+        TokenCollector collector = new TokenCollector(1003);
+        AtomicInteger claimed = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            threads.add(new Thread(() -> claimAll(collector, claimed)));
+        }
+        // When
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Then
+        assertThat(claimed.get(), is(equalTo(1003)));
+        assertThat(collector.getRemaining(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldClaimAgainReleasedToken() throws Exception {
+        // Given
+        TokenCollector collector = new TokenCollector(1);
+        collector.claim();
+        // When
+        collector.release();
+        // Then
+        assertThat(collector.claim(), is(equalTo(true)));
+        assertThat(collector.claim(), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldNotClaimTokensWhenStopped() throws Exception {
+        // Given
+        TokenCollector collector = new TokenCollector(10);
+        // When
+        collector.stop();
+        // Then
+        assertThat(collector.claim(), is(equalTo(false)));
+        assertThat(collector.getRemaining(), is(equalTo(10)));
+    }
+
+    @Test
+    void shouldWaitWhilePaused() throws Exception {
+        // Given
+        TokenCollector collector = new TokenCollector(10);
+        collector.setPaused(true);
+        AtomicInteger claimed = new AtomicInteger();
+        Thread thread = new Thread(() -> claimAll(collector, claimed));
+        // When
+        thread.start();
+        thread.join(200);
+        int claimedWhilePaused = claimed.get();
+        collector.setPaused(false);
+        thread.join();
+        // Then
+        assertThat(claimedWhilePaused, is(equalTo(0)));
+        assertThat(claimed.get(), is(equalTo(10)));
+    }
+
+    @Test
+    void shouldStopWhilePaused() throws Exception {
+        // Given
+        TokenCollector collector = new TokenCollector(10);
+        collector.setPaused(true);
+        AtomicInteger claimed = new AtomicInteger();
+        Thread thread = new Thread(() -> claimAll(collector, claimed));
+        thread.start();
+        // When
+        collector.stop();
+        thread.join();
+        // Then
+        assertThat(claimed.get(), is(equalTo(0)));
+    }
+
+    private static void claimAll(TokenCollector collector, AtomicInteger claimed) {
+        try {
+            while (collector.claim()) {
+                claimed.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}